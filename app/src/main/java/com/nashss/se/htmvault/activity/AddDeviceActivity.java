@@ -5,8 +5,7 @@ import com.nashss.se.htmvault.activity.results.AddDeviceResult;
 import com.nashss.se.htmvault.converters.LocalDateConverter;
 import com.nashss.se.htmvault.converters.ModelConverter;
 import com.nashss.se.htmvault.dynamodb.DeviceDao;
-import com.nashss.se.htmvault.dynamodb.FacilityDepartmentDao;
-import com.nashss.se.htmvault.dynamodb.ManufacturerModelDao;
+import com.nashss.se.htmvault.dynamodb.ReferenceDataCache;
 import com.nashss.se.htmvault.dynamodb.models.Device;
 import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
 import com.nashss.se.htmvault.exceptions.DevicePreviouslyAddedException;
@@ -31,25 +30,22 @@ import static com.nashss.se.htmvault.utils.NullUtils.ifNull;
 public class AddDeviceActivity {
 
     private final DeviceDao deviceDao;
-    private final ManufacturerModelDao manufacturerModelDao;
-    private final FacilityDepartmentDao facilityDepartmentDao;
+    private final ReferenceDataCache referenceDataCache;
     private final Logger log = LogManager.getLogger();
     private final MetricsPublisher metricsPublisher;
 
     /**
      * Instantiates a new Add device activity.
      *
-     * @param deviceDao             the device dao
-     * @param manufacturerModelDao  the manufacturer model dao
-     * @param facilityDepartmentDao the facility department dao
-     * @param metricsPublisher      the metrics publisher
+     * @param deviceDao          the device dao
+     * @param referenceDataCache the reference data (manufacturer/model and facility/department) cache
+     * @param metricsPublisher   the metrics publisher
      */
     @Inject
-    public AddDeviceActivity(DeviceDao deviceDao, ManufacturerModelDao manufacturerModelDao,
-                             FacilityDepartmentDao facilityDepartmentDao, MetricsPublisher metricsPublisher) {
+    public AddDeviceActivity(DeviceDao deviceDao, ReferenceDataCache referenceDataCache,
+                             MetricsPublisher metricsPublisher) {
         this.deviceDao = deviceDao;
-        this.manufacturerModelDao = manufacturerModelDao;
-        this.facilityDepartmentDao = facilityDepartmentDao;
+        this.referenceDataCache = referenceDataCache;
         this.metricsPublisher = metricsPublisher;
     }
 
@@ -80,7 +76,7 @@ public class AddDeviceActivity {
         validateRequestAttribute("Model", model, HTMVaultServiceUtils.ALPHA_NUMERIC_SPACE_OR_DASH);
         ManufacturerModel manufacturerModel;
         try {
-            manufacturerModel = manufacturerModelDao.getManufacturerModel(manufacturer, model);
+            manufacturerModel = referenceDataCache.getManufacturerModel(manufacturer, model);
         } catch (ManufacturerModelNotFoundException e) {
             metricsPublisher.addCount(MetricsConstants.ADDDEVICE_INVALIDATTRIBUTEVALUE_COUNT, 1);
             log.info("The manufacturer/model combination specified ({}/{}) while attempting to add a new " +
@@ -113,7 +109,7 @@ public class AddDeviceActivity {
         validateRequestAttribute("Assigned Department", assignedDepartment,
                 HTMVaultServiceUtils.ALPHA_NUMERIC_SPACE_OR_DASH);
         try {
-            facilityDepartmentDao.getFacilityDepartment(facilityName, assignedDepartment);
+            referenceDataCache.getFacilityDepartment(facilityName, assignedDepartment);
         } catch (FacilityDepartmentNotFoundException e) {
             metricsPublisher.addCount(MetricsConstants.ADDDEVICE_INVALIDATTRIBUTEVALUE_COUNT, 1);
             log.info("The facility/department combination specified ({}/{}) while attempting to add a new " +
@@ -126,7 +122,7 @@ public class AddDeviceActivity {
         String manufactureDate = addDeviceRequest.getManufactureDate();
         if (null != manufactureDate) {
             try {
-                LocalDate manufactureDateParsed = new LocalDateConverter().unconvert(manufactureDate);
+                LocalDate manufactureDateParsed = LocalDateConverter.INSTANCE.unconvert(manufactureDate);
                 if (manufactureDateParsed.isAfter(LocalDate.now())) {
                     metricsPublisher.addCount(MetricsConstants.ADDDEVICE_INVALIDATTRIBUTEVALUE_COUNT, 1);
                     log.info("The optional manufacture date provided while attempting to add a new device " +
@@ -152,7 +148,8 @@ public class AddDeviceActivity {
                 HTMVaultServiceUtils.CONTROL_NUMBER_LENGTH));
         device.setSerialNumber(serialNumber);
         device.setManufacturerModel(manufacturerModel);
-        device.setManufactureDate(null == manufactureDate ? null : new LocalDateConverter().unconvert(manufactureDate));
+        device.setManufactureDate(null == manufactureDate ? null :
+                LocalDateConverter.INSTANCE.unconvert(manufactureDate));
         device.setServiceStatus(ServiceStatus.IN_SERVICE);
         device.setFacilityName(facilityName);
         device.setAssignedDepartment(assignedDepartment);
@@ -167,7 +164,7 @@ public class AddDeviceActivity {
         Device savedDevice = deviceDao.saveDevice(device);
 
         return AddDeviceResult.builder()
-                .withDeviceModel(new ModelConverter().toDeviceModel(savedDevice))
+                .withDeviceModel(ModelConverter.INSTANCE.toDeviceModel(savedDevice))
                 .build();
     }
 
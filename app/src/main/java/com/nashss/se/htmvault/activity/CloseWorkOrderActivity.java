@@ -54,6 +54,7 @@ public class CloseWorkOrderActivity {
      */
     public CloseWorkOrderResult handleRequest(final CloseWorkOrderRequest closeWorkOrderRequest) {
         log.info("Received CloseWorkOrderRequest {}", closeWorkOrderRequest);
+        metricsPublisher.addProperty(MetricsConstants.WORK_ORDER_ID_PROPERTY, closeWorkOrderRequest.getWorkOrderId());
 
         // retrieve work order from database (work order not found exception is thrown by dao if applicable)
         WorkOrder workOrder;
@@ -68,8 +69,8 @@ public class CloseWorkOrderActivity {
                     "found.", closeWorkOrderRequest.getWorkOrderId()));
         }
 
-        // if the work order is already closed, there's nothing to do except return the result with the converted
-        // work order
+        // if the work order is already closed, there's nothing to do except make sure it is no longer open on the
+        // device, and return the result with the converted work order
         if (!(workOrder.getWorkOrderCompletionStatus() == WorkOrderCompletionStatus.CLOSED)) {
             // ensure the work order information has been filled in for fields that are optional while the work order is
             // still open/ongoing, but which are required before the work order can be closed (i.e. completion date time
@@ -94,8 +95,7 @@ public class CloseWorkOrderActivity {
 
             // the time closed (now)
             LocalDateTime currentDateTime = LocalDateTime.now().minusHours(4);
-            String currentDateTimeSerialized = new LocalDateTimeConverter().convert(currentDateTime);
-            LocalDateTime currentDateTimeNoNanos = new LocalDateTimeConverter().unconvert(currentDateTimeSerialized);
+            LocalDateTime currentDateTimeNoNanos = LocalDateTimeConverter.truncate(currentDateTime);
             workOrder.setClosedDateTime(currentDateTimeNoNanos);
 
             // await status no longer applicable (i.e. awaiting parts, awaiting performance check, etc.)
@@ -106,14 +106,23 @@ public class CloseWorkOrderActivity {
 
             workOrder = workOrderDao.saveWorkOrder(workOrder);
 
+            // the work order no longer counts against the device (i.e. toward blocking its retirement); done before
+            // the fallible maintenance update below, so that a failure there cannot leave a closed work order open
+            // on the device
+            deviceDao.removeOpenWorkOrder(workOrder.getControlNumber(), workOrder.getWorkOrderId());
+
             // update the maintenance dates, if applicable (i.e. the routine preventative maintenance has
             // been completed and the next pm due date and compliance-through-date can be advanced to the
             // next cycle)
             advanceMaintenanceStatsWithWorkOrderIfApplicable(workOrder.getWorkOrderId());
+        } else {
+            // a previous close may have failed after saving the work order; removing it again does nothing if it
+            // was already removed
+            deviceDao.removeOpenWorkOrder(workOrder.getControlNumber(), workOrder.getWorkOrderId());
         }
 
         return CloseWorkOrderResult.builder()
-                .withWorkOrderModel(new ModelConverter().toWorkOrderModel(workOrder))
+                .withWorkOrderModel(ModelConverter.INSTANCE.toWorkOrderModel(workOrder))
                 .build();
     }
 
@@ -165,7 +174,7 @@ public class CloseWorkOrderActivity {
         // the device to which this work order pertains, which will potentially be updated
         Device device;
         try {
-            device = deviceDao.getDevice(workOrder.getControlNumber());
+            device = deviceDao.getDeviceForUpdate(workOrder.getControlNumber());
             metricsPublisher.addCount(MetricsConstants.CLOSEWORKORDER_DEVICENOTFOUND_COUNT, 0);
         } catch (DeviceNotFoundException e) {
             metricsPublisher.addCount(MetricsConstants.CLOSEWORKORDER_DEVICENOTFOUND_COUNT, 1);
@@ -8,11 +8,12 @@ import com.nashss.se.htmvault.dynamodb.DeviceDao;
 import com.nashss.se.htmvault.dynamodb.WorkOrderDao;
 import com.nashss.se.htmvault.dynamodb.models.Device;
 import com.nashss.se.htmvault.dynamodb.models.WorkOrder;
-import com.nashss.se.htmvault.dynamodb.models.WorkOrderCompletionDateTimeComparator;
 import com.nashss.se.htmvault.exceptions.DeviceNotFoundException;
 import com.nashss.se.htmvault.exceptions.InvalidAttributeValueException;
+import com.nashss.se.htmvault.exceptions.UpdateRetiredDeviceException;
 import com.nashss.se.htmvault.metrics.MetricsConstants;
 import com.nashss.se.htmvault.metrics.MetricsPublisher;
+import com.nashss.se.htmvault.models.ServiceStatus;
 import com.nashss.se.htmvault.models.SortOrder;
 import com.nashss.se.htmvault.models.WorkOrderCompletionStatus;
 import com.nashss.se.htmvault.models.WorkOrderType;
@@ -55,12 +56,16 @@ public class CreateWorkOrderActivity {
      * input is not null or blank.
      * If an attribute is not a valid input for creating the work order, an InvalidAttributeValueException is thrown
      * If the device that this work order is to be attached to is not found, throws a DeviceNotFoundException
+     * The result holds the new work order and the new version of the device's list of work orders, along with the
+     * full, sorted list of the device's work orders only if the request asks to include it.
      *
      * @param createWorkOrderRequest the create work order request
      * @return the create work order result
      */
     public CreateWorkOrderResult handleRequest(final CreateWorkOrderRequest createWorkOrderRequest) {
         log.info("Received CreateWorkOrderRequest {}", createWorkOrderRequest);
+        metricsPublisher.addProperty(MetricsConstants.CONTROL_NUMBER_PROPERTY,
+                createWorkOrderRequest.getControlNumber());
 
         // verify the control number is for a device that exists and is found in the database
         String controlNumber = createWorkOrderRequest.getControlNumber();
@@ -76,6 +81,14 @@ public class CreateWorkOrderActivity {
                     "be attached when attempting to create a new work order. " + e.getMessage());
         }
 
+        // verify the device is not retired; checked again, atomically, as the work order is recorded against it
+        if (device.getServiceStatus() == ServiceStatus.RETIRED) {
+            metricsPublisher.addCount(MetricsConstants.CREATEWORKORDER_DEVICERETIRED_COUNT, 1);
+            log.info("A work order was requested for a device ({}) that is inactive/retired.", controlNumber);
+            throw new UpdateRetiredDeviceException("Cannot create a work order for a retired device: " +
+                    controlNumber + ".");
+        }
+
         // verify the work order type is one of the types allowed
         boolean validWorkOrderType = false;
         for (WorkOrderType workOrderType : WorkOrderType.values()) {
@@ -107,6 +120,7 @@ public class CreateWorkOrderActivity {
         metricsPublisher.addCount(MetricsConstants.CREATEWORKORDER_INVALIDATTRIBUTEVALUE_COUNT, 0);
         WorkOrder workOrder = new WorkOrder();
         workOrder.setWorkOrderId(HTMVaultServiceUtils.generateId("WR", 8));
+        metricsPublisher.addProperty(MetricsConstants.WORK_ORDER_ID_PROPERTY, workOrder.getWorkOrderId());
         workOrder.setWorkOrderType(WorkOrderType.valueOf(createWorkOrderRequest.getWorkOrderType()));
         workOrder.setControlNumber(createWorkOrderRequest.getControlNumber());
         workOrder.setSerialNumber(device.getSerialNumber());
@@ -121,8 +135,7 @@ public class CreateWorkOrderActivity {
         workOrder.setCreatedByName(createWorkOrderRequest.getCreatedByName());
         // creation date time of 'now' without nanos
         LocalDateTime creationDateTime = LocalDateTime.now().minusHours(4);
-        String creationDateTimeConverted = new LocalDateTimeConverter().convert(creationDateTime);
-        LocalDateTime creationDateTimeNoNanos = new LocalDateTimeConverter().unconvert(creationDateTimeConverted);
+        LocalDateTime creationDateTimeNoNanos = LocalDateTimeConverter.truncate(creationDateTime);
         workOrder.setCreationDateTime(creationDateTimeNoNanos);
         workOrder.setClosedById(null);
         workOrder.setClosedByName(null);
@@ -130,27 +143,52 @@ public class CreateWorkOrderActivity {
         workOrder.setSummary(null);
         workOrder.setCompletionDateTime(null);
 
-        // obtain existing list of work orders, add new work order, and sort according to specified sort order; then
-        // save the new work order. this is done instead of saving new work order, and then obtaining the "updated" list
-        // of work orders, as it may not yet be updated with the new work order (eventually consistent database)
         String sortOrder = computeOrder(createWorkOrderRequest.getSortOrder());
 
-        List<WorkOrder> workOrders = workOrderDao.getWorkOrders(controlNumber);
-
-        workOrders.add(workOrder);
-
-        if (sortOrder.equals(SortOrder.ASCENDING)) {
-            workOrders.sort(new WorkOrderCompletionDateTimeComparator());
+        // only clients that asked for the full list of work orders get it; they obtain the existing list of work
+        // orders, already in the specified sort order, before the new work order is saved, and add the new work order
+        // themselves. this is done instead of saving new work order, and then obtaining the "updated" list of work
+        // orders, as it may not yet be updated with the new work order (eventually consistent database)
+        List<WorkOrder> workOrders = null;
+        if (createWorkOrderRequest.isIncludeWorkOrders()) {
+            metricsPublisher.addCount(MetricsConstants.CREATEWORKORDER_FULLLIST_COUNT, 1);
+            boolean ascending = sortOrder.equals(SortOrder.ASCENDING);
+            workOrders = workOrderDao.getWorkOrders(controlNumber, ascending);
+
+            // the new work order is open, and the most recently created, so it sorts after every existing work order
+            if (ascending) {
+                workOrders.add(workOrder);
+            } else {
+                workOrders.add(0, workOrder);
+            }
         } else {
-            workOrders.sort(new WorkOrderCompletionDateTimeComparator().reversed());
+            metricsPublisher.addCount(MetricsConstants.CREATEWORKORDER_FULLLIST_COUNT, 0);
         }
 
-        // save the new work order
+        // save the new work order, then record it among the device's open work orders, moving the device's list of
+        // work orders on to a new version, which lets the client tell whether the list it holds needs only the new
+        // work order merged into it
         workOrderDao.saveWorkOrder(workOrder);
+        long workOrdersVersion;
+        try {
+            workOrdersVersion = deviceDao.addOpenWorkOrder(controlNumber, workOrder.getWorkOrderId());
+            metricsPublisher.addCount(MetricsConstants.CREATEWORKORDER_DEVICERETIRED_COUNT, 0);
+        } catch (DeviceNotFoundException | UpdateRetiredDeviceException e) {
+            // the device was removed or retired since it was read; the work order saved must not be left open in
+            // the backlog of a device that cannot have it
+            metricsPublisher.addCount(MetricsConstants.CREATEWORKORDER_DEVICERETIRED_COUNT, 1);
+            log.info("Device {} was removed or retired while work order {} was created; deleting the work order.",
+                    controlNumber, workOrder.getWorkOrderId());
+            workOrderDao.deleteWorkOrder(workOrder);
+            throw e;
+        }
 
-        // convert the work order, build and return the result with the work order model
+        // convert the work order(s), build and return the result with the work order model(s)
+        ModelConverter modelConverter = ModelConverter.INSTANCE;
         return CreateWorkOrderResult.builder()
-                .withWorkOrderModels(new ModelConverter().toWorkOrderModels(workOrders))
+                .withWorkOrderModel(modelConverter.toWorkOrderModel(workOrder))
+                .withWorkOrdersVersion(workOrdersVersion)
+                .withWorkOrderModels(null == workOrders ? null : modelConverter.toWorkOrderModels(workOrders))
                 .build();
     }
 
@@ -5,6 +5,7 @@ import com.nashss.se.htmvault.activity.results.GetDeviceResult;
 import com.nashss.se.htmvault.converters.ModelConverter;
 import com.nashss.se.htmvault.dynamodb.DeviceDao;
 import com.nashss.se.htmvault.dynamodb.models.Device;
+import com.nashss.se.htmvault.metrics.MetricsConstants;
 import com.nashss.se.htmvault.metrics.MetricsPublisher;
 import com.nashss.se.htmvault.models.DeviceModel;
 
@@ -40,12 +41,13 @@ public class GetDeviceActivity {
      */
     public GetDeviceResult handleRequest(final GetDeviceRequest getDeviceRequest) {
         log.info("Received GetDeviceRequest {}", getDeviceRequest);
+        metricsPublisher.addProperty(MetricsConstants.CONTROL_NUMBER_PROPERTY, getDeviceRequest.getControlNumber());
 
         String controlNumber = getDeviceRequest.getControlNumber();
 
         Device device = deviceDao.getDevice(controlNumber);
 
-        DeviceModel deviceModel = new ModelConverter().toDeviceModel(device);
+        DeviceModel deviceModel = ModelConverter.INSTANCE.toDeviceModel(device);
         return GetDeviceResult.builder()
                 .withDeviceModel(deviceModel)
                 .build();
@@ -3,24 +3,30 @@ package com.nashss.se.htmvault.activity;
 import com.nashss.se.htmvault.activity.requests.GetDeviceWorkOrdersRequest;
 import com.nashss.se.htmvault.activity.results.GetDeviceWorkOrdersResult;
 import com.nashss.se.htmvault.converters.ModelConverter;
+import com.nashss.se.htmvault.dynamodb.ResultPage;
 import com.nashss.se.htmvault.dynamodb.WorkOrderDao;
 import com.nashss.se.htmvault.dynamodb.models.WorkOrder;
-import com.nashss.se.htmvault.dynamodb.models.WorkOrderCompletionDateTimeComparator;
 import com.nashss.se.htmvault.exceptions.InvalidAttributeValueException;
 import com.nashss.se.htmvault.metrics.MetricsConstants;
 import com.nashss.se.htmvault.metrics.MetricsPublisher;
 import com.nashss.se.htmvault.models.SortOrder;
+import com.nashss.se.htmvault.utils.PaginationUtils;
 
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 
 public class GetDeviceWorkOrdersActivity {
 
+    static final int DEFAULT_LIMIT = 25;
+    static final int MAX_LIMIT = 100;
+
     private final WorkOrderDao workOrderDao;
     private final Logger log = LogManager.getLogger();
     private final MetricsPublisher metricsPublisher;
@@ -38,28 +44,43 @@ public class GetDeviceWorkOrdersActivity {
     }
 
     /**
-     * Handle request get device work orders result.
+     * Handles a request to get a device's work orders, a page at a time, in the sort order requested (descending,
+     * with open and then the most recently completed work orders first, by default). The result's next token, if
+     * present, is passed back with the same sort order to get the next page. Throws an
+     * InvalidAttributeValueException for an invalid sort order, limit or next token.
      *
      * @param getDeviceWorkOrdersRequest the get device work orders request
      * @return the get device work orders result
      */
     public GetDeviceWorkOrdersResult handleRequest(final GetDeviceWorkOrdersRequest getDeviceWorkOrdersRequest) {
         log.info("Received GetDeviceWorkOrdersRequest {}", getDeviceWorkOrdersRequest);
+        metricsPublisher.addProperty(MetricsConstants.CONTROL_NUMBER_PROPERTY,
+                getDeviceWorkOrdersRequest.getControlNumber());
 
         String sortOrder = computeOrder(getDeviceWorkOrdersRequest.getSortOrder());
 
-        String controlNumber = getDeviceWorkOrdersRequest.getControlNumber();
+        int limit;
+        Map<String, AttributeValue> exclusiveStartKey;
+        try {
+            limit = PaginationUtils.parseLimit(getDeviceWorkOrdersRequest.getLimit(), DEFAULT_LIMIT, MAX_LIMIT);
+            exclusiveStartKey = PaginationUtils.decodeNextToken(getDeviceWorkOrdersRequest.getNextToken());
+        } catch (InvalidAttributeValueException e) {
+            metricsPublisher.addCount(MetricsConstants.GETDEVICEWORKORDERS_INVALIDATTRIBUTEVALUE_COUNT, 1);
+            log.info("Invalid pagination parameters in GetDeviceWorkOrdersRequest {}: {}",
+                    getDeviceWorkOrdersRequest, e.getMessage());
+            throw e;
+        }
+        metricsPublisher.addCount(MetricsConstants.GETDEVICEWORKORDERS_INVALIDATTRIBUTEVALUE_COUNT, 0);
 
-        List<WorkOrder> workOrders = workOrderDao.getWorkOrders(controlNumber);
+        String controlNumber = getDeviceWorkOrdersRequest.getControlNumber();
 
-        if (sortOrder.equals(SortOrder.ASCENDING)) {
-            workOrders.sort(new WorkOrderCompletionDateTimeComparator());
-        } else {
-            workOrders.sort(new WorkOrderCompletionDateTimeComparator().reversed());
-        }
+        // the index is read in the sort order requested, so the work orders need no further sorting
+        ResultPage<WorkOrder> page = workOrderDao.getWorkOrders(controlNumber,
+                sortOrder.equals(SortOrder.ASCENDING), limit, exclusiveStartKey);
 
         return GetDeviceWorkOrdersResult.builder()
-                .withWorkOrders(new ModelConverter().toWorkOrderModels(workOrders))
+                .withWorkOrders(ModelConverter.INSTANCE.toWorkOrderModels(page.getItems()))
+                .withNextToken(PaginationUtils.encodeNextToken(page.getLastEvaluatedKey()))
                 .build();
     }
 
@@ -86,7 +107,6 @@ public class GetDeviceWorkOrdersActivity {
                     "get a device's work orders.", sortOrder));
         }
 
-        metricsPublisher.addCount(MetricsConstants.GETDEVICEWORKORDERS_INVALIDATTRIBUTEVALUE_COUNT, 0);
         return computedSortOrder;
     }
 }
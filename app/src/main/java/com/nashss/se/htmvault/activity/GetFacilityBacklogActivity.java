@@ -0,0 +1,84 @@
+package com.nashss.se.htmvault.activity;
+
+import com.nashss.se.htmvault.activity.requests.GetFacilityBacklogRequest;
+import com.nashss.se.htmvault.activity.results.GetFacilityBacklogResult;
+import com.nashss.se.htmvault.converters.ModelConverter;
+import com.nashss.se.htmvault.dynamodb.ResultPage;
+import com.nashss.se.htmvault.dynamodb.WorkOrderDao;
+import com.nashss.se.htmvault.dynamodb.models.WorkOrder;
+import com.nashss.se.htmvault.exceptions.InvalidAttributeValueException;
+import com.nashss.se.htmvault.metrics.MetricsConstants;
+import com.nashss.se.htmvault.metrics.MetricsPublisher;
+import com.nashss.se.htmvault.utils.PaginationUtils;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+
+import javax.inject.Inject;
+
+public class GetFacilityBacklogActivity {
+
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 200;
+
+    private final WorkOrderDao workOrderDao;
+    private final Logger log = LogManager.getLogger();
+    private final MetricsPublisher metricsPublisher;
+
+    /**
+     * Instantiates a new Get facility backlog activity.
+     *
+     * @param workOrderDao     the work order dao
+     * @param metricsPublisher the metrics publisher
+     */
+    @Inject
+    public GetFacilityBacklogActivity(WorkOrderDao workOrderDao, MetricsPublisher metricsPublisher) {
+        this.workOrderDao = workOrderDao;
+        this.metricsPublisher = metricsPublisher;
+    }
+
+    /**
+     * Handles a request to get a facility's backlog, its outstanding (open, or awaiting parts, testing, etc.) work
+     * orders, a page at a time, ordered by department and then oldest first. The backlog may be limited to a single
+     * department. The result's next token, if present, is passed back with the same facility and department to get
+     * the next page. Throws an InvalidAttributeValueException if no facility is provided, or for an invalid limit or
+     * next token.
+     *
+     * @param getFacilityBacklogRequest the get facility backlog request
+     * @return the get facility backlog result
+     */
+    public GetFacilityBacklogResult handleRequest(final GetFacilityBacklogRequest getFacilityBacklogRequest) {
+        log.info("Received GetFacilityBacklogRequest {}", getFacilityBacklogRequest);
+
+        String facilityName = getFacilityBacklogRequest.getFacilityName();
+        String assignedDepartment = getFacilityBacklogRequest.getAssignedDepartment();
+
+        int limit;
+        Map<String, AttributeValue> exclusiveStartKey;
+        try {
+            if (null == facilityName || facilityName.isBlank()) {
+                throw new InvalidAttributeValueException("A facility must be provided to get its backlog of work " +
+                        "orders.");
+            }
+            limit = PaginationUtils.parseLimit(getFacilityBacklogRequest.getLimit(), DEFAULT_LIMIT, MAX_LIMIT);
+            exclusiveStartKey = PaginationUtils.decodeNextToken(getFacilityBacklogRequest.getNextToken());
+        } catch (InvalidAttributeValueException e) {
+            metricsPublisher.addCount(MetricsConstants.GETFACILITYBACKLOG_INVALIDATTRIBUTEVALUE_COUNT, 1);
+            log.info("Invalid GetFacilityBacklogRequest {}: {}", getFacilityBacklogRequest, e.getMessage());
+            throw e;
+        }
+        metricsPublisher.addCount(MetricsConstants.GETFACILITYBACKLOG_INVALIDATTRIBUTEVALUE_COUNT, 0);
+
+        ResultPage<WorkOrder> page = workOrderDao.getOpenWorkOrders(facilityName,
+                null == assignedDepartment || assignedDepartment.isBlank() ? null : assignedDepartment, limit,
+                exclusiveStartKey);
+
+        return GetFacilityBacklogResult.builder()
+                .withWorkOrders(ModelConverter.INSTANCE.toWorkOrderModels(page.getItems()))
+                .withNextToken(PaginationUtils.encodeNextToken(page.getLastEvaluatedKey()))
+                .build();
+    }
+}
@@ -2,45 +2,37 @@ package com.nashss.se.htmvault.activity;
 
 import com.nashss.se.htmvault.activity.requests.GetManufacturersAndModelsRequest;
 import com.nashss.se.htmvault.activity.results.GetManufacturersAndModelsResult;
-import com.nashss.se.htmvault.converters.ModelConverter;
-import com.nashss.se.htmvault.dynamodb.ManufacturerModelDao;
-import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
+import com.nashss.se.htmvault.dynamodb.ReferenceDataCache;
 import com.nashss.se.htmvault.metrics.MetricsPublisher;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-
 import javax.inject.Inject;
 
 public class GetManufacturersAndModelsActivity {
 
-    private final ManufacturerModelDao manufacturerModelDao;
+    private final ReferenceDataCache referenceDataCache;
     private final MetricsPublisher metricsPublisher;
     private final Logger log = LogManager.getLogger();
 
     /**
      * Instantiates a new Get manufacturers and models activity.
      *
-     * @param manufacturerModelDao the manufacturer model dao
-     * @param metricsPublisher     the metrics publisher
+     * @param referenceDataCache the reference data (manufacturer/model and facility/department) cache
+     * @param metricsPublisher   the metrics publisher
      */
     @Inject
-    public GetManufacturersAndModelsActivity(ManufacturerModelDao manufacturerModelDao,
+    public GetManufacturersAndModelsActivity(ReferenceDataCache referenceDataCache,
                                              MetricsPublisher metricsPublisher) {
-        this.manufacturerModelDao = manufacturerModelDao;
+        this.referenceDataCache = referenceDataCache;
         this.metricsPublisher = metricsPublisher;
     }
 
     /**
      * Handles a request to get a full list of individual manufacturer/model objects from the database table,
-     * converting the list to a list of objects that each contain a manufacturer name and a list of the models
-     * associated with the facility.
+     * converted to a list of objects that each contain a manufacturer name and a list of the models associated with
+     * the manufacturer. The list is served from the reference data cache, which groups and sorts it once per load.
      * Propagates a ManufacturerModelNotFoundException.
      *
      * @param request the request
@@ -49,25 +41,8 @@ public class GetManufacturersAndModelsActivity {
     public GetManufacturersAndModelsResult handleRequest(final GetManufacturersAndModelsRequest request) {
         log.info("Received GetManufacturersAndModelsRequest {}", request);
 
-        List<ManufacturerModel> manufacturerModels = manufacturerModelDao.getManufacturerModels();
-
-        // for each manufacturer model (a single manufacturer/model combination), add it to a map of the manufacturers
-        // as keys, each paired with a set of corresponding models
-        Map<String, Set<String>> manufacturersAndModels = new HashMap<>();
-        for (ManufacturerModel manufacturerModel : manufacturerModels) {
-            if (!manufacturersAndModels.containsKey(manufacturerModel.getManufacturer())) {
-                manufacturersAndModels.put(manufacturerModel.getManufacturer(),
-                        new HashSet<>(List.of(manufacturerModel.getModel())));
-            } else {
-                Set<String> models = manufacturersAndModels.get(manufacturerModel.getManufacturer());
-                models.add(manufacturerModel.getModel());
-                manufacturersAndModels.put(manufacturerModel.getManufacturer(), models);
-            }
-        }
-
-        // convert to the list of public models, each containing the manufacturer and manufacturer's list of models
         return GetManufacturersAndModelsResult.builder()
-                .withManufacturersAndModels(new ModelConverter().toListManufacturerModels(manufacturersAndModels))
+                .withManufacturersAndModels(referenceDataCache.getManufacturersAndModels())
                 .build();
     }
 }
@@ -5,6 +5,7 @@ import com.nashss.se.htmvault.activity.results.GetWorkOrderResult;
 import com.nashss.se.htmvault.converters.ModelConverter;
 import com.nashss.se.htmvault.dynamodb.WorkOrderDao;
 import com.nashss.se.htmvault.dynamodb.models.WorkOrder;
+import com.nashss.se.htmvault.metrics.MetricsConstants;
 import com.nashss.se.htmvault.metrics.MetricsPublisher;
 
 import org.apache.logging.log4j.LogManager;
@@ -39,11 +40,12 @@ public class GetWorkOrderActivity {
      */
     public GetWorkOrderResult handleRequest(final GetWorkOrderRequest getWorkOrderRequest) {
         log.info("Received GetWorkOrderRequest {}", getWorkOrderRequest);
+        metricsPublisher.addProperty(MetricsConstants.WORK_ORDER_ID_PROPERTY, getWorkOrderRequest.getWorkOrderId());
 
         WorkOrder workOrder = workOrderDao.getWorkOrder(getWorkOrderRequest.getWorkOrderId());
 
         return GetWorkOrderResult.builder()
-                .withWorkOrderModel(new ModelConverter().toWorkOrderModel(workOrder))
+                .withWorkOrderModel(ModelConverter.INSTANCE.toWorkOrderModel(workOrder))
                 .build();
     }
 }
@@ -42,13 +42,15 @@ public class ReactivateDeviceActivity {
      */
     public ReactivateDeviceResult handleRequest(final ReactivateDeviceRequest reactivateDeviceRequest) {
         log.info("Received ReactivateDeviceRequest {}", reactivateDeviceRequest);
+        metricsPublisher.addProperty(MetricsConstants.CONTROL_NUMBER_PROPERTY,
+                reactivateDeviceRequest.getControlNumber());
 
         String controlNumber = reactivateDeviceRequest.getControlNumber();
 
         // get device, if it exists
         Device device;
         try {
-            device = deviceDao.getDevice(controlNumber);
+            device = deviceDao.getDeviceForUpdate(controlNumber);
             metricsPublisher.addCount(MetricsConstants.REACTIVATEDEVICE_DEVICENOTFOUND_COUNT, 0);
         } catch (DeviceNotFoundException e) {
             metricsPublisher.addCount(MetricsConstants.REACTIVATEDEVICE_DEVICENOTFOUND_COUNT, 1);
@@ -63,7 +65,7 @@ public class ReactivateDeviceActivity {
         deviceDao.saveDevice(device);
 
         return ReactivateDeviceResult.builder()
-                .withDeviceModel(new ModelConverter().toDeviceModel(device))
+                .withDeviceModel(ModelConverter.INSTANCE.toDeviceModel(device))
                 .build();
     }
 }
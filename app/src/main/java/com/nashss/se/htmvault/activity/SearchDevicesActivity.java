@@ -5,55 +5,120 @@ import com.nashss.se.htmvault.activity.requests.SearchDevicesRequest;
 import com.nashss.se.htmvault.activity.results.SearchDevicesResult;
 import com.nashss.se.htmvault.converters.ModelConverter;
 import com.nashss.se.htmvault.dynamodb.DeviceDao;
+import com.nashss.se.htmvault.dynamodb.DeviceSearchIndexDao;
+import com.nashss.se.htmvault.dynamodb.DeviceSearchQuery;
+import com.nashss.se.htmvault.dynamodb.ResultPage;
 import com.nashss.se.htmvault.dynamodb.models.Device;
+import com.nashss.se.htmvault.exceptions.InvalidAttributeValueException;
+import com.nashss.se.htmvault.metrics.MetricsConstants;
 import com.nashss.se.htmvault.metrics.MetricsPublisher;
 import com.nashss.se.htmvault.models.DeviceModel;
+import com.nashss.se.htmvault.utils.PaginationUtils;
 
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 
-import static com.nashss.se.htmvault.utils.NullUtils.ifNull;
-
 public class SearchDevicesActivity {
 
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 200;
+
     private final DeviceDao deviceDao;
+    private final DeviceSearchIndexDao deviceSearchIndexDao;
     private final MetricsPublisher metricsPublisher;
     private final Logger log = LogManager.getLogger();
 
     /**
      * Instantiates a new Search devices activity.
      *
-     * @param deviceDao        the device dao
-     * @param metricsPublisher the metrics publisher
+     * @param deviceDao            the device dao
+     * @param deviceSearchIndexDao the device search index dao
+     * @param metricsPublisher     the metrics publisher
      */
     @Inject
-    public SearchDevicesActivity(DeviceDao deviceDao, MetricsPublisher metricsPublisher) {
+    public SearchDevicesActivity(DeviceDao deviceDao, DeviceSearchIndexDao deviceSearchIndexDao,
+                                 MetricsPublisher metricsPublisher) {
         this.deviceDao = deviceDao;
+        this.deviceSearchIndexDao = deviceSearchIndexDao;
         this.metricsPublisher = metricsPublisher;
     }
 
     /**
-     * Handles a request to scan for devices matching a set of criteria (i.e. matching a model name and/or a
-     * serial number, etc.)
+     * Handles a request to search for devices matching a set of criteria (i.e. matching a model name and/or a
+     * serial number, etc.). Free-text criteria are resolved against the device search index, and only the devices
+     * containing every criterion are then loaded. Criteria qualified with a field (i.e. facility:, department:,
+     * model:, pmDueBefore:) are instead planned by the device dao against the device table's indexes (see
+     * DeviceSearchQuery). A request without criteria returns all devices.
+     *
+     * Results are returned a page at a time, in control number order for free-text searches, and in index or table
+     * order otherwise. The result's next token, if present, is passed back with the same criteria to get the next
+     * page; a free-text page may hold fewer devices than the limit, or none, while there is still a next token.
+     * Throws an InvalidAttributeValueException for invalid criteria, limit or next token.
      *
      * @param searchDevicesRequest the search devices request
      * @return the search devices result
      */
     public SearchDevicesResult handleRequest(final SearchDevicesRequest searchDevicesRequest) {
-        log.info("Received SearchPlaylistsRequest {}", searchDevicesRequest);
+        log.info("Received SearchDevicesRequest {}", searchDevicesRequest);
 
-        String criteria = ifNull(searchDevicesRequest.getCriteria(), "");
-        String[] criteriaArray = criteria.isBlank() ? new String[0] : criteria.split("\\s");
+        DeviceSearchQuery query;
+        int limit;
+        Map<String, AttributeValue> exclusiveStartKey;
+        try {
+            query = DeviceSearchQuery.parse(searchDevicesRequest.getCriteria());
+            limit = PaginationUtils.parseLimit(searchDevicesRequest.getLimit(), DEFAULT_LIMIT, MAX_LIMIT);
+            exclusiveStartKey = PaginationUtils.decodeNextToken(searchDevicesRequest.getNextToken());
+        } catch (InvalidAttributeValueException e) {
+            metricsPublisher.addCount(MetricsConstants.SEARCHDEVICES_INVALIDATTRIBUTEVALUE_COUNT, 1);
+            log.info("Invalid criteria or pagination parameters in SearchDevicesRequest {}: {}", searchDevicesRequest,
+                    e.getMessage());
+            throw e;
+        }
+        metricsPublisher.addCount(MetricsConstants.SEARCHDEVICES_INVALIDATTRIBUTEVALUE_COUNT, 0);
 
-        List<Device> results = deviceDao.searchDevices(criteriaArray);
-        List<DeviceModel> deviceModels = new ModelConverter().toDeviceModelList(results);
+        ResultPage<Device> page;
+        if (query.isStructured()) {
+            page = deviceDao.searchDevices(query, limit, exclusiveStartKey);
+        } else if (!query.getTerms().isEmpty()) {
+            page = getIndexedDevices(query.getTerms(), limit, exclusiveStartKey);
+        } else {
+            page = deviceDao.scanDevices(limit, exclusiveStartKey);
+        }
+        List<DeviceModel> deviceModels = ModelConverter.INSTANCE.toDeviceModelList(page.getItems());
 
         return SearchDevicesResult.builder()
                 .withDevices(deviceModels)
+                .withNextToken(PaginationUtils.encodeNextToken(page.getLastEvaluatedKey()))
                 .build();
     }
+
+    /**
+     * Loads one page of the devices matched through the search index, continuing after the control number in the
+     * exclusive start key, if any. As the index can still list a device under tokens it has since lost, each
+     * loaded device is checked against the criteria again, and those no longer matching are left out of the page.
+     *
+     * @param terms             the free-text criteria
+     * @param limit             the maximum number of devices to load
+     * @param exclusiveStartKey the key at which the previous page ended, or null for the first page
+     * @return the page of devices
+     */
+    private ResultPage<Device> getIndexedDevices(List<String> terms, int limit,
+                                                 Map<String, AttributeValue> exclusiveStartKey) {
+        ResultPage<String> controlNumbers = deviceSearchIndexDao.getControlNumbers(terms, limit, exclusiveStartKey);
+
+        List<Device> devices = new ArrayList<>();
+        for (Device device : deviceDao.getDevices(controlNumbers.getItems())) {
+            if (DeviceSearchIndexDao.matches(device, terms)) {
+                devices.add(device);
+            }
+        }
+        return new ResultPage<>(devices, controlNumbers.getLastEvaluatedKey());
+    }
 }
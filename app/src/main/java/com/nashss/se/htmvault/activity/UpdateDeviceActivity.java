@@ -5,8 +5,7 @@ import com.nashss.se.htmvault.activity.results.UpdateDeviceResult;
 import com.nashss.se.htmvault.converters.LocalDateConverter;
 import com.nashss.se.htmvault.converters.ModelConverter;
 import com.nashss.se.htmvault.dynamodb.DeviceDao;
-import com.nashss.se.htmvault.dynamodb.FacilityDepartmentDao;
-import com.nashss.se.htmvault.dynamodb.ManufacturerModelDao;
+import com.nashss.se.htmvault.dynamodb.ReferenceDataCache;
 import com.nashss.se.htmvault.dynamodb.models.Device;
 import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
 import com.nashss.se.htmvault.exceptions.DeviceNotFoundException;
@@ -32,25 +31,22 @@ import static com.nashss.se.htmvault.utils.NullUtils.ifNull;
 public class UpdateDeviceActivity {
 
     private final DeviceDao deviceDao;
-    private final ManufacturerModelDao manufacturerModelDao;
-    private final FacilityDepartmentDao facilityDepartmentDao;
+    private final ReferenceDataCache referenceDataCache;
     private final MetricsPublisher metricsPublisher;
     private final Logger log = LogManager.getLogger();
 
     /**
      * Instantiates a new Update device activity.
      *
-     * @param deviceDao             the device dao
-     * @param manufacturerModelDao  the manufacturer model dao
-     * @param facilityDepartmentDao the facility department dao
-     * @param metricsPublisher      the metrics publisher
+     * @param deviceDao          the device dao
+     * @param referenceDataCache the reference data (manufacturer/model and facility/department) cache
+     * @param metricsPublisher   the metrics publisher
      */
     @Inject
-    public UpdateDeviceActivity(DeviceDao deviceDao, ManufacturerModelDao manufacturerModelDao,
-                                FacilityDepartmentDao facilityDepartmentDao, MetricsPublisher metricsPublisher) {
+    public UpdateDeviceActivity(DeviceDao deviceDao, ReferenceDataCache referenceDataCache,
+                                MetricsPublisher metricsPublisher) {
         this.deviceDao = deviceDao;
-        this.manufacturerModelDao = manufacturerModelDao;
-        this.facilityDepartmentDao = facilityDepartmentDao;
+        this.referenceDataCache = referenceDataCache;
         this.metricsPublisher = metricsPublisher;
     }
 
@@ -65,6 +61,7 @@ public class UpdateDeviceActivity {
      */
     public UpdateDeviceResult handleRequest(final UpdateDeviceRequest updateDeviceRequest) {
         log.info("Received UpdateDeviceRequest {}", updateDeviceRequest);
+        metricsPublisher.addProperty(MetricsConstants.CONTROL_NUMBER_PROPERTY, updateDeviceRequest.getControlNumber());
 
         if (null == updateDeviceRequest.getControlNumber() || updateDeviceRequest.getControlNumber().isBlank()) {
             metricsPublisher.addCount(MetricsConstants.UPDATEDEVICE_INVALIDATTRIBUTEVALUE_COUNT, 1);
@@ -77,7 +74,7 @@ public class UpdateDeviceActivity {
         // verify the device being updated exists and is found in the database
         Device device;
         try {
-            device = deviceDao.getDevice(updateDeviceRequest.getControlNumber());
+            device = deviceDao.getDeviceForUpdate(updateDeviceRequest.getControlNumber());
             metricsPublisher.addCount(MetricsConstants.UPDATEDEVICE_DEVICENOTFOUND_COUNT, 0);
         } catch (DeviceNotFoundException e) {
             metricsPublisher.addCount(MetricsConstants.UPDATEDEVICE_DEVICENOTFOUND_COUNT, 1);
@@ -112,7 +109,7 @@ public class UpdateDeviceActivity {
         validateRequestAttribute("Model", model, HTMVaultServiceUtils.ALPHA_NUMERIC_SPACE_OR_DASH);
         ManufacturerModel manufacturerModel = null;
         try {
-            manufacturerModel = manufacturerModelDao.getManufacturerModel(manufacturer, model);
+            manufacturerModel = referenceDataCache.getManufacturerModel(manufacturer, model);
         } catch (ManufacturerModelNotFoundException e) {
             metricsPublisher.addCount(MetricsConstants.UPDATEDEVICE_INVALIDATTRIBUTEVALUE_COUNT, 1);
             log.info("The manufacturer/model combination specified ({}/{}) while attempting to update a " +
@@ -133,7 +130,7 @@ public class UpdateDeviceActivity {
         validateRequestAttribute("Assigned Department", assignedDepartment,
                 HTMVaultServiceUtils.ALPHA_NUMERIC_SPACE_OR_DASH);
         try {
-            facilityDepartmentDao.getFacilityDepartment(facilityName, assignedDepartment);
+            referenceDataCache.getFacilityDepartment(facilityName, assignedDepartment);
         } catch (FacilityDepartmentNotFoundException e) {
             metricsPublisher.addCount(MetricsConstants.UPDATEDEVICE_INVALIDATTRIBUTEVALUE_COUNT, 1);
             log.info("The facility/department combination specified ({}/{}) while attempting to update a " +
@@ -146,7 +143,7 @@ public class UpdateDeviceActivity {
         String manufactureDate = updateDeviceRequest.getManufactureDate();
         if (null != manufactureDate) {
             try {
-                LocalDate manufactureDateParsed = new LocalDateConverter().unconvert(manufactureDate);
+                LocalDate manufactureDateParsed = LocalDateConverter.INSTANCE.unconvert(manufactureDate);
                 if (manufactureDateParsed.isAfter(LocalDate.now())) {
                     metricsPublisher.addCount(MetricsConstants.UPDATEDEVICE_INVALIDATTRIBUTEVALUE_COUNT, 1);
                     log.info("The optional manufacture date provided while attempting to update a device " +
@@ -168,7 +165,8 @@ public class UpdateDeviceActivity {
         // valid request received - update device and save changes
         device.setSerialNumber(serialNumber);
         device.setManufacturerModel(manufacturerModel);
-        device.setManufactureDate(null == manufactureDate ? null : new LocalDateConverter().unconvert(manufactureDate));
+        device.setManufactureDate(null == manufactureDate ? null :
+                LocalDateConverter.INSTANCE.unconvert(manufactureDate));
         device.setFacilityName(facilityName);
         device.setAssignedDepartment(assignedDepartment);
         device.setNotes(null == updateDeviceRequest.getNotes() ? "" : updateDeviceRequest.getNotes());
@@ -219,7 +217,7 @@ public class UpdateDeviceActivity {
         Device updatedDevice = deviceDao.saveDevice(device);
 
         return UpdateDeviceResult.builder()
-                .withDeviceModel(new ModelConverter().toDeviceModel(updatedDevice))
+                .withDeviceModel(ModelConverter.INSTANCE.toDeviceModel(updatedDevice))
                 .build();
     }
 
@@ -53,6 +53,7 @@ public class UpdateWorkOrderActivity {
      */
     public UpdateWorkOrderResult handleRequest(final UpdateWorkOrderRequest updateWorkOrderRequest) {
         log.info("Received UpdateWorkOrderRequest {}", updateWorkOrderRequest);
+        metricsPublisher.addProperty(MetricsConstants.WORK_ORDER_ID_PROPERTY, updateWorkOrderRequest.getWorkOrderId());
 
         if (null == updateWorkOrderRequest.getWorkOrderId() || updateWorkOrderRequest.getWorkOrderId().isBlank()) {
             metricsPublisher.addCount(MetricsConstants.UPDATEWORKORDER_INVALIDATTRIBUTEVALUE_COUNT, 1);
@@ -146,7 +147,7 @@ public class UpdateWorkOrderActivity {
         }
         if (null != completionDateTime) {
             try {
-                LocalDateTime completionDateTimeParsed = new LocalDateTimeConverter().unconvert(completionDateTime);
+                LocalDateTime completionDateTimeParsed = LocalDateTimeConverter.INSTANCE.unconvert(completionDateTime);
                 if (completionDateTimeParsed.isAfter(LocalDateTime.now())) {
                     metricsPublisher.addCount(MetricsConstants.UPDATEWORKORDER_INVALIDATTRIBUTEVALUE_COUNT, 1);
                     log.info("The completion date time provided while attempting to add a new device " +
@@ -173,12 +174,12 @@ public class UpdateWorkOrderActivity {
                 updateWorkOrderRequest.getProblemFound());
         workOrder.setSummary(null == updateWorkOrderRequest.getSummary() ? null : updateWorkOrderRequest.getSummary());
         workOrder.setCompletionDateTime(null == completionDateTime ? null :
-                new LocalDateTimeConverter().unconvert(updateWorkOrderRequest.getCompletionDateTime()));
+                LocalDateTimeConverter.INSTANCE.unconvert(updateWorkOrderRequest.getCompletionDateTime()));
 
         workorderDao.saveWorkOrder(workOrder);
 
         return UpdateWorkOrderResult.builder()
-                .withWorkOrder(new ModelConverter().toWorkOrderModel(workOrder))
+                .withWorkOrder(ModelConverter.INSTANCE.toWorkOrderModel(workOrder))
                 .build();
     }
 }
@@ -13,10 +13,11 @@ public class CreateWorkOrderRequest {
     private final String createdById;
     private final String createdByName;
     private final String sortOrder;
+    private final boolean includeWorkOrders;
 
     private CreateWorkOrderRequest(String controlNumber, String workOrderType, String problemReported,
                                    String problemFound, String createdById, String createdByName,
-                                   String sortOrder) {
+                                   String sortOrder, boolean includeWorkOrders) {
         this.controlNumber = controlNumber;
         this.workOrderType = workOrderType;
         this.problemReported = problemReported;
@@ -24,6 +25,7 @@ public class CreateWorkOrderRequest {
         this.createdById = createdById;
         this.createdByName = createdByName;
         this.sortOrder = sortOrder;
+        this.includeWorkOrders = includeWorkOrders;
     }
 
     public String getControlNumber() {
@@ -54,6 +56,10 @@ public class CreateWorkOrderRequest {
         return sortOrder;
     }
 
+    public boolean isIncludeWorkOrders() {
+        return includeWorkOrders;
+    }
+
     @Override
     public String toString() {
         return "CreateWorkOrderRequest{" +
@@ -64,6 +70,7 @@ public class CreateWorkOrderRequest {
                 ", createdById='" + createdById + '\'' +
                 ", createdByName='" + createdByName + '\'' +
                 ", sortOrder='" + sortOrder + '\'' +
+                ", includeWorkOrders=" + includeWorkOrders +
                 '}';
     }
 
@@ -81,6 +88,7 @@ public class CreateWorkOrderRequest {
         private String createdById;
         private String createdByName;
         private String sortOrder;
+        private boolean includeWorkOrders;
 
         public Builder withControlNumber(String controlNumber) {
             this.controlNumber = controlNumber;
@@ -117,9 +125,14 @@ public class CreateWorkOrderRequest {
             return this;
         }
 
+        public Builder withIncludeWorkOrders(boolean includeWorkOrders) {
+            this.includeWorkOrders = includeWorkOrders;
+            return this;
+        }
+
         public CreateWorkOrderRequest build() {
             return new CreateWorkOrderRequest(controlNumber, workOrderType, problemReported, problemFound,
-                    createdById, createdByName, sortOrder);
+                    createdById, createdByName, sortOrder, includeWorkOrders);
         }
     }
 }
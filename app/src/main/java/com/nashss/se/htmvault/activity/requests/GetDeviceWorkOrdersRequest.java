@@ -4,10 +4,14 @@ public class GetDeviceWorkOrdersRequest {
 
     private final String controlNumber;
     private final String sortOrder;
+    private final String limit;
+    private final String nextToken;
 
-    private GetDeviceWorkOrdersRequest(String controlNumber, String sortOrder) {
+    private GetDeviceWorkOrdersRequest(String controlNumber, String sortOrder, String limit, String nextToken) {
         this.controlNumber = controlNumber;
         this.sortOrder = sortOrder;
+        this.limit = limit;
+        this.nextToken = nextToken;
     }
 
     public String getControlNumber() {
@@ -18,11 +22,21 @@ public class GetDeviceWorkOrdersRequest {
         return sortOrder;
     }
 
+    public String getLimit() {
+        return limit;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
     @Override
     public String toString() {
         return "GetDeviceWorkOrdersRequest{" +
                 "controlNumber='" + controlNumber + '\'' +
                 ", sortOrder=" + sortOrder +
+                ", limit='" + limit + '\'' +
+                ", nextToken='" + nextToken + '\'' +
                 '}';
     }
 
@@ -35,6 +49,8 @@ public class GetDeviceWorkOrdersRequest {
 
         private String controlNumber;
         private String sortOrder;
+        private String limit;
+        private String nextToken;
 
         public Builder withControlNumber(String controlNumber) {
             this.controlNumber = controlNumber;
@@ -46,8 +62,18 @@ public class GetDeviceWorkOrdersRequest {
             return this;
         }
 
+        public Builder withLimit(String limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        public Builder withNextToken(String nextToken) {
+            this.nextToken = nextToken;
+            return this;
+        }
+
         public GetDeviceWorkOrdersRequest build() {
-            return new GetDeviceWorkOrdersRequest(controlNumber, sortOrder);
+            return new GetDeviceWorkOrdersRequest(controlNumber, sortOrder, limit, nextToken);
         }
     }
 }
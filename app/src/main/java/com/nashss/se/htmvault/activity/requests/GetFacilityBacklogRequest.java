@@ -0,0 +1,80 @@
+package com.nashss.se.htmvault.activity.requests;
+
+public class GetFacilityBacklogRequest {
+
+    private final String facilityName;
+    private final String assignedDepartment;
+    private final String limit;
+    private final String nextToken;
+
+    private GetFacilityBacklogRequest(String facilityName, String assignedDepartment, String limit,
+                                      String nextToken) {
+        this.facilityName = facilityName;
+        this.assignedDepartment = assignedDepartment;
+        this.limit = limit;
+        this.nextToken = nextToken;
+    }
+
+    public String getFacilityName() {
+        return facilityName;
+    }
+
+    public String getAssignedDepartment() {
+        return assignedDepartment;
+    }
+
+    public String getLimit() {
+        return limit;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    @Override
+    public String toString() {
+        return "GetFacilityBacklogRequest{" +
+                "facilityName='" + facilityName + '\'' +
+                ", assignedDepartment='" + assignedDepartment + '\'' +
+                ", limit='" + limit + '\'' +
+                ", nextToken='" + nextToken + '\'' +
+                '}';
+    }
+
+    //CHECKSTYLE:OFF:Builder
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private String facilityName;
+        private String assignedDepartment;
+        private String limit;
+        private String nextToken;
+
+        public Builder withFacilityName(String facilityName) {
+            this.facilityName = facilityName;
+            return this;
+        }
+
+        public Builder withAssignedDepartment(String assignedDepartment) {
+            this.assignedDepartment = assignedDepartment;
+            return this;
+        }
+
+        public Builder withLimit(String limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        public Builder withNextToken(String nextToken) {
+            this.nextToken = nextToken;
+            return this;
+        }
+
+        public GetFacilityBacklogRequest build() {
+            return new GetFacilityBacklogRequest(facilityName, assignedDepartment, limit, nextToken);
+        }
+    }
+}
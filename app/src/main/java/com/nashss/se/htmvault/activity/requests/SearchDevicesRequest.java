@@ -3,19 +3,33 @@ package com.nashss.se.htmvault.activity.requests;
 public class SearchDevicesRequest {
 
     private final String criteria;
+    private final String limit;
+    private final String nextToken;
 
-    private SearchDevicesRequest(String criteria) {
+    private SearchDevicesRequest(String criteria, String limit, String nextToken) {
         this.criteria = criteria;
+        this.limit = limit;
+        this.nextToken = nextToken;
     }
 
     public String getCriteria() {
         return criteria;
     }
 
+    public String getLimit() {
+        return limit;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
     @Override
     public String toString() {
         return "SearchDevicesRequest{" +
                 "criteria='" + criteria + '\'' +
+                ", limit='" + limit + '\'' +
+                ", nextToken='" + nextToken + '\'' +
                 '}';
     }
 
@@ -27,14 +41,26 @@ public class SearchDevicesRequest {
     public static class Builder {
 
         private String criteria;
+        private String limit;
+        private String nextToken;
 
         public Builder withCriteria(String criteria) {
             this.criteria = criteria;
             return this;
         }
 
+        public Builder withLimit(String limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        public Builder withNextToken(String nextToken) {
+            this.nextToken = nextToken;
+            return this;
+        }
+
         public SearchDevicesRequest build() {
-            return new SearchDevicesRequest(criteria);
+            return new SearchDevicesRequest(criteria, limit, nextToken);
         }
     }
 }
@@ -7,12 +7,24 @@ import java.util.List;
 
 public class CreateWorkOrderResult {
 
+    private final WorkOrderModel workOrder;
+    private final long workOrdersVersion;
     private final List<WorkOrderModel> workOrders;
 
-    private CreateWorkOrderResult(List<WorkOrderModel> workOrders) {
+    private CreateWorkOrderResult(WorkOrderModel workOrder, long workOrdersVersion, List<WorkOrderModel> workOrders) {
+        this.workOrder = workOrder;
+        this.workOrdersVersion = workOrdersVersion;
         this.workOrders = workOrders;
     }
 
+    public WorkOrderModel getWorkOrder() {
+        return workOrder;
+    }
+
+    public long getWorkOrdersVersion() {
+        return workOrdersVersion;
+    }
+
     public List<WorkOrderModel> getWorkOrders() {
         return CollectionUtils.copyToList(workOrders);
     }
@@ -20,7 +32,9 @@ public class CreateWorkOrderResult {
     @Override
     public String toString() {
         return "CreateWorkOrderResult{" +
-                "workOrders=" + workOrders +
+                "workOrder=" + workOrder +
+                ", workOrdersVersion=" + workOrdersVersion +
+                ", workOrders=" + workOrders +
                 '}';
     }
 
@@ -30,15 +44,27 @@ public class CreateWorkOrderResult {
     }
 
     public static class Builder {
+        private WorkOrderModel workOrder;
+        private long workOrdersVersion;
         private List<WorkOrderModel> workOrders;
 
+        public Builder withWorkOrderModel(WorkOrderModel workOrder) {
+            this.workOrder = workOrder;
+            return this;
+        }
+
+        public Builder withWorkOrdersVersion(long workOrdersVersion) {
+            this.workOrdersVersion = workOrdersVersion;
+            return this;
+        }
+
         public Builder withWorkOrderModels(List<WorkOrderModel> workOrders) {
             this.workOrders = CollectionUtils.copyToList(workOrders);
             return this;
         }
 
         public CreateWorkOrderResult build() {
-            return new CreateWorkOrderResult(workOrders);
+            return new CreateWorkOrderResult(workOrder, workOrdersVersion, workOrders);
         }
     }
 }
@@ -9,19 +9,26 @@ import static com.nashss.se.htmvault.utils.CollectionUtils.copyToList;
 public class GetDeviceWorkOrdersResult {
 
     private final List<WorkOrderModel> workOrders;
+    private final String nextToken;
 
-    private GetDeviceWorkOrdersResult(List<WorkOrderModel> workOrders) {
+    private GetDeviceWorkOrdersResult(List<WorkOrderModel> workOrders, String nextToken) {
         this.workOrders = workOrders;
+        this.nextToken = nextToken;
     }
 
     public List<WorkOrderModel> getWorkOrders() {
         return copyToList(workOrders);
     }
 
+    public String getNextToken() {
+        return nextToken;
+    }
+
     @Override
     public String toString() {
         return "GetDeviceWorkOrdersResult{" +
                 "workOrders=" + workOrders +
+                ", nextToken='" + nextToken + '\'' +
                 '}';
     }
 
@@ -32,14 +39,20 @@ public class GetDeviceWorkOrdersResult {
 
     public static class Builder {
         private List<WorkOrderModel> workOrders;
+        private String nextToken;
 
         public Builder withWorkOrders(List<WorkOrderModel> workOrders) {
             this.workOrders = copyToList(workOrders);
             return this;
         }
 
+        public Builder withNextToken(String nextToken) {
+            this.nextToken = nextToken;
+            return this;
+        }
+
         public GetDeviceWorkOrdersResult build() {
-            return new GetDeviceWorkOrdersResult(workOrders);
+            return new GetDeviceWorkOrdersResult(workOrders, nextToken);
         }
     }
 }
@@ -0,0 +1,58 @@
+package com.nashss.se.htmvault.activity.results;
+
+import com.nashss.se.htmvault.models.WorkOrderModel;
+
+import java.util.List;
+
+import static com.nashss.se.htmvault.utils.CollectionUtils.copyToList;
+
+public class GetFacilityBacklogResult {
+
+    private final List<WorkOrderModel> workOrders;
+    private final String nextToken;
+
+    private GetFacilityBacklogResult(List<WorkOrderModel> workOrders, String nextToken) {
+        this.workOrders = workOrders;
+        this.nextToken = nextToken;
+    }
+
+    public List<WorkOrderModel> getWorkOrders() {
+        return copyToList(workOrders);
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    @Override
+    public String toString() {
+        return "GetFacilityBacklogResult{" +
+                "workOrders=" + workOrders +
+                ", nextToken='" + nextToken + '\'' +
+                '}';
+    }
+
+    //CHECKSTYLE:OFF:Builder
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private List<WorkOrderModel> workOrders;
+        private String nextToken;
+
+        public Builder withWorkOrders(List<WorkOrderModel> workOrders) {
+            this.workOrders = copyToList(workOrders);
+            return this;
+        }
+
+        public Builder withNextToken(String nextToken) {
+            this.nextToken = nextToken;
+            return this;
+        }
+
+        public GetFacilityBacklogResult build() {
+            return new GetFacilityBacklogResult(workOrders, nextToken);
+        }
+    }
+}
@@ -8,19 +8,26 @@ import java.util.List;
 public class SearchDevicesResult {
 
     private List<DeviceModel> devices;
+    private String nextToken;
 
-    private SearchDevicesResult(List<DeviceModel> devices) {
+    private SearchDevicesResult(List<DeviceModel> devices, String nextToken) {
         this.devices = devices;
+        this.nextToken = nextToken;
     }
 
     public List<DeviceModel> getDevices() {
         return CollectionUtils.copyToList(devices);
     }
 
+    public String getNextToken() {
+        return nextToken;
+    }
+
     @Override
     public String toString() {
         return "SearchDevicesResult{" +
                 "devices=" + devices +
+                ", nextToken='" + nextToken + '\'' +
                 '}';
     }
 
@@ -31,14 +38,20 @@ public class SearchDevicesResult {
 
     public static class Builder {
         private List<DeviceModel> devices;
+        private String nextToken;
 
         public Builder withDevices(List<DeviceModel> devices) {
             this.devices = CollectionUtils.copyToList(devices);
             return this;
         }
 
+        public Builder withNextToken(String nextToken) {
+            this.nextToken = nextToken;
+            return this;
+        }
+
         public SearchDevicesResult build() {
-            return new SearchDevicesResult(devices);
+            return new SearchDevicesResult(devices, nextToken);
         }
     }
 }
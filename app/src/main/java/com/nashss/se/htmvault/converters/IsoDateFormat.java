@@ -0,0 +1,125 @@
+package com.nashss.se.htmvault.converters;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Writes and reads the two fixed-width ISO forms dates are stored in, "yyyy-MM-dd" and "yyyy-MM-ddTHH:mm:ss",
+ * directly as characters, without a DateTimeFormatter's parsed-field maps and intermediate objects. Dates outside
+ * years 0000-9999 (which ISO writes with a sign) and text in any other form (e.g. with fractional seconds) are left
+ * to a DateTimeFormatter: for those, the methods return null.
+ */
+final class IsoDateFormat {
+    static final int DATE_LENGTH = 10;
+    static final int DATE_TIME_LENGTH = 19;
+
+    private IsoDateFormat() { }
+
+    /**
+     * Writes the date as "yyyy-MM-dd".
+     *
+     * @param date the date
+     * @return the date's ISO form, or null if its year is outside 0000-9999
+     */
+    static String writeDate(LocalDate date) {
+        if (!isFixedWidthYear(date.getYear())) {
+            return null;
+        }
+        char[] chars = new char[DATE_LENGTH];
+        writeDate(chars, date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+        return new String(chars);
+    }
+
+    /**
+     * Writes the date time, truncated to the second, as "yyyy-MM-ddTHH:mm:ss".
+     *
+     * @param dateTime the date time
+     * @return the date time's ISO form without fractional seconds, or null if its year is outside 0000-9999
+     */
+    static String writeDateTime(LocalDateTime dateTime) {
+        if (!isFixedWidthYear(dateTime.getYear())) {
+            return null;
+        }
+        char[] chars = new char[DATE_TIME_LENGTH];
+        writeDate(chars, dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth());
+        chars[10] = 'T';
+        writeTwoDigits(chars, 11, dateTime.getHour());
+        chars[13] = ':';
+        writeTwoDigits(chars, 14, dateTime.getMinute());
+        chars[16] = ':';
+        writeTwoDigits(chars, 17, dateTime.getSecond());
+        return new String(chars);
+    }
+
+    /**
+     * Reads a date in the form "yyyy-MM-dd". Propagates a DateTimeException if it is in the form, but not a valid
+     * date.
+     *
+     * @param text the text to read
+     * @return the date, or null if the text is not in the form
+     */
+    static LocalDate parseDate(String text) {
+        if (text.length() != DATE_LENGTH || !isDatePrefix(text)) {
+            return null;
+        }
+        return LocalDate.of(digits(text, 0, 4), digits(text, 5, 2), digits(text, 8, 2));
+    }
+
+    /**
+     * Reads a date time in the form "yyyy-MM-ddTHH:mm:ss". Propagates a DateTimeException if it is in the form, but
+     * not a valid date time.
+     *
+     * @param text the text to read
+     * @return the date time, or null if the text is not in the form
+     */
+    static LocalDateTime parseDateTime(String text) {
+        if (text.length() != DATE_TIME_LENGTH || !isDatePrefix(text) || text.charAt(10) != 'T' ||
+                text.charAt(13) != ':' || text.charAt(16) != ':' || !areDigits(text, 11, 2) ||
+                !areDigits(text, 14, 2) || !areDigits(text, 17, 2)) {
+            return null;
+        }
+        return LocalDateTime.of(digits(text, 0, 4), digits(text, 5, 2), digits(text, 8, 2),
+                digits(text, 11, 2), digits(text, 14, 2), digits(text, 17, 2));
+    }
+
+    private static boolean isFixedWidthYear(int year) {
+        return year >= 0 && year <= 9999;
+    }
+
+    private static void writeDate(char[] chars, int year, int month, int day) {
+        writeTwoDigits(chars, 0, year / 100);
+        writeTwoDigits(chars, 2, year % 100);
+        chars[4] = '-';
+        writeTwoDigits(chars, 5, month);
+        chars[7] = '-';
+        writeTwoDigits(chars, 8, day);
+    }
+
+    private static void writeTwoDigits(char[] chars, int offset, int value) {
+        chars[offset] = (char) ('0' + value / 10);
+        chars[offset + 1] = (char) ('0' + value % 10);
+    }
+
+    private static boolean isDatePrefix(String text) {
+        return areDigits(text, 0, 4) && text.charAt(4) == '-' && areDigits(text, 5, 2) && text.charAt(7) == '-' &&
+                areDigits(text, 8, 2);
+    }
+
+    private static boolean areDigits(String text, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int digits(String text, int offset, int length) {
+        int value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+}
@@ -1,24 +1,29 @@
 package com.nashss.se.htmvault.converters;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTypeConverter;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
+/**
+ * Stores a date as its ISO form, "yyyy-MM-dd". The converter holds no state, so the one INSTANCE may be shared.
+ */
 public class LocalDateConverter implements DynamoDBTypeConverter<String, LocalDate> {
 
-    private final Logger log = LogManager.getLogger();
+    /**
+     * The shared instance, for converting outside the DynamoDBMapper.
+     */
+    public static final LocalDateConverter INSTANCE = new LocalDateConverter();
 
     @Override
     public String convert(LocalDate localDateToSerialize) {
-        return localDateToSerialize.format(DateTimeFormatter.ISO_LOCAL_DATE);
+        String serialized = IsoDateFormat.writeDate(localDateToSerialize);
+        return null != serialized ? serialized : localDateToSerialize.format(DateTimeFormatter.ISO_LOCAL_DATE);
     }
 
     @Override
     public LocalDate unconvert(String serializedLocalDate) {
-        return LocalDate.parse(serializedLocalDate);
+        LocalDate localDate = IsoDateFormat.parseDate(serializedLocalDate);
+        return null != localDate ? localDate : LocalDate.parse(serializedLocalDate);
     }
 }
-
@@ -1,31 +1,43 @@
 package com.nashss.se.htmvault.converters;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTypeConverter;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 
+/**
+ * Stores a date time as its ISO form without fractional seconds, "yyyy-MM-ddTHH:mm:ss". The converter holds no
+ * state, so the one INSTANCE may be shared.
+ */
 public class LocalDateTimeConverter implements DynamoDBTypeConverter<String, LocalDateTime> {
 
-    private final Logger log = LogManager.getLogger();
+    /**
+     * The shared instance, for converting outside the DynamoDBMapper.
+     */
+    public static final LocalDateTimeConverter INSTANCE = new LocalDateTimeConverter();
 
     @Override
     public String convert(LocalDateTime localDateTimeToSerialize) {
         // filters out nanos from the local date time, if present, when converting to a string
-        LocalDate localDate = LocalDate.of(localDateTimeToSerialize.getYear(), localDateTimeToSerialize.getMonth(),
-                localDateTimeToSerialize.getDayOfMonth());
-        LocalTime localTimeWithoutNanos = LocalTime.of(localDateTimeToSerialize.getHour(),
-                localDateTimeToSerialize.getMinute(), localDateTimeToSerialize.getSecond());
-        LocalDateTime localDateTimeWithoutNanos = LocalDateTime.of(localDate, localTimeWithoutNanos);
-        return localDateTimeWithoutNanos.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        String serialized = IsoDateFormat.writeDateTime(localDateTimeToSerialize);
+        return null != serialized ? serialized :
+                truncate(localDateTimeToSerialize).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
     }
 
     @Override
     public LocalDateTime unconvert(String serializedLocalDateTime) {
-        return LocalDateTime.parse(serializedLocalDateTime);
+        LocalDateTime localDateTime = IsoDateFormat.parseDateTime(serializedLocalDateTime);
+        return null != localDateTime ? localDateTime : LocalDateTime.parse(serializedLocalDateTime);
+    }
+
+    /**
+     * Truncates the date time to the second, as it would be stored.
+     *
+     * @param localDateTime the date time
+     * @return the date time without fractional seconds
+     */
+    public static LocalDateTime truncate(LocalDateTime localDateTime) {
+        return localDateTime.truncatedTo(ChronoUnit.SECONDS);
     }
 }
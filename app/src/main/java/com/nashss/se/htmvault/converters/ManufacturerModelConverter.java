@@ -1,24 +1,140 @@
 package com.nashss.se.htmvault.converters;
 
 import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
+import com.nashss.se.htmvault.utils.InternUtils;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTypeConverter;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.gson.Gson;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-public class ManufacturerModelConverter implements DynamoDBTypeConverter<String, ManufacturerModel> {
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores a device's or work order's manufacturer/model either as a JSON string or as a native DynamoDB map
+ * (manufacturer, model and required maintenance frequency), which is neither serialized nor parsed as JSON on each
+ * save and load. Both forms are always read; which one is written is set by MANUFACTURER_MODEL_STORAGE ("string",
+ * the default, or "map").
+ *
+ * A DynamoDB index key attribute must hold its declared type, so the devices table must not index manufacturerModel
+ * itself (as the indexes did before they were keyed on manufacturerModelKey) once maps are written. The storage is
+ * therefore switched in steps, each deployed separately (see the DevicesIndexStage parameter of template.yaml, as
+ * a table update creates or deletes at most one index):
+ * 1. deploy at DevicesIndexStage 1, which creates the first index keyed on manufacturerModelKey alongside the old
+ *    ones, still writing strings, and run ManufacturerModelBackfill keys to add the key to the devices saved before;
+ * 2. deploy at DevicesIndexStage 2, which creates the second;
+ * 3. deploy at DevicesIndexStage 3, then 4, which drop the old indexes one at a time;
+ * 4. set MANUFACTURER_MODEL_STORAGE to map, and run ManufacturerModelBackfill maps to rewrite the stored strings.
+ *
+ *
+ * Only a few hundred manufacturer/models exist, but a scan or query of devices or work orders reads one per item, so
+ * they are canonicalized: each distinct stored form is parsed once, and every item holding it is given the same
+ * (flyweight) instance, kept in a bounded cache shared by all the converter's instances. Manufacturer/models read
+ * from the database must therefore not be modified; copy one to change it.
+ */
+public class ManufacturerModelConverter implements DynamoDBTypeConverter<AttributeValue, ManufacturerModel> {
+
+    static final String MANUFACTURER = "manufacturer";
+    static final String MODEL = "model";
+    static final String REQUIRED_MAINTENANCE_FREQUENCY_IN_MONTHS = "requiredMaintenanceFrequencyInMonths";
+
+    static final long CANONICAL_MAXIMUM_SIZE = 1000;
+    static final String STORAGE_ENVIRONMENT_VARIABLE = "MANUFACTURER_MODEL_STORAGE";
+    static final String MAP_STORAGE = "map";
 
     private static final Gson GSON = new Gson();
+    private static final Cache<AttributeValue, ManufacturerModel> CANONICAL = CacheBuilder.newBuilder()
+            .maximumSize(CANONICAL_MAXIMUM_SIZE)
+            .build();
     private final Logger log = LogManager.getLogger();
+    private final boolean writeMap;
+
+    /**
+     * Instantiates a new Manufacturer model converter, writing the form set by MANUFACTURER_MODEL_STORAGE.
+     */
+    public ManufacturerModelConverter() {
+        this(MAP_STORAGE.equalsIgnoreCase(System.getenv(STORAGE_ENVIRONMENT_VARIABLE)));
+    }
+
+    /**
+     * Instantiates a new Manufacturer model converter, writing the form specified.
+     *
+     * @param writeMap whether to write maps, rather than JSON strings
+     */
+    public ManufacturerModelConverter(boolean writeMap) {
+        this.writeMap = writeMap;
+    }
 
     @Override
-    public String convert(ManufacturerModel manufacturerModelToSerialize) {
-        return GSON.toJson(manufacturerModelToSerialize);
+    public AttributeValue convert(ManufacturerModel manufacturerModelToConvert) {
+        return writeMap ? convertToMap(manufacturerModelToConvert) :
+                new AttributeValue().withS(GSON.toJson(manufacturerModelToConvert));
+    }
+
+    /**
+     * Converts a manufacturer/model to its map form, whichever form is being written.
+     *
+     * @param manufacturerModelToConvert the manufacturer/model
+     * @return the map form
+     */
+    public AttributeValue convertToMap(ManufacturerModel manufacturerModelToConvert) {
+        Map<String, AttributeValue> attributes = new HashMap<>();
+        if (null != manufacturerModelToConvert.getManufacturer()) {
+            attributes.put(MANUFACTURER, new AttributeValue().withS(manufacturerModelToConvert.getManufacturer()));
+        }
+        if (null != manufacturerModelToConvert.getModel()) {
+            attributes.put(MODEL, new AttributeValue().withS(manufacturerModelToConvert.getModel()));
+        }
+        if (null != manufacturerModelToConvert.getRequiredMaintenanceFrequencyInMonths()) {
+            attributes.put(REQUIRED_MAINTENANCE_FREQUENCY_IN_MONTHS, new AttributeValue().withN(
+                    manufacturerModelToConvert.getRequiredMaintenanceFrequencyInMonths().toString()));
+        }
+        return new AttributeValue().withM(attributes);
     }
 
     @Override
-    public ManufacturerModel unconvert(String serializedManufacturerModel) {
+    public ManufacturerModel unconvert(AttributeValue convertedManufacturerModel) {
+        ManufacturerModel manufacturerModel = CANONICAL.getIfPresent(convertedManufacturerModel);
+        if (null == manufacturerModel) {
+            // a concurrent read of the same form may parse it too; either instance is equally canonical
+            manufacturerModel = parse(convertedManufacturerModel);
+            CANONICAL.put(convertedManufacturerModel, manufacturerModel);
+        }
+        return manufacturerModel;
+    }
+
+    private ManufacturerModel parse(AttributeValue convertedManufacturerModel) {
+        if (null == convertedManufacturerModel.getM()) {
+            // stored as a JSON string
+            return unconvertJson(convertedManufacturerModel.getS());
+        }
+
+        Map<String, AttributeValue> attributes = convertedManufacturerModel.getM();
+        ManufacturerModel manufacturerModel = new ManufacturerModel();
+        if (attributes.containsKey(MANUFACTURER)) {
+            manufacturerModel.setManufacturer(InternUtils.intern(attributes.get(MANUFACTURER).getS()));
+        }
+        if (attributes.containsKey(MODEL)) {
+            manufacturerModel.setModel(InternUtils.intern(attributes.get(MODEL).getS()));
+        }
+        if (attributes.containsKey(REQUIRED_MAINTENANCE_FREQUENCY_IN_MONTHS)) {
+            manufacturerModel.setRequiredMaintenanceFrequencyInMonths(
+                    Integer.valueOf(attributes.get(REQUIRED_MAINTENANCE_FREQUENCY_IN_MONTHS).getN()));
+        }
+        return manufacturerModel;
+    }
+
+    /**
+     * Reads a manufacturer/model stored as a JSON string.
+     *
+     * @param serializedManufacturerModel the JSON string
+     * @return the manufacturer/model
+     */
+    public ManufacturerModel unconvertJson(String serializedManufacturerModel) {
         return GSON.fromJson(serializedManufacturerModel, ManufacturerModel.class);
     }
 }
@@ -11,6 +11,7 @@ import com.nashss.se.htmvault.models.WorkOrderModel;
 import com.nashss.se.htmvault.utils.CollectionUtils;
 import com.nashss.se.htmvault.utils.HTMVaultServiceUtils;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -23,6 +24,11 @@ import java.util.Set;
  */
 public class ModelConverter {
 
+    /**
+     * The shared instance; the converter holds no state.
+     */
+    public static final ModelConverter INSTANCE = new ModelConverter();
+
     /**
      * Converts a DDB Device object to a public model version (DeviceModel).
      *
@@ -35,22 +41,25 @@ public class ModelConverter {
                 .withSerialNumber(device.getSerialNumber())
                 .withManufacturer(device.getManufacturerModel().getManufacturer())
                 .withModel(device.getManufacturerModel().getModel())
-                .withManufactureDate(device.getManufactureDate() == null ? "" : device.getManufactureDate().toString())
+                .withManufactureDate(device.getManufactureDate() == null ? "" :
+                        toDateString(device.getManufactureDate()))
                 .withServiceStatus(device.getServiceStatus().toString())
                 .withFacilityName(device.getFacilityName())
                 .withAssignedDepartment(device.getAssignedDepartment())
                 .withComplianceThroughDate(null == device.getComplianceThroughDate() ? "" :
-                        device.getComplianceThroughDate().toString())
+                        toDateString(device.getComplianceThroughDate()))
                 .withLastPmCompletionDate(null == device.getLastPmCompletionDate() ? "" :
-                        device.getLastPmCompletionDate().toString())
-                .withNextPmDueDate(null == device.getNextPmDueDate() ? "" : device.getNextPmDueDate().toString())
+                        toDateString(device.getLastPmCompletionDate()))
+                .withNextPmDueDate(null == device.getNextPmDueDate() ? "" : toDateString(device.getNextPmDueDate()))
                 .withMaintenanceFrequencyInMonths(null == device.getManufacturerModel()
                         .getRequiredMaintenanceFrequencyInMonths() ? 0 : device.getManufacturerModel()
                         .getRequiredMaintenanceFrequencyInMonths())
-                .withInventoryAddDate(device.getInventoryAddDate().toString())
+                .withInventoryAddDate(toDateString(device.getInventoryAddDate()))
                 .withAddedById(device.getAddedById())
                 .withAddedByName(device.getAddedByName())
                 .withNotes(null == device.getNotes() ? "" : device.getNotes())
+                .withWorkOrdersVersion(null == device.getWorkOrdersVersion() ? 0 : device.getWorkOrdersVersion())
+                .withOpenWorkOrderCount(null == device.getOpenWorkOrderCount() ? 0 : device.getOpenWorkOrderCount())
                 .build();
     }
 
@@ -186,4 +195,9 @@ public class ModelConverter {
         facilityDepartmentsList.sort(new FacilityDepartmentsComparator());
         return facilityDepartmentsList;
     }
+
+    private static String toDateString(LocalDate date) {
+        // the same ISO form as LocalDate.toString, without its StringBuilder
+        return LocalDateConverter.INSTANCE.convert(date);
+    }
 }
@@ -1,9 +1,13 @@
 package com.nashss.se.htmvault.dependency;
 
 import com.nashss.se.htmvault.dynamodb.DynamoDbClientProvider;
+import com.nashss.se.htmvault.dynamodb.DynamoDbMetricsHandler;
+import com.nashss.se.htmvault.metrics.LatencyHistograms;
+import com.nashss.se.htmvault.metrics.MetricsPublisher;
 
 import com.amazonaws.regions.Regions;
 
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 
 import dagger.Module;
@@ -18,14 +22,31 @@ import javax.inject.Singleton;
 @Module
 public class DaoModule {
 
+    /**
+     * Provides the AmazonDynamoDB client, shared by the DynamoDBMapper and any dao needing table metadata. The time,
+     * items read and capacity consumed of each of its reads and writes are published as metrics.
+     *
+     * @param metricsPublisher  the metrics publisher
+     * @param latencyHistograms the latency histograms, into which the time of each read and write is recorded
+     * @return the AmazonDynamoDB client
+     */
+    @Singleton
+    @Provides
+    public AmazonDynamoDB provideAmazonDynamoDB(MetricsPublisher metricsPublisher,
+                                                LatencyHistograms latencyHistograms) {
+        return DynamoDbClientProvider.getDynamoDBClient(Regions.US_EAST_2,
+                new DynamoDbMetricsHandler(metricsPublisher, latencyHistograms));
+    }
+
     /**
      * Provides a DynamoDBMapper.
      *
+     * @param amazonDynamoDB the AmazonDynamoDB client
      * @return the DynamoDBMapper
      */
     @Singleton
     @Provides
-    public DynamoDBMapper provideDynamoDBMapper() {
-        return new DynamoDBMapper(DynamoDbClientProvider.getDynamoDBClient(Regions.US_EAST_2));
+    public DynamoDBMapper provideDynamoDBMapper(AmazonDynamoDB amazonDynamoDB) {
+        return new DynamoDBMapper(amazonDynamoDB);
     }
 }
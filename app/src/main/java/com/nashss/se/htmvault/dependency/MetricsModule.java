@@ -1,11 +1,18 @@
 package com.nashss.se.htmvault.dependency;
 
+import com.nashss.se.htmvault.metrics.CloudWatchMetricsPublisher;
+import com.nashss.se.htmvault.metrics.EmbeddedMetricFormatPublisher;
+import com.nashss.se.htmvault.metrics.MetricsPublisher;
+
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.cloudwatch.AmazonCloudWatch;
 import com.amazonaws.services.cloudwatch.AmazonCloudWatchAsyncClientBuilder;
+import dagger.Lazy;
 import dagger.Module;
 import dagger.Provides;
 
+import java.nio.file.Paths;
+
 import javax.inject.Singleton;
 
 // from project template
@@ -15,6 +22,10 @@ import javax.inject.Singleton;
 @Module
 public class MetricsModule {
 
+    static final String BACKEND_ENVIRONMENT_VARIABLE = "METRICS_BACKEND";
+    static final String EMF_BACKEND = "emf";
+    static final String EMF_FILE_ENVIRONMENT_VARIABLE = "METRICS_EMF_FILE";
+
     /**
      * Provides CloudWatch client.
      *
@@ -27,4 +38,24 @@ public class MetricsModule {
                 .withRegion(Regions.US_EAST_2)
                 .build();
     }
+
+    /**
+     * Provides the metrics publisher for the backend configured by METRICS_BACKEND: Embedded Metric Format log
+     * lines for 'emf' (appended to the file named by METRICS_EMF_FILE, if set, rather than logged), otherwise the
+     * CloudWatch PutMetricData API.
+     *
+     * @param cloudWatch the CloudWatch client, only built for the CloudWatch backend
+     * @return the metrics publisher
+     */
+    @Provides
+    @Singleton
+    static MetricsPublisher provideMetricsPublisher(Lazy<AmazonCloudWatch> cloudWatch) {
+        if (!EMF_BACKEND.equalsIgnoreCase(System.getenv(BACKEND_ENVIRONMENT_VARIABLE))) {
+            return new CloudWatchMetricsPublisher(cloudWatch.get());
+        }
+
+        String file = System.getenv(EMF_FILE_ENVIRONMENT_VARIABLE);
+        return null == file || file.isBlank() ? new EmbeddedMetricFormatPublisher() :
+                new EmbeddedMetricFormatPublisher(EmbeddedMetricFormatPublisher.fileSink(Paths.get(file)));
+    }
 }
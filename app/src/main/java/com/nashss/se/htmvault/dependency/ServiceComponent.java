@@ -6,6 +6,7 @@ import com.nashss.se.htmvault.activity.CreateWorkOrderActivity;
 import com.nashss.se.htmvault.activity.GetDeviceActivity;
 import com.nashss.se.htmvault.activity.GetDeviceWorkOrdersActivity;
 import com.nashss.se.htmvault.activity.GetFacilitiesAndDepartmentsActivity;
+import com.nashss.se.htmvault.activity.GetFacilityBacklogActivity;
 import com.nashss.se.htmvault.activity.GetManufacturersAndModelsActivity;
 import com.nashss.se.htmvault.activity.GetWorkOrderActivity;
 import com.nashss.se.htmvault.activity.ReactivateDeviceActivity;
@@ -13,7 +14,14 @@ import com.nashss.se.htmvault.activity.RetireDeviceActivity;
 import com.nashss.se.htmvault.activity.SearchDevicesActivity;
 import com.nashss.se.htmvault.activity.UpdateDeviceActivity;
 import com.nashss.se.htmvault.activity.UpdateWorkOrderActivity;
-
+import com.nashss.se.htmvault.dynamodb.DeviceDao;
+import com.nashss.se.htmvault.dynamodb.DeviceSearchIndexDao;
+import com.nashss.se.htmvault.dynamodb.ReferenceDataCache;
+import com.nashss.se.htmvault.dynamodb.WorkOrderDao;
+import com.nashss.se.htmvault.metrics.LatencyHistograms;
+import com.nashss.se.htmvault.metrics.MetricsPublisher;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import dagger.Component;
 
 import javax.inject.Singleton;
@@ -43,6 +51,13 @@ public interface ServiceComponent {
      */
     GetDeviceWorkOrdersActivity provideGetDeviceWorkOrdersActivity();
 
+    /**
+     * Provides get facility backlog activity.
+     *
+     * @return the get facility backlog activity
+     */
+    GetFacilityBacklogActivity provideGetFacilityBacklogActivity();
+
     /**
      * Provides retire device activity.
      *
@@ -112,4 +127,55 @@ public interface ServiceComponent {
      * @return the get facilities and departments activity
      */
     GetFacilitiesAndDepartmentsActivity provideGetFacilitiesAndDepartmentsActivity();
+
+    /**
+     * Provides the device dao, for use by maintenance tools outside of the activities (i.e. index backfills).
+     *
+     * @return the device dao
+     */
+    DeviceDao provideDeviceDao();
+
+    /**
+     * Provides the device search index dao, for use by maintenance tools outside of the activities.
+     *
+     * @return the device search index dao
+     */
+    DeviceSearchIndexDao provideDeviceSearchIndexDao();
+
+    /**
+     * Provides the work order dao, for use by maintenance tools outside of the activities.
+     *
+     * @return the work order dao
+     */
+    WorkOrderDao provideWorkOrderDao();
+
+    /**
+     * Provides the metrics publisher, so that buffered metrics can be flushed before a Lambda invocation returns.
+     *
+     * @return the metrics publisher
+     */
+    MetricsPublisher provideMetricsPublisher();
+
+    /**
+     * Provides the DynamoDB mapper, so that its table models can be built before the first request.
+     *
+     * @return the DynamoDB mapper
+     */
+    DynamoDBMapper provideDynamoDBMapper();
+
+    /**
+     * Provides the container's latency histograms, so that they can be recorded into and summarized as each Lambda
+     * invocation returns.
+     *
+     * @return the latency histograms
+     */
+    LatencyHistograms provideLatencyHistograms();
+
+    /**
+     * Provides the reference data cache, so that a client already holding the current reference data can be told
+     * so without running the activity.
+     *
+     * @return the reference data cache
+     */
+    ReferenceDataCache provideReferenceDataCache();
 }
@@ -0,0 +1,147 @@
+package com.nashss.se.htmvault.dynamodb;
+
+import com.nashss.se.htmvault.dynamodb.models.Device;
+import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
+import com.nashss.se.htmvault.metrics.MetricsConstants;
+import com.nashss.se.htmvault.metrics.MetricsPublisher;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * A bounded cache of devices, by control number, kept for the life of the (warm) Lambda container. Entries expire
+ * a fixed time after they are loaded, and the least recently used entries are evicted once the cache is full.
+ *
+ * Each container has its own cache: a device saved through one container is only invalidated in that container,
+ * and the function's other warm containers may serve the previous version until their entry expires. The time to
+ * live (DEVICE_CACHE_TTL_SECONDS) is kept short for this reason, and devices read in order to be changed and saved
+ * are never taken from the cache (see DeviceDao.getDeviceForUpdate), so a stale copy is only ever displayed.
+ *
+ * Devices are mutable, so the cache holds its own copy of each device and hands out copies.
+ */
+@Singleton
+public class DeviceCache {
+
+    static final String TTL_ENVIRONMENT_VARIABLE = "DEVICE_CACHE_TTL_SECONDS";
+    static final String MAX_SIZE_ENVIRONMENT_VARIABLE = "DEVICE_CACHE_MAX_SIZE";
+    static final long DEFAULT_TTL_SECONDS = 30;
+    static final long DEFAULT_MAX_SIZE = 500;
+
+    private final Cache<String, Device> cache;
+    private final MetricsPublisher metricsPublisher;
+
+    /**
+     * Instantiates a new Device cache, configured from the environment.
+     *
+     * @param metricsPublisher the metrics publisher
+     */
+    @Inject
+    public DeviceCache(MetricsPublisher metricsPublisher) {
+        this(metricsPublisher, parseSetting(System.getenv(TTL_ENVIRONMENT_VARIABLE), DEFAULT_TTL_SECONDS),
+                parseSetting(System.getenv(MAX_SIZE_ENVIRONMENT_VARIABLE), DEFAULT_MAX_SIZE), Ticker.systemTicker());
+    }
+
+    /**
+     * Instantiates a new Device cache with explicit settings.
+     *
+     * @param metricsPublisher the metrics publisher
+     * @param ttlSeconds       how long after loading a device it may be served from the cache
+     * @param maxSize          the maximum number of devices held
+     * @param ticker           the time source for expiry
+     */
+    DeviceCache(MetricsPublisher metricsPublisher, long ttlSeconds, long maxSize, Ticker ticker) {
+        this.metricsPublisher = metricsPublisher;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .ticker(ticker)
+                .removalListener(notification -> {
+                    if (notification.getCause() == RemovalCause.SIZE) {
+                        metricsPublisher.addCount(MetricsConstants.DEVICECACHE_EVICTION_COUNT, 1);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Gets a copy of the cached device with the given control number, if it is cached and has not expired.
+     *
+     * @param controlNumber the control number of the device
+     * @return a copy of the device, or null if it is not cached
+     */
+    public Device get(String controlNumber) {
+        Device device = cache.getIfPresent(controlNumber);
+        metricsPublisher.addCount(MetricsConstants.DEVICECACHE_HIT_COUNT, null == device ? 0 : 1);
+        metricsPublisher.addCount(MetricsConstants.DEVICECACHE_MISS_COUNT, null == device ? 1 : 0);
+        return null == device ? null : copyOf(device);
+    }
+
+    /**
+     * Caches a copy of a device, as just loaded from the database.
+     *
+     * @param device the device
+     */
+    public void put(Device device) {
+        cache.put(device.getControlNumber(), copyOf(device));
+    }
+
+    /**
+     * Removes the device with the given control number from the cache.
+     *
+     * @param controlNumber the control number of the device
+     */
+    public void invalidate(String controlNumber) {
+        cache.invalidate(controlNumber);
+    }
+
+    static long parseSetting(String setting, long defaultValue) {
+        if (null == setting || setting.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            long value = Long.parseLong(setting.trim());
+            return value < 0 ? defaultValue : value;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static Device copyOf(Device device) {
+        Device copy = new Device();
+        copy.setControlNumber(device.getControlNumber());
+        copy.setSerialNumber(device.getSerialNumber());
+        if (null != device.getManufacturerModel()) {
+            ManufacturerModel manufacturerModel = new ManufacturerModel();
+            manufacturerModel.setManufacturer(device.getManufacturerModel().getManufacturer());
+            manufacturerModel.setModel(device.getManufacturerModel().getModel());
+            manufacturerModel.setRequiredMaintenanceFrequencyInMonths(
+                    device.getManufacturerModel().getRequiredMaintenanceFrequencyInMonths());
+            copy.setManufacturerModel(manufacturerModel);
+        }
+        copy.setManufactureDate(device.getManufactureDate());
+        copy.setServiceStatus(device.getServiceStatus());
+        copy.setFacilityName(device.getFacilityName());
+        copy.setAssignedDepartment(device.getAssignedDepartment());
+        copy.setComplianceThroughDate(device.getComplianceThroughDate());
+        copy.setLastPmCompletionDate(device.getLastPmCompletionDate());
+        copy.setNextPmDueDate(device.getNextPmDueDate());
+        copy.setInventoryAddDate(device.getInventoryAddDate());
+        copy.setAddedById(device.getAddedById());
+        copy.setAddedByName(device.getAddedByName());
+        copy.setNotes(device.getNotes());
+        copy.setWorkOrdersVersion(device.getWorkOrdersVersion());
+        copy.setOpenWorkOrderCount(device.getOpenWorkOrderCount());
+        if (null != device.getOpenWorkOrderIds()) {
+            copy.setOpenWorkOrderIds(new HashSet<>(device.getOpenWorkOrderIds()));
+        }
+        return copy;
+    }
+}
@@ -1,25 +1,40 @@
 package com.nashss.se.htmvault.dynamodb;
 
-import com.nashss.se.htmvault.converters.ManufacturerModelConverter;
 import com.nashss.se.htmvault.dynamodb.models.Device;
 import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
 import com.nashss.se.htmvault.exceptions.DeviceNotFoundException;
 import com.nashss.se.htmvault.exceptions.DevicePreviouslyAddedException;
+import com.nashss.se.htmvault.exceptions.RetireDeviceWithOpenWorkOrdersException;
+import com.nashss.se.htmvault.exceptions.UpdateRetiredDeviceException;
 import com.nashss.se.htmvault.metrics.MetricsConstants;
 import com.nashss.se.htmvault.metrics.MetricsPublisher;
+import com.nashss.se.htmvault.models.ServiceStatus;
 
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
 import com.amazonaws.services.dynamodbv2.datamodeling.PaginatedQueryList;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.ExpectedAttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ReturnValue;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -27,43 +42,175 @@ import javax.inject.Singleton;
 @Singleton
 public class DeviceDao {
 
+    private static final int MAX_SAVE_ATTEMPTS = 3;
+
     private final DynamoDBMapper dynamoDBMapper;
+    private final AmazonDynamoDB amazonDynamoDB;
+    private final DeviceSearchIndexDao deviceSearchIndexDao;
+    private final SegmentedScanner segmentedScanner;
+    private final DeviceCache deviceCache;
     private final MetricsPublisher metricsPublisher;
     private final Logger log = LogManager.getLogger();
 
     /**
      * Instantiates a new Device dao.
      *
-     * @param dynamoDBMapper   the dynamo db mapper
-     * @param metricsPublisher the metrics publisher
+     * @param dynamoDBMapper       the dynamo db mapper
+     * @param amazonDynamoDB       the dynamo db client, used for atomic updates of single attributes
+     * @param deviceSearchIndexDao the device search index dao
+     * @param segmentedScanner     the segmented scanner, used for full-table scans
+     * @param deviceCache          the device cache, used by getDevice
+     * @param metricsPublisher     the metrics publisher
      */
     @Inject
-    public DeviceDao(DynamoDBMapper dynamoDBMapper, MetricsPublisher metricsPublisher) {
+    public DeviceDao(DynamoDBMapper dynamoDBMapper, AmazonDynamoDB amazonDynamoDB,
+                     DeviceSearchIndexDao deviceSearchIndexDao, SegmentedScanner segmentedScanner,
+                     DeviceCache deviceCache, MetricsPublisher metricsPublisher) {
         this.dynamoDBMapper = dynamoDBMapper;
+        this.amazonDynamoDB = amazonDynamoDB;
+        this.deviceSearchIndexDao = deviceSearchIndexDao;
+        this.segmentedScanner = segmentedScanner;
+        this.deviceCache = deviceCache;
         this.metricsPublisher = metricsPublisher;
     }
 
     /**
-     * Saves the device in the database.
+     * Saves the device in the database, invalidates any cached copy of it, and updates the device's entries in the
+     * search index to match.
+     *
+     * The device's work order bookkeeping (work orders version, open work order count and ids) is only changed by
+     * atomic updates as work orders are created and closed; the save is conditional on it being unchanged since the
+     * device was read, and if it has changed, the current bookkeeping is read into the device and the save retried.
+     *
+     * Propagates a DeviceSearchIndexException if the device was saved but its search index entries could not all
+     * be written; saving the device again brings them in line.
      *
      * @param device the device to save
      * @return the device saved
      */
     public Device saveDevice(Device device) {
-        dynamoDBMapper.save(device);
+        save(device, false);
+        return device;
+    }
+
+    /**
+     * Saves a device being retired, as saveDevice does, on condition that the device has no open work orders.
+     * Throws a RetireDeviceWithOpenWorkOrdersException if it has any.
+     *
+     * @param device the device to save, with its retired service status set
+     * @return the device saved
+     */
+    public Device retireDevice(Device device) {
+        save(device, true);
         return device;
     }
 
     /**
-     * Gets the device from the database, throwing a DeviceNotFoundException if a device cannot be found
-     * for the provided controlNumber.
+     * Atomically records a new, open work order against a device: the work order is added to the device's open work
+     * orders, and the version of the device's list of work orders (which changes each time the device's work orders
+     * are added to or closed) is incremented. Invalidates any cached copy of the device. Throws a
+     * DeviceNotFoundException if a device cannot be found for the provided control number, or an
+     * UpdateRetiredDeviceException if the device is retired (including if it was retired after it was read), so that
+     * a retired device never has an open work order.
+     *
+     * @param controlNumber the control number (hash key for the device)
+     * @param workOrderId   the id of the new work order
+     * @return the new version of the device's list of work orders
+     */
+    public long addOpenWorkOrder(String controlNumber, String workOrderId) {
+        UpdateItemRequest updateItemRequest = workOrderUpdate(controlNumber, workOrderId)
+                .withUpdateExpression("ADD workOrdersVersion :one, openWorkOrderCount :one, " +
+                        "openWorkOrderIds :workOrderIds")
+                // without the existence condition, the update would create an item for a device that does not exist
+                .withConditionExpression("attribute_exists(controlNumber) AND serviceStatus <> :retired")
+                .addExpressionAttributeValuesEntry(":one", new AttributeValue().withN("1"))
+                .addExpressionAttributeValuesEntry(":retired",
+                        new AttributeValue().withS(ServiceStatus.RETIRED.toString()))
+                .withReturnValues(ReturnValue.UPDATED_NEW);
+
+        try {
+            Map<String, AttributeValue> attributes = amazonDynamoDB.updateItem(updateItemRequest).getAttributes();
+            return Long.parseLong(attributes.get("workOrdersVersion").getN());
+        } catch (ConditionalCheckFailedException e) {
+            // the condition does not say which part failed, so the device is read back to tell
+            Device device = dynamoDBMapper.load(Device.class, controlNumber, DynamoDBMapperConfig.builder()
+                    .withConsistentReads(DynamoDBMapperConfig.ConsistentReads.CONSISTENT)
+                    .build());
+            if (null == device) {
+                throw new DeviceNotFoundException("Could not find device for control number provided: " +
+                        controlNumber + ".");
+            }
+            throw new UpdateRetiredDeviceException("Cannot create a work order for a retired device: " +
+                    controlNumber + ".");
+        } finally {
+            deviceCache.invalidate(controlNumber);
+        }
+    }
+
+    /**
+     * Atomically removes a closed work order from a device's open work orders, incrementing the version of the
+     * device's list of work orders. Invalidates any cached copy of the device. Does nothing if the work order is not
+     * among the device's open work orders (i.e. it has already been removed).
+     *
+     * @param controlNumber the control number (hash key for the device)
+     * @param workOrderId   the id of the closed work order
+     * @return true if the work order was removed, false if it was not among the device's open work orders
+     */
+    public boolean removeOpenWorkOrder(String controlNumber, String workOrderId) {
+        UpdateItemRequest updateItemRequest = workOrderUpdate(controlNumber, workOrderId)
+                .withUpdateExpression("ADD workOrdersVersion :one, openWorkOrderCount :minusOne " +
+                        "DELETE openWorkOrderIds :workOrderIds")
+                // keeps the count in step with the ids, should the same work order be closed twice
+                .withConditionExpression("contains(openWorkOrderIds, :workOrderId)")
+                .addExpressionAttributeValuesEntry(":one", new AttributeValue().withN("1"))
+                .addExpressionAttributeValuesEntry(":minusOne", new AttributeValue().withN("-1"))
+                .addExpressionAttributeValuesEntry(":workOrderId", new AttributeValue().withS(workOrderId));
+
+        try {
+            amazonDynamoDB.updateItem(updateItemRequest);
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            log.info("Work order {} was not among the open work orders of device {}.", workOrderId, controlNumber);
+            return false;
+        } finally {
+            deviceCache.invalidate(controlNumber);
+        }
+    }
+
+    /**
+     * Gets the device from the device cache, or from the database on a cache miss, throwing a
+     * DeviceNotFoundException if a device cannot be found for the provided controlNumber.
      *
      * @param controlNumber the control number (hash key for the device)
      * @return the device
      */
     public Device getDevice(String controlNumber) {
-        Device device = dynamoDBMapper.load(Device.class, controlNumber);
+        Device cachedDevice = deviceCache.get(controlNumber);
+        if (null != cachedDevice) {
+            metricsPublisher.addCount(MetricsConstants.GETDEVICE_DEVICENOTFOUND_COUNT, 0);
+            return cachedDevice;
+        }
+
+        Device device = requireDevice(dynamoDBMapper.load(Device.class, controlNumber), controlNumber);
+        deviceCache.put(device);
+        return device;
+    }
+
+    /**
+     * Gets the device to be changed and saved, with a consistent read of the database that bypasses the device
+     * cache, as a cached copy may be missing changes saved since it was loaded (i.e. by another container) that
+     * saving it would overwrite. Throws a DeviceNotFoundException if a device cannot be found for the provided
+     * controlNumber.
+     *
+     * @param controlNumber the control number (hash key for the device)
+     * @return the device
+     */
+    public Device getDeviceForUpdate(String controlNumber) {
+        return requireDevice(dynamoDBMapper.load(Device.class, controlNumber,
+                DynamoDBMapperConfig.ConsistentReads.CONSISTENT.config()), controlNumber);
+    }
 
+    private Device requireDevice(Device device, String controlNumber) {
         if (null == device) {
             metricsPublisher.addCount(MetricsConstants.GETDEVICE_DEVICENOTFOUND_COUNT, 1);
             log.info("An attempt was made to obtain a device with control number ({}), but could not be " +
@@ -74,71 +221,112 @@ public class DeviceDao {
         return device;
     }
 
-    // from project template, modified for search devices endpoint
     /**
-     * Scans the devices database table for a list of devices matching the search criteria.
+     * Batch-loads the devices with the given control numbers. Control numbers that no longer match a device are
+     * skipped.
      *
-     * @param criteria the criteria for which to scan the table for matching values
-     * @return the list of devices matching the criteria
+     * @param controlNumbers the control numbers of the devices to load
+     * @return the devices found, ordered by control number
      */
-    public List<Device> searchDevices(String[] criteria) {
-        DynamoDBScanExpression dynamoDBScanExpression = new DynamoDBScanExpression();
-
-        if (criteria.length > 0) {
-            Map<String, AttributeValue> valueMap = new HashMap<>();
-            String valueMapNamePrefix = ":c";
-
-            StringBuilder controlNumberFilterExpression = new StringBuilder();
-            StringBuilder serialNumberFilterExpression = new StringBuilder();
-            StringBuilder manufacturerModelFilterExpression = new StringBuilder();
-            StringBuilder serviceStatusExpression = new StringBuilder();
-            StringBuilder facilityNameExpression = new StringBuilder();
-            StringBuilder assignedDepartmentExpression = new StringBuilder();
-            StringBuilder complianceThroughDateExpression = new StringBuilder();
-            StringBuilder nextPmDueDateExpression = new StringBuilder();
-
-            for (int i = 0; i < criteria.length; i++) {
-                valueMap.put(valueMapNamePrefix + i,
-                        new AttributeValue().withS(criteria[i]));
-                controlNumberFilterExpression.append(
-                        filterExpressionPart("controlNumber", valueMapNamePrefix, i));
-                serialNumberFilterExpression.append(
-                        filterExpressionPart("serialNumber", valueMapNamePrefix, i));
-                manufacturerModelFilterExpression.append(
-                        filterExpressionPart("manufacturerModel", valueMapNamePrefix, i));
-                serviceStatusExpression.append(
-                        filterExpressionPart("serviceStatus", valueMapNamePrefix, i));
-                facilityNameExpression.append(
-                        filterExpressionPart("facilityName", valueMapNamePrefix, i));
-                assignedDepartmentExpression.append(
-                        filterExpressionPart("assignedDepartment", valueMapNamePrefix, i));
-                complianceThroughDateExpression.append(
-                        filterExpressionPart("complianceThroughDate", valueMapNamePrefix, i));
-                nextPmDueDateExpression.append(
-                        filterExpressionPart("nextPmDueDate", valueMapNamePrefix, i));
+    public List<Device> getDevices(Collection<String> controlNumbers) {
+        List<Device> devices = new ArrayList<>();
+        if (controlNumbers.isEmpty()) {
+            return devices;
+        }
+
+        List<Device> keys = new ArrayList<>();
+        for (String controlNumber : controlNumbers) {
+            Device key = new Device();
+            key.setControlNumber(controlNumber);
+            keys.add(key);
+        }
+
+        for (List<Object> items : dynamoDBMapper.batchLoad(keys).values()) {
+            for (Object item : items) {
+                devices.add((Device) item);
             }
+        }
+        devices.sort(Comparator.comparing(Device::getControlNumber));
+        return devices;
+    }
+
+    /**
+     * Reads a single page of devices from the devices table, in table order.
+     *
+     * @param limit             the maximum number of devices to read
+     * @param exclusiveStartKey the key at which the previous page ended, or null to start from the beginning
+     * @return the page of devices, with the key from which to read the next page (null if there are no more)
+     */
+    public ResultPage<Device> scanDevices(int limit, Map<String, AttributeValue> exclusiveStartKey) {
+        DynamoDBScanExpression dynamoDBScanExpression = new DynamoDBScanExpression()
+                .withLimit(limit)
+                .withExclusiveStartKey(exclusiveStartKey);
 
-            dynamoDBScanExpression.setExpressionAttributeValues(valueMap);
-            dynamoDBScanExpression.setFilterExpression(
-                    "(" + controlNumberFilterExpression + ") or (" + serialNumberFilterExpression +
-                            ") or (" + manufacturerModelFilterExpression + ") or (" + serviceStatusExpression +
-                            ") or (" + facilityNameExpression + ") or (" + assignedDepartmentExpression +
-                            ") or (" + complianceThroughDateExpression + ") or (" + nextPmDueDateExpression + ")");
+        ScanResultPage<Device> page = dynamoDBMapper.scanPage(Device.class, dynamoDBScanExpression);
+        return new ResultPage<>(page.getResults(), page.getLastEvaluatedKey());
+    }
+
+    /**
+     * Reads a single page of devices for a structured (field-qualified) search. The devices are read by querying
+     * (or scanning) the index chosen by the search's plan, batch-loading them from the table if the index holds
+     * only their keys, or by scanning the table when no index applies (see {@link DeviceSearchPlan}), and any
+     * criteria not covered by the index key are then applied to the devices read. A page may therefore hold fewer
+     * devices than the limit even when more pages follow.
+     *
+     * @param query             the device search query
+     * @param limit             the maximum number of devices to read from the index or table
+     * @param exclusiveStartKey the key at which the previous page ended, or null to start from the beginning
+     * @return the page of matching devices, with the key from which to read the next page (null if there are no
+     * more)
+     */
+    public ResultPage<Device> searchDevices(DeviceSearchQuery query, int limit,
+                                            Map<String, AttributeValue> exclusiveStartKey) {
+        DeviceSearchPlan plan = DeviceSearchPlan.forQuery(query);
+
+        ResultPage<Device> page;
+        if (plan.isScan()) {
+            metricsPublisher.addCount(MetricsConstants.SEARCHDEVICES_SCAN_COUNT, 1);
+            log.info("No index applies to the device search {}; scanning.", query);
+            page = scanDevices(limit, exclusiveStartKey);
+        } else {
+            metricsPublisher.addCount(MetricsConstants.SEARCHDEVICES_SCAN_COUNT, 0);
+            if (plan.isQuery()) {
+                log.info("Querying index {} for the device search {}.", plan.getIndexName(), query);
+                QueryResultPage<Device> queryPage = dynamoDBMapper.queryPage(Device.class,
+                        plan.toQueryExpression(limit, exclusiveStartKey));
+                page = new ResultPage<>(queryPage.getResults(), queryPage.getLastEvaluatedKey());
+            } else {
+                log.info("Scanning index {} for the device search {}.", plan.getIndexName(), query);
+                ScanResultPage<Device> scanPage = dynamoDBMapper.scanPage(Device.class,
+                        plan.toScanExpression(limit, exclusiveStartKey));
+                page = new ResultPage<>(scanPage.getResults(), scanPage.getLastEvaluatedKey());
+            }
+            if (plan.isKeysOnly()) {
+                List<String> controlNumbers = new ArrayList<>();
+                for (Device key : page.getItems()) {
+                    controlNumbers.add(key.getControlNumber());
+                }
+                page = new ResultPage<>(getDevices(controlNumbers), page.getLastEvaluatedKey());
+            }
         }
 
-        return this.dynamoDBMapper.scan(Device.class, dynamoDBScanExpression);
+        List<Device> devices = new ArrayList<>();
+        for (Device device : page.getItems()) {
+            if (query.matches(device)) {
+                devices.add(device);
+            }
+        }
+        return new ResultPage<>(devices, page.getLastEvaluatedKey());
     }
 
-    // from project template, modified for search devices endpoint
-    private StringBuilder filterExpressionPart(String target, String valueMapNamePrefix, int position) {
-        String possiblyAnd = position == 0 ? "" : "and ";
-        return new StringBuilder()
-                .append(possiblyAnd)
-                .append("contains(")
-                .append(target)
-                .append(", ")
-                .append(valueMapNamePrefix).append(position)
-                .append(") ");
+    /**
+     * Reads every device in the devices table. The scan is run as a parallel (segmented) scan; see
+     * {@link SegmentedScanner}.
+     *
+     * @return the list of all devices
+     */
+    public List<Device> scanAllDevices() {
+        return segmentedScanner.scan(Device.class, new DynamoDBScanExpression());
     }
 
     /**
@@ -150,13 +338,14 @@ public class DeviceDao {
      */
     public void checkDevicePreviouslyAdded(ManufacturerModel manufacturerModel, String serialNumber) {
         Map<String, AttributeValue> valueMap = new HashMap<>();
-        valueMap.put(":manufacturerModel",
-                new AttributeValue().withS(new ManufacturerModelConverter().convert(manufacturerModel)));
+        valueMap.put(":manufacturerModelKey", new AttributeValue().withS(
+                ManufacturerModel.toKey(manufacturerModel.getManufacturer(), manufacturerModel.getModel())));
         valueMap.put(":serialNumber", new AttributeValue().withS(serialNumber));
         DynamoDBQueryExpression<Device> queryExpression = new DynamoDBQueryExpression<Device>()
                 .withIndexName(Device.MANUFACTURER_MODEL_SERIAL_NUMBER_INDEX)
                 .withConsistentRead(false)
-                .withKeyConditionExpression("manufacturerModel = :manufacturerModel and serialNumber = :serialNumber")
+                .withKeyConditionExpression(
+                        "manufacturerModelKey = :manufacturerModelKey and serialNumber = :serialNumber")
                 .withExpressionAttributeValues(valueMap);
 
         PaginatedQueryList<Device> deviceList = dynamoDBMapper.query(Device.class, queryExpression);
@@ -173,4 +362,56 @@ public class DeviceDao {
                     manufacturerModel.getModel(), serialNumber));
         }
     }
+
+    private void save(Device device, boolean requireNoOpenWorkOrders) {
+        for (int attempt = 1; ; attempt++) {
+            if (requireNoOpenWorkOrders && null != device.getOpenWorkOrderCount() &&
+                    device.getOpenWorkOrderCount() > 0) {
+                throw new RetireDeviceWithOpenWorkOrdersException("Work order " +
+                        new TreeSet<>(device.getOpenWorkOrderIds()).first() + " has not yet been completed/closed. " +
+                        "All work orders for device (" + device.getControlNumber() + ") must be completed and " +
+                        "closed before device can be retired.");
+            }
+
+            try {
+                dynamoDBMapper.save(device, workOrderBookkeepingUnchanged(device));
+                break;
+            } catch (ConditionalCheckFailedException e) {
+                if (attempt == MAX_SAVE_ATTEMPTS) {
+                    throw e;
+                }
+                // a work order was added to or closed on the device since it was read
+                refreshWorkOrderBookkeeping(device);
+            }
+        }
+
+        deviceCache.invalidate(device.getControlNumber());
+        deviceSearchIndexDao.indexDevice(device);
+    }
+
+    // as every change to the open work orders also changes the work orders version, checking the version is enough
+    private static DynamoDBSaveExpression workOrderBookkeepingUnchanged(Device device) {
+        ExpectedAttributeValue expected = null == device.getWorkOrdersVersion() ? new ExpectedAttributeValue(false) :
+                new ExpectedAttributeValue(new AttributeValue().withN(device.getWorkOrdersVersion().toString()));
+        return new DynamoDBSaveExpression().withExpectedEntry("workOrdersVersion", expected);
+    }
+
+    private void refreshWorkOrderBookkeeping(Device device) {
+        Device current = dynamoDBMapper.load(Device.class, device.getControlNumber(),
+                DynamoDBMapperConfig.ConsistentReads.CONSISTENT.config());
+        if (null == current) {
+            throw new DeviceNotFoundException("Could not find device for control number provided: " +
+                    device.getControlNumber() + ".");
+        }
+        device.setWorkOrdersVersion(current.getWorkOrdersVersion());
+        device.setOpenWorkOrderCount(current.getOpenWorkOrderCount());
+        device.setOpenWorkOrderIds(current.getOpenWorkOrderIds());
+    }
+
+    private static UpdateItemRequest workOrderUpdate(String controlNumber, String workOrderId) {
+        return new UpdateItemRequest()
+                .withTableName(Device.class.getAnnotation(DynamoDBTable.class).tableName())
+                .withKey(Map.of("controlNumber", new AttributeValue().withS(controlNumber)))
+                .addExpressionAttributeValuesEntry(":workOrderIds", new AttributeValue().withSS(workOrderId));
+    }
 }
@@ -0,0 +1,296 @@
+package com.nashss.se.htmvault.dynamodb;
+
+import com.nashss.se.htmvault.dynamodb.models.Device;
+import com.nashss.se.htmvault.dynamodb.models.DeviceSearchToken;
+import com.nashss.se.htmvault.exceptions.DeviceSearchIndexException;
+import com.nashss.se.htmvault.metrics.MetricsConstants;
+import com.nashss.se.htmvault.metrics.MetricsPublisher;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper.FailedBatch;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Maintains and queries the inverted search index for devices (normalized token -> control numbers), so that a
+ * device search can be resolved from the posting lists of its criteria instead of scanning the devices table.
+ */
+@Singleton
+public class DeviceSearchIndexDao {
+
+    // tokens are indexed along with each of their prefixes down to this length, so that partially typed criteria
+    // (i.e. "defib" for "defibrillator") still match; shorter prefixes would each be shared by a large share of the
+    // devices, making for long posting lists to read and many postings to write per device
+    static final int MIN_PREFIX_LENGTH = 3;
+    // the queries of the driving criterion's postings one page of a search may make, so that a combination of
+    // criteria that rarely occur together does not read the whole posting list in one request
+    static final int MAX_POSTINGS_QUERIES = 5;
+
+    private final DynamoDBMapper dynamoDBMapper;
+    private final MetricsPublisher metricsPublisher;
+    private final Logger log = LogManager.getLogger();
+
+    /**
+     * Instantiates a new Device search index dao.
+     *
+     * @param dynamoDBMapper   the dynamo db mapper
+     * @param metricsPublisher the metrics publisher
+     */
+    @Inject
+    public DeviceSearchIndexDao(DynamoDBMapper dynamoDBMapper, MetricsPublisher metricsPublisher) {
+        this.dynamoDBMapper = dynamoDBMapper;
+        this.metricsPublisher = metricsPublisher;
+    }
+
+    /**
+     * Brings the index entries for a device in line with its current attribute values, writing postings for new
+     * tokens and deleting postings for tokens the device no longer contains. Throws a DeviceSearchIndexException
+     * if any of the entries could not be written; as only differences are written, indexing the device again
+     * writes those still missing.
+     *
+     * @param device the device (as saved) to index
+     */
+    public void indexDevice(Device device) {
+        String controlNumber = device.getControlNumber();
+        Set<String> currentTokens = tokenize(device);
+        Set<String> previousTokens = getTokens(controlNumber);
+
+        List<DeviceSearchToken> toSave = new ArrayList<>();
+        for (String token : currentTokens) {
+            if (!previousTokens.contains(token)) {
+                toSave.add(posting(token, controlNumber));
+            }
+        }
+        List<DeviceSearchToken> toDelete = new ArrayList<>();
+        for (String token : previousTokens) {
+            if (!currentTokens.contains(token)) {
+                toDelete.add(posting(token, controlNumber));
+            }
+        }
+
+        if (toSave.isEmpty() && toDelete.isEmpty()) {
+            return;
+        }
+
+        List<FailedBatch> failedBatches = dynamoDBMapper.batchWrite(toSave, toDelete);
+        if (!failedBatches.isEmpty()) {
+            metricsPublisher.addCount(MetricsConstants.DEVICESEARCHINDEX_FAILEDBATCH_COUNT, failedBatches.size());
+            log.warn("Failed to write {} batch(es) of search index entries for device ({}).",
+                    failedBatches.size(), controlNumber, failedBatches.get(0).getException());
+            throw new DeviceSearchIndexException("Failed to write " + failedBatches.size() + " batch(es) of " +
+                    "search index entries for device " + controlNumber + ".", failedBatches.get(0).getException());
+        }
+        metricsPublisher.addCount(MetricsConstants.DEVICESEARCHINDEX_FAILEDBATCH_COUNT, 0);
+    }
+
+    /**
+     * Resolves search criteria to a page of the control numbers of the devices containing every one of the criteria.
+     * Only the postings of the longest criterion, the most selective, are read, a page at a time from the control
+     * number after the exclusive start key, and each of those control numbers is then looked up in the postings of
+     * the other criteria, so the reads grow with the page rather than with how common the criteria are. Reading
+     * stops once the page is full, or after MAX_POSTINGS_QUERIES queries, in which case the page may hold fewer
+     * control numbers than the limit (or none) and is continued from its last evaluated key.
+     *
+     * @param criteria          the search criteria (i.e. a manufacturer name, a partial serial number, a department)
+     * @param limit             the maximum number of control numbers to return
+     * @param exclusiveStartKey the key at which the previous page ended (its last control number), or null for the
+     *                          first page
+     * @return the page of matching control numbers, in ascending order
+     */
+    public ResultPage<String> getControlNumbers(Collection<String> criteria, int limit,
+                                                Map<String, AttributeValue> exclusiveStartKey) {
+        List<String> otherTokens = new ArrayList<>();
+        for (String criterion : criteria) {
+            String token = normalize(criterion);
+            if (!token.isEmpty() && !otherTokens.contains(token)) {
+                otherTokens.add(token);
+            }
+        }
+        if (otherTokens.isEmpty()) {
+            return new ResultPage<>(new ArrayList<>(), null);
+        }
+        String drivingToken = Collections.max(otherTokens, Comparator.comparingInt(String::length));
+        otherTokens.remove(drivingToken);
+
+        Map<String, AttributeValue> startKey = null;
+        if (null != exclusiveStartKey && exclusiveStartKey.containsKey("controlNumber")) {
+            startKey = Map.of("token", new AttributeValue().withS(drivingToken),
+                    "controlNumber", exclusiveStartKey.get("controlNumber"));
+        }
+
+        List<String> controlNumbers = new ArrayList<>();
+        for (int queries = 0; queries < MAX_POSTINGS_QUERIES && controlNumbers.size() < limit; queries++) {
+            QueryResultPage<DeviceSearchToken> postings = dynamoDBMapper.queryPage(DeviceSearchToken.class,
+                    postingsQuery(drivingToken)
+                            .withLimit(limit - controlNumbers.size())
+                            .withExclusiveStartKey(startKey));
+
+            List<String> candidates = new ArrayList<>();
+            for (DeviceSearchToken posting : postings.getResults()) {
+                candidates.add(posting.getControlNumber());
+            }
+            controlNumbers.addAll(withEveryToken(candidates, otherTokens));
+
+            startKey = postings.getLastEvaluatedKey();
+            if (null == startKey) {
+                break;
+            }
+        }
+
+        return new ResultPage<>(controlNumbers,
+                null == startKey ? null : Map.of("controlNumber", startKey.get("controlNumber")));
+    }
+
+    /**
+     * Computes the set of search tokens for a device: each whitespace-separated word of the control number, serial
+     * number, manufacturer, model, facility, department, service status, compliance-through-date and next pm due
+     * date, together with each word's prefixes.
+     *
+     * @param device the device to tokenize
+     * @return the device's search tokens
+     */
+    public static Set<String> tokenize(Device device) {
+        Set<String> tokens = new HashSet<>();
+        addTokens(tokens, device.getControlNumber());
+        addTokens(tokens, device.getSerialNumber());
+        if (null != device.getManufacturerModel()) {
+            addTokens(tokens, device.getManufacturerModel().getManufacturer());
+            addTokens(tokens, device.getManufacturerModel().getModel());
+        }
+        addTokens(tokens, null == device.getServiceStatus() ? null : device.getServiceStatus().toString());
+        addTokens(tokens, device.getFacilityName());
+        addTokens(tokens, device.getAssignedDepartment());
+        addTokens(tokens, dateToString(device.getComplianceThroughDate()));
+        addTokens(tokens, dateToString(device.getNextPmDueDate()));
+        return tokens;
+    }
+
+    /**
+     * Checks a device against search criteria, as the search index would match it: the device must contain the
+     * normalized form of every criterion among its search tokens. The index is read from an eventually consistent
+     * index, so it can still hold entries for tokens a device has since lost; the devices loaded through the index
+     * are re-checked with this.
+     *
+     * @param device   the device to check
+     * @param criteria the search criteria
+     * @return true if the device contains every one of the criteria
+     */
+    public static boolean matches(Device device, Collection<String> criteria) {
+        Set<String> tokens = tokenize(device);
+        for (String criterion : criteria) {
+            String token = normalize(criterion);
+            if (!token.isEmpty() && !tokens.contains(token)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Normalizes a single search criterion (or attribute word) to the form in which it is stored in the index.
+     *
+     * @param value the value to normalize
+     * @return the normalized token
+     */
+    public static String normalize(String value) {
+        return null == value ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void addTokens(Set<String> tokens, String value) {
+        if (null == value) {
+            return;
+        }
+        for (String word : value.split("\\s")) {
+            String token = normalize(word);
+            if (token.isEmpty()) {
+                continue;
+            }
+            tokens.add(token);
+            for (int length = token.length() - 1; length >= MIN_PREFIX_LENGTH; length--) {
+                tokens.add(token.substring(0, length));
+            }
+        }
+    }
+
+    private static String dateToString(LocalDate date) {
+        return null == date ? null : date.toString();
+    }
+
+    private static DeviceSearchToken posting(String token, String controlNumber) {
+        DeviceSearchToken posting = new DeviceSearchToken();
+        posting.setToken(token);
+        posting.setControlNumber(controlNumber);
+        return posting;
+    }
+
+    private static DynamoDBQueryExpression<DeviceSearchToken> postingsQuery(String token) {
+        Map<String, AttributeValue> valueMap = new HashMap<>();
+        valueMap.put(":token", new AttributeValue().withS(token));
+        return new DynamoDBQueryExpression<DeviceSearchToken>()
+                .withKeyConditionExpression("#token = :token")
+                .withExpressionAttributeNames(Map.of("#token", "token"))
+                .withExpressionAttributeValues(valueMap);
+    }
+
+    // keeps, in order, the control numbers that have a posting for every one of the tokens
+    private List<String> withEveryToken(List<String> controlNumbers, List<String> tokens) {
+        if (controlNumbers.isEmpty() || tokens.isEmpty()) {
+            return controlNumbers;
+        }
+
+        List<Object> keys = new ArrayList<>();
+        for (String controlNumber : controlNumbers) {
+            for (String token : tokens) {
+                keys.add(posting(token, controlNumber));
+            }
+        }
+        Map<String, Integer> tokensFound = new HashMap<>();
+        for (List<Object> postings : dynamoDBMapper.batchLoad(keys).values()) {
+            for (Object posting : postings) {
+                tokensFound.merge(((DeviceSearchToken) posting).getControlNumber(), 1, Integer::sum);
+            }
+        }
+
+        List<String> matching = new ArrayList<>();
+        for (String controlNumber : controlNumbers) {
+            if (tokensFound.getOrDefault(controlNumber, 0) == tokens.size()) {
+                matching.add(controlNumber);
+            }
+        }
+        return matching;
+    }
+
+    private Set<String> getTokens(String controlNumber) {
+        Map<String, AttributeValue> valueMap = new HashMap<>();
+        valueMap.put(":controlNumber", new AttributeValue().withS(controlNumber));
+        DynamoDBQueryExpression<DeviceSearchToken> queryExpression = new DynamoDBQueryExpression<DeviceSearchToken>()
+                .withIndexName(DeviceSearchToken.CONTROL_NUMBER_SEARCH_TOKENS_INDEX)
+                .withConsistentRead(false)
+                .withKeyConditionExpression("controlNumber = :controlNumber")
+                .withExpressionAttributeValues(valueMap);
+
+        Set<String> tokens = new HashSet<>();
+        for (DeviceSearchToken posting : dynamoDBMapper.query(DeviceSearchToken.class, queryExpression)) {
+            tokens.add(posting.getToken());
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,168 @@
+package com.nashss.se.htmvault.dynamodb;
+
+import com.nashss.se.htmvault.converters.LocalDateConverter;
+import com.nashss.se.htmvault.dynamodb.models.Device;
+import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * How a structured device search is read from the devices table: a query of the most selective of the device
+ * table's global secondary indexes that the search's criteria can be used as a key condition for, or a scan of the
+ * table when none can. Any criteria not covered by the key condition are left to be checked against each device
+ * read (see {@link DeviceSearchQuery#matches(Device)}).
+ *
+ * The facility indexes are tried in order of selectivity: department (equality on both keys), then manufacturer
+ * and model (the manufacturer/model key, or the manufacturer's prefix of it), then pm due date (a range), and
+ * finally the facility alone.
+ *
+ * Without a facility, a manufacturer and model search queries the manufacturer/model and serial number index by
+ * its key, and a manufacturer search scans that index for keys with the manufacturer's prefix (the hash key cannot
+ * be queried by prefix), which reads far less than scanning the table. That index projects only the keys, so the
+ * devices found are then batch-loaded from the table (see {@link #isKeysOnly()}).
+ */
+public class DeviceSearchPlan {
+
+    private final String indexName;
+    private final String keyConditionExpression;
+    private final String filterExpression;
+    private final Map<String, AttributeValue> valueMap;
+    private final boolean keysOnly;
+
+    private DeviceSearchPlan(String indexName, String keyConditionExpression, Map<String, AttributeValue> valueMap) {
+        this(indexName, keyConditionExpression, null, valueMap, false);
+    }
+
+    private DeviceSearchPlan(String indexName, String keyConditionExpression, String filterExpression,
+                             Map<String, AttributeValue> valueMap, boolean keysOnly) {
+        this.indexName = indexName;
+        this.keyConditionExpression = keyConditionExpression;
+        this.filterExpression = filterExpression;
+        this.valueMap = valueMap;
+        this.keysOnly = keysOnly;
+    }
+
+    /**
+     * Chooses how to read the devices for a search.
+     *
+     * @param query the device search query
+     * @return the plan for the search
+     */
+    public static DeviceSearchPlan forQuery(DeviceSearchQuery query) {
+        if (null == query.getFacilityName()) {
+            return forQueryWithoutFacility(query);
+        }
+
+        Map<String, AttributeValue> valueMap = new HashMap<>();
+        valueMap.put(":facilityName", new AttributeValue().withS(query.getFacilityName()));
+
+        if (null != query.getAssignedDepartment()) {
+            valueMap.put(":assignedDepartment", new AttributeValue().withS(query.getAssignedDepartment()));
+            return new DeviceSearchPlan(Device.FACILITY_DEPARTMENT_INDEX,
+                    "facilityName = :facilityName and assignedDepartment = :assignedDepartment", valueMap);
+        }
+
+        if (null != query.getManufacturer()) {
+            valueMap.put(":manufacturerModelKey", new AttributeValue().withS(
+                    ManufacturerModel.toKey(query.getManufacturer(), query.getModel())));
+            return new DeviceSearchPlan(Device.FACILITY_MANUFACTURER_MODEL_INDEX, null == query.getModel() ?
+                    "facilityName = :facilityName and begins_with(manufacturerModelKey, :manufacturerModelKey)" :
+                    "facilityName = :facilityName and manufacturerModelKey = :manufacturerModelKey", valueMap);
+        }
+
+        if (null != query.getPmDueBefore()) {
+            valueMap.put(":pmDueBefore", new AttributeValue().withS(
+                    LocalDateConverter.INSTANCE.convert(query.getPmDueBefore())));
+            return new DeviceSearchPlan(Device.FACILITY_PM_DUE_DATE_INDEX,
+                    "facilityName = :facilityName and nextPmDueDate < :pmDueBefore", valueMap);
+        }
+
+        // every device has a department, so this index holds every device of the facility
+        return new DeviceSearchPlan(Device.FACILITY_DEPARTMENT_INDEX, "facilityName = :facilityName", valueMap);
+    }
+
+    private static DeviceSearchPlan forQueryWithoutFacility(DeviceSearchQuery query) {
+        if (null == query.getManufacturer()) {
+            return new DeviceSearchPlan(null, null, null);
+        }
+
+        Map<String, AttributeValue> valueMap = new HashMap<>();
+        valueMap.put(":manufacturerModelKey", new AttributeValue().withS(
+                ManufacturerModel.toKey(query.getManufacturer(), query.getModel())));
+        return null == query.getModel() ?
+                new DeviceSearchPlan(Device.MANUFACTURER_MODEL_SERIAL_NUMBER_INDEX, null,
+                        "begins_with(manufacturerModelKey, :manufacturerModelKey)", valueMap, true) :
+                new DeviceSearchPlan(Device.MANUFACTURER_MODEL_SERIAL_NUMBER_INDEX,
+                        "manufacturerModelKey = :manufacturerModelKey", null, valueMap, true);
+    }
+
+    /**
+     * Whether no index applies, and the table must be scanned.
+     *
+     * @return true if the search requires a scan
+     */
+    public boolean isScan() {
+        return null == indexName;
+    }
+
+    /**
+     * Whether the index is queried by a key condition, rather than scanned with a filter.
+     *
+     * @return true if the plan reads the index with toQueryExpression, false if with toScanExpression
+     */
+    public boolean isQuery() {
+        return null != keyConditionExpression;
+    }
+
+    /**
+     * Whether the index projects only the keys of the devices, which must then be loaded from the table.
+     *
+     * @return true if the devices read from the index hold only their keys
+     */
+    public boolean isKeysOnly() {
+        return keysOnly;
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    /**
+     * Builds the query expression reading a single page of the index for this plan.
+     *
+     * @param limit             the maximum number of devices to read
+     * @param exclusiveStartKey the key at which the previous page ended, or null to start from the beginning
+     * @return the query expression
+     */
+    public DynamoDBQueryExpression<Device> toQueryExpression(int limit, Map<String, AttributeValue> exclusiveStartKey) {
+        return new DynamoDBQueryExpression<Device>()
+                .withIndexName(indexName)
+                .withConsistentRead(false)
+                .withKeyConditionExpression(keyConditionExpression)
+                .withExpressionAttributeValues(valueMap)
+                .withLimit(limit)
+                .withExclusiveStartKey(exclusiveStartKey);
+    }
+
+    /**
+     * Builds the scan expression reading a single page of the index for this plan, filtered to the devices matching
+     * it.
+     *
+     * @param limit             the maximum number of index entries to read
+     * @param exclusiveStartKey the key at which the previous page ended, or null to start from the beginning
+     * @return the scan expression
+     */
+    public DynamoDBScanExpression toScanExpression(int limit, Map<String, AttributeValue> exclusiveStartKey) {
+        return new DynamoDBScanExpression()
+                .withIndexName(indexName)
+                .withFilterExpression(filterExpression)
+                .withExpressionAttributeValues(valueMap)
+                .withLimit(limit)
+                .withExclusiveStartKey(exclusiveStartKey);
+    }
+}
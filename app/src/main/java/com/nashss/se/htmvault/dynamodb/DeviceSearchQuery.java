@@ -0,0 +1,209 @@
+package com.nashss.se.htmvault.dynamodb;
+
+import com.nashss.se.htmvault.dynamodb.models.Device;
+import com.nashss.se.htmvault.exceptions.InvalidAttributeValueException;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A parsed device search. Criteria may be qualified with the field they apply to, i.e.
+ * {@code facility:"Main Hospital" department:ICU pmDueBefore:2023-07-01 defib}, where a qualified value containing
+ * spaces is enclosed in double quotes. Qualified criteria must match their field exactly (or, for pmDueBefore, the
+ * next pm due date must be before the date given); unqualified criteria are free-text terms, matched the same way
+ * as the device search index matches them.
+ */
+public class DeviceSearchQuery {
+
+    public static final String FACILITY = "facility";
+    public static final String DEPARTMENT = "department";
+    public static final String MANUFACTURER = "manufacturer";
+    public static final String MODEL = "model";
+    public static final String PM_DUE_BEFORE = "pmduebefore";
+
+    private String facilityName;
+    private String assignedDepartment;
+    private String manufacturer;
+    private String model;
+    private LocalDate pmDueBefore;
+    private final List<String> terms = new ArrayList<>();
+
+    private DeviceSearchQuery() { }
+
+    /**
+     * Parses search criteria into a device search query. Throws an InvalidAttributeValueException if a qualified
+     * criterion has no value, or if the pmDueBefore date is not a valid date (yyyy-MM-dd).
+     *
+     * @param criteria the search criteria, possibly null
+     * @return the device search query
+     */
+    public static DeviceSearchQuery parse(String criteria) {
+        DeviceSearchQuery query = new DeviceSearchQuery();
+        if (null == criteria) {
+            return query;
+        }
+
+        for (String criterion : splitCriteria(criteria)) {
+            int separator = criterion.indexOf(':');
+            String field = separator < 1 ? "" : criterion.substring(0, separator).toLowerCase(Locale.ROOT);
+            String value = separator < 1 ? criterion : unquote(criterion.substring(separator + 1));
+
+            switch (field) {
+                case FACILITY:
+                    query.facilityName = requireValue(field, value);
+                    break;
+                case DEPARTMENT:
+                    query.assignedDepartment = requireValue(field, value);
+                    break;
+                case MANUFACTURER:
+                    query.manufacturer = requireValue(field, value);
+                    break;
+                case MODEL:
+                    query.model = requireValue(field, value);
+                    break;
+                case PM_DUE_BEFORE:
+                    query.pmDueBefore = parseDate(field, requireValue(field, value));
+                    break;
+                default:
+                    // not a recognized qualifier (i.e. a serial number containing a colon), so search for it as is
+                    query.terms.add(unquote(criterion));
+            }
+        }
+        return query;
+    }
+
+    public String getFacilityName() {
+        return facilityName;
+    }
+
+    public String getAssignedDepartment() {
+        return assignedDepartment;
+    }
+
+    public String getManufacturer() {
+        return manufacturer;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public LocalDate getPmDueBefore() {
+        return pmDueBefore;
+    }
+
+    public List<String> getTerms() {
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * Whether any of the criteria were qualified with a field.
+     *
+     * @return true if the query has at least one field-qualified criterion
+     */
+    public boolean isStructured() {
+        return null != facilityName || null != assignedDepartment || null != manufacturer || null != model ||
+                null != pmDueBefore;
+    }
+
+    /**
+     * Checks whether a device satisfies every criterion of the query.
+     *
+     * @param device the device to check
+     * @return true if the device matches the query
+     */
+    public boolean matches(Device device) {
+        if (!matchesValue(facilityName, device.getFacilityName()) ||
+                !matchesValue(assignedDepartment, device.getAssignedDepartment())) {
+            return false;
+        }
+
+        String deviceManufacturer = null == device.getManufacturerModel() ? null :
+                device.getManufacturerModel().getManufacturer();
+        String deviceModel = null == device.getManufacturerModel() ? null : device.getManufacturerModel().getModel();
+        if (!matchesValue(manufacturer, deviceManufacturer) || !matchesValue(model, deviceModel)) {
+            return false;
+        }
+
+        if (null != pmDueBefore && (null == device.getNextPmDueDate() ||
+                !device.getNextPmDueDate().isBefore(pmDueBefore))) {
+            return false;
+        }
+
+        if (terms.isEmpty()) {
+            return true;
+        }
+        Set<String> tokens = DeviceSearchIndexDao.tokenize(device);
+        for (String term : terms) {
+            if (!tokens.contains(DeviceSearchIndexDao.normalize(term))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "DeviceSearchQuery{" +
+                "facilityName='" + facilityName + '\'' +
+                ", assignedDepartment='" + assignedDepartment + '\'' +
+                ", manufacturer='" + manufacturer + '\'' +
+                ", model='" + model + '\'' +
+                ", pmDueBefore=" + pmDueBefore +
+                ", terms=" + terms +
+                '}';
+    }
+
+    private static boolean matchesValue(String expected, String actual) {
+        return null == expected || expected.equals(actual);
+    }
+
+    // splits on whitespace, except within double quotes
+    private static List<String> splitCriteria(String criteria) {
+        List<String> criteriaList = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (char c : criteria.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+                current.append(c);
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (current.length() > 0) {
+                    criteriaList.add(current.toString());
+                    current.setLength(0);
+                }
+            } else {
+                current.append(c);
+            }
+        }
+        if (current.length() > 0) {
+            criteriaList.add(current.toString());
+        }
+        return criteriaList;
+    }
+
+    private static String unquote(String value) {
+        return value.replace("\"", "");
+    }
+
+    private static String requireValue(String field, String value) {
+        if (value.isBlank()) {
+            throw new InvalidAttributeValueException(String.format("A value must be provided for the search " +
+                    "field '%s'.", field));
+        }
+        return value;
+    }
+
+    private static LocalDate parseDate(String field, String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidAttributeValueException(String.format("The value (%s) for the search field '%s' must " +
+                    "be a date (yyyy-MM-dd).", value, field), e);
+        }
+    }
+}
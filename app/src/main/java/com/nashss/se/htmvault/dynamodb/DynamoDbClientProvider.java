@@ -1,6 +1,7 @@
 package com.nashss.se.htmvault.dynamodb;
 
 import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
+import com.amazonaws.handlers.RequestHandler2;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
@@ -21,9 +22,10 @@ public class DynamoDbClientProvider {
     /**
      * Returns DynamoDB client using default region.
      * @param region If present, will be used as the region for the DynamoDB client
+     * @param requestHandlers handlers called around each call the client makes (i.e. to record metrics)
      * @return AmazonDynamoDB
      */
-    public static AmazonDynamoDB getDynamoDBClient(Regions region) {
+    public static AmazonDynamoDB getDynamoDBClient(Regions region, RequestHandler2... requestHandlers) {
         if (null == region) {
             throw new IllegalArgumentException("region cannot be null");
         }
@@ -34,6 +36,7 @@ public class DynamoDbClientProvider {
                 .withCredentials(DefaultAWSCredentialsProviderChain.getInstance())
                 // This should be the same region the CloudFormation stack with tables was deployed in
                 .withRegion(region)
+                .withRequestHandlers(requestHandlers)
                 .build();
     }
 }
@@ -0,0 +1,240 @@
+package com.nashss.se.htmvault.dynamodb;
+
+import com.nashss.se.htmvault.metrics.LatencyHistogram;
+import com.nashss.se.htmvault.metrics.LatencyHistograms;
+import com.nashss.se.htmvault.metrics.MetricsConstants;
+import com.nashss.se.htmvault.metrics.MetricsPublisher;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemResult;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemResult;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records the latency, items read and capacity consumed of each read and write the DynamoDB client makes, by
+ * operation, table and (for queries and scans of an index) index. As every DAO reads and writes through the same
+ * client, this covers each DAO operation without wrapping them one by one: a load is a GetItem call, a save a PutItem
+ * or UpdateItem call, and each page of a query or scan a Query or Scan call (so the pages fetched are counted too).
+ *
+ * The time of each call is also recorded into the latency histograms, for its percentiles. The dimensions and
+ * histogram of each operation, table and index are looked up once and kept, as the handler runs on every call.
+ *
+ * Every read and write is made to return the total capacity it consumed, unless the caller has already asked for
+ * it in more detail.
+ */
+public class DynamoDbMetricsHandler extends RequestHandler2 {
+
+    private static final HandlerContextKey<Long> START_NANOS = new HandlerContextKey<>("StartNanos");
+
+    private final MetricsPublisher metricsPublisher;
+    private final LatencyHistograms latencyHistograms;
+    private final ConcurrentMap<String, Target> targets = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new DynamoDB metrics handler.
+     *
+     * @param metricsPublisher  the metrics publisher
+     * @param latencyHistograms the latency histograms
+     */
+    public DynamoDbMetricsHandler(MetricsPublisher metricsPublisher, LatencyHistograms latencyHistograms) {
+        this.metricsPublisher = metricsPublisher;
+        this.latencyHistograms = latencyHistograms;
+    }
+
+    @Override
+    public AmazonWebServiceRequest beforeExecution(AmazonWebServiceRequest request) {
+        if (request instanceof GetItemRequest && null == ((GetItemRequest) request).getReturnConsumedCapacity()) {
+            ((GetItemRequest) request).setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof PutItemRequest &&
+                null == ((PutItemRequest) request).getReturnConsumedCapacity()) {
+            ((PutItemRequest) request).setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof UpdateItemRequest &&
+                null == ((UpdateItemRequest) request).getReturnConsumedCapacity()) {
+            ((UpdateItemRequest) request).setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof DeleteItemRequest &&
+                null == ((DeleteItemRequest) request).getReturnConsumedCapacity()) {
+            ((DeleteItemRequest) request).setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof QueryRequest && null == ((QueryRequest) request).getReturnConsumedCapacity()) {
+            ((QueryRequest) request).setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof ScanRequest && null == ((ScanRequest) request).getReturnConsumedCapacity()) {
+            ((ScanRequest) request).setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof BatchGetItemRequest &&
+                null == ((BatchGetItemRequest) request).getReturnConsumedCapacity()) {
+            ((BatchGetItemRequest) request).setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        } else if (request instanceof BatchWriteItemRequest &&
+                null == ((BatchWriteItemRequest) request).getReturnConsumedCapacity()) {
+            ((BatchWriteItemRequest) request).setReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        }
+        return request;
+    }
+
+    @Override
+    public void beforeRequest(Request<?> request) {
+        // once per call, before any retries, so that the time recorded is the time the caller waited
+        request.addHandlerContext(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterResponse(Request<?> request, Response<?> response) {
+        AmazonWebServiceRequest original = request.getOriginalRequest();
+        Object result = response.getAwsResponse();
+        long elapsedNanos = nanosSince(request.getHandlerContext(START_NANOS));
+
+        if (original instanceof GetItemRequest) {
+            GetItemResult getItemResult = (GetItemResult) result;
+            record("GetItem", ((GetItemRequest) original).getTableName(), null, elapsedNanos,
+                    null == getItemResult.getItem() ? 0 : 1, getItemResult.getConsumedCapacity());
+        } else if (original instanceof PutItemRequest) {
+            record("PutItem", ((PutItemRequest) original).getTableName(), null, elapsedNanos, null,
+                    ((PutItemResult) result).getConsumedCapacity());
+        } else if (original instanceof UpdateItemRequest) {
+            record("UpdateItem", ((UpdateItemRequest) original).getTableName(), null, elapsedNanos, null,
+                    ((UpdateItemResult) result).getConsumedCapacity());
+        } else if (original instanceof DeleteItemRequest) {
+            record("DeleteItem", ((DeleteItemRequest) original).getTableName(), null, elapsedNanos, null,
+                    ((DeleteItemResult) result).getConsumedCapacity());
+        } else if (original instanceof QueryRequest) {
+            QueryRequest queryRequest = (QueryRequest) original;
+            QueryResult queryResult = (QueryResult) result;
+            record("Query", queryRequest.getTableName(), queryRequest.getIndexName(), elapsedNanos,
+                    queryResult.getCount(), queryResult.getConsumedCapacity());
+        } else if (original instanceof ScanRequest) {
+            ScanRequest scanRequest = (ScanRequest) original;
+            ScanResult scanResult = (ScanResult) result;
+            record("Scan", scanRequest.getTableName(), scanRequest.getIndexName(), elapsedNanos,
+                    scanResult.getCount(), scanResult.getConsumedCapacity());
+        } else if (original instanceof BatchGetItemRequest) {
+            BatchGetItemResult batchGetItemResult = (BatchGetItemResult) result;
+            Map<String, ConsumedCapacity> consumedCapacity = byTable(batchGetItemResult.getConsumedCapacity());
+            for (String tableName : ((BatchGetItemRequest) original).getRequestItems().keySet()) {
+                List<?> items = batchGetItemResult.getResponses().get(tableName);
+                record("BatchGetItem", tableName, null, elapsedNanos, null == items ? 0 : items.size(),
+                        consumedCapacity.get(tableName));
+            }
+        } else if (original instanceof BatchWriteItemRequest) {
+            Map<String, ConsumedCapacity> consumedCapacity =
+                    byTable(((BatchWriteItemResult) result).getConsumedCapacity());
+            for (String tableName : ((BatchWriteItemRequest) original).getRequestItems().keySet()) {
+                record("BatchWriteItem", tableName, null, elapsedNanos, null, consumedCapacity.get(tableName));
+            }
+        }
+    }
+
+    @Override
+    public void afterError(Request<?> request, Response<?> response, Exception e) {
+        AmazonWebServiceRequest original = request.getOriginalRequest();
+        String operation = original.getClass().getSimpleName().replace("Request", "");
+        String tableName = tableNameOf(original);
+        if (null == tableName || null == request.getHandlerContext(START_NANOS)) {
+            return;
+        }
+
+        Target target = target(operation, tableName, null);
+        long elapsedNanos = nanosSince(request.getHandlerContext(START_NANOS));
+        metricsPublisher.addTime(MetricsConstants.DYNAMODB_TIME, elapsedNanos / 1_000_000.0, target.dimensions);
+        target.histogram.recordNanos(elapsedNanos);
+        Map<String, String> errorDimensions = new HashMap<>(target.dimensions);
+        errorDimensions.put(MetricsConstants.EXCEPTION_CLASS_DIMENSION, e.getClass().getSimpleName());
+        metricsPublisher.addCount(MetricsConstants.DYNAMODB_ERROR_COUNT, 1, errorDimensions);
+    }
+
+    private void record(String operation, String tableName, String indexName, long elapsedNanos, Integer items,
+                        ConsumedCapacity consumedCapacity) {
+        Target target = target(operation, tableName, indexName);
+        Map<String, String> dimensions = target.dimensions;
+        metricsPublisher.addTime(MetricsConstants.DYNAMODB_TIME, elapsedNanos / 1_000_000.0, dimensions);
+        target.histogram.recordNanos(elapsedNanos);
+        if (null != items) {
+            metricsPublisher.addCount(MetricsConstants.DYNAMODB_ITEMS_COUNT, items, dimensions);
+        }
+        if (null != consumedCapacity && null != consumedCapacity.getCapacityUnits()) {
+            metricsPublisher.addCount(MetricsConstants.DYNAMODB_CONSUMEDCAPACITY, consumedCapacity.getCapacityUnits(),
+                    dimensions);
+        }
+    }
+
+    private Target target(String operation, String tableName, String indexName) {
+        String key = operation + '/' + tableName + '/' + (null == indexName ? "" : indexName);
+        Target target = targets.get(key);
+        if (null == target) {
+            Map<String, String> dimensions = new HashMap<>();
+            dimensions.put(MetricsConstants.OPERATION_DIMENSION, operation);
+            dimensions.put(MetricsConstants.TABLE_DIMENSION, tableName);
+            if (null != indexName) {
+                dimensions.put(MetricsConstants.INDEX_DIMENSION, indexName);
+            }
+            target = targets.computeIfAbsent(key, absent -> new Target(Map.copyOf(dimensions),
+                    latencyHistograms.histogram(MetricsConstants.DYNAMODB_TIME, dimensions)));
+        }
+        return target;
+    }
+
+    // the single table of a read or write, or null for batches and calls that are not reads or writes
+    private static String tableNameOf(AmazonWebServiceRequest request) {
+        if (request instanceof GetItemRequest) {
+            return ((GetItemRequest) request).getTableName();
+        } else if (request instanceof PutItemRequest) {
+            return ((PutItemRequest) request).getTableName();
+        } else if (request instanceof UpdateItemRequest) {
+            return ((UpdateItemRequest) request).getTableName();
+        } else if (request instanceof DeleteItemRequest) {
+            return ((DeleteItemRequest) request).getTableName();
+        } else if (request instanceof QueryRequest) {
+            return ((QueryRequest) request).getTableName();
+        } else if (request instanceof ScanRequest) {
+            return ((ScanRequest) request).getTableName();
+        }
+        return null;
+    }
+
+    private static Map<String, ConsumedCapacity> byTable(Collection<ConsumedCapacity> consumedCapacities) {
+        Map<String, ConsumedCapacity> byTable = new HashMap<>();
+        if (null != consumedCapacities) {
+            for (ConsumedCapacity consumedCapacity : consumedCapacities) {
+                byTable.put(consumedCapacity.getTableName(), consumedCapacity);
+            }
+        }
+        return byTable;
+    }
+
+    private static long nanosSince(Long startNanos) {
+        return null == startNanos ? 0 : System.nanoTime() - startNanos;
+    }
+
+    // the (unmodifiable) dimensions and latency histogram of an operation on a table or index
+    private static final class Target {
+        private final Map<String, String> dimensions;
+        private final LatencyHistogram histogram;
+
+        private Target(Map<String, String> dimensions, LatencyHistogram histogram) {
+            this.dimensions = dimensions;
+            this.histogram = histogram;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.nashss.se.htmvault.dynamodb;
+
+import com.nashss.se.htmvault.converters.ModelConverter;
+import com.nashss.se.htmvault.dynamodb.models.FacilityDepartment;
+import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
+import com.nashss.se.htmvault.metrics.MetricsConstants;
+import com.nashss.se.htmvault.metrics.MetricsPublisher;
+import com.nashss.se.htmvault.models.FacilityDepartments;
+import com.nashss.se.htmvault.models.ManufacturerModels;
+
+import com.google.common.base.Ticker;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * The reference data (the manufacturer/model and facility/department tables), kept for the life of the (warm)
+ * container as one immutable snapshot of both tables: grouped by manufacturer and by facility, and sorted as the
+ * front end lists them, for the list endpoints, and indexed by key, for validating devices. The tables are only
+ * scanned to load a snapshot, rather than on every request.
+ *
+ * A snapshot is reloaded once it is REFERENCE_DATA_TTL_SECONDS old, or as soon as a manufacturer/model or
+ * facility/department that is not in it is found in its table (i.e. the table has changed since it was loaded).
+ * A lookup that misses the snapshot falls back to the table, so a newly added row is never rejected, but a removed
+ * row may still be accepted until the snapshot expires.
+ *
+ * Each list is versioned with a hash of its contents, computed once per snapshot, so that a client holding the
+ * current list can be told so (i.e. by its ETag) without the list being serialized and hashed on every request.
+ *
+ * The rows are mutable, so lookups hand out copies.
+ */
+@Singleton
+public class ReferenceDataCache {
+
+    static final String TTL_ENVIRONMENT_VARIABLE = "REFERENCE_DATA_TTL_SECONDS";
+    static final long DEFAULT_TTL_SECONDS = 300;
+
+    private final ManufacturerModelDao manufacturerModelDao;
+    private final FacilityDepartmentDao facilityDepartmentDao;
+    private final MetricsPublisher metricsPublisher;
+    private final long ttlNanos;
+    private final Ticker ticker;
+    private final Logger log = LogManager.getLogger();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Instantiates a new Reference data cache, configured from the environment.
+     *
+     * @param manufacturerModelDao  the manufacturer model dao
+     * @param facilityDepartmentDao the facility department dao
+     * @param metricsPublisher      the metrics publisher
+     */
+    @Inject
+    public ReferenceDataCache(ManufacturerModelDao manufacturerModelDao, FacilityDepartmentDao facilityDepartmentDao,
+                              MetricsPublisher metricsPublisher) {
+        this(manufacturerModelDao, facilityDepartmentDao, metricsPublisher,
+                DeviceCache.parseSetting(System.getenv(TTL_ENVIRONMENT_VARIABLE), DEFAULT_TTL_SECONDS),
+                Ticker.systemTicker());
+    }
+
+    /**
+     * Instantiates a new Reference data cache with explicit settings.
+     *
+     * @param manufacturerModelDao  the manufacturer model dao
+     * @param facilityDepartmentDao the facility department dao
+     * @param metricsPublisher      the metrics publisher
+     * @param ttlSeconds            how long after loading a snapshot it may be served
+     * @param ticker                the time source for expiry
+     */
+    ReferenceDataCache(ManufacturerModelDao manufacturerModelDao, FacilityDepartmentDao facilityDepartmentDao,
+                       MetricsPublisher metricsPublisher, long ttlSeconds, Ticker ticker) {
+        this.manufacturerModelDao = manufacturerModelDao;
+        this.facilityDepartmentDao = facilityDepartmentDao;
+        this.metricsPublisher = metricsPublisher;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.ticker = ticker;
+    }
+
+    /**
+     * Gets every manufacturer with its models, sorted by manufacturer, each with its models sorted.
+     * Propagates a ManufacturerModelNotFoundException or FacilityDepartmentNotFoundException if the snapshot
+     * cannot be loaded.
+     *
+     * @return the unmodifiable list of manufacturers and models
+     */
+    public List<ManufacturerModels> getManufacturersAndModels() {
+        return currentSnapshot().manufacturersAndModels;
+    }
+
+    /**
+     * Gets every facility with its departments, sorted by facility, each with its departments sorted.
+     * Propagates a ManufacturerModelNotFoundException or FacilityDepartmentNotFoundException if the snapshot
+     * cannot be loaded.
+     *
+     * @return the unmodifiable list of facilities and departments
+     */
+    public List<FacilityDepartments> getFacilitiesAndDepartments() {
+        return currentSnapshot().facilitiesAndDepartments;
+    }
+
+    /**
+     * Gets the version of the list getManufacturersAndModels returns: a hash of its contents, the same for the same
+     * contents in any container. A list read after the version is at least as new as it.
+     *
+     * @return the version of the manufacturers and models
+     */
+    public String getManufacturersAndModelsVersion() {
+        return currentSnapshot().manufacturersAndModelsVersion;
+    }
+
+    /**
+     * Gets the version of the list getFacilitiesAndDepartments returns: a hash of its contents, the same for the
+     * same contents in any container. A list read after the version is at least as new as it.
+     *
+     * @return the version of the facilities and departments
+     */
+    public String getFacilitiesAndDepartmentsVersion() {
+        return currentSnapshot().facilitiesAndDepartmentsVersion;
+    }
+
+    /**
+     * Gets a copy of the manufacturer model specified with the manufacturer/model, from the snapshot or, if it is
+     * not in the snapshot, from the table. Propagates a ManufacturerModelNotFoundException if it is in neither.
+     *
+     * @param manufacturer the manufacturer
+     * @param model        the model
+     * @return a copy of the manufacturer model
+     */
+    public ManufacturerModel getManufacturerModel(String manufacturer, String model) {
+        ManufacturerModel manufacturerModel = currentSnapshot().manufacturerModels
+                .getOrDefault(manufacturer, Map.of())
+                .get(model);
+        addLookup(null != manufacturerModel);
+        if (null != manufacturerModel) {
+            return copyOf(manufacturerModel);
+        }
+
+        manufacturerModel = manufacturerModelDao.getManufacturerModel(manufacturer, model);
+        log.info("Manufacturer/model {}/{} added since the reference data was loaded; reloading it.",
+                manufacturer, model);
+        invalidate();
+        return manufacturerModel;
+    }
+
+    /**
+     * Gets a copy of the facility department specified with the facility/department, from the snapshot or, if it
+     * is not in the snapshot, from the table. Propagates a FacilityDepartmentNotFoundException if it is in neither.
+     *
+     * @param facility   the facility
+     * @param department the department
+     * @return a copy of the facility department
+     */
+    public FacilityDepartment getFacilityDepartment(String facility, String department) {
+        boolean cached = currentSnapshot().facilityDepartments
+                .getOrDefault(facility, Set.of())
+                .contains(department);
+        addLookup(cached);
+        if (cached) {
+            FacilityDepartment facilityDepartment = new FacilityDepartment();
+            facilityDepartment.setFacilityName(facility);
+            facilityDepartment.setAssignedDepartment(department);
+            return facilityDepartment;
+        }
+
+        FacilityDepartment facilityDepartment = facilityDepartmentDao.getFacilityDepartment(facility, department);
+        log.info("Facility/department {}/{} added since the reference data was loaded; reloading it.",
+                facility, department);
+        invalidate();
+        return facilityDepartment;
+    }
+
+    /**
+     * Discards the snapshot, so that the next request loads the tables again.
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (null != current && ticker.read() - current.loadedNanos < ttlNanos) {
+            return current;
+        }
+        synchronized (this) {
+            // another request may have loaded it while this one waited
+            current = snapshot;
+            if (null == current || ticker.read() - current.loadedNanos >= ttlNanos) {
+                current = load();
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private Snapshot load() {
+        List<ManufacturerModel> manufacturerModelRows = manufacturerModelDao.getManufacturerModels();
+        List<FacilityDepartment> facilityDepartmentRows = facilityDepartmentDao.getFacilityDepartments();
+        metricsPublisher.addCount(MetricsConstants.REFERENCEDATACACHE_LOAD_COUNT, 1);
+        log.info("Loaded {} manufacturer/models and {} facility/departments.", manufacturerModelRows.size(),
+                facilityDepartmentRows.size());
+
+        // for each manufacturer model (a single manufacturer/model combination), add it to a map of the manufacturers
+        // as keys, each paired with its models
+        Map<String, Map<String, ManufacturerModel>> manufacturerModels = new HashMap<>();
+        Map<String, Set<String>> manufacturersAndModels = new HashMap<>();
+        for (ManufacturerModel row : manufacturerModelRows) {
+            manufacturerModels.computeIfAbsent(row.getManufacturer(), manufacturer -> new HashMap<>())
+                    .put(row.getModel(), copyOf(row));
+            manufacturersAndModels.computeIfAbsent(row.getManufacturer(), manufacturer -> new HashSet<>())
+                    .add(row.getModel());
+        }
+
+        // likewise, the facilities as keys, each paired with its departments
+        Map<String, Set<String>> facilityDepartments = new HashMap<>();
+        for (FacilityDepartment row : facilityDepartmentRows) {
+            facilityDepartments.computeIfAbsent(row.getFacilityName(), facility -> new HashSet<>())
+                    .add(row.getAssignedDepartment());
+        }
+
+        ModelConverter modelConverter = ModelConverter.INSTANCE;
+        return new Snapshot(ticker.read(), manufacturerModels, facilityDepartments,
+                List.copyOf(modelConverter.toListManufacturerModels(manufacturersAndModels)),
+                List.copyOf(modelConverter.toListFacilityDepartments(facilityDepartments)));
+    }
+
+    // the lists are sorted, and their elements' toString covers every field, so equal lists hash equally
+    static String version(List<?> contents) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(contents.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    private void addLookup(boolean hit) {
+        metricsPublisher.addCount(MetricsConstants.REFERENCEDATACACHE_HIT_COUNT, hit ? 1 : 0);
+        metricsPublisher.addCount(MetricsConstants.REFERENCEDATACACHE_MISS_COUNT, hit ? 0 : 1);
+    }
+
+    private static ManufacturerModel copyOf(ManufacturerModel manufacturerModel) {
+        ManufacturerModel copy = new ManufacturerModel();
+        copy.setManufacturer(manufacturerModel.getManufacturer());
+        copy.setModel(manufacturerModel.getModel());
+        copy.setRequiredMaintenanceFrequencyInMonths(manufacturerModel.getRequiredMaintenanceFrequencyInMonths());
+        return copy;
+    }
+
+    private static final class Snapshot {
+        private final long loadedNanos;
+        private final Map<String, Map<String, ManufacturerModel>> manufacturerModels;
+        private final Map<String, Set<String>> facilityDepartments;
+        private final List<ManufacturerModels> manufacturersAndModels;
+        private final List<FacilityDepartments> facilitiesAndDepartments;
+        private final String manufacturersAndModelsVersion;
+        private final String facilitiesAndDepartmentsVersion;
+
+        private Snapshot(long loadedNanos, Map<String, Map<String, ManufacturerModel>> manufacturerModels,
+                         Map<String, Set<String>> facilityDepartments,
+                         List<ManufacturerModels> manufacturersAndModels,
+                         List<FacilityDepartments> facilitiesAndDepartments) {
+            this.loadedNanos = loadedNanos;
+            this.manufacturerModels = manufacturerModels;
+            this.facilityDepartments = facilityDepartments;
+            this.manufacturersAndModels = manufacturersAndModels;
+            this.facilitiesAndDepartments = facilitiesAndDepartments;
+            this.manufacturersAndModelsVersion = version(manufacturersAndModels);
+            this.facilitiesAndDepartmentsVersion = version(facilitiesAndDepartments);
+        }
+    }
+}
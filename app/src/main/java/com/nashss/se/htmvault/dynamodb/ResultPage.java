@@ -0,0 +1,36 @@
+package com.nashss.se.htmvault.dynamodb;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single page of items read from a table or index, together with the key from which to continue reading.
+ *
+ * @param <T> the type of item in the page
+ */
+public class ResultPage<T> {
+
+    private final List<T> items;
+    private final Map<String, AttributeValue> lastEvaluatedKey;
+
+    /**
+     * Instantiates a new Result page.
+     *
+     * @param items            the items in the page
+     * @param lastEvaluatedKey the key of the last item evaluated, or null if there are no more pages
+     */
+    public ResultPage(List<T> items, Map<String, AttributeValue> lastEvaluatedKey) {
+        this.items = items;
+        this.lastEvaluatedKey = lastEvaluatedKey;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public Map<String, AttributeValue> getLastEvaluatedKey() {
+        return lastEvaluatedKey;
+    }
+}
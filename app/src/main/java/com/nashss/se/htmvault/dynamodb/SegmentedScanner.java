@@ -0,0 +1,212 @@
+package com.nashss.se.htmvault.dynamodb;
+
+import com.nashss.se.htmvault.metrics.MetricsConstants;
+import com.nashss.se.htmvault.metrics.MetricsPublisher;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Runs full-table scans as a parallel scan, splitting the table into segments that are scanned concurrently and
+ * then merged. The number of segments is taken from the DEVICE_SCAN_SEGMENTS environment variable when it is set
+ * to a positive number; otherwise it is chosen from the table's (approximate) item count.
+ *
+ * Only the one-off tools run outside Lambda scan whole tables (see DeviceSearchIndexBackfill), so the variable is
+ * set in the environment running them, not on the Lambda function; choosing from the item count needs the
+ * dynamodb:DescribeTable permission.
+ */
+@Singleton
+public class SegmentedScanner {
+
+    static final String SEGMENTS_ENVIRONMENT_VARIABLE = "DEVICE_SCAN_SEGMENTS";
+    static final int MAX_SEGMENTS = 16;
+    static final long ITEMS_PER_SEGMENT = 25_000;
+    // DynamoDB only refreshes a table's item count every six hours or so, so there is no point asking more often
+    private static final long ITEM_COUNT_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "segmented-scan");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final DynamoDBMapper dynamoDBMapper;
+    private final AmazonDynamoDB amazonDynamoDB;
+    private final MetricsPublisher metricsPublisher;
+    private final int configuredSegments;
+    private final Logger log = LogManager.getLogger();
+
+    private volatile int adaptiveSegments;
+    private volatile long adaptiveSegmentsExpiry;
+
+    /**
+     * Instantiates a new Segmented scanner, configured from the environment.
+     *
+     * @param dynamoDBMapper   the dynamo db mapper
+     * @param amazonDynamoDB   the dynamo db client, used to look up table item counts
+     * @param metricsPublisher the metrics publisher
+     */
+    @Inject
+    public SegmentedScanner(DynamoDBMapper dynamoDBMapper, AmazonDynamoDB amazonDynamoDB,
+                            MetricsPublisher metricsPublisher) {
+        this(dynamoDBMapper, amazonDynamoDB, metricsPublisher,
+                parseSegments(System.getenv(SEGMENTS_ENVIRONMENT_VARIABLE)));
+    }
+
+    /**
+     * Instantiates a new Segmented scanner with an explicit segment count.
+     *
+     * @param dynamoDBMapper     the dynamo db mapper
+     * @param amazonDynamoDB     the dynamo db client, used to look up table item counts
+     * @param metricsPublisher   the metrics publisher
+     * @param configuredSegments the number of segments to use, or 0 to choose from the table's item count
+     */
+    SegmentedScanner(DynamoDBMapper dynamoDBMapper, AmazonDynamoDB amazonDynamoDB,
+                     MetricsPublisher metricsPublisher, int configuredSegments) {
+        this.dynamoDBMapper = dynamoDBMapper;
+        this.amazonDynamoDB = amazonDynamoDB;
+        this.metricsPublisher = metricsPublisher;
+        this.configuredSegments = Math.min(configuredSegments, MAX_SEGMENTS);
+    }
+
+    /**
+     * Scans the whole table for items matching the scan expression, scanning the table's segments concurrently.
+     *
+     * @param clazz          the table's model class
+     * @param scanExpression the scan expression (filter, attribute names and values) to apply to every segment
+     * @param <T>            the table's model type
+     * @return every matching item, in segment order
+     */
+    public <T> List<T> scan(Class<T> clazz, DynamoDBScanExpression scanExpression) {
+        int totalSegments = getTotalSegments(clazz.getAnnotation(DynamoDBTable.class).tableName());
+
+        List<Callable<List<T>>> segmentScans = new ArrayList<>();
+        for (int segment = 0; segment < totalSegments; segment++) {
+            int currentSegment = segment;
+            // so that the segment's DynamoDB metrics are flushed with the rest of the calling invocation's
+            segmentScans.add(metricsPublisher.onCallingThread(
+                    () -> scanSegment(clazz, scanExpression, currentSegment, totalSegments)));
+        }
+
+        List<T> results = new ArrayList<>();
+        try {
+            for (Future<List<T>> segmentResults : EXECUTOR.invokeAll(segmentScans)) {
+                results.addAll(segmentResults.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scanning " + clazz.getSimpleName() + " segments.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Unable to scan " + clazz.getSimpleName() + " segments.", e.getCause());
+        }
+
+        metricsPublisher.addCount(MetricsConstants.SEGMENTEDSCAN_SEGMENTS_COUNT, totalSegments);
+        return results;
+    }
+
+    /**
+     * Determines the number of segments to split a scan of the table into: the configured number when there is
+     * one, otherwise one segment per ITEMS_PER_SEGMENT items, up to MAX_SEGMENTS.
+     *
+     * @param tableName the table to be scanned
+     * @return the number of segments
+     */
+    int getTotalSegments(String tableName) {
+        if (configuredSegments > 0) {
+            return configuredSegments;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now < adaptiveSegmentsExpiry) {
+            return adaptiveSegments;
+        }
+
+        int segments;
+        try {
+            Long itemCount = amazonDynamoDB.describeTable(tableName).getTable().getItemCount();
+            segments = segmentsForItemCount(null == itemCount ? 0 : itemCount);
+        } catch (RuntimeException e) {
+            log.warn("Unable to look up the item count of table {}; scanning with a single segment.", tableName, e);
+            segments = 1;
+        }
+        adaptiveSegments = segments;
+        adaptiveSegmentsExpiry = now + ITEM_COUNT_TTL_MILLIS;
+        return segments;
+    }
+
+    static int segmentsForItemCount(long itemCount) {
+        long segments = (itemCount + ITEMS_PER_SEGMENT - 1) / ITEMS_PER_SEGMENT;
+        return (int) Math.max(1, Math.min(MAX_SEGMENTS, segments));
+    }
+
+    static int parseSegments(String segments) {
+        if (null == segments || segments.isBlank()) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(segments.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private <T> List<T> scanSegment(Class<T> clazz, DynamoDBScanExpression scanExpression, int segment,
+                                    int totalSegments) {
+        long start = System.nanoTime();
+        double consumedCapacityUnits = 0;
+        int pages = 0;
+
+        List<T> results = new ArrayList<>();
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            DynamoDBScanExpression segmentExpression = new DynamoDBScanExpression()
+                    .withFilterExpression(scanExpression.getFilterExpression())
+                    .withExpressionAttributeNames(scanExpression.getExpressionAttributeNames())
+                    .withExpressionAttributeValues(scanExpression.getExpressionAttributeValues())
+                    .withSegment(segment)
+                    .withTotalSegments(totalSegments)
+                    .withReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                    .withExclusiveStartKey(exclusiveStartKey);
+
+            ScanResultPage<T> page = dynamoDBMapper.scanPage(clazz, segmentExpression);
+            results.addAll(page.getResults());
+            ConsumedCapacity consumedCapacity = page.getConsumedCapacity();
+            if (null != consumedCapacity && null != consumedCapacity.getCapacityUnits()) {
+                consumedCapacityUnits += consumedCapacity.getCapacityUnits();
+            }
+            pages++;
+            exclusiveStartKey = page.getLastEvaluatedKey();
+        } while (null != exclusiveStartKey);
+
+        double elapsedMillis = (System.nanoTime() - start) / 1_000_000.0;
+        metricsPublisher.addTime(MetricsConstants.SEGMENTEDSCAN_SEGMENT_TIME, elapsedMillis);
+        metricsPublisher.addCount(MetricsConstants.SEGMENTEDSCAN_SEGMENT_CONSUMEDCAPACITY, consumedCapacityUnits);
+        log.info("Scanned segment {}/{} of {} in {} ms ({} page(s), {} item(s), {} capacity units).", segment + 1,
+                totalSegments, clazz.getSimpleName(), elapsedMillis, pages, results.size(), consumedCapacityUnits);
+        return results;
+    }
+}
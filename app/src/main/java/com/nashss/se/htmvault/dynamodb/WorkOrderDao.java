@@ -7,6 +7,8 @@ import com.nashss.se.htmvault.metrics.MetricsPublisher;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -50,6 +52,15 @@ public class WorkOrderDao {
         return workOrder;
     }
 
+    /**
+     * Deletes the work order from the database.
+     *
+     * @param workOrder the work order to delete
+     */
+    public void deleteWorkOrder(WorkOrder workOrder) {
+        dynamoDBMapper.delete(workOrder);
+    }
+
     /**
      * Gets the work order from the database, throwing a WorkOrderNotFoundException if a work order cannot be found
      * for the provided work order id.
@@ -73,28 +84,111 @@ public class WorkOrderDao {
     }
 
     /**
-     * Gets the work orders for a given device, matching by the device id.
+     * Gets the work orders for a given device, matching by the device id, completed work orders first
+     * (see {@link #getWorkOrders(String, boolean)}).
      *
      * @param controlNumber the device's control number (device id)
      * @return the list of existing work orders for this device
      */
     public List<WorkOrder> getWorkOrders(String controlNumber) {
-        // the map of key attributes paired with their actual values (in this case, a GSI with partition key of device
-        // id only)
+        return getWorkOrders(controlNumber, true);
+    }
+
+    /**
+     * Gets the work orders for a given device, matching by the device id, in completion order (see
+     * {@link WorkOrder#getCompletionSortKey()}) as read from the control number/completion sort key index.
+     *
+     * @param controlNumber the device's control number (device id)
+     * @param ascending     true for completed work orders first, oldest first; false for open work orders first,
+     *                      newest first
+     * @return the list of existing work orders for this device, sorted
+     */
+    public List<WorkOrder> getWorkOrders(String controlNumber, boolean ascending) {
+        return copyToList(dynamoDBMapper.query(WorkOrder.class, workOrdersQuery(controlNumber, ascending)));
+    }
+
+    /**
+     * Gets a single page of the work orders for a given device, matching by the device id, in completion order (see
+     * {@link WorkOrder#getCompletionSortKey()}). Only the page requested is read, along with the key from which to
+     * continue reading, rather than every work order for the device.
+     *
+     * @param controlNumber     the device's control number (device id)
+     * @param ascending         true for completed work orders first, oldest first; false for open work orders
+     *                          first, newest first
+     * @param limit             the maximum number of work orders to read
+     * @param exclusiveStartKey the key at which the previous page ended, or null to start from the beginning
+     * @return the page of work orders for this device, sorted
+     */
+    public ResultPage<WorkOrder> getWorkOrders(String controlNumber, boolean ascending, int limit,
+                                               Map<String, AttributeValue> exclusiveStartKey) {
+        QueryResultPage<WorkOrder> page = dynamoDBMapper.queryPage(WorkOrder.class,
+                workOrdersQuery(controlNumber, ascending)
+                        .withLimit(limit)
+                        .withExclusiveStartKey(exclusiveStartKey));
+
+        return new ResultPage<>(page.getResults(), page.getLastEvaluatedKey());
+    }
+
+    /**
+     * Gets a single page of a facility's outstanding work orders (open, or awaiting parts, testing, etc.), read from
+     * the sparse open work orders facility index, which holds only outstanding work orders, so that the read does not
+     * grow with the facility's history of closed work orders. Work orders are ordered by department, and then
+     * oldest first (see {@link WorkOrder#getOpenSortKey()}).
+     *
+     * @param facilityName       the facility name
+     * @param assignedDepartment the department to limit the work orders to, or null for every department
+     * @param limit              the maximum number of work orders to read
+     * @param exclusiveStartKey  the key at which the previous page ended, or null to start from the beginning
+     * @return the page of outstanding work orders for the facility
+     */
+    public ResultPage<WorkOrder> getOpenWorkOrders(String facilityName, String assignedDepartment, int limit,
+                                                   Map<String, AttributeValue> exclusiveStartKey) {
+        Map<String, AttributeValue> valueMap = new HashMap<>();
+        valueMap.put(":facilityName", new AttributeValue().withS(facilityName));
+        String keyConditionExpression = "openFacilityName = :facilityName";
+        if (null != assignedDepartment) {
+            valueMap.put(":department", new AttributeValue().withS(assignedDepartment + "#"));
+            keyConditionExpression += " and begins_with(openSortKey, :department)";
+        }
+
+        QueryResultPage<WorkOrder> page = dynamoDBMapper.queryPage(WorkOrder.class,
+                new DynamoDBQueryExpression<WorkOrder>()
+                        .withIndexName(WorkOrder.OPEN_WORK_ORDERS_FACILITY_INDEX)
+                        .withConsistentRead(false)
+                        .withKeyConditionExpression(keyConditionExpression)
+                        .withExpressionAttributeValues(valueMap)
+                        .withLimit(limit)
+                        .withExclusiveStartKey(exclusiveStartKey));
+
+        return new ResultPage<>(page.getResults(), page.getLastEvaluatedKey());
+    }
+
+    /**
+     * Scans every work order in the database, loading them a page at a time as they are iterated.
+     *
+     * @return all work orders
+     */
+    public Iterable<WorkOrder> scanWorkOrders() {
+        return dynamoDBMapper.scan(WorkOrder.class, new DynamoDBScanExpression());
+    }
+
+    private DynamoDBQueryExpression<WorkOrder> workOrdersQuery(String controlNumber, boolean ascending) {
+        // the map of key attributes paired with their actual values (in this case, the partition key of the GSI,
+        // the device id)
         Map<String, AttributeValue> valueMap = new HashMap<>();
         valueMap.put(":controlNumber", new AttributeValue().withS(controlNumber));
 
-        DynamoDBQueryExpression<WorkOrder> queryExpression = new DynamoDBQueryExpression<WorkOrder>()
-                // the GSI we're using
-                .withIndexName(WorkOrder.CONTROL_NUMBER_WORK_ORDERS_INDEX)
+        return new DynamoDBQueryExpression<WorkOrder>()
+                // the GSI we're using, with the completion sort key as its range key
+                .withIndexName(WorkOrder.CONTROL_NUMBER_COMPLETION_SORT_KEY_INDEX)
                 // strongly consistent reads (to ensure an item is up-to-date) are not supported when querying using
                 // GSIs
                 .withConsistentRead(false)
                 // the condition (searching for work orders that match the hash key value in our map)
                 .withKeyConditionExpression("controlNumber = :controlNumber")
                 // the map to find the value for the key
-                .withExpressionAttributeValues(valueMap);
-
-        return copyToList(dynamoDBMapper.query(WorkOrder.class, queryExpression));
+                .withExpressionAttributeValues(valueMap)
+                // read in range key order, or in reverse
+                .withScanIndexForward(ascending);
     }
 }
@@ -3,6 +3,7 @@ package com.nashss.se.htmvault.dynamodb.models;
 import com.nashss.se.htmvault.converters.LocalDateConverter;
 import com.nashss.se.htmvault.converters.ManufacturerModelConverter;
 import com.nashss.se.htmvault.models.ServiceStatus;
+import com.nashss.se.htmvault.utils.InternUtils;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBAttribute;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBHashKey;
@@ -14,14 +15,15 @@ import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTypeConvertedEnum;
 
 import java.time.LocalDate;
 import java.util.Objects;
+import java.util.Set;
 
 @DynamoDBTable(tableName = "devices")
 public class Device {
 
     public static final String FACILITY_DEPARTMENT_INDEX = "FacilityNameAndAssignedDepartmentIndex";
-    public static final String FACILITY_MANUFACTURER_MODEL_INDEX = "FacilityNameAndManufacturerModelIndex";
+    public static final String FACILITY_MANUFACTURER_MODEL_INDEX = "FacilityNameAndManufacturerModelKeyIndex";
     public static final String FACILITY_PM_DUE_DATE_INDEX = "FacilityNameAndPmDueDateIndex";
-    public static final String MANUFACTURER_MODEL_SERIAL_NUMBER_INDEX = "ManufacturerModelAndSerialNumberIndex";
+    public static final String MANUFACTURER_MODEL_SERIAL_NUMBER_INDEX = "ManufacturerModelKeyAndSerialNumberIndex";
 
     private String controlNumber;
     private String serialNumber;
@@ -37,6 +39,9 @@ public class Device {
     private String addedById;
     private String addedByName;
     private String notes;
+    private Long workOrdersVersion;
+    private Integer openWorkOrderCount;
+    private Set<String> openWorkOrderIds;
 
     @DynamoDBHashKey(attributeName = "controlNumber")
     public String getControlNumber() {
@@ -59,8 +64,6 @@ public class Device {
 
     @DynamoDBTypeConverted(converter = ManufacturerModelConverter.class)
     @DynamoDBAttribute(attributeName = "manufacturerModel")
-    @DynamoDBIndexHashKey(globalSecondaryIndexNames = MANUFACTURER_MODEL_SERIAL_NUMBER_INDEX)
-    @DynamoDBIndexRangeKey(globalSecondaryIndexName = FACILITY_MANUFACTURER_MODEL_INDEX)
     public ManufacturerModel getManufacturerModel() {
         return manufacturerModel;
     }
@@ -69,6 +72,24 @@ public class Device {
         this.manufacturerModel = manufacturerModel;
     }
 
+    /**
+     * The manufacturer/model's canonical key (see ManufacturerModel.toKey), saved alongside it for the indexes, as
+     * an index key must be a string.
+     *
+     * @return the manufacturer/model key, or null if there is no manufacturer/model
+     */
+    @DynamoDBAttribute(attributeName = "manufacturerModelKey")
+    @DynamoDBIndexHashKey(globalSecondaryIndexNames = MANUFACTURER_MODEL_SERIAL_NUMBER_INDEX)
+    @DynamoDBIndexRangeKey(globalSecondaryIndexName = FACILITY_MANUFACTURER_MODEL_INDEX)
+    public String getManufacturerModelKey() {
+        return null == manufacturerModel ? null :
+                ManufacturerModel.toKey(manufacturerModel.getManufacturer(), manufacturerModel.getModel());
+    }
+
+    public void setManufacturerModelKey(String manufacturerModelKey) {
+        // derived from the manufacturer/model when saved, so the stored key is not read back
+    }
+
     @DynamoDBTypeConverted(converter = LocalDateConverter.class)
     @DynamoDBAttribute(attributeName = "manufactureDate")
     public LocalDate getManufactureDate() {
@@ -97,7 +118,7 @@ public class Device {
     }
 
     public void setFacilityName(String facilityName) {
-        this.facilityName = facilityName;
+        this.facilityName = InternUtils.intern(facilityName);
     }
 
     @DynamoDBAttribute(attributeName = "assignedDepartment")
@@ -107,7 +128,7 @@ public class Device {
     }
 
     public void setAssignedDepartment(String assignedDepartment) {
-        this.assignedDepartment = assignedDepartment;
+        this.assignedDepartment = InternUtils.intern(assignedDepartment);
     }
 
     @DynamoDBTypeConverted(converter = LocalDateConverter.class)
@@ -178,6 +199,34 @@ public class Device {
         this.notes = notes;
     }
 
+    @DynamoDBAttribute(attributeName = "workOrdersVersion")
+    public Long getWorkOrdersVersion() {
+        return workOrdersVersion;
+    }
+
+    public void setWorkOrdersVersion(Long workOrdersVersion) {
+        this.workOrdersVersion = workOrdersVersion;
+    }
+
+    @DynamoDBAttribute(attributeName = "openWorkOrderCount")
+    public Integer getOpenWorkOrderCount() {
+        return openWorkOrderCount;
+    }
+
+    public void setOpenWorkOrderCount(Integer openWorkOrderCount) {
+        this.openWorkOrderCount = openWorkOrderCount;
+    }
+
+    // a string set; DynamoDB removes the attribute once its last id is deleted, so this is null rather than empty
+    @DynamoDBAttribute(attributeName = "openWorkOrderIds")
+    public Set<String> getOpenWorkOrderIds() {
+        return openWorkOrderIds;
+    }
+
+    public void setOpenWorkOrderIds(Set<String> openWorkOrderIds) {
+        this.openWorkOrderIds = openWorkOrderIds;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -200,13 +249,17 @@ public class Device {
                 Objects.equals(inventoryAddDate, device.inventoryAddDate) &&
                 Objects.equals(addedById, device.addedById) &&
                 Objects.equals(addedByName, device.addedByName) &&
-                Objects.equals(notes, device.notes);
+                Objects.equals(notes, device.notes) &&
+                Objects.equals(workOrdersVersion, device.workOrdersVersion) &&
+                Objects.equals(openWorkOrderCount, device.openWorkOrderCount) &&
+                Objects.equals(openWorkOrderIds, device.openWorkOrderIds);
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(controlNumber, serialNumber, manufacturerModel, manufactureDate, serviceStatus,
                 facilityName, assignedDepartment, complianceThroughDate, lastPmCompletionDate, nextPmDueDate,
-                inventoryAddDate, addedById, addedByName, notes);
+                inventoryAddDate, addedById, addedByName, notes, workOrdersVersion, openWorkOrderCount,
+                openWorkOrderIds);
     }
 }
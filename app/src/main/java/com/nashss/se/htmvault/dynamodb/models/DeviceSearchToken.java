@@ -0,0 +1,59 @@
+package com.nashss.se.htmvault.dynamodb.models;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBHashKey;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBIndexHashKey;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBIndexRangeKey;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBRangeKey;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
+
+import java.util.Objects;
+
+/**
+ * A single posting in the device search index, pairing a normalized search token with the control number of a
+ * device containing that token in one of its searchable attributes.
+ */
+@DynamoDBTable(tableName = "device_search_tokens")
+public class DeviceSearchToken {
+
+    public static final String CONTROL_NUMBER_SEARCH_TOKENS_INDEX = "ControlNumberSearchTokensIndex";
+
+    private String token;
+    private String controlNumber;
+
+    @DynamoDBHashKey(attributeName = "token")
+    @DynamoDBIndexRangeKey(globalSecondaryIndexName = CONTROL_NUMBER_SEARCH_TOKENS_INDEX)
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    @DynamoDBRangeKey(attributeName = "controlNumber")
+    @DynamoDBIndexHashKey(globalSecondaryIndexName = CONTROL_NUMBER_SEARCH_TOKENS_INDEX)
+    public String getControlNumber() {
+        return controlNumber;
+    }
+
+    public void setControlNumber(String controlNumber) {
+        this.controlNumber = controlNumber;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        DeviceSearchToken that = (DeviceSearchToken) o;
+        return Objects.equals(token, that.token) && Objects.equals(controlNumber, that.controlNumber);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(token, controlNumber);
+    }
+}
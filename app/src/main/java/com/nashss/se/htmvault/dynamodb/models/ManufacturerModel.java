@@ -10,6 +10,12 @@ import java.util.Objects;
 @DynamoDBTable(tableName = "manufacturer_models")
 public class ManufacturerModel {
 
+    /**
+     * Separates the manufacturer from the model in a manufacturer/model key. Neither may contain it, as they are
+     * limited to alphanumeric characters, spaces and dashes.
+     */
+    public static final String KEY_SEPARATOR = "#";
+
     private String manufacturer;
     private String model;
     private Integer requiredMaintenanceFrequencyInMonths;
@@ -41,6 +47,18 @@ public class ManufacturerModel {
         this.requiredMaintenanceFrequencyInMonths = requiredMaintenanceFrequencyInMonths;
     }
 
+    /**
+     * The canonical key of a manufacturer/model, "manufacturer#model", by which devices are indexed. The key of a
+     * manufacturer alone ("manufacturer#") is a prefix of the key of each of its models.
+     *
+     * @param manufacturer the manufacturer
+     * @param model        the model, or null for the manufacturer's key prefix
+     * @return the key
+     */
+    public static String toKey(String manufacturer, String model) {
+        return manufacturer + KEY_SEPARATOR + (null == model ? "" : model);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
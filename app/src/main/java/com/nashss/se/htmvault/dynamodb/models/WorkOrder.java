@@ -5,21 +5,30 @@ import com.nashss.se.htmvault.converters.ManufacturerModelConverter;
 import com.nashss.se.htmvault.models.WorkOrderAwaitStatus;
 import com.nashss.se.htmvault.models.WorkOrderCompletionStatus;
 import com.nashss.se.htmvault.models.WorkOrderType;
+import com.nashss.se.htmvault.utils.InternUtils;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBAttribute;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBHashKey;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBIndexHashKey;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBIndexRangeKey;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTypeConverted;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTypeConvertedEnum;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Objects;
 
 @DynamoDBTable(tableName = "work_orders")
 public class WorkOrder {
 
     public static final String CONTROL_NUMBER_WORK_ORDERS_INDEX = "ControlNumberWorkOrdersIndex";
+    public static final String CONTROL_NUMBER_COMPLETION_SORT_KEY_INDEX = "ControlNumberCompletionSortKeyIndex";
+    public static final String OPEN_WORK_ORDERS_FACILITY_INDEX = "OpenWorkOrdersFacilityIndex";
+
+    // fixed width (seconds always present), so that the sort keys compare the same as the dates they are built from
+    private static final DateTimeFormatter SORT_KEY_DATE_TIME_FORMAT =
+            DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss");
 
     private String workOrderId;
     private WorkOrderType workOrderType;
@@ -60,7 +69,8 @@ public class WorkOrder {
         this.workOrderType = workOrderType;
     }
 
-    @DynamoDBIndexHashKey(attributeName = "controlNumber", globalSecondaryIndexName = CONTROL_NUMBER_WORK_ORDERS_INDEX)
+    @DynamoDBIndexHashKey(attributeName = "controlNumber",
+            globalSecondaryIndexNames = {CONTROL_NUMBER_WORK_ORDERS_INDEX, CONTROL_NUMBER_COMPLETION_SORT_KEY_INDEX})
     public String getControlNumber() {
         return controlNumber;
     }
@@ -114,7 +124,7 @@ public class WorkOrder {
     }
 
     public void setFacilityName(String facilityName) {
-        this.facilityName = facilityName;
+        this.facilityName = InternUtils.intern(facilityName);
     }
 
     @DynamoDBAttribute(attributeName = "assignedDepartment")
@@ -123,7 +133,7 @@ public class WorkOrder {
     }
 
     public void setAssignedDepartment(String assignedDepartment) {
-        this.assignedDepartment = assignedDepartment;
+        this.assignedDepartment = InternUtils.intern(assignedDepartment);
     }
 
     @DynamoDBAttribute(attributeName = "problemReported")
@@ -220,6 +230,89 @@ public class WorkOrder {
         this.completionDateTime = completionDateTime;
     }
 
+    /**
+     * The range key of the control number/completion sort key index, derived from the completion and creation date
+     * times, and ordering a device's work orders the same as the WorkOrderCompletionDateTimeComparator: completed
+     * work orders first ("C#completion#creation"), by completion and then creation date time, followed by open
+     * work orders ("O#creation"), by creation date time.
+     *
+     * @return the completion sort key, or null if the work order has no creation date time
+     */
+    @DynamoDBIndexRangeKey(attributeName = "completionSortKey",
+            globalSecondaryIndexName = CONTROL_NUMBER_COMPLETION_SORT_KEY_INDEX)
+    public String getCompletionSortKey() {
+        if (null == creationDateTime) {
+            return null;
+        }
+        String creation = SORT_KEY_DATE_TIME_FORMAT.format(creationDateTime);
+        if (null == completionDateTime) {
+            return "O#" + creation;
+        }
+        return "C#" + SORT_KEY_DATE_TIME_FORMAT.format(completionDateTime) + "#" + creation;
+    }
+
+    /**
+     * Ignored, as the completion sort key is always derived from the completion and creation date times; present
+     * so that work orders read from the database can be mapped.
+     *
+     * @param completionSortKey the completion sort key read from the database
+     */
+    public void setCompletionSortKey(String completionSortKey) {
+        // derived from the completion and creation date times
+    }
+
+    /**
+     * The hash key of the (sparse) open work orders facility index: the facility name, for a work order that is
+     * open or awaiting something (parts, testing, etc.). Null otherwise, so that the attribute is removed when the
+     * work order is closed, and the work order leaves the index.
+     *
+     * @return the facility name of an outstanding work order, or null
+     */
+    @DynamoDBIndexHashKey(attributeName = "openFacilityName",
+            globalSecondaryIndexName = OPEN_WORK_ORDERS_FACILITY_INDEX)
+    public String getOpenFacilityName() {
+        return isOutstanding() ? facilityName : null;
+    }
+
+    /**
+     * Ignored, as the open facility name is always derived from the work order's status and facility; present so
+     * that work orders read from the database can be mapped.
+     *
+     * @param openFacilityName the open facility name read from the database
+     */
+    public void setOpenFacilityName(String openFacilityName) {
+        // derived from the completion/await status and facility name
+    }
+
+    /**
+     * The range key of the open work orders facility index, ordering a facility's outstanding work orders by
+     * department ("department#creation"), and then oldest first. Null whenever the open facility name is.
+     *
+     * @return the open sort key of an outstanding work order, or null
+     */
+    @DynamoDBIndexRangeKey(attributeName = "openSortKey",
+            globalSecondaryIndexName = OPEN_WORK_ORDERS_FACILITY_INDEX)
+    public String getOpenSortKey() {
+        if (null == getOpenFacilityName() || null == creationDateTime) {
+            return null;
+        }
+        return assignedDepartment + "#" + SORT_KEY_DATE_TIME_FORMAT.format(creationDateTime);
+    }
+
+    /**
+     * Ignored, as the open sort key is always derived from the department and creation date time; present so that
+     * work orders read from the database can be mapped.
+     *
+     * @param openSortKey the open sort key read from the database
+     */
+    public void setOpenSortKey(String openSortKey) {
+        // derived from the department and creation date time
+    }
+
+    private boolean isOutstanding() {
+        return workOrderCompletionStatus == WorkOrderCompletionStatus.OPEN || null != workOrderAwaitStatus;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -0,0 +1,41 @@
+package com.nashss.se.htmvault.exceptions;
+
+/**
+ * An exception used when the search index entries for a device could not all be written, leaving the index out of
+ * line with the device as saved.
+ */
+public class DeviceSearchIndexException extends RuntimeException {
+    private static final long serialVersionUID = 4127390516472893541L;
+
+    /**
+     * Exception with no message or cause.
+     */
+    public DeviceSearchIndexException() {
+        super();
+    }
+
+    /**
+     * Exception with a message, but no cause.
+     * @param message A descriptive message for this exception.
+     */
+    public DeviceSearchIndexException(String message) {
+        super(message);
+    }
+
+    /**
+     * Exception with no message, but with a cause.
+     * @param cause The original throwable resulting in this exception.
+     */
+    public DeviceSearchIndexException(Throwable cause) {
+        super(cause);
+    }
+
+    /**
+     * Exception with message and cause.
+     * @param message A descriptive message for this exception.
+     * @param cause The original throwable resulting in this exception.
+     */
+    public DeviceSearchIndexException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
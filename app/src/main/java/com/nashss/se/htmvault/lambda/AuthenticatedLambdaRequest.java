@@ -1,10 +1,7 @@
 package com.nashss.se.htmvault.lambda;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
 
-import java.util.Base64;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -35,23 +32,25 @@ public class AuthenticatedLambdaRequest<T> extends LambdaRequest<T> {
                 getClaimsFromAuthHeader(super.getHeaders().get("Authorization"));
     }
 
-    private Map<String, String> getClaimsFromAuthHeader(final String authorizationHeader)
+    /**
+     * Decodes the claims from the JWT token in an Authorization header, without verifying the token; for use where
+     * no authorizer has verified it (running locally, and the embedded server).
+     * @param authorizationHeader the Authorization header, holding a bearer token
+     * @return the token's claims
+     * @throws JsonProcessingException if the token's payload is not valid JSON
+     */
+    static Map<String, String> getClaimsFromAuthHeader(final String authorizationHeader)
             throws JsonProcessingException {
         String jwt = getJWTFromAuthHeader(authorizationHeader);
         return getClaimsFromJWT(jwt);
     }
 
-    private String getJWTFromAuthHeader(final String authorizationHeader) {
+    private static String getJWTFromAuthHeader(final String authorizationHeader) {
         return authorizationHeader.split("\\s")[1];
     }
 
-    private Map<String, String> getClaimsFromJWT(final String jwt) throws JsonProcessingException {
-        Base64.Decoder decoder = Base64.getDecoder();
-
-        String[] sections = jwt.split("\\.");
-        String payload = new String(decoder.decode(sections[1]));
-
-        return super.MAPPER.readValue(payload, new TypeReference<HashMap<String, String>>() {
-        });
+    private static Map<String, String> getClaimsFromJWT(final String jwt) throws JsonProcessingException {
+        // decoded once per token, as a user's requests repeat it until it expires
+        return JsonSerializers.claimsFromJWT(jwt);
     }
 }
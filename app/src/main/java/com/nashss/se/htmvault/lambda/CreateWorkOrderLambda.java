@@ -38,6 +38,7 @@ public class CreateWorkOrderLambda
                         .withProblemReported(unauthenticatedRequest.getProblemReported())
                         .withProblemFound(unauthenticatedRequest.getProblemFound())
                         .withSortOrder(unauthenticatedRequest.getSortOrder())
+                        .withIncludeWorkOrders(unauthenticatedRequest.isIncludeWorkOrders())
                         .withCreatedById(claims.get("email"))
                         .withCreatedByName(claims.get("name"))
                         .build());
@@ -0,0 +1,263 @@
+package com.nashss.se.htmvault.lambda;
+
+import com.nashss.se.htmvault.metrics.LatencyHistogram;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs HTMVault off Lambda (on-premises, or for load tests without API Gateway), as a long-running JVM serving every
+ * endpoint over HTTP. Each request is adapted into the API Gateway request the Lambda function would receive and
+ * passed to the RouterLambda, which matches it to the routes of template.yaml, so the same handlers, activities and
+ * single service component (with its caches) serve every request.
+ *
+ * Requests are handled on a pool of HTTP_SERVER_THREADS threads (DEFAULT_THREADS by default), one request per
+ * thread; as the handlers block on DynamoDB, the pool is sized well beyond the number of cores.
+ *
+ * There is no authorizer in front of the server: the claims of a request's JWT token are read from its Authorization
+ * header without being verified, as when running locally with SAM, so anyone able to reach the server can act as any
+ * user. The server therefore listens on the loopback address only, unless HTTP_SERVER_HOST names another address to
+ * listen on; set it only when the server is reachable solely through a proxy that authenticates requests.
+ */
+public class EmbeddedHttpServer {
+
+    static final String HOST_ENVIRONMENT_VARIABLE = "HTTP_SERVER_HOST";
+    static final String PORT_ENVIRONMENT_VARIABLE = "HTTP_SERVER_PORT";
+    static final String THREADS_ENVIRONMENT_VARIABLE = "HTTP_SERVER_THREADS";
+    static final int DEFAULT_PORT = 8080;
+    static final int DEFAULT_THREADS = 64;
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final RouterLambda router = new RouterLambda();
+
+    /**
+     * Creates (but does not start) a server listening on the loopback address.
+     *
+     * @param port    the port to listen on, or 0 for any free port
+     * @param threads the number of requests handled at once
+     * @throws IOException if the port cannot be bound
+     */
+    public EmbeddedHttpServer(int port, int threads) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), threads);
+    }
+
+    /**
+     * Creates (but does not start) a server listening on the address specified. As request tokens are not verified,
+     * the address must only be reachable through a proxy that authenticates requests.
+     *
+     * @param address the address to listen on
+     * @param threads the number of requests handled at once
+     * @throws IOException if the address cannot be bound
+     */
+    public EmbeddedHttpServer(InetSocketAddress address, int threads) throws IOException {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "http-request-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(address, 0);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    /**
+     * Starts the server on HTTP_SERVER_PORT (DEFAULT_PORT by default) of the loopback address, or of HTTP_SERVER_HOST
+     * if set, until the JVM is shut down.
+     *
+     * @param args unused
+     * @throws IOException if the address cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = parseSetting(System.getenv(PORT_ENVIRONMENT_VARIABLE), DEFAULT_PORT);
+        String host = System.getenv(HOST_ENVIRONMENT_VARIABLE);
+        InetSocketAddress address = null == host || host.isBlank() ?
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port) :
+                new InetSocketAddress(host.trim(), port);
+        EmbeddedHttpServer server = new EmbeddedHttpServer(address,
+                Math.max(1, parseSetting(System.getenv(THREADS_ENVIRONMENT_VARIABLE), DEFAULT_THREADS)));
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "http-server-shutdown"));
+        server.start();
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+        LOG.info("Serving HTMVault on {}.", server.getAddress());
+    }
+
+    /**
+     * Stops accepting requests, giving those in progress a moment to complete, then logs the latencies recorded
+     * over the server's life (i.e. at the end of a load test).
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logLatencies(LambdaActivityRunner.service().provideLatencyHistograms().snapshot());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    // every value recorded, not only those since the last summary, with the values (in microseconds) in milliseconds
+    static void logLatencies(Map<String, LatencyHistogram.Snapshot> snapshots) {
+        for (Map.Entry<String, LatencyHistogram.Snapshot> latency : snapshots.entrySet()) {
+            LatencyHistogram.Snapshot snapshot = latency.getValue();
+            LOG.info("{}: count {}, mean {} ms, p50 {} ms, p95 {} ms, p99 {} ms, max {} ms", latency.getKey(),
+                    snapshot.getCount(), snapshot.getMean() / 1_000, snapshot.getValueAtPercentile(50) / 1_000.0,
+                    snapshot.getValueAtPercentile(95) / 1_000.0, snapshot.getValueAtPercentile(99) / 1_000.0,
+                    snapshot.getMax() / 1_000.0);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            LambdaResponse response;
+            try {
+                if ("OPTIONS".equalsIgnoreCase(exchange.getRequestMethod())) {
+                    // CORS preflight, answered by API Gateway when deployed
+                    response = LambdaResponse.success();
+                } else {
+                    response = router.handleRequest(toRequest(exchange), null);
+                }
+            } catch (IOException | RuntimeException e) {
+                LOG.error("Unable to handle {} {}.", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+                response = LambdaResponse.error(e);
+            }
+            send(exchange, response);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    static AuthenticatedLambdaRequest<Object> toRequest(HttpExchange exchange) throws IOException {
+        AuthenticatedLambdaRequest<Object> request = new AuthenticatedLambdaRequest<>();
+        request.setHttpMethod(exchange.getRequestMethod().toUpperCase());
+        request.setPath(exchange.getRequestURI().getPath());
+        request.setQueryStringParameters(parseQuery(exchange.getRequestURI().getRawQuery()));
+
+        Map<String, String> headers = new HashMap<>();
+        for (Map.Entry<String, List<String>> header : exchange.getRequestHeaders().entrySet()) {
+            if (!header.getValue().isEmpty()) {
+                // as API Gateway passes them, i.e. Authorization rather than authorization
+                headers.put(canonicalHeaderName(header.getKey()), header.getValue().get(0));
+            }
+        }
+        request.setHeaders(headers);
+
+        try (InputStream body = exchange.getRequestBody()) {
+            byte[] bytes = body.readAllBytes();
+            request.setBody(bytes.length == 0 ? null : new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        String authorization = headers.get("Authorization");
+        if (null != authorization && authorization.trim().contains(" ")) {
+            APIGatewayProxyRequestEvent.ProxyRequestContext requestContext =
+                    new APIGatewayProxyRequestEvent.ProxyRequestContext();
+            requestContext.setAuthorizer(Map.of("claims",
+                    AuthenticatedLambdaRequest.getClaimsFromAuthHeader(authorization)));
+            request.setRequestContext(requestContext);
+        }
+        return request;
+    }
+
+    static Map<String, String> parseQuery(String rawQuery) {
+        if (null == rawQuery || rawQuery.isEmpty()) {
+            return null;
+        }
+        Map<String, String> parameters = new HashMap<>();
+        for (String parameter : rawQuery.split("&")) {
+            if (parameter.isEmpty()) {
+                continue;
+            }
+            int equals = parameter.indexOf('=');
+            String name = equals < 0 ? parameter : parameter.substring(0, equals);
+            String value = equals < 0 ? "" : parameter.substring(equals + 1);
+            // the first value of a repeated parameter, as API Gateway's single-value parameters hold
+            parameters.putIfAbsent(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static void send(HttpExchange exchange, LambdaResponse response) throws IOException {
+        Headers responseHeaders = exchange.getResponseHeaders();
+        if (null != response.getHeaders()) {
+            response.getHeaders().forEach(responseHeaders::set);
+        }
+        byte[] body;
+        if (null == response.getBody()) {
+            body = new byte[0];
+        } else if (Boolean.TRUE.equals(response.getIsBase64Encoded())) {
+            // i.e. compressed, and decoded by API Gateway when deployed
+            body = Base64.getDecoder().decode(response.getBody());
+        } else {
+            body = response.getBody().getBytes(StandardCharsets.UTF_8);
+        }
+        if (body.length > 0 && !responseHeaders.containsKey("Content-Type")) {
+            responseHeaders.set("Content-Type", "application/json");
+        }
+        exchange.sendResponseHeaders(response.getStatusCode(), body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static String canonicalHeaderName(String name) {
+        StringBuilder canonical = new StringBuilder(name.length());
+        boolean upper = true;
+        for (char c : name.toCharArray()) {
+            canonical.append(upper ? Character.toUpperCase(c) : Character.toLowerCase(c));
+            upper = c == '-';
+        }
+        return canonical.toString();
+    }
+
+    private static int parseSetting(String setting, int defaultValue) {
+        if (null == setting || setting.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(setting.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -16,7 +16,8 @@ public class GetDeviceWorkOrdersLambda
     private final Logger log = LogManager.getLogger();
 
     /**
-     * Handles a Lambda Function request for getting all the work orders for a specified device.
+     * Handles a Lambda Function request for getting the work orders for a specified device, a page
+     * at a time.
      *
      * @param input   The Lambda Function input, a request to get a device's work orders
      * @param context The Lambda execution environment context object.
@@ -27,11 +28,13 @@ public class GetDeviceWorkOrdersLambda
         log.info("handleRequest");
 
         return super.runActivity(
-            // the request built using the path (device id) and query parameters (sort order)
+            // the request built using the path (device id) and query parameters (sort order, page size and token)
             () -> input.fromPathAndQuery((path, query) ->
                 GetDeviceWorkOrdersRequest.builder()
                     .withControlNumber(path.get("controlNumber"))
                     .withSortOrder(query.get("order"))
+                    .withLimit(query.get("limit"))
+                    .withNextToken(query.get("nextToken"))
                     .build()),
             // the call to our activity
             (request, serviceComponent) ->
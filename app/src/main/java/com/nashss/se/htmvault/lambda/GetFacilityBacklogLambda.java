@@ -0,0 +1,45 @@
+package com.nashss.se.htmvault.lambda;
+
+import com.nashss.se.htmvault.activity.requests.GetFacilityBacklogRequest;
+import com.nashss.se.htmvault.activity.results.GetFacilityBacklogResult;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+public class GetFacilityBacklogLambda
+        extends LambdaActivityRunner<GetFacilityBacklogRequest, GetFacilityBacklogResult>
+        implements RequestHandler<LambdaRequest<GetFacilityBacklogRequest>, LambdaResponse> {
+
+    private final Logger log = LogManager.getLogger();
+
+    /**
+     * Handles a Lambda Function request for getting the outstanding work orders of a specified facility, a page
+     * at a time.
+     *
+     * @param input   The Lambda Function input, a request to get a facility's backlog of work orders
+     * @param context The Lambda execution environment context object.
+     * @return The Lambda Function output
+     */
+    @Override
+    public LambdaResponse handleRequest(LambdaRequest<GetFacilityBacklogRequest> input, Context context) {
+        log.info("handleRequest");
+
+        return super.runActivity(
+            // the request built using the query parameters (facility, department, page size and token); query
+            // parameters, unlike path parameters, arrive url-decoded, and facility names often contain spaces
+            () -> input.fromPathAndQuery((path, query) ->
+                GetFacilityBacklogRequest.builder()
+                    .withFacilityName(query.get("facility"))
+                    .withAssignedDepartment(query.get("department"))
+                    .withLimit(query.get("limit"))
+                    .withNextToken(query.get("nextToken"))
+                    .build()),
+            // the call to our activity
+            (request, serviceComponent) ->
+                serviceComponent.provideGetFacilityBacklogActivity().handleRequest(request)
+        );
+    }
+}
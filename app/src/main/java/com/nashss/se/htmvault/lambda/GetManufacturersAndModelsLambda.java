@@ -13,6 +13,9 @@ public class GetManufacturersAndModelsLambda
         extends LambdaActivityRunner<GetManufacturersAndModelsRequest, GetManufacturersAndModelsResult>
         implements RequestHandler<AuthenticatedLambdaRequest<GetManufacturersAndModelsRequest>, LambdaResponse> {
 
+    // reference data changes rarely, but a change should reach the forms within a minute
+    private static final int MAX_AGE_SECONDS = 60;
+
     private final Logger log = LogManager.getLogger();
 
     /**
@@ -20,14 +23,17 @@ public class GetManufacturersAndModelsLambda
      *
      * @param input   The Lambda Function input, an authenticated request
      * @param context The Lambda execution environment context object.
-     * @return The Lambda Function output
+     * @return The Lambda Function output, or Not Modified if the client already holds the same list
      */
     @Override
     public LambdaResponse handleRequest(AuthenticatedLambdaRequest<GetManufacturersAndModelsRequest> input,
                                         Context context) {
         log.info("handleRequest");
 
-        return super.runActivity(
+        return super.runCacheableActivity(input.getHeader("If-None-Match"),
+            // the version of the list, computed once each time the reference data is loaded
+            serviceComponent -> serviceComponent.provideReferenceDataCache().getManufacturersAndModelsVersion(),
+            MAX_AGE_SECONDS,
             // the request, using authentication information
             () -> input.fromUserClaims(claims ->
                 GetManufacturersAndModelsRequest.builder()
@@ -0,0 +1,103 @@
+package com.nashss.se.htmvault.lambda;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JSON serialization shared by every request and response in the container: one object mapper, and a reader or
+ * writer per request or result class, built once (when registered at initialization, or on first use) rather than
+ * looked up through the mapper on every call.
+ *
+ * The claims decoded from a JWT token are cached by token, as a user's requests repeat the same token until it
+ * expires; at most CLAIMS_CACHE_MAX_SIZE tokens are held, each for CLAIMS_CACHE_TTL_MINUTES after it was decoded.
+ */
+final class JsonSerializers {
+
+    static final long CLAIMS_CACHE_MAX_SIZE = 1_000;
+    static final long CLAIMS_CACHE_TTL_MINUTES = 60;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ConcurrentMap<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+    private static final ObjectReader CLAIMS_READER = MAPPER.readerFor(
+            new TypeReference<HashMap<String, String>>() { });
+    private static final Cache<String, Map<String, String>> CLAIMS = CacheBuilder.newBuilder()
+            .maximumSize(CLAIMS_CACHE_MAX_SIZE)
+            .expireAfterWrite(CLAIMS_CACHE_TTL_MINUTES, TimeUnit.MINUTES)
+            .build();
+
+    private JsonSerializers() { }
+
+    /**
+     * Gets the object mapper shared by every request and response.
+     *
+     * @return the object mapper
+     */
+    static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    /**
+     * Builds (and keeps) the readers and writers for the given classes ahead of their first use.
+     *
+     * @param classes the request and result classes
+     */
+    static void register(Class<?>... classes) {
+        for (Class<?> type : classes) {
+            readerFor(type);
+            writerFor(type);
+        }
+    }
+
+    /**
+     * Gets the reader for a class, building it on first use.
+     *
+     * @param type the class to be read
+     * @return the reader
+     */
+    static ObjectReader readerFor(Class<?> type) {
+        return READERS.computeIfAbsent(type, MAPPER::readerFor);
+    }
+
+    /**
+     * Gets the writer for a class, building it on first use.
+     *
+     * @param type the class to be written
+     * @return the writer
+     */
+    static ObjectWriter writerFor(Class<?> type) {
+        return WRITERS.computeIfAbsent(type, MAPPER::writerFor);
+    }
+
+    /**
+     * Gets the claims of a JWT token, decoding its payload (without verifying the token) unless it has already been
+     * decoded.
+     *
+     * @param jwt the JWT token
+     * @return the token's claims, unmodifiable
+     * @throws JsonProcessingException if the token's payload is not valid JSON
+     */
+    static Map<String, String> claimsFromJWT(String jwt) throws JsonProcessingException {
+        Map<String, String> claims = CLAIMS.getIfPresent(jwt);
+        if (null == claims) {
+            String[] sections = jwt.split("\\.");
+            String payload = new String(Base64.getDecoder().decode(sections[1]));
+            claims = Collections.unmodifiableMap(CLAIMS_READER.readValue(payload));
+            CLAIMS.put(jwt, claims);
+        }
+        return claims;
+    }
+}
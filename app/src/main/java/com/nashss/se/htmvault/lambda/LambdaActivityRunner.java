@@ -1,21 +1,36 @@
 package com.nashss.se.htmvault.lambda;
 
-import com.nashss.se.htmvault.dependency.DaggerServiceComponent;
 import com.nashss.se.htmvault.dependency.ServiceComponent;
+import com.nashss.se.htmvault.metrics.LatencyHistogram;
+import com.nashss.se.htmvault.metrics.LatencyHistograms;
+import com.nashss.se.htmvault.metrics.MetricsConstants;
+import com.nashss.se.htmvault.metrics.MetricsPublisher;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
-// from project template
+// from project template; instrumented with per-activity latency and outcome metrics
 public class LambdaActivityRunner<TRequest, TResult> {
-    private ServiceComponent service;
+    // built when the handler class is loaded, in the container's initialization phase; see LambdaInitializer
+    private static final ServiceComponent SERVICE = LambdaInitializer.initialize();
+
+    // set by the first invocation to finish; volatile, as the handler may serve concurrent invocations (see
+    // EmbeddedHttpServer)
+    private volatile LatencyHistogram totalLatency;
     private final Logger log = LogManager.getLogger();
 
     /**
-     * Handles running the activity and returning a LambdaResponse (either success or failure).
+     * Handles running the activity and returning a LambdaResponse (either success or failure). The time taken to
+     * build the request, execute the activity, serialize the result and in total is published for the activity,
+     * along with whether it succeeded or (by exception class) failed; the total time is also recorded into the
+     * activity's latency histogram, and the latency histograms summarized when due. Any metrics buffered while
+     * running the activity are published before returning.
      * @param requestSupplier Provides the activity request.
      * @param handleRequest Runs the activity and provides a response.
      * @return A LambdaResponse
@@ -24,36 +39,150 @@ public class LambdaActivityRunner<TRequest, TResult> {
             Supplier<TRequest> requestSupplier,
             BiFunction<TRequest, ServiceComponent, TResult> handleRequest) {
 
-        TRequest request;
+        long start = System.nanoTime();
+        MetricsPublisher metricsPublisher = getService().provideMetricsPublisher();
+        Map<String, String> dimensions = Map.of(MetricsConstants.ACTIVITY_DIMENSION, getActivityName());
+
         try {
-            log.info("Attempting to build activity request object...");
+            TRequest request;
+            try {
+                log.info("Attempting to build activity request object...");
 
-            request = requestSupplier.get();
+                request = requestSupplier.get();
 
-            log.info("Successfully built activity request object of type: {}.", request.getClass().getSimpleName());
-        } catch (Exception e) {
-            log.error("ERROR! Unable to build activity request object!", e);
-            return LambdaResponse.error(e);
+                log.info("Successfully built activity request object of type: {}.",
+                        request.getClass().getSimpleName());
+            } catch (Exception e) {
+                log.error("ERROR! Unable to build activity request object!", e);
+                addOutcome(metricsPublisher, dimensions, e);
+                return LambdaResponse.error(e);
+            } finally {
+                metricsPublisher.addTime(MetricsConstants.ACTIVITY_DESERIALIZE_TIME, millisSince(start), dimensions);
+            }
+
+            TResult result;
+            long executeStart = System.nanoTime();
+            try {
+                log.info("Attempting to execute activity...");
+
+                result = handleRequest.apply(request, getService());
+
+                log.info("Successfully executed activity. Received result of type: {}.",
+                        result.getClass().getSimpleName());
+            } catch (Exception e) {
+                log.error("ERROR! An exception occurred while executing activity!", e);
+                addOutcome(metricsPublisher, dimensions, e);
+                return LambdaResponse.error(e);
+            } finally {
+                metricsPublisher.addTime(MetricsConstants.ACTIVITY_EXECUTE_TIME, millisSince(executeStart),
+                        dimensions);
+            }
+
+            long serializeStart = System.nanoTime();
+            try {
+                LambdaResponse response = LambdaResponse.success(result);
+                addOutcome(metricsPublisher, dimensions, null);
+                return response;
+            } catch (Exception e) {
+                log.error("ERROR! Unable to serialize activity result!", e);
+                addOutcome(metricsPublisher, dimensions, e);
+                return LambdaResponse.error(e);
+            } finally {
+                metricsPublisher.addTime(MetricsConstants.ACTIVITY_SERIALIZE_TIME, millisSince(serializeStart),
+                        dimensions);
+            }
+        } finally {
+            long totalNanos = System.nanoTime() - start;
+            metricsPublisher.addTime(MetricsConstants.ACTIVITY_TOTAL_TIME, totalNanos / 1_000_000.0, dimensions);
+            LatencyHistograms latencyHistograms = getService().provideLatencyHistograms();
+            LatencyHistogram histogram = totalLatency;
+            if (null == histogram) {
+                // the same histogram for every invocation that looks it up
+                histogram = latencyHistograms.histogram(MetricsConstants.ACTIVITY_TOTAL_TIME, dimensions);
+                totalLatency = histogram;
+            }
+            histogram.recordNanos(totalNanos);
+            latencyHistograms.summarizeIfDue(metricsPublisher);
+            // the container may be frozen once the invocation returns, so buffered metrics cannot be left until later
+            metricsPublisher.flush();
         }
+    }
+
+    /**
+     * Runs the activity as runActivity does, for a response that clients may cache: the response is tagged with an
+     * ETag of the current version of its content, read before the activity runs, so that the body is never older
+     * than its tag. If the request's If-None-Match header already lists the tag, a Not Modified response is
+     * returned instead, without running the activity or serializing its result.
+     * @param ifNoneMatch The request's If-None-Match header, or null
+     * @param version Provides the current version of the response's content
+     * @param maxAgeSeconds How long a client may use the response before revalidating it
+     * @param requestSupplier Provides the activity request.
+     * @param handleRequest Runs the activity and provides a response.
+     * @return A LambdaResponse
+     */
+    protected LambdaResponse runCacheableActivity(
+            String ifNoneMatch, Function<ServiceComponent, String> version, int maxAgeSeconds,
+            Supplier<TRequest> requestSupplier,
+            BiFunction<TRequest, ServiceComponent, TResult> handleRequest) {
 
+        String entityTag;
         try {
-            log.info("Attempting to execute activity...");
+            entityTag = LambdaResponse.entityTag(version.apply(getService()));
+        } catch (Exception e) {
+            // the activity reads the same content, so fails (and is reported) the same way
+            log.warn("Unable to read the version of the response's content.", e);
+            return runActivity(requestSupplier, handleRequest);
+        }
 
-            ServiceComponent serviceComponent = getService();
-            TResult result = handleRequest.apply(request, serviceComponent);
+        MetricsPublisher metricsPublisher = getService().provideMetricsPublisher();
+        Map<String, String> dimensions = Map.of(MetricsConstants.ACTIVITY_DIMENSION, getActivityName());
+        if (LambdaResponse.matchesEntityTag(ifNoneMatch, entityTag)) {
+            metricsPublisher.addCount(MetricsConstants.ACTIVITY_NOTMODIFIED_COUNT, 1, dimensions);
+            metricsPublisher.flush();
+            return LambdaResponse.notModified(entityTag, maxAgeSeconds);
+        }
+        metricsPublisher.addCount(MetricsConstants.ACTIVITY_NOTMODIFIED_COUNT, 0, dimensions);
+        return runActivity(requestSupplier, handleRequest).withEntityTag(entityTag, maxAgeSeconds);
+    }
 
-            log.info("Successfully executed activity. Received result of type: {}.", result.getClass().getSimpleName());
-            return LambdaResponse.success(result);
-        } catch (Exception e) {
-            log.error("ERROR! An exception occurred while executing activity!", e);
-            return LambdaResponse.error(e);
+    /**
+     * The name the activity's metrics are published under: the simple name of the Lambda running it, without its
+     * "Lambda" suffix (i.e. "GetDevice" for GetDeviceLambda).
+     * @return the activity name
+     */
+    protected String getActivityName() {
+        String name = getClass().getSimpleName();
+        return name.endsWith("Lambda") && name.length() > "Lambda".length() ?
+                name.substring(0, name.length() - "Lambda".length()) : name;
+    }
+
+    // a success is counted as 1 (and a failure as 0) so that its average is the activity's success rate; failures
+    // are also counted by exception class, to tell bad requests from faults
+    private static void addOutcome(MetricsPublisher metricsPublisher, Map<String, String> dimensions,
+                                   Exception exception) {
+        metricsPublisher.addCount(MetricsConstants.ACTIVITY_SUCCESS_COUNT, null == exception ? 1 : 0, dimensions);
+        if (null != exception) {
+            metricsPublisher.addCount(MetricsConstants.ACTIVITY_ERROR_COUNT, 1, Map.of(
+                    MetricsConstants.ACTIVITY_DIMENSION, dimensions.get(MetricsConstants.ACTIVITY_DIMENSION),
+                    MetricsConstants.EXCEPTION_CLASS_DIMENSION, exception.getClass().getSimpleName()));
         }
     }
 
+    private static double millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Gets the service component shared by every handler in the container (i.e. for the embedded HTTP server to
+     * report on at shutdown).
+     *
+     * @return the service component
+     */
+    static ServiceComponent service() {
+        return SERVICE;
+    }
+
     private ServiceComponent getService() {
-        if (service == null) {
-            service = DaggerServiceComponent.create();
-        }
-        return service;
+        return SERVICE;
     }
 }
@@ -0,0 +1,138 @@
+package com.nashss.se.htmvault.lambda;
+
+import com.nashss.se.htmvault.activity.requests.AddDeviceRequest;
+import com.nashss.se.htmvault.activity.requests.CreateWorkOrderRequest;
+import com.nashss.se.htmvault.activity.requests.ReactivateDeviceRequest;
+import com.nashss.se.htmvault.activity.requests.UpdateDeviceRequest;
+import com.nashss.se.htmvault.activity.requests.UpdateWorkOrderRequest;
+import com.nashss.se.htmvault.activity.results.AddDeviceResult;
+import com.nashss.se.htmvault.activity.results.CloseWorkOrderResult;
+import com.nashss.se.htmvault.activity.results.CreateWorkOrderResult;
+import com.nashss.se.htmvault.activity.results.GetDeviceResult;
+import com.nashss.se.htmvault.activity.results.GetDeviceWorkOrdersResult;
+import com.nashss.se.htmvault.activity.results.GetFacilitiesAndDepartmentsResult;
+import com.nashss.se.htmvault.activity.results.GetFacilityBacklogResult;
+import com.nashss.se.htmvault.activity.results.GetManufacturersAndModelsResult;
+import com.nashss.se.htmvault.activity.results.GetWorkOrderResult;
+import com.nashss.se.htmvault.activity.results.ReactivateDeviceResult;
+import com.nashss.se.htmvault.activity.results.RetireDeviceResult;
+import com.nashss.se.htmvault.activity.results.SearchDevicesResult;
+import com.nashss.se.htmvault.activity.results.UpdateDeviceResult;
+import com.nashss.se.htmvault.activity.results.UpdateWorkOrderResult;
+import com.nashss.se.htmvault.converters.ManufacturerModelConverter;
+import com.nashss.se.htmvault.dependency.DaggerServiceComponent;
+import com.nashss.se.htmvault.dependency.ServiceComponent;
+import com.nashss.se.htmvault.dynamodb.models.Device;
+import com.nashss.se.htmvault.dynamodb.models.DeviceSearchToken;
+import com.nashss.se.htmvault.dynamodb.models.FacilityDepartment;
+import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
+import com.nashss.se.htmvault.dynamodb.models.WorkOrder;
+import com.nashss.se.htmvault.models.DeviceModel;
+import com.nashss.se.htmvault.models.WorkOrderModel;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+
+/**
+ * Builds the service component during the Lambda container's initialization phase (as the handler class is
+ * loaded), rather than lazily on the first invocation, and primes it: the DynamoDB mapper's table models are built
+ * for each table, the JSON readers and writers of each request and result class are registered, and the JSON
+ * serializers used for request bodies, response payloads and the manufacturer/model attribute are exercised once,
+ * loading the classes on the request path. The first request then does not pay for any of this, and when the
+ * function is restored from a snapshot (SnapStart), the snapshot holds a primed JVM.
+ *
+ * The time taken is only logged, not published as a metric: under SnapStart it is paid once, when the snapshot is
+ * taken, rather than by any sandbox serving requests, and a metric buffered here would be published again by every
+ * sandbox restored from the snapshot. For the same reason, anything priming buffers is flushed before returning.
+ */
+final class LambdaInitializer {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private static final List<Class<?>> TABLE_MODEL_CLASSES = List.of(Device.class, WorkOrder.class,
+            ManufacturerModel.class, FacilityDepartment.class, DeviceSearchToken.class);
+    private static final List<Class<?>> BODY_REQUEST_CLASSES = List.of(AddDeviceRequest.class,
+            UpdateDeviceRequest.class, ReactivateDeviceRequest.class, CreateWorkOrderRequest.class,
+            UpdateWorkOrderRequest.class);
+    private static final List<Class<?>> RESULT_CLASSES = List.of(AddDeviceResult.class, CloseWorkOrderResult.class,
+            CreateWorkOrderResult.class, GetDeviceResult.class, GetDeviceWorkOrdersResult.class,
+            GetFacilitiesAndDepartmentsResult.class, GetFacilityBacklogResult.class,
+            GetManufacturersAndModelsResult.class, GetWorkOrderResult.class, ReactivateDeviceResult.class,
+            RetireDeviceResult.class, SearchDevicesResult.class, UpdateDeviceResult.class,
+            UpdateWorkOrderResult.class);
+
+    private LambdaInitializer() { }
+
+    /**
+     * Builds and primes the service component. A failure to prime is logged, leaving the work to the first
+     * requests, rather than failing the container's initialization.
+     *
+     * @return the service component
+     */
+    static ServiceComponent initialize() {
+        long start = System.nanoTime();
+        ServiceComponent service = DaggerServiceComponent.create();
+
+        try {
+            primeTableModels(service.provideDynamoDBMapper());
+            primeJson();
+        } catch (RuntimeException e) {
+            LOG.warn("Unable to prime the service component; the first requests will do so instead.", e);
+        }
+
+        // leaves nothing buffered in the snapshot, to be published by each sandbox restored from it
+        service.provideMetricsPublisher().flush();
+
+        double elapsedMillis = (System.nanoTime() - start) / 1_000_000.0;
+        LOG.info("Initialized the service component in {} ms.", elapsedMillis);
+        return service;
+    }
+
+    private static void primeTableModels(DynamoDBMapper dynamoDBMapper) {
+        // builds and caches each table's model (the reflection over its getters and annotations) and converters
+        for (Class<?> modelClass : TABLE_MODEL_CLASSES) {
+            dynamoDBMapper.getTableModel(modelClass);
+        }
+    }
+
+    private static void primeJson() {
+        // the reader or writer of each request and result class, kept for every later request
+        JsonSerializers.register(BODY_REQUEST_CLASSES.toArray(new Class<?>[0]));
+        JsonSerializers.register(RESULT_CLASSES.toArray(new Class<?>[0]));
+
+        for (Class<?> requestClass : BODY_REQUEST_CLASSES) {
+            primeRequestBody(requestClass);
+        }
+
+        LambdaResponse.success(GetDeviceResult.builder()
+                .withDeviceModel(DeviceModel.builder().build())
+                .build());
+        LambdaResponse.success(SearchDevicesResult.builder()
+                .withDevices(List.of(DeviceModel.builder().build()))
+                .build());
+        LambdaResponse.success(GetWorkOrderResult.builder()
+                .withWorkOrderModel(WorkOrderModel.builder().build())
+                .build());
+
+        ManufacturerModel manufacturerModel = new ManufacturerModel();
+        manufacturerModel.setManufacturer("manufacturer");
+        manufacturerModel.setModel("model");
+        ManufacturerModelConverter converter = new ManufacturerModelConverter();
+        converter.unconvert(converter.convert(manufacturerModel));
+    }
+
+    // builds (and caches) the request's deserializer in the object mapper shared by every LambdaRequest
+    private static <T> void primeRequestBody(Class<T> requestClass) {
+        LambdaRequest<T> request = new LambdaRequest<>();
+        request.setBody("{}");
+        try {
+            request.fromBody(requestClass);
+        } catch (RuntimeException e) {
+            // an empty body may not be a valid request; the deserializer is built and cached either way
+            LOG.debug("Empty {} not deserialized while priming.", requestClass.getSimpleName(), e);
+        }
+    }
+}
@@ -6,6 +6,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.Map;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -19,7 +21,7 @@ import static com.nashss.se.htmvault.utils.NullUtils.ifNull;
  */
 public class LambdaRequest<T> extends APIGatewayProxyRequestEvent {
 
-    protected static final ObjectMapper MAPPER = new ObjectMapper();
+    protected static final ObjectMapper MAPPER = JsonSerializers.mapper();
     protected final Logger log = LogManager.getLogger();
 
     /**
@@ -30,7 +32,7 @@ public class LambdaRequest<T> extends APIGatewayProxyRequestEvent {
     public T fromBody(Class<T> requestClass) {
         log.info("Attempting to deserialize object from request body ({}).", requestClass.getSimpleName());
         try {
-            return MAPPER.readValue(super.getBody(), requestClass);
+            return JsonSerializers.readerFor(requestClass).readValue(getDecodedBody());
         } catch (JsonProcessingException e) {
             throw new RuntimeException(
                     String.format("Unable to deserialize object from request body (%s).", requestClass.getSimpleName()),
@@ -38,6 +40,34 @@ public class LambdaRequest<T> extends APIGatewayProxyRequestEvent {
         }
     }
 
+    /**
+     * Gets a header of the request by name, ignoring case, as API Gateway passes headers as the client sent them.
+     * @param name The header's name
+     * @return The header's value, or null if the request does not have it
+     */
+    public String getHeader(String name) {
+        Map<String, String> headers = super.getHeaders();
+        if (null == headers) {
+            return null;
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    // API Gateway base64 encodes the body of a request sent with the binary media type (see BinaryMediaTypes in
+    // template.yaml, which enables compressed responses); JSON request bodies (application/json) are passed as text
+    private String getDecodedBody() {
+        String body = super.getBody();
+        if (null == body || !Boolean.TRUE.equals(super.getIsBase64Encoded())) {
+            return body;
+        }
+        return new String(Base64.getDecoder().decode(body), StandardCharsets.UTF_8);
+    }
+
     /**
      * Use the given converter to create an instance of T from the request's query string.
      * @param converter Contains the conversion code
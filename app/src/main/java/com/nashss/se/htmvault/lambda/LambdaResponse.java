@@ -2,18 +2,33 @@ package com.nashss.se.htmvault.lambda;
 
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 // from project template
 /**
  * An APIGateway response from a lambda function.
  */
 public class LambdaResponse extends APIGatewayProxyResponseEvent {
-    private static final ObjectMapper MAPPER = new ObjectMapper();
+    static final String COMPRESSION_MIN_BYTES_ENVIRONMENT_VARIABLE = "RESPONSE_COMPRESSION_MIN_BYTES";
+    static final int DEFAULT_COMPRESSION_MIN_BYTES = 1024;
+    /**
+     * The media type a client lists first in its Accept header to receive compressed responses: the one binary
+     * media type of the API (see BinaryMediaTypes in template.yaml), for which API Gateway decodes a base64 body.
+     */
+    public static final String COMPRESSIBLE_MEDIA_TYPE = "application/vnd.htmvault+json";
+
+    private static final int COMPRESSION_MIN_BYTES =
+            parseSetting(System.getenv(COMPRESSION_MIN_BYTES_ENVIRONMENT_VARIABLE), DEFAULT_COMPRESSION_MIN_BYTES);
 
     private static final Logger log = LogManager.getLogger();
     private LambdaResponse(int statusCode, String body) {
@@ -34,7 +49,9 @@ public class LambdaResponse extends APIGatewayProxyResponseEvent {
     public static LambdaResponse success(Object payload) {
         log.info("success");
         try {
-            return new LambdaResponse(200, MAPPER.writeValueAsString(payload));
+            ObjectWriter writer = null == payload ?
+                    JsonSerializers.mapper().writer() : JsonSerializers.writerFor(payload.getClass());
+            return new LambdaResponse(200, writer.writeValueAsString(payload));
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Unable to convert payload to JSON.");
         }
@@ -77,5 +94,156 @@ public class LambdaResponse extends APIGatewayProxyResponseEvent {
         log.info("error with exception");
         return error(e.getMessage());
     }
-}
 
+    /**
+     * Create a Not Modified response, without a body, for a client that already holds the response tagged with
+     * the given ETag.
+     * @param entityTag The ETag of the response the client holds
+     * @param maxAgeSeconds How long the client may use the response before revalidating it
+     * @return A new LambdaResponse
+     */
+    public static LambdaResponse notModified(String entityTag, int maxAgeSeconds) {
+        return new LambdaResponse(304, "").withEntityTag(entityTag, maxAgeSeconds);
+    }
+
+    /**
+     * Tags a successful response with an ETag and lets clients cache it for the given time, after which they
+     * revalidate it with the tag; any other response is left as it is.
+     * @param entityTag The ETag of the response's body
+     * @param maxAgeSeconds How long a client may use the response before revalidating it
+     * @return This response
+     */
+    public LambdaResponse withEntityTag(String entityTag, int maxAgeSeconds) {
+        if (getStatusCode() != 200 && getStatusCode() != 304) {
+            return this;
+        }
+        Map<String, String> headers = new HashMap<>(getHeaders());
+        headers.put("ETag", entityTag);
+        headers.put("Cache-Control", "private, max-age=" + maxAgeSeconds);
+        setHeaders(headers);
+        return this;
+    }
+
+    // the tag of a body of the given version (i.e. a hash of its content); weak, as the body may be sent compressed
+    // or not (see compress)
+    static String entityTag(String version) {
+        return "W/\"" + version + "\"";
+    }
+
+    // whether an If-None-Match header lists the tag (or is *), comparing tags weakly, as RFC 7232 requires
+    static boolean matchesEntityTag(String ifNoneMatch, String entityTag) {
+        if (null == ifNoneMatch) {
+            return false;
+        }
+        String opaqueTag = entityTag.startsWith("W/") ? entityTag.substring(2) : entityTag;
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if ("*".equals(candidate)) {
+                return true;
+            }
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (opaqueTag.equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compresses the response's body with gzip, if the client accepts it (by its Accept-Encoding header), asks for
+     * it (by listing COMPRESSIBLE_MEDIA_TYPE first in its Accept header, without which API Gateway would pass the
+     * base64 encoded body on as it is) and the body is at least RESPONSE_COMPRESSION_MIN_BYTES
+     * (DEFAULT_COMPRESSION_MIN_BYTES by default) long; smaller bodies are left as they are, as compressing them saves
+     * less than it costs. A compressed body is base64 encoded, as API Gateway requires of a binary body, and decoded
+     * by API Gateway before it is sent. Every response not already base64 encoded is sent with a Vary header naming
+     * both request headers, compressed or not.
+     * @param accept The request's Accept header, or null
+     * @param acceptEncoding The request's Accept-Encoding header, or null
+     * @return This response
+     */
+    public LambdaResponse compress(String accept, String acceptEncoding) {
+        return compress(accept, acceptEncoding, COMPRESSION_MIN_BYTES);
+    }
+
+    LambdaResponse compress(String accept, String acceptEncoding, int minBytes) {
+        if (Boolean.TRUE.equals(getIsBase64Encoded())) {
+            return this;
+        }
+        // whether this response is compressed or not, the response to the same request with other headers may not
+        // be, so caches must tell them apart
+        Map<String, String> varyHeaders = new HashMap<>(getHeaders());
+        varyHeaders.put("Vary", "Accept, Accept-Encoding");
+        super.setHeaders(varyHeaders);
+        if (null == getBody() || !acceptsCompressible(accept) || !acceptsGzip(acceptEncoding)) {
+            return this;
+        }
+        byte[] body = getBody().getBytes(StandardCharsets.UTF_8);
+        if (body.length < minBytes) {
+            return this;
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            log.warn("Unable to compress response; sending it uncompressed.", e);
+            return this;
+        }
+
+        Map<String, String> headers = new HashMap<>(getHeaders());
+        headers.put("Content-Type", "application/json");
+        headers.put("Content-Encoding", "gzip");
+        super.setHeaders(headers);
+        super.setBody(Base64.getEncoder().encodeToString(compressed.toByteArray()));
+        super.setIsBase64Encoded(true);
+        return this;
+    }
+
+    // whether the compressible media type is the first listed in an Accept header, the one API Gateway matches
+    // against the binary media types
+    static boolean acceptsCompressible(String accept) {
+        if (null == accept) {
+            return false;
+        }
+        String first = accept.split(",")[0].split(";")[0].trim();
+        return COMPRESSIBLE_MEDIA_TYPE.equalsIgnoreCase(first);
+    }
+
+    // whether gzip (or any encoding) is listed in an Accept-Encoding header, without a quality value of 0
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (null == acceptEncoding) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim();
+            if (!"gzip".equalsIgnoreCase(name) && !"*".equals(name)) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if (parameter.startsWith("q=") && parameter.substring(2).trim().matches("0(\\.0*)?")) {
+                    refused = true;
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int parseSetting(String setting, int defaultValue) {
+        if (null == setting || setting.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(setting.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
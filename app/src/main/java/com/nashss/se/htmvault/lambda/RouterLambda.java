@@ -0,0 +1,203 @@
+package com.nashss.se.htmvault.lambda;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * A single Lambda function for every HTMVault endpoint, dispatching each request on its HTTP method and resource
+ * path to the endpoint's own handler. As every handler shares the container's service component (see
+ * LambdaActivityRunner), the endpoints also share one DynamoDB client, one set of caches and one pool of warm
+ * containers, rather than each cold starting on its own.
+ *
+ * API Gateway passes the route's resource path (i.e. /devices/{controlNumber}) along with the path parameters; a
+ * request without one (i.e. from the embedded server) is matched on its actual path instead, with literal path
+ * segments taking precedence over parameters (so that /devices/search is not read as a control number).
+ *
+ * Every endpoint's response is compressed for clients that accept it (see LambdaResponse.compress).
+ */
+public class RouterLambda implements RequestHandler<AuthenticatedLambdaRequest<Object>, LambdaResponse> {
+
+    private static final List<Route> ROUTES = List.of(
+        new Route("POST", "/devices", handler(new AddDeviceLambda())),
+        new Route("GET", "/devices/search", handler(new SearchDevicesLambda())),
+        new Route("GET", "/devices/{controlNumber}", handler(new GetDeviceLambda())),
+        new Route("PUT", "/devices/{controlNumber}", handler(new UpdateDeviceLambda())),
+        new Route("DELETE", "/devices/{controlNumber}", handler(new RetireDeviceLambda())),
+        new Route("GET", "/devices/{controlNumber}/workOrders", handler(new GetDeviceWorkOrdersLambda())),
+        new Route("PUT", "/devices/reactivate/{controlNumber}", handler(new ReactivateDeviceLambda())),
+        new Route("POST", "/workOrders", handler(new CreateWorkOrderLambda())),
+        new Route("GET", "/workOrders/{workOrderId}", handler(new GetWorkOrderLambda())),
+        new Route("PUT", "/workOrders/{workOrderId}", handler(new UpdateWorkOrderLambda())),
+        new Route("DELETE", "/workOrders/{workOrderId}", handler(new CloseWorkOrderLambda())),
+        new Route("GET", "/backlog", handler(new GetFacilityBacklogLambda())),
+        new Route("GET", "/manufacturerModels", handler(new GetManufacturersAndModelsLambda())),
+        new Route("GET", "/facilityDepartments", handler(new GetFacilitiesAndDepartmentsLambda()))
+    );
+
+    private final Logger log = LogManager.getLogger();
+
+    /**
+     * Handles a Lambda Function request for any HTMVault endpoint, by passing it to the endpoint's handler.
+     *
+     * @param input   The Lambda Function input, an API Gateway request for any endpoint
+     * @param context The Lambda execution environment context object.
+     * @return The Lambda Function output, or a Not Found response if no endpoint matches the request
+     */
+    @Override
+    public LambdaResponse handleRequest(AuthenticatedLambdaRequest<Object> input, Context context) {
+        String method = null == input.getHttpMethod() ? "" : input.getHttpMethod().toUpperCase();
+        Route route = findRoute(method, input.getResource(), input.getPath());
+        if (null == route) {
+            log.info("No route for {} {} ({}).", method, input.getPath(), input.getResource());
+            return LambdaResponse.notFound();
+        }
+
+        if (null == input.getResource()) {
+            // not from API Gateway, so the path parameters are taken from the path
+            Map<String, String> pathParameters = route.pathParameters(input.getPath());
+            if (null != input.getPathParameters()) {
+                pathParameters.putAll(input.getPathParameters());
+            }
+            input.setPathParameters(pathParameters);
+            input.setResource(route.getResource());
+        }
+
+        log.info("Routing {} {} to {}.", method, route.getResource(), route.getHandlerName());
+        return route.handle(input, context).compress(input.getHeader("Accept"), input.getHeader("Accept-Encoding"));
+    }
+
+    /**
+     * Finds the route for a request: the route for its resource path, when it has one, or otherwise the route
+     * matching its actual path with the most literal path segments.
+     *
+     * @param method   the request's HTTP method
+     * @param resource the route's resource path, as passed by API Gateway, or null
+     * @param path     the request's actual path
+     * @return the route, or null if none matches
+     */
+    static Route findRoute(String method, String resource, String path) {
+        Route best = null;
+        for (Route route : ROUTES) {
+            if (!route.getMethod().equals(method)) {
+                continue;
+            }
+            if (null != resource) {
+                if (route.getResource().equals(resource)) {
+                    return route;
+                }
+            } else if (null != path && route.matches(path) &&
+                    (null == best || route.literalSegments() > best.literalSegments())) {
+                best = route;
+            }
+        }
+        return best;
+    }
+
+    // each handler takes its own request type, but they are all API Gateway requests deserialized the same way, and
+    // the type parameter is only used to deserialize the request body
+    @SuppressWarnings("unchecked")
+    private static <I extends LambdaRequest<?>> Handler handler(RequestHandler<I, LambdaResponse> handler) {
+        return new Handler(handler.getClass().getSimpleName(),
+            (input, context) -> handler.handleRequest((I) input, context));
+    }
+
+    private static final class Handler {
+        private final String name;
+        private final BiFunction<AuthenticatedLambdaRequest<Object>, Context, LambdaResponse> function;
+
+        private Handler(String name, BiFunction<AuthenticatedLambdaRequest<Object>, Context, LambdaResponse> function) {
+            this.name = name;
+            this.function = function;
+        }
+    }
+
+    /**
+     * An endpoint: its HTTP method and resource path (with path parameters in braces), and its handler.
+     */
+    static final class Route {
+        private final String method;
+        private final String resource;
+        private final String[] segments;
+        private final Handler handler;
+
+        private Route(String method, String resource, Handler handler) {
+            this.method = method;
+            this.resource = resource;
+            this.segments = split(resource);
+            this.handler = handler;
+        }
+
+        String getMethod() {
+            return method;
+        }
+
+        String getResource() {
+            return resource;
+        }
+
+        String getHandlerName() {
+            return handler.name;
+        }
+
+        boolean matches(String path) {
+            String[] pathSegments = split(path);
+            if (pathSegments.length != segments.length) {
+                return false;
+            }
+            for (int i = 0; i < segments.length; i++) {
+                if (!isParameter(segments[i]) && !segments[i].equals(pathSegments[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        Map<String, String> pathParameters(String path) {
+            Map<String, String> pathParameters = new HashMap<>();
+            String[] pathSegments = split(path);
+            for (int i = 0; i < segments.length && i < pathSegments.length; i++) {
+                if (isParameter(segments[i])) {
+                    pathParameters.put(segments[i].substring(1, segments[i].length() - 1), pathSegments[i]);
+                }
+            }
+            return pathParameters;
+        }
+
+        int literalSegments() {
+            int literals = 0;
+            for (String segment : segments) {
+                if (!isParameter(segment)) {
+                    literals++;
+                }
+            }
+            return literals;
+        }
+
+        LambdaResponse handle(AuthenticatedLambdaRequest<Object> input, Context context) {
+            return handler.function.apply(input, context);
+        }
+
+        private static boolean isParameter(String segment) {
+            return segment.startsWith("{") && segment.endsWith("}");
+        }
+
+        private static String[] split(String path) {
+            List<String> segments = new ArrayList<>();
+            for (String segment : path.split("/")) {
+                if (!segment.isEmpty()) {
+                    segments.add(segment);
+                }
+            }
+            return segments.toArray(new String[0]);
+        }
+    }
+}
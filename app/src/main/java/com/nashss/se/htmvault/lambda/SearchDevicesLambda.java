@@ -16,7 +16,7 @@ public class SearchDevicesLambda
     private final Logger log = LogManager.getLogger();
 
     /**
-     * Handles a Lambda Function request to scan for a list of devices matching search criteria.
+     * Handles a Lambda Function request to scan for a page of devices matching search criteria.
      *
      * @param input   The Lambda Function input, a SearchDevicesRequest
      * @param context The Lambda execution environment context object.
@@ -31,6 +31,8 @@ public class SearchDevicesLambda
             () -> input.fromQuery(query ->
                 SearchDevicesRequest.builder()
                     .withCriteria(query.get("q"))
+                    .withLimit(query.get("limit"))
+                    .withNextToken(query.get("nextToken"))
                     .build()),
             // the call to our activity
             (request, serviceComponent) ->
@@ -0,0 +1,167 @@
+package com.nashss.se.htmvault.metrics;
+
+import com.amazonaws.services.cloudwatch.AmazonCloudWatch;
+import com.amazonaws.services.cloudwatch.model.Dimension;
+import com.amazonaws.services.cloudwatch.model.MetricDatum;
+import com.amazonaws.services.cloudwatch.model.PutMetricDataRequest;
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+import com.amazonaws.services.cloudwatch.model.StatisticSet;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// initial from project template; metrics are now buffered and published in batches
+/**
+ * Publishes metrics to CloudWatch through its PutMetricData API.
+ *
+ * Metrics are not sent to CloudWatch as they are added, but buffered in memory, with the values added for the same
+ * metric (name, unit and dimensions) aggregated into a single statistic set (sample count, sum, minimum and
+ * maximum). The buffer is sent to CloudWatch, in as few PutMetricData calls as the API's batch limit allows, by a
+ * background flusher every METRICS_FLUSH_INTERVAL_MILLIS (when set to a positive number), and by {@link #flush()},
+ * which the Lambda activity runner calls before each invocation returns (after which the Lambda container may be
+ * frozen).
+ */
+public class CloudWatchMetricsPublisher implements MetricsPublisher {
+
+    static final String FLUSH_INTERVAL_ENVIRONMENT_VARIABLE = "METRICS_FLUSH_INTERVAL_MILLIS";
+    static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+    static final int MAX_DATUMS_PER_REQUEST = 1000;
+
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "metrics-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AmazonCloudWatch cloudWatch;
+    private final ConcurrentMap<MetricKey, StatisticSet> buffer = new ConcurrentHashMap<>();
+    private final Logger log = LogManager.getLogger();
+
+    /**
+     * Creates a metrics publisher with the given AmazonCloudWatch, flushing in the background as configured by the
+     * environment.
+     *
+     * @param cloudWatch AmazonCloudWatch
+     */
+    public CloudWatchMetricsPublisher(final AmazonCloudWatch cloudWatch) {
+        this(cloudWatch, parseFlushInterval(System.getenv(FLUSH_INTERVAL_ENVIRONMENT_VARIABLE)));
+    }
+
+    /**
+     * Creates a metrics publisher with the given AmazonCloudWatch and background flush interval.
+     *
+     * @param cloudWatch           AmazonCloudWatch
+     * @param flushIntervalMillis  how often to flush in the background, or 0 to only flush when asked to
+     */
+    CloudWatchMetricsPublisher(final AmazonCloudWatch cloudWatch, final long flushIntervalMillis) {
+        this.cloudWatch = cloudWatch;
+        if (flushIntervalMillis > 0) {
+            FLUSHER.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Adds the given metric to the buffer of metrics to publish to CloudWatch, aggregated with any values for the
+     * same metric (name, unit and dimensions) not yet published.
+     *
+     * @param metricName name of metric to publish.
+     * @param value value of metric.
+     * @param unit unit of metric.
+     * @param dimensions the metric's dimensions, by name.
+     */
+    @Override
+    public void addMetric(final String metricName, final double value, final StandardUnit unit,
+                          final Map<String, String> dimensions) {
+        // compute is atomic for the key, so no value is lost to a concurrent add or flush
+        buffer.compute(new MetricKey(metricName, unit, dimensions), (key, statistics) -> null == statistics ?
+                new StatisticSet().withSampleCount(1.0).withSum(value).withMinimum(value).withMaximum(value) :
+                statistics.withSampleCount(statistics.getSampleCount() + 1)
+                        .withSum(statistics.getSum() + value)
+                        .withMinimum(Math.min(statistics.getMinimum(), value))
+                        .withMaximum(Math.max(statistics.getMaximum(), value)));
+    }
+
+    /**
+     * Ignored, as properties cannot be attached to metrics published through the PutMetricData API (and, as
+     * dimensions, would be charged as separate metrics for each distinct value).
+     *
+     * @param name the property name
+     * @param value the property value
+     */
+    @Override
+    public void addProperty(String name, String value) {
+        // not supported by the PutMetricData API
+    }
+
+    /**
+     * Publishes every buffered metric to CloudWatch, in batches of up to MAX_DATUMS_PER_REQUEST metrics. A failure
+     * to publish is logged, and the metrics in that batch dropped, rather than failing the caller.
+     */
+    @Override
+    public void flush() {
+        List<MetricDatum> datums = new ArrayList<>();
+        for (MetricKey key : buffer.keySet()) {
+            StatisticSet statistics = buffer.remove(key);
+            if (null != statistics) {
+                datums.add(buildMetricDatum(key, statistics));
+            }
+        }
+
+        for (int start = 0; start < datums.size(); start += MAX_DATUMS_PER_REQUEST) {
+            List<MetricDatum> batch = datums.subList(start, Math.min(start + MAX_DATUMS_PER_REQUEST, datums.size()));
+            try {
+                cloudWatch.putMetricData(new PutMetricDataRequest()
+                        .withNamespace(MetricsConstants.NAMESPACE_NAME)
+                        .withMetricData(batch));
+            } catch (RuntimeException e) {
+                log.warn("Unable to publish {} metric(s) to CloudWatch.", batch.size(), e);
+            }
+        }
+    }
+
+    static long parseFlushInterval(String flushInterval) {
+        if (null == flushInterval || flushInterval.isBlank()) {
+            return DEFAULT_FLUSH_INTERVAL_MILLIS;
+        }
+        try {
+            return Math.max(0, Long.parseLong(flushInterval.trim()));
+        } catch (NumberFormatException e) {
+            return DEFAULT_FLUSH_INTERVAL_MILLIS;
+        }
+    }
+
+    /**
+     * Helper method that builds the MetricDatum object, holding a metric's aggregated values, published to
+     * CloudWatch.
+     *
+     * @param key the metric's name, unit and dimensions
+     * @param statistics the metric's aggregated values
+     * @return MetricDatum
+     */
+    private static MetricDatum buildMetricDatum(final MetricKey key, final StatisticSet statistics) {
+        final List<Dimension> dimensions = new ArrayList<>();
+        dimensions.add(new Dimension()
+            .withName(MetricsConstants.SERVICE)
+            .withValue(MetricsConstants.SERVICE_NAME));
+        for (Map.Entry<String, String> dimension : key.getDimensions().entrySet()) {
+            dimensions.add(new Dimension()
+                .withName(dimension.getKey())
+                .withValue(dimension.getValue()));
+        }
+
+        return new MetricDatum()
+            .withMetricName(key.getMetricName())
+            .withUnit(key.getUnit())
+            .withStatisticValues(statistics)
+            .withDimensions(dimensions);
+    }
+}
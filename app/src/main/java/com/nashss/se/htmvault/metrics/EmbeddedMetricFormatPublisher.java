@@ -0,0 +1,213 @@
+package com.nashss.se.htmvault.metrics;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Publishes metrics as CloudWatch Embedded Metric Format (EMF) JSON documents, one per line, which CloudWatch Logs
+ * extracts metrics from as the Lambda's log is ingested, so publishing makes no network calls.
+ *
+ * Metrics are buffered, each with every value added, and written at each flush along with the properties the
+ * flushing thread added since its previous flush (i.e. the control number of the device being worked on), which
+ * are searchable in the log without being metric dimensions. Both are kept per thread, as one publisher serves
+ * every invocation a container runs at once, and each invocation adds and flushes on its own thread; tasks an
+ * invocation hands to other threads are wrapped with onCallingThread so that their metrics join its buffer.
+ *
+ * A document holds at most MAX_METRICS_PER_DOCUMENT metrics, each with at most MAX_VALUES_PER_METRIC values, as
+ * EMF allows; any more are written in further documents. Metrics with different dimensions are written in
+ * separate documents, as a document's dimension values apply to all of its metrics.
+ */
+public class EmbeddedMetricFormatPublisher implements MetricsPublisher {
+
+    // written without any layout (see log4j2.xml), as CloudWatch Logs only extracts metrics from bare JSON lines
+    static final String LOGGER_NAME = "EmbeddedMetrics";
+    static final int MAX_METRICS_PER_DOCUMENT = 100;
+    static final int MAX_VALUES_PER_METRIC = 100;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Consumer<String> sink;
+    private final ThreadLocal<Buffer> buffers = ThreadLocal.withInitial(Buffer::new);
+    private final Logger log = LogManager.getLogger();
+
+    /**
+     * Creates a metrics publisher writing to the EmbeddedMetrics log4j logger.
+     */
+    public EmbeddedMetricFormatPublisher() {
+        this(LogManager.getLogger(LOGGER_NAME)::info);
+    }
+
+    /**
+     * Creates a metrics publisher writing each document to the given sink.
+     *
+     * @param sink the consumer of each JSON document written
+     */
+    public EmbeddedMetricFormatPublisher(Consumer<String> sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * A sink appending each document as a line of a local file, so that the metrics emitted can be inspected (i.e.
+     * by tests) without AWS.
+     *
+     * @param file the file to append to, created if it does not exist
+     * @return the file sink
+     */
+    public static Consumer<String> fileSink(Path file) {
+        return document -> {
+            try {
+                Files.write(file, List.of(document), StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    @Override
+    public void addMetric(final String metricName, final double value, final StandardUnit unit,
+                          final Map<String, String> dimensions) {
+        buffers.get().metrics.compute(new MetricKey(metricName, unit, dimensions), (key, values) -> {
+            List<Double> updated = null == values ? new ArrayList<>() : values;
+            updated.add(value);
+            return updated;
+        });
+    }
+
+    @Override
+    public void addProperty(String name, String value) {
+        if (null != name && null != value) {
+            buffers.get().properties.put(name, value);
+        }
+    }
+
+    @Override
+    public <T> Callable<T> onCallingThread(Callable<T> task) {
+        Buffer callingThreadBuffer = buffers.get();
+        return () -> {
+            Buffer ownBuffer = buffers.get();
+            buffers.set(callingThreadBuffer);
+            try {
+                return task.call();
+            } finally {
+                buffers.set(ownBuffer);
+            }
+        };
+    }
+
+    /**
+     * Writes the metrics buffered by the calling thread, along with the properties it added, since its last flush.
+     * A failure to write is logged, and the metrics dropped, rather than failing the caller.
+     */
+    @Override
+    public void flush() {
+        Buffer flushed = buffers.get();
+        buffers.remove();
+        Map<MetricKey, List<Double>> metrics = new LinkedHashMap<>(flushed.metrics);
+        Map<String, String> flushedProperties = flushed.properties;
+
+        if (metrics.isEmpty()) {
+            return;
+        }
+
+        Map<Map<String, String>, Map<MetricKey, List<Double>>> metricsByDimensions = new LinkedHashMap<>();
+        for (Map.Entry<MetricKey, List<Double>> metric : metrics.entrySet()) {
+            metricsByDimensions.computeIfAbsent(metric.getKey().getDimensions(), dimensions -> new LinkedHashMap<>())
+                    .put(metric.getKey(), metric.getValue());
+        }
+
+        try {
+            long timestamp = System.currentTimeMillis();
+            for (Map.Entry<Map<String, String>, Map<MetricKey, List<Double>>> group : metricsByDimensions.entrySet()) {
+                for (Map<MetricKey, List<Double>> document : splitIntoDocuments(group.getValue())) {
+                    sink.accept(MAPPER.writeValueAsString(
+                            toDocument(document, group.getKey(), flushedProperties, timestamp)));
+                }
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Unable to write {} metric(s) in Embedded Metric Format.", metrics.size(), e);
+        }
+    }
+
+    // the first document holds the first MAX_VALUES_PER_METRIC values of up to MAX_METRICS_PER_DOCUMENT metrics,
+    // and so on, until every value of every metric is in a document
+    private static List<Map<MetricKey, List<Double>>> splitIntoDocuments(Map<MetricKey, List<Double>> metrics) {
+        int mostValues = metrics.values().stream().mapToInt(List::size).max().orElse(0);
+
+        List<Map<MetricKey, List<Double>>> documents = new ArrayList<>();
+        for (int offset = 0; offset < mostValues; offset += MAX_VALUES_PER_METRIC) {
+            Map<MetricKey, List<Double>> document = new LinkedHashMap<>();
+            for (Map.Entry<MetricKey, List<Double>> metric : metrics.entrySet()) {
+                List<Double> values = metric.getValue();
+                if (offset >= values.size()) {
+                    continue;
+                }
+                document.put(metric.getKey(),
+                        values.subList(offset, Math.min(offset + MAX_VALUES_PER_METRIC, values.size())));
+                if (document.size() == MAX_METRICS_PER_DOCUMENT) {
+                    documents.add(document);
+                    document = new LinkedHashMap<>();
+                }
+            }
+            if (!document.isEmpty()) {
+                documents.add(document);
+            }
+        }
+        return documents;
+    }
+
+    private static Map<String, Object> toDocument(Map<MetricKey, List<Double>> metrics,
+                                                  Map<String, String> dimensions, Map<String, String> properties,
+                                                  long timestamp) {
+        List<Map<String, String>> definitions = new ArrayList<>();
+        Map<String, Object> document = new LinkedHashMap<>(properties);
+        for (Map.Entry<MetricKey, List<Double>> metric : metrics.entrySet()) {
+            definitions.add(Map.of("Name", metric.getKey().getMetricName(),
+                    "Unit", metric.getKey().getUnit().toString()));
+            List<Double> values = metric.getValue();
+            document.put(metric.getKey().getMetricName(), values.size() == 1 ? values.get(0) : values);
+        }
+        document.put(MetricsConstants.SERVICE, MetricsConstants.SERVICE_NAME);
+        document.putAll(dimensions);
+
+        List<String> dimensionNames = new ArrayList<>();
+        dimensionNames.add(MetricsConstants.SERVICE);
+        dimensionNames.addAll(dimensions.keySet());
+
+        Map<String, Object> directive = new LinkedHashMap<>();
+        directive.put("Namespace", MetricsConstants.NAMESPACE_NAME);
+        directive.put("Dimensions", List.of(dimensionNames));
+        directive.put("Metrics", definitions);
+
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("Timestamp", timestamp);
+        metadata.put("CloudWatchMetrics", List.of(directive));
+        document.put("_aws", metadata);
+        return document;
+    }
+
+    // the metrics and properties of one thread (and the tasks it hands to other threads) between flushes
+    private static final class Buffer {
+        private final ConcurrentMap<MetricKey, List<Double>> metrics = new ConcurrentHashMap<>();
+        private final Map<String, String> properties = Collections.synchronizedMap(new LinkedHashMap<>());
+    }
+}
@@ -0,0 +1,165 @@
+package com.nashss.se.htmvault.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-memory histogram of latencies, recorded in microseconds, from which percentiles (p50, p95, p99) can be
+ * read; the raw values sent through MetricsPublisher cannot give percentiles from within the service.
+ *
+ * Values are counted in log-linear buckets, as in HdrHistogram: values below SUB_BUCKET_COUNT each have a bucket of
+ * their own, and each power of two above that is split into SUB_BUCKET_COUNT equal buckets, so a value read from the
+ * histogram is within 1/SUB_BUCKET_COUNT (about 3%) of the values recorded, and every value up to MAX_VALUE_MICROS
+ * (an hour) fits in BUCKET_COUNT buckets. Larger values are counted as MAX_VALUE_MICROS.
+ *
+ * Recording is lock-free and allocation-free (an atomic increment of one bucket, and an add to the sum), so it can
+ * be done on every request from any number of threads.
+ */
+public final class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    static final long MAX_VALUE_MICROS = TimeUnit.HOURS.toMicros(1);
+    static final int BUCKET_COUNT = bucketIndex(MAX_VALUE_MICROS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * Records a latency.
+     *
+     * @param micros the latency, in microseconds
+     */
+    public void recordMicros(long micros) {
+        long value = Math.max(0, Math.min(micros, MAX_VALUE_MICROS));
+        counts.incrementAndGet(bucketIndex(value));
+        sum.add(value);
+    }
+
+    /**
+     * Records a latency, measured with System.nanoTime.
+     *
+     * @param nanos the latency, in nanoseconds
+     */
+    public void recordNanos(long nanos) {
+        recordMicros(nanos / 1_000);
+    }
+
+    /**
+     * Copies the counts recorded so far. Values recorded while the copy is being made may or may not be included.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, sum.sum());
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        // the position of the value's highest bit above the sub-bucket bits; the bits below are dropped
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+    }
+
+    static long highestValueIn(int bucketIndex) {
+        if (bucketIndex < SUB_BUCKET_COUNT) {
+            return bucketIndex;
+        }
+        int shift = (bucketIndex >>> SUB_BUCKET_BITS) - 1;
+        long lowest = (long) (SUB_BUCKET_COUNT + (bucketIndex & (SUB_BUCKET_COUNT - 1))) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * The counts of a histogram at a point in time (or between two points in time; see since). Values read from a
+     * snapshot are the highest value of the bucket they fall in, so they never understate a latency.
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long sum;
+        private final long totalCount;
+
+        private Snapshot(long[] counts, long sum) {
+            this.counts = counts;
+            this.sum = sum;
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            this.totalCount = total;
+        }
+
+        /**
+         * The values recorded after an earlier snapshot of the same histogram, up to this one.
+         *
+         * @param earlier the earlier snapshot, or null for every value recorded
+         * @return the snapshot of the values recorded in between
+         */
+        public Snapshot since(Snapshot earlier) {
+            if (null == earlier) {
+                return this;
+            }
+            long[] difference = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                difference[i] = Math.max(0, counts[i] - earlier.counts[i]);
+            }
+            return new Snapshot(difference, Math.max(0, sum - earlier.sum));
+        }
+
+        public long getCount() {
+            return totalCount;
+        }
+
+        /**
+         * The mean of the values recorded.
+         *
+         * @return the mean, in microseconds, or 0 if no values were recorded
+         */
+        public double getMean() {
+            return 0 == totalCount ? 0 : (double) sum / totalCount;
+        }
+
+        /**
+         * The largest value recorded.
+         *
+         * @return the maximum, in microseconds, or 0 if no values were recorded
+         */
+        public long getMax() {
+            for (int i = BUCKET_COUNT - 1; i >= 0; i--) {
+                if (counts[i] > 0) {
+                    return highestValueIn(i);
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * The value that the given percentage of the values recorded are at or below (i.e. 99 for the p99).
+         *
+         * @param percentile the percentile, from 0 to 100
+         * @return the value, in microseconds, or 0 if no values were recorded
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (0 == totalCount) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * totalCount));
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return highestValueIn(i);
+                }
+            }
+            return getMax();
+        }
+    }
+}
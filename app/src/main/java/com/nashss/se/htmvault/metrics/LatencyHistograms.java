@@ -0,0 +1,132 @@
+package com.nashss.se.htmvault.metrics;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * The latency histograms of the (warm) Lambda container, by metric name and dimensions, kept for the life of the
+ * container. Each histogram is periodically summarized into percentile metrics (i.e. "Activity.Total.Time.p99")
+ * published with the histogram's dimensions, covering the values recorded since the last summary; the histograms
+ * themselves are never reset, so that a snapshot of every value recorded can be taken (i.e. at the end of a load
+ * test).
+ *
+ * Looking a histogram up allocates, so callers recording on every request should keep the histogram they record
+ * into.
+ */
+@Singleton
+public class LatencyHistograms {
+
+    static final String SUMMARY_INTERVAL_ENVIRONMENT_VARIABLE = "LATENCY_SUMMARY_INTERVAL_MILLIS";
+    static final long DEFAULT_SUMMARY_INTERVAL_MILLIS = 60_000;
+    static final double[] PERCENTILES = {50, 95, 99};
+
+    private final ConcurrentMap<MetricKey, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MetricKey, LatencyHistogram.Snapshot> summarized = new ConcurrentHashMap<>();
+    private final long summaryIntervalMillis;
+    private final AtomicLong nextSummaryMillis;
+
+    /**
+     * Instantiates the latency histograms, summarized every LATENCY_SUMMARY_INTERVAL_MILLIS (a minute by default).
+     */
+    @Inject
+    public LatencyHistograms() {
+        this(parseSummaryInterval(System.getenv(SUMMARY_INTERVAL_ENVIRONMENT_VARIABLE)));
+    }
+
+    /**
+     * Instantiates the latency histograms with an explicit summary interval.
+     *
+     * @param summaryIntervalMillis the least time between summaries, or 0 to summarize whenever asked
+     */
+    LatencyHistograms(long summaryIntervalMillis) {
+        this.summaryIntervalMillis = summaryIntervalMillis;
+        this.nextSummaryMillis = new AtomicLong(System.currentTimeMillis() + summaryIntervalMillis);
+    }
+
+    /**
+     * Gets the histogram for the given metric, creating it if it does not exist.
+     *
+     * @param metricName the name of the metric, to which the percentile is appended when summarized
+     * @param dimensions the metric's dimensions, by name
+     * @return the histogram
+     */
+    public LatencyHistogram histogram(String metricName, Map<String, String> dimensions) {
+        return histograms.computeIfAbsent(new MetricKey(metricName, StandardUnit.Milliseconds, dimensions),
+            key -> new LatencyHistogram());
+    }
+
+    /**
+     * Summarizes every histogram, as summarize does, if the summary interval has passed since the last summary.
+     * Only one caller summarizes when several find the interval has passed.
+     *
+     * @param metricsPublisher the metrics publisher to add the percentile metrics to
+     */
+    public void summarizeIfDue(MetricsPublisher metricsPublisher) {
+        long now = System.currentTimeMillis();
+        long next = nextSummaryMillis.get();
+        if (now >= next && nextSummaryMillis.compareAndSet(next, now + summaryIntervalMillis)) {
+            summarize(metricsPublisher);
+        }
+    }
+
+    /**
+     * Adds the percentiles (and maximum) of the values recorded in each histogram since its last summary to the
+     * metrics to publish, in milliseconds. Histograms with no values recorded since are skipped.
+     *
+     * @param metricsPublisher the metrics publisher to add the percentile metrics to
+     */
+    public void summarize(MetricsPublisher metricsPublisher) {
+        for (Map.Entry<MetricKey, LatencyHistogram> histogram : histograms.entrySet()) {
+            MetricKey key = histogram.getKey();
+            LatencyHistogram.Snapshot snapshot = histogram.getValue().snapshot();
+            LatencyHistogram.Snapshot interval = snapshot.since(summarized.put(key, snapshot));
+            if (0 == interval.getCount()) {
+                continue;
+            }
+
+            for (double percentile : PERCENTILES) {
+                metricsPublisher.addTime(key.getMetricName() + ".p" + (int) percentile,
+                        toMillis(interval.getValueAtPercentile(percentile)), key.getDimensions());
+            }
+            metricsPublisher.addTime(key.getMetricName() + ".max", toMillis(interval.getMax()), key.getDimensions());
+        }
+    }
+
+    /**
+     * Takes a snapshot of every value recorded in each histogram, keyed by metric name followed by its dimensions
+     * (i.e. "Activity.Total.Time{Activity=GetDevice}").
+     *
+     * @return the snapshots, sorted by key
+     */
+    public Map<String, LatencyHistogram.Snapshot> snapshot() {
+        Map<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+        for (Map.Entry<MetricKey, LatencyHistogram> histogram : histograms.entrySet()) {
+            MetricKey key = histogram.getKey();
+            snapshots.put(key.getMetricName() + key.getDimensions(), histogram.getValue().snapshot());
+        }
+        return snapshots;
+    }
+
+    static long parseSummaryInterval(String summaryInterval) {
+        if (null == summaryInterval || summaryInterval.isBlank()) {
+            return DEFAULT_SUMMARY_INTERVAL_MILLIS;
+        }
+        try {
+            return Math.max(0, Long.parseLong(summaryInterval.trim()));
+        } catch (NumberFormatException e) {
+            return DEFAULT_SUMMARY_INTERVAL_MILLIS;
+        }
+    }
+
+    private static double toMillis(long micros) {
+        return micros / 1_000.0;
+    }
+}
@@ -0,0 +1,55 @@
+package com.nashss.se.htmvault.metrics;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * The identity of a buffered metric, by which its values are grouped: its name, unit and dimensions.
+ */
+final class MetricKey {
+
+    private final String metricName;
+    private final StandardUnit unit;
+    private final Map<String, String> dimensions;
+
+    MetricKey(String metricName, StandardUnit unit, Map<String, String> dimensions) {
+        this.metricName = metricName;
+        this.unit = unit;
+        // sorted, so that dimensions are always published in the same order
+        this.dimensions = Collections.unmodifiableMap(new TreeMap<>(dimensions));
+    }
+
+    String getMetricName() {
+        return metricName;
+    }
+
+    StandardUnit getUnit() {
+        return unit;
+    }
+
+    Map<String, String> getDimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MetricKey metricKey = (MetricKey) o;
+        return Objects.equals(metricName, metricKey.metricName) && unit == metricKey.unit &&
+                Objects.equals(dimensions, metricKey.dimensions);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(metricName, unit, dimensions);
+    }
+}
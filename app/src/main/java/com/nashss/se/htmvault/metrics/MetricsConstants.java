@@ -5,6 +5,20 @@ package com.nashss.se.htmvault.metrics;
  * Constant values for use with metrics.
  */
 public class MetricsConstants {
+    public static final String ACTIVITY_DESERIALIZE_TIME =
+            "Activity.Deserialize.Time";
+    public static final String ACTIVITY_ERROR_COUNT =
+            "Activity.Error.Count";
+    public static final String ACTIVITY_EXECUTE_TIME =
+            "Activity.Execute.Time";
+    public static final String ACTIVITY_NOTMODIFIED_COUNT =
+            "Activity.NotModified.Count";
+    public static final String ACTIVITY_SERIALIZE_TIME =
+            "Activity.Serialize.Time";
+    public static final String ACTIVITY_SUCCESS_COUNT =
+            "Activity.Success.Count";
+    public static final String ACTIVITY_TOTAL_TIME =
+            "Activity.Total.Time";
     public static final String ADDDEVICE_INVALIDATTRIBUTEVALUE_COUNT =
             "AddDevice.InvalidAttributeValueException.Count";
     public static final String CLOSEWORKORDER_DEVICENOTFOUND_COUNT =
@@ -15,12 +29,33 @@ public class MetricsConstants {
             "CloseWorkOrder.WorkOrderNotFoundException.Count";
     public static final String CREATEWORKORDER_DEVICENOTFOUND_COUNT =
             "CreateWorkOrder.DeviceNotFoundException.Count";
+    public static final String CREATEWORKORDER_DEVICERETIRED_COUNT =
+            "CreateWorkOrder.UpdateRetiredDeviceException.Count";
     public static final String CREATEWORKORDER_INVALIDATTRIBUTEVALUE_COUNT =
             "CreateWorkOrder.InvalidAttributeValueException.Count";
+    public static final String CREATEWORKORDER_FULLLIST_COUNT = "CreateWorkOrder.FullList.Count";
+    public static final String DEVICECACHE_EVICTION_COUNT =
+            "DeviceCache.Eviction.Count";
+    public static final String DEVICECACHE_HIT_COUNT =
+            "DeviceCache.Hit.Count";
+    public static final String DEVICECACHE_MISS_COUNT =
+            "DeviceCache.Miss.Count";
+    public static final String DEVICESEARCHINDEX_FAILEDBATCH_COUNT =
+            "DeviceSearchIndex.FailedBatch.Count";
+    public static final String DYNAMODB_CONSUMEDCAPACITY =
+            "DynamoDb.ConsumedCapacity";
+    public static final String DYNAMODB_ERROR_COUNT =
+            "DynamoDb.Error.Count";
+    public static final String DYNAMODB_ITEMS_COUNT =
+            "DynamoDb.Items.Count";
+    public static final String DYNAMODB_TIME =
+            "DynamoDb.Time";
     public static final String GETDEVICE_DEVICENOTFOUND_COUNT =
             "GetDevice.DeviceNotFoundException.Count";
     public static final String GETDEVICEWORKORDERS_INVALIDATTRIBUTEVALUE_COUNT =
             "GetDeviceWorkOrders.InvalidAttributeValueException.Count";
+    public static final String GETFACILITYBACKLOG_INVALIDATTRIBUTEVALUE_COUNT =
+            "GetFacilityBacklog.InvalidAttributeValueException.Count";
     public static final String GETFACILITYDEPARTMENT_FACILITYDEPARTMENTNOTFOUND_COUNT =
             "GetFacilityDepartment.FacilityDepartmentNotFoundException.Count";
     public static final String GETMANUFACTURERMODEL_MANUFACTURERMODELNOTFOUND_COUNT =
@@ -29,10 +64,26 @@ public class MetricsConstants {
             "GetWorkOrder.WorkOrderNotFoundException.Count";
     public static final String REACTIVATEDEVICE_DEVICENOTFOUND_COUNT =
             "ReactivateDevice.DeviceNotFoundException.Count";
+    public static final String REFERENCEDATACACHE_HIT_COUNT =
+            "ReferenceDataCache.Hit.Count";
+    public static final String REFERENCEDATACACHE_LOAD_COUNT =
+            "ReferenceDataCache.Load.Count";
+    public static final String REFERENCEDATACACHE_MISS_COUNT =
+            "ReferenceDataCache.Miss.Count";
     public static final String RETIREDEVICE_DEVICENOTFOUND_COUNT =
             "RetireDevice.DeviceNotFoundException.Count";
     public static final String RETIREDEVICE_WORKORDERSOPEN_COUNT =
             "RetireDevice.RetireDeviceWithOpenWorkOrdersException.Count";
+    public static final String SEARCHDEVICES_INVALIDATTRIBUTEVALUE_COUNT =
+            "SearchDevices.InvalidAttributeValueException.Count";
+    public static final String SEARCHDEVICES_SCAN_COUNT =
+            "SearchDevices.Scan.Count";
+    public static final String SEGMENTEDSCAN_SEGMENT_CONSUMEDCAPACITY =
+            "SegmentedScan.Segment.ConsumedCapacity";
+    public static final String SEGMENTEDSCAN_SEGMENT_TIME =
+            "SegmentedScan.Segment.Time";
+    public static final String SEGMENTEDSCAN_SEGMENTS_COUNT =
+            "SegmentedScan.Segments.Count";
     public static final String UPDATEDEVICE_DEVICENOTFOUND_COUNT =
             "UpdateDevice.DeviceNotFoundException.Count";
     public static final String UPDATEDEVICE_DEVICERETIRED_COUNT =
@@ -46,6 +97,15 @@ public class MetricsConstants {
     public static final String UPDATEWORKORDER_WORKORDERNOTFOUND_COUNT =
             "UpdateWorkOrder.WorkOrderNotFoundException.Count";
 
+    public static final String CONTROL_NUMBER_PROPERTY = "controlNumber";
+    public static final String WORK_ORDER_ID_PROPERTY = "workOrderId";
+
+    public static final String ACTIVITY_DIMENSION = "Activity";
+    public static final String EXCEPTION_CLASS_DIMENSION = "ExceptionClass";
+    public static final String INDEX_DIMENSION = "Index";
+    public static final String OPERATION_DIMENSION = "Operation";
+    public static final String TABLE_DIMENSION = "Table";
+
     public static final String SERVICE = "Service";
     public static final String SERVICE_NAME = "HTMVault";
     public static final String NAMESPACE_NAME = "U7-Capstone/HTMVault";
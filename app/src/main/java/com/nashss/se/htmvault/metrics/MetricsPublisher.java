@@ -1,87 +1,109 @@
 package com.nashss.se.htmvault.metrics;
 
-import com.amazonaws.services.cloudwatch.AmazonCloudWatch;
-import com.amazonaws.services.cloudwatch.model.Dimension;
-import com.amazonaws.services.cloudwatch.model.MetricDatum;
-import com.amazonaws.services.cloudwatch.model.PutMetricDataRequest;
 import com.amazonaws.services.cloudwatch.model.StandardUnit;
 
-import javax.inject.Inject;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
-// from project template
+// initial from project template; now implemented by each metrics backend
 /**
- * Contains operations for publishing metrics.
+ * Contains operations for publishing metrics. Metrics added are buffered, and published when flushed; the backend
+ * that publishes them (CloudWatch's PutMetricData API, or Embedded Metric Format log lines) is chosen at startup
+ * (see MetricsModule).
  */
-public class MetricsPublisher {
+public interface MetricsPublisher {
 
-    private AmazonCloudWatch cloudWatch;
+    /**
+     * Publishes a count.
+     *
+     * @param metricName name of metric to publish.
+     * @param value value of metric.
+     */
+    default void addCount(final String metricName, final double value) {
+        addMetric(metricName, value, StandardUnit.Count);
+    }
 
     /**
-     * Creates a metrics publisher with the given AmazonCloudWatch.
-     * @param cloudWatch AmazonCloudWatch
+     * Publishes a time.
+     *
+     * @param metricName name of metric to publish.
+     * @param value value of metric (in milliseconds).
      */
-    @Inject
-    public MetricsPublisher(final AmazonCloudWatch cloudWatch) {
-        this.cloudWatch = cloudWatch;
+    default void addTime(final String metricName, final double value) {
+        addMetric(metricName, value, StandardUnit.Milliseconds);
     }
 
     /**
-     * Publishes a count to CloudWatch.
+     * Publishes a count, with dimensions in addition to the service.
      *
      * @param metricName name of metric to publish.
      * @param value value of metric.
+     * @param dimensions the metric's dimensions, by name.
      */
-    public void addCount(final String metricName, final double value) {
-        addMetric(metricName, value, StandardUnit.Count);
+    default void addCount(final String metricName, final double value, final Map<String, String> dimensions) {
+        addMetric(metricName, value, StandardUnit.Count, dimensions);
     }
 
     /**
-     * Publishes a count to CloudWatch.
+     * Publishes a time, with dimensions in addition to the service.
      *
      * @param metricName name of metric to publish.
      * @param value value of metric (in milliseconds).
+     * @param dimensions the metric's dimensions, by name.
      */
-    public void addTime(final String metricName, final double value) {
-        addMetric(metricName, value, StandardUnit.Milliseconds);
+    default void addTime(final String metricName, final double value, final Map<String, String> dimensions) {
+        addMetric(metricName, value, StandardUnit.Milliseconds, dimensions);
     }
 
     /**
-     * Publishes the given metric to CloudWatch.
+     * Adds the given metric to the metrics to publish.
      *
      * @param metricName name of metric to publish.
      * @param value value of metric.
      * @param unit unit of metric.
      */
-    public void addMetric(final String metricName, final double value, final StandardUnit unit) {
-        final PutMetricDataRequest request = buildMetricDataRequest(metricName, value, unit);
-        cloudWatch.putMetricData(request);
+    default void addMetric(final String metricName, final double value, final StandardUnit unit) {
+        addMetric(metricName, value, unit, Map.of());
     }
 
     /**
-     * Helper method that builds the PutMetricDataRequest object used to publish to CloudWatch.
+     * Adds the given metric to the metrics to publish, with dimensions in addition to the service. Each distinct
+     * combination of dimension values is a separate metric, so dimension values should be few (i.e. an activity
+     * name, not a control number; see addProperty).
      *
-     * @param metricName name of metric
-     * @param value value of metric
+     * @param metricName name of metric to publish.
+     * @param value value of metric.
      * @param unit unit of metric.
-     * @return PutMetricDataRequest
+     * @param dimensions the metric's dimensions, by name.
      */
-    private PutMetricDataRequest buildMetricDataRequest(final String metricName, final double value,
-                                                        final StandardUnit unit) {
-
-        final Dimension service = new Dimension()
-            .withName(MetricsConstants.SERVICE)
-            .withValue(MetricsConstants.SERVICE_NAME);
-
-        final MetricDatum datum = new MetricDatum()
-            .withMetricName(metricName)
-            .withUnit(unit)
-            .withValue(value)
-            .withDimensions(service);
+    void addMetric(String metricName, double value, StandardUnit unit, Map<String, String> dimensions);
 
-        final PutMetricDataRequest request = new PutMetricDataRequest()
-            .withNamespace(MetricsConstants.NAMESPACE_NAME)
-            .withMetricData(datum);
+    /**
+     * Attaches a property (i.e. the control number or work order id being worked on) to the metrics published at
+     * the calling thread's next flush. Properties are not dimensions, so may have any number of distinct values
+     * without adding to the cost of the metrics; backends that cannot attach properties ignore them.
+     *
+     * @param name the property name
+     * @param value the property value
+     */
+    void addProperty(String name, String value);
 
-        return request;
+    /**
+     * Wraps a task to be run on another thread (i.e. one segment of a parallel scan) so that the metrics it adds
+     * are published at the calling thread's next flush, along with the calling thread's properties. Backends that
+     * do not buffer per thread return the task unchanged.
+     *
+     * @param task the task to wrap
+     * @param <T> the task's result type
+     * @return the wrapped task
+     */
+    default <T> Callable<T> onCallingThread(Callable<T> task) {
+        return task;
     }
+
+    /**
+     * Publishes the metrics the calling thread added (or had added on its behalf, see onCallingThread) since its
+     * last flush, along with its properties. A failure to publish is logged, rather than failing the caller.
+     */
+    void flush();
 }
@@ -0,0 +1,51 @@
+package com.nashss.se.htmvault.migration;
+
+import com.nashss.se.htmvault.dependency.DaggerServiceComponent;
+import com.nashss.se.htmvault.dependency.ServiceComponent;
+import com.nashss.se.htmvault.dynamodb.DeviceSearchIndexDao;
+import com.nashss.se.htmvault.dynamodb.models.Device;
+import com.nashss.se.htmvault.exceptions.DeviceSearchIndexException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * One-off tool that (re)builds the device search index from the current contents of the devices table. Devices
+ * saved through the service are indexed as they are saved; this is only needed for devices that existed before
+ * the index did, or to repair the index. Safe to run repeatedly, as only differences are written. The devices table
+ * is read with a parallel scan, split into DEVICE_SCAN_SEGMENTS segments if set (see SegmentedScanner).
+ */
+public class DeviceSearchIndexBackfill {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private DeviceSearchIndexBackfill() { }
+
+    /**
+     * Indexes every device in the devices table, failing (after trying every device) if any could not be indexed.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        ServiceComponent serviceComponent = DaggerServiceComponent.create();
+        DeviceSearchIndexDao deviceSearchIndexDao = serviceComponent.provideDeviceSearchIndexDao();
+
+        int indexed = 0;
+        int failed = 0;
+        for (Device device : serviceComponent.provideDeviceDao().scanAllDevices()) {
+            try {
+                deviceSearchIndexDao.indexDevice(device);
+                indexed++;
+            } catch (DeviceSearchIndexException e) {
+                // logged by the dao; the remaining devices are still indexed
+                failed++;
+            }
+        }
+
+        LOG.info("Indexed {} device(s).", indexed);
+        if (failed > 0) {
+            throw new IllegalStateException("Failed to index " + failed + " device(s); run the backfill again to " +
+                    "write their missing entries.");
+        }
+    }
+}
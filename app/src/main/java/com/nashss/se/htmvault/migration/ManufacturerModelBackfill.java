@@ -0,0 +1,174 @@
+package com.nashss.se.htmvault.migration;
+
+import com.nashss.se.htmvault.converters.ManufacturerModelConverter;
+import com.nashss.se.htmvault.dynamodb.DynamoDbClientProvider;
+import com.nashss.se.htmvault.dynamodb.models.Device;
+import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
+import com.nashss.se.htmvault.dynamodb.models.WorkOrder;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperFieldModel;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperTableModel;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Backfills the manufacturer/model storage changes described in ManufacturerModelConverter, in two separate steps:
+ * "keys" adds the manufacturer/model key to each device saved before it existed, so that the device appears in the
+ * indexes keyed on it (see Device.getManufacturerModelKey); "maps" rewrites each device's and work order's
+ * manufacturer/model stored as a JSON string as a map. Maps may only be written once the devices table no longer
+ * has indexes keyed on manufacturerModel itself.
+ *
+ * Each item is updated only if its manufacturer/model is unchanged since it was scanned, so the tool can be run
+ * while the service is serving requests, and run again until it finds nothing left to rewrite. With --dry-run, the
+ * items are counted but not rewritten.
+ */
+public class ManufacturerModelBackfill {
+
+    static final String KEYS_STEP = "keys";
+    static final String MAPS_STEP = "maps";
+    static final String DRY_RUN_ARGUMENT = "--dry-run";
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private final AmazonDynamoDB amazonDynamoDB;
+    private final DynamoDBMapper dynamoDBMapper;
+    private final ManufacturerModelConverter converter = new ManufacturerModelConverter();
+    private final boolean dryRun;
+
+    /**
+     * Instantiates a new Manufacturer model backfill.
+     *
+     * @param amazonDynamoDB the DynamoDB client
+     * @param dynamoDBMapper the dynamo db mapper, for the tables' key attributes
+     * @param dryRun         whether to count the items to rewrite without rewriting them
+     */
+    public ManufacturerModelBackfill(AmazonDynamoDB amazonDynamoDB, DynamoDBMapper dynamoDBMapper, boolean dryRun) {
+        this.amazonDynamoDB = amazonDynamoDB;
+        this.dynamoDBMapper = dynamoDBMapper;
+        this.dryRun = dryRun;
+    }
+
+    /**
+     * Runs a step of the backfill against the tables in the default region.
+     *
+     * @param args the step (keys or maps), then optionally --dry-run to count the items to rewrite without
+     *             rewriting them
+     */
+    public static void main(String[] args) {
+        List<String> arguments = Arrays.asList(args);
+        if (arguments.isEmpty() || !List.of(KEYS_STEP, MAPS_STEP).contains(arguments.get(0))) {
+            throw new IllegalArgumentException("Usage: ManufacturerModelBackfill keys|maps [--dry-run]");
+        }
+        AmazonDynamoDB amazonDynamoDB = DynamoDbClientProvider.getDynamoDBClient();
+        ManufacturerModelBackfill backfill = new ManufacturerModelBackfill(amazonDynamoDB,
+                new DynamoDBMapper(amazonDynamoDB), arguments.contains(DRY_RUN_ARGUMENT));
+        if (KEYS_STEP.equals(arguments.get(0))) {
+            backfill.backfillKeys();
+        } else {
+            backfill.backfillMaps(Device.class);
+            backfill.backfillMaps(WorkOrder.class);
+        }
+    }
+
+    /**
+     * Adds the manufacturer/model key to the devices without one, keeping their manufacturer/model as stored.
+     *
+     * @return the number of devices updated (or, in a dry run, to update)
+     */
+    public int backfillKeys() {
+        return backfill(Device.class, "attribute_not_exists(manufacturerModelKey)", Map.of(), stored -> {
+            ManufacturerModel manufacturerModel = converter.unconvert(stored);
+            return Map.of("manufacturerModelKey", new AttributeValue().withS(
+                    ManufacturerModel.toKey(manufacturerModel.getManufacturer(), manufacturerModel.getModel())));
+        });
+    }
+
+    /**
+     * Rewrites the items of a table whose manufacturer/model is still a JSON string as maps.
+     *
+     * @param modelClass the table's model class
+     * @return the number of items rewritten (or, in a dry run, to rewrite)
+     */
+    public int backfillMaps(Class<?> modelClass) {
+        return backfill(modelClass, "attribute_type(manufacturerModel, :string)",
+                Map.of(":string", new AttributeValue().withS("S")),
+                stored -> Map.of("manufacturerModel", converter.convertToMap(converter.unconvertJson(stored.getS()))));
+    }
+
+    private int backfill(Class<?> modelClass, String filterExpression, Map<String, AttributeValue> filterValues,
+                         Function<AttributeValue, Map<String, AttributeValue>> updates) {
+        DynamoDBMapperTableModel<?> tableModel = dynamoDBMapper.getTableModel(modelClass);
+        String tableName = modelClass.getAnnotation(DynamoDBTable.class).tableName();
+        List<String> keyNames = new ArrayList<>();
+        for (DynamoDBMapperFieldModel<?, ?> keyField : tableModel.keys()) {
+            keyNames.add(keyField.name());
+        }
+
+        ScanRequest scanRequest = new ScanRequest()
+                .withTableName(tableName)
+                .withFilterExpression(filterExpression)
+                .withExpressionAttributeValues(filterValues.isEmpty() ? null : filterValues);
+
+        int rewritten = 0;
+        int skipped = 0;
+        do {
+            ScanResult page = amazonDynamoDB.scan(scanRequest);
+            for (Map<String, AttributeValue> item : page.getItems()) {
+                Map<String, AttributeValue> key = new HashMap<>();
+                for (String keyName : keyNames) {
+                    key.put(keyName, item.get(keyName));
+                }
+                AttributeValue stored = item.get("manufacturerModel");
+                if (dryRun || rewrite(tableName, key, stored, updates.apply(stored))) {
+                    rewritten++;
+                } else {
+                    skipped++;
+                }
+            }
+            scanRequest.setExclusiveStartKey(page.getLastEvaluatedKey());
+        } while (null != scanRequest.getExclusiveStartKey());
+
+        LOG.info("{} {} items in {} (skipped {} changed since scanned).", dryRun ? "Found" : "Rewrote",
+                rewritten, tableName, skipped);
+        return rewritten;
+    }
+
+    private boolean rewrite(String tableName, Map<String, AttributeValue> key, AttributeValue stored,
+                            Map<String, AttributeValue> updates) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":stored", stored);
+        List<String> assignments = new ArrayList<>();
+        for (Map.Entry<String, AttributeValue> update : updates.entrySet()) {
+            assignments.add(update.getKey() + " = :" + update.getKey());
+            values.put(":" + update.getKey(), update.getValue());
+        }
+
+        try {
+            amazonDynamoDB.updateItem(new UpdateItemRequest()
+                    .withTableName(tableName)
+                    .withKey(key)
+                    .withUpdateExpression("SET " + String.join(", ", assignments))
+                    .withConditionExpression("manufacturerModel = :stored")
+                    .withExpressionAttributeValues(values));
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            // saved (so already rewritten) by the service since it was scanned
+            return false;
+        }
+    }
+}
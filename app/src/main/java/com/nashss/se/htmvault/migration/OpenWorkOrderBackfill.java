@@ -0,0 +1,59 @@
+package com.nashss.se.htmvault.migration;
+
+import com.nashss.se.htmvault.dependency.DaggerServiceComponent;
+import com.nashss.se.htmvault.dependency.ServiceComponent;
+import com.nashss.se.htmvault.dynamodb.DeviceDao;
+import com.nashss.se.htmvault.dynamodb.WorkOrderDao;
+import com.nashss.se.htmvault.dynamodb.models.Device;
+import com.nashss.se.htmvault.dynamodb.models.WorkOrder;
+import com.nashss.se.htmvault.exceptions.DeviceNotFoundException;
+import com.nashss.se.htmvault.models.WorkOrderCompletionStatus;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * One-off tool that records every open work order in the work orders table among its device's open work orders
+ * (and in the device's open work order count). Work orders created through the service are recorded as they are
+ * created; this is only needed for work orders created before devices kept track of their open work orders. Safe to
+ * run repeatedly, as work orders already recorded against their device are skipped.
+ */
+public class OpenWorkOrderBackfill {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private OpenWorkOrderBackfill() { }
+
+    /**
+     * Records each open work order not yet recorded against its device.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        ServiceComponent serviceComponent = DaggerServiceComponent.create();
+        DeviceDao deviceDao = serviceComponent.provideDeviceDao();
+        WorkOrderDao workOrderDao = serviceComponent.provideWorkOrderDao();
+
+        int recorded = 0;
+        for (WorkOrder workOrder : workOrderDao.scanWorkOrders()) {
+            if (workOrder.getWorkOrderCompletionStatus() != WorkOrderCompletionStatus.OPEN) {
+                continue;
+            }
+
+            try {
+                // the device is re-read after each work order recorded against it, as recording invalidates it
+                Device device = deviceDao.getDevice(workOrder.getControlNumber());
+                if (null == device.getOpenWorkOrderIds() ||
+                        !device.getOpenWorkOrderIds().contains(workOrder.getWorkOrderId())) {
+                    deviceDao.addOpenWorkOrder(workOrder.getControlNumber(), workOrder.getWorkOrderId());
+                    recorded++;
+                }
+            } catch (DeviceNotFoundException e) {
+                LOG.warn("Skipping open work order {}, as its device ({}) could not be found.",
+                        workOrder.getWorkOrderId(), workOrder.getControlNumber());
+            }
+        }
+
+        LOG.info("Recorded {} open work order(s) against their devices.", recorded);
+    }
+}
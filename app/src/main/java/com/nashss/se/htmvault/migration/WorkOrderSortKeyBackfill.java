@@ -0,0 +1,42 @@
+package com.nashss.se.htmvault.migration;
+
+import com.nashss.se.htmvault.dependency.DaggerServiceComponent;
+import com.nashss.se.htmvault.dynamodb.WorkOrderDao;
+import com.nashss.se.htmvault.dynamodb.models.WorkOrder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * One-off tool that writes the derived index keys (the completion sort key, and the open facility name and open
+ * sort key of outstanding work orders) to every work order in the work orders table. Work orders saved through the
+ * service have the keys written as they are saved; this is only needed for work orders saved before the control
+ * number/completion sort key or open work orders facility index existed, which are otherwise missing from those
+ * indexes. Safe to run repeatedly, as the keys are always derived from the work order's own attributes.
+ *
+ * The two indexes are created by separate deployments (see the WorkOrdersIndexStage parameter of template.yaml);
+ * the tool is run once each of them exists.
+ */
+public class WorkOrderSortKeyBackfill {
+
+    private static final Logger LOG = LogManager.getLogger();
+
+    private WorkOrderSortKeyBackfill() { }
+
+    /**
+     * Re-saves every work order in the work orders table.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        WorkOrderDao workOrderDao = DaggerServiceComponent.create().provideWorkOrderDao();
+
+        int saved = 0;
+        for (WorkOrder workOrder : workOrderDao.scanWorkOrders()) {
+            workOrderDao.saveWorkOrder(workOrder);
+            saved++;
+        }
+
+        LOG.info("Saved the index keys of {} work order(s).", saved);
+    }
+}
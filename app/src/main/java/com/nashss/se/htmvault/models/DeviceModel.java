@@ -20,12 +20,14 @@ public class DeviceModel {
     private final String addedById;
     private final String addedByName;
     private final String notes;
+    private final long workOrdersVersion;
+    private final int openWorkOrderCount;
 
     private DeviceModel(String controlNumber, String serialNumber, String manufacturer, String model,
                        String manufactureDate, String serviceStatus, String facilityName, String assignedDepartment,
                        String complianceThroughDate, String lastPmCompletionDate, String nextPmDueDate,
                        int maintenanceFrequencyInMonths, String inventoryAddDate, String addedById, String addedByName,
-                       String notes) {
+                       String notes, long workOrdersVersion, int openWorkOrderCount) {
         this.controlNumber = controlNumber;
         this.serialNumber = serialNumber;
         this.manufacturer = manufacturer;
@@ -42,6 +44,8 @@ public class DeviceModel {
         this.addedById = addedById;
         this.addedByName = addedByName;
         this.notes = notes;
+        this.workOrdersVersion = workOrdersVersion;
+        this.openWorkOrderCount = openWorkOrderCount;
     }
 
     public String getControlNumber() {
@@ -108,6 +112,14 @@ public class DeviceModel {
         return notes;
     }
 
+    public long getWorkOrdersVersion() {
+        return workOrdersVersion;
+    }
+
+    public int getOpenWorkOrderCount() {
+        return openWorkOrderCount;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -118,6 +130,8 @@ public class DeviceModel {
         }
         DeviceModel that = (DeviceModel) o;
         return maintenanceFrequencyInMonths == that.maintenanceFrequencyInMonths &&
+                workOrdersVersion == that.workOrdersVersion &&
+                openWorkOrderCount == that.openWorkOrderCount &&
                 Objects.equals(controlNumber, that.controlNumber) &&
                 Objects.equals(serialNumber, that.serialNumber) &&
                 Objects.equals(manufacturer, that.manufacturer) &&
@@ -139,7 +153,8 @@ public class DeviceModel {
     public int hashCode() {
         return Objects.hash(controlNumber, serialNumber, manufacturer, model, manufactureDate, serviceStatus,
                 facilityName, assignedDepartment, complianceThroughDate, lastPmCompletionDate, nextPmDueDate,
-                maintenanceFrequencyInMonths, inventoryAddDate, addedById, addedByName, notes);
+                maintenanceFrequencyInMonths, inventoryAddDate, addedById, addedByName, notes, workOrdersVersion,
+                openWorkOrderCount);
     }
 
     //CHECKSTYLE:OFF:Builder
@@ -164,6 +179,8 @@ public class DeviceModel {
         private String addedById;
         private String addedByName;
         private String notes;
+        private long workOrdersVersion;
+        private int openWorkOrderCount;
 
         public Builder withControlNumber(String controlNumber) {
             this.controlNumber = controlNumber;
@@ -245,10 +262,21 @@ public class DeviceModel {
             return this;
         }
 
+        public Builder withWorkOrdersVersion(long workOrdersVersion) {
+            this.workOrdersVersion = workOrdersVersion;
+            return this;
+        }
+
+        public Builder withOpenWorkOrderCount(int openWorkOrderCount) {
+            this.openWorkOrderCount = openWorkOrderCount;
+            return this;
+        }
+
         public DeviceModel build() {
             return new DeviceModel(controlNumber, serialNumber, manufacturer, model, manufactureDate, serviceStatus,
                     facilityName, assignedDepartment, complianceThroughDate, lastPmCompletionDate, nextPmDueDate,
-                    maintenanceFrequencyInMonths, inventoryAddDate, addedById, addedByName, notes);
+                    maintenanceFrequencyInMonths, inventoryAddDate, addedById, addedByName, notes, workOrdersVersion,
+                    openWorkOrderCount);
         }
     }
 }
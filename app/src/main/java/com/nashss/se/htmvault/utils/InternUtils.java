@@ -0,0 +1,25 @@
+package com.nashss.se.htmvault.utils;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Interns the few distinct reference values (facility, department, manufacturer and model names) repeated across
+ * the devices and work orders read from the database, so that the items of a large scan or query share one copy of
+ * each, instead of each holding its own. The interned copies are held weakly, so values no longer referenced are
+ * collected.
+ */
+public class InternUtils {
+    private static final Interner<String> INTERNER = Interners.newWeakInterner();
+
+    private InternUtils() { }
+
+    /**
+     * Returns the canonical copy of the value, equal to it.
+     * @param value The value to intern, or null.
+     * @return The canonical copy of value, or null if value is null.
+     */
+    public static String intern(String value) {
+        return null == value ? null : INTERNER.intern(value);
+    }
+}
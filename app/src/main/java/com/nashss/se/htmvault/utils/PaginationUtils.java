@@ -0,0 +1,116 @@
+package com.nashss.se.htmvault.utils;
+
+import com.nashss.se.htmvault.exceptions.InvalidAttributeValueException;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Utilities for paginated endpoints: parsing page size limits, and converting a DynamoDB LastEvaluatedKey to and
+ * from the opaque 'nextToken' handed to clients.
+ */
+public class PaginationUtils {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Map<String, String>>> TOKEN_TYPE =
+            new TypeReference<Map<String, Map<String, String>>>() { };
+    private static final String STRING_TYPE = "S";
+    private static final String NUMBER_TYPE = "N";
+
+    private PaginationUtils() { }
+
+    /**
+     * Parses the page size limit requested by a client. A missing limit uses the default, and a limit greater than
+     * the maximum is reduced to the maximum. Throws an InvalidAttributeValueException if the limit is not a
+     * positive whole number.
+     *
+     * @param limit        the limit requested, possibly null
+     * @param defaultLimit the limit to use when none was requested
+     * @param maxLimit     the largest limit allowed
+     * @return the limit to use
+     */
+    public static int parseLimit(String limit, int defaultLimit, int maxLimit) {
+        if (null == limit || limit.isBlank()) {
+            return defaultLimit;
+        }
+
+        int parsedLimit;
+        try {
+            parsedLimit = Integer.parseInt(limit.trim());
+        } catch (NumberFormatException e) {
+            throw new InvalidAttributeValueException(String.format("The limit (%s) must be a whole number.", limit));
+        }
+        if (parsedLimit < 1) {
+            throw new InvalidAttributeValueException(String.format("The limit (%s) must be greater than zero.",
+                    limit));
+        }
+        return Math.min(parsedLimit, maxLimit);
+    }
+
+    /**
+     * Encodes the key at which a page ended as an opaque, url-safe token.
+     *
+     * @param lastEvaluatedKey the last evaluated key of a page, possibly null or empty
+     * @return the token, or null if there are no more pages
+     */
+    public static String encodeNextToken(Map<String, AttributeValue> lastEvaluatedKey) {
+        if (null == lastEvaluatedKey || lastEvaluatedKey.isEmpty()) {
+            return null;
+        }
+
+        Map<String, Map<String, String>> key = new HashMap<>();
+        for (Map.Entry<String, AttributeValue> entry : lastEvaluatedKey.entrySet()) {
+            AttributeValue value = entry.getValue();
+            key.put(entry.getKey(), null == value.getN() ? Map.of(STRING_TYPE, value.getS()) :
+                    Map.of(NUMBER_TYPE, value.getN()));
+        }
+
+        try {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(MAPPER.writeValueAsBytes(key));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to encode the next token.", e);
+        }
+    }
+
+    /**
+     * Decodes a token previously produced by encodeNextToken back into the key from which to continue reading.
+     * Throws an InvalidAttributeValueException if the token was not produced by encodeNextToken.
+     *
+     * @param nextToken the token provided by the client, possibly null or blank
+     * @return the exclusive start key, or null if no token was provided
+     */
+    public static Map<String, AttributeValue> decodeNextToken(String nextToken) {
+        if (null == nextToken || nextToken.isBlank()) {
+            return null;
+        }
+
+        Map<String, Map<String, String>> key;
+        try {
+            key = MAPPER.readValue(new String(Base64.getUrlDecoder().decode(nextToken.trim()),
+                    StandardCharsets.UTF_8), TOKEN_TYPE);
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            throw new InvalidAttributeValueException("The next token provided is not valid.", e);
+        }
+
+        Map<String, AttributeValue> exclusiveStartKey = new HashMap<>();
+        for (Map.Entry<String, Map<String, String>> entry : key.entrySet()) {
+            Map<String, String> value = entry.getValue();
+            if (null != value && null != value.get(STRING_TYPE)) {
+                exclusiveStartKey.put(entry.getKey(), new AttributeValue().withS(value.get(STRING_TYPE)));
+            } else if (null != value && null != value.get(NUMBER_TYPE)) {
+                exclusiveStartKey.put(entry.getKey(), new AttributeValue().withN(value.get(NUMBER_TYPE)));
+            } else {
+                throw new InvalidAttributeValueException("The next token provided is not valid.");
+            }
+        }
+        return exclusiveStartKey.isEmpty() ? null : exclusiveStartKey;
+    }
+}
@@ -6,6 +6,7 @@ import com.nashss.se.htmvault.converters.LocalDateConverter;
 import com.nashss.se.htmvault.dynamodb.DeviceDao;
 import com.nashss.se.htmvault.dynamodb.FacilityDepartmentDao;
 import com.nashss.se.htmvault.dynamodb.ManufacturerModelDao;
+import com.nashss.se.htmvault.dynamodb.ReferenceDataCache;
 import com.nashss.se.htmvault.dynamodb.models.Device;
 import com.nashss.se.htmvault.dynamodb.models.FacilityDepartment;
 import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
@@ -69,7 +70,8 @@ class AddDeviceActivityTest {
     @BeforeEach
     void setUp() {
         openMocks(this);
-        addDeviceActivity = new AddDeviceActivity(deviceDao, manufacturerModelDao, facilityDepartmentDao,
+        addDeviceActivity = new AddDeviceActivity(deviceDao,
+                new ReferenceDataCache(manufacturerModelDao, facilityDepartmentDao, metricsPublisher),
                 metricsPublisher);
         manufacturerModel.setManufacturer(manufacturer);
         manufacturerModel.setModel(model);
@@ -3,7 +3,10 @@ package com.nashss.se.htmvault.activity;
 import com.nashss.se.htmvault.activity.requests.CloseWorkOrderRequest;
 import com.nashss.se.htmvault.activity.results.CloseWorkOrderResult;
 import com.nashss.se.htmvault.converters.LocalDateTimeConverter;
+import com.nashss.se.htmvault.dynamodb.DeviceCache;
 import com.nashss.se.htmvault.dynamodb.DeviceDao;
+import com.nashss.se.htmvault.dynamodb.DeviceSearchIndexDao;
+import com.nashss.se.htmvault.dynamodb.SegmentedScanner;
 import com.nashss.se.htmvault.dynamodb.WorkOrderDao;
 import com.nashss.se.htmvault.dynamodb.models.Device;
 import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
@@ -20,16 +23,21 @@ import com.nashss.se.htmvault.models.WorkOrderType;
 import com.nashss.se.htmvault.test.helper.DeviceTestHelper;
 import com.nashss.se.htmvault.test.helper.WorkOrderTestHelper;
 
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 
 import java.time.LocalDate;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -43,6 +51,14 @@ class CloseWorkOrderActivityTest {
     @Mock
     private DynamoDBMapper dynamoDBMapper;
     @Mock
+    private AmazonDynamoDB amazonDynamoDB;
+    @Mock
+    private DeviceSearchIndexDao deviceSearchIndexDao;
+    @Mock
+    private SegmentedScanner segmentedScanner;
+    @Mock
+    private DeviceCache deviceCache;
+    @Mock
     private MetricsPublisher metricsPublisher;
     private CloseWorkOrderActivity closeWorkOrderActivity;
     private CloseWorkOrderRequest closeWorkOrderRequest;
@@ -53,7 +69,8 @@ class CloseWorkOrderActivityTest {
     void setUp() {
         openMocks(this);
         WorkOrderDao workOrderDao = new WorkOrderDao(dynamoDBMapper, metricsPublisher);
-        DeviceDao deviceDao = new DeviceDao(dynamoDBMapper, metricsPublisher);
+        DeviceDao deviceDao = new DeviceDao(dynamoDBMapper, amazonDynamoDB, deviceSearchIndexDao, segmentedScanner,
+                deviceCache, metricsPublisher);
         closeWorkOrderActivity = new CloseWorkOrderActivity(workOrderDao, deviceDao, metricsPublisher);
 
         manufacturerModel.setManufacturer("TestManufacturer");
@@ -84,7 +101,7 @@ class CloseWorkOrderActivityTest {
                 "TestFacility", "TestDepartment");
 
         when(dynamoDBMapper.load(eq(WorkOrder.class), anyString())).thenReturn(workOrder);
-        when(dynamoDBMapper.load(eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class))).thenReturn(device);
         doNothing().when(dynamoDBMapper).save(any(WorkOrder.class));
 
         WorkOrder expectedWorkOrder = copyWorkOrder(workOrder);
@@ -133,6 +150,46 @@ class CloseWorkOrderActivityTest {
         verify(metricsPublisher).addCount(MetricsConstants.CLOSEWORKORDER_WORKORDERNOTFOUND_COUNT, 0);
     }
 
+    @Test
+    public void handleRequest_maintenanceUpdateFails_removesOpenWorkOrderFirst() {
+        // GIVEN
+        workOrder.setWorkOrderCompletionStatus(WorkOrderCompletionStatus.OPEN);
+        workOrder.setCompletionDateTime(new LocalDateTimeConverter()
+                .unconvert("2023-06-15T10:00:01"));
+        when(dynamoDBMapper.load(eq(WorkOrder.class), anyString())).thenReturn(workOrder);
+        when(dynamoDBMapper.load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class)))
+                .thenThrow(new RuntimeException("unavailable"));
+        ArgumentCaptor<UpdateItemRequest> updateCaptor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+
+        // WHEN
+        assertThrows(RuntimeException.class, () -> closeWorkOrderActivity.handleRequest(closeWorkOrderRequest));
+
+        // THEN
+        verify(amazonDynamoDB).updateItem(updateCaptor.capture());
+        assertTrue(updateCaptor.getValue().getUpdateExpression().contains("DELETE openWorkOrderIds"),
+                "Expected the closed work order to be removed from the device's open work orders before the " +
+                        "maintenance update");
+        assertEquals(workOrder.getWorkOrderId(),
+                updateCaptor.getValue().getExpressionAttributeValues().get(":workOrderId").getS());
+    }
+
+    @Test
+    public void handleRequest_workOrderAlreadyClosed_removesOpenWorkOrderAgain() {
+        // GIVEN
+        workOrder.setWorkOrderCompletionStatus(WorkOrderCompletionStatus.CLOSED);
+        when(dynamoDBMapper.load(eq(WorkOrder.class), anyString())).thenReturn(workOrder);
+        ArgumentCaptor<UpdateItemRequest> updateCaptor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+
+        // WHEN
+        closeWorkOrderActivity.handleRequest(closeWorkOrderRequest);
+
+        // THEN
+        verify(amazonDynamoDB).updateItem(updateCaptor.capture());
+        assertTrue(updateCaptor.getValue().getUpdateExpression().contains("DELETE openWorkOrderIds"),
+                "Expected a retried close to remove a work order left open on the device");
+        assertEquals("contains(openWorkOrderIds, :workOrderId)", updateCaptor.getValue().getConditionExpression());
+    }
+
     @Test
     public void handleRequest_blankProblemFound_throwsCloseWorkOrderNotCompleteException() {
         // GIVEN
@@ -246,7 +303,7 @@ class CloseWorkOrderActivityTest {
     public void advanceMaintenanceStatsWithWorkOrderIfApplicable_deviceNotFound_throwsDeviceNotFoundException() {
         // GIVEN
         when(dynamoDBMapper.load(eq(WorkOrder.class), anyString())).thenReturn(new WorkOrder());
-        when(dynamoDBMapper.load(eq(Device.class), anyString())).thenReturn(null);
+        when(dynamoDBMapper.load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class))).thenReturn(null);
 
         // WHEN & THEN
         assertThrows(DeviceNotFoundException.class, () ->
@@ -267,7 +324,7 @@ class CloseWorkOrderActivityTest {
                 "TestFacility", "TestDepartment");
 
         when(dynamoDBMapper.load(eq(WorkOrder.class), anyString())).thenReturn(workOrder);
-        when(dynamoDBMapper.load(eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class))).thenReturn(device);
 
         Device copyDevice = copyDevice(device);
 
@@ -292,7 +349,7 @@ class CloseWorkOrderActivityTest {
                 "TestFacility", "TestDepartment");
 
         when(dynamoDBMapper.load(eq(WorkOrder.class), anyString())).thenReturn(workOrder);
-        when(dynamoDBMapper.load(eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class))).thenReturn(device);
 
         Device copyDevice = copyDevice(device);
 
@@ -320,7 +377,7 @@ class CloseWorkOrderActivityTest {
                 "TestFacility", "TestDepartment");
 
         when(dynamoDBMapper.load(eq(WorkOrder.class), anyString())).thenReturn(workOrder);
-        when(dynamoDBMapper.load(eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class))).thenReturn(device);
 
         Device copyDevice = copyDevice(device);
         copyDevice.setLastPmCompletionDate(LocalDate.of(2023, 6, 15));
@@ -359,7 +416,7 @@ class CloseWorkOrderActivityTest {
         device.setNextPmDueDate(LocalDate.of(2024, 6, 30));
 
         when(dynamoDBMapper.load(eq(WorkOrder.class), anyString())).thenReturn(workOrder);
-        when(dynamoDBMapper.load(eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class))).thenReturn(device);
 
         Device copyDevice = copyDevice(device);
 
@@ -397,7 +454,7 @@ class CloseWorkOrderActivityTest {
         device.setNextPmDueDate(LocalDate.of(2023, 6, 30));
 
         when(dynamoDBMapper.load(eq(WorkOrder.class), anyString())).thenReturn(workOrder);
-        when(dynamoDBMapper.load(eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class))).thenReturn(device);
 
         Device copyDevice = copyDevice(device);
         copyDevice.setComplianceThroughDate(LocalDate.of(2024, 6, 30));
@@ -438,7 +495,7 @@ class CloseWorkOrderActivityTest {
         device.setNextPmDueDate(LocalDate.of(2023, 6, 30));
 
         when(dynamoDBMapper.load(eq(WorkOrder.class), anyString())).thenReturn(workOrder);
-        when(dynamoDBMapper.load(eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class))).thenReturn(device);
 
         Device copyDevice = copyDevice(device);
         copyDevice.setComplianceThroughDate(LocalDate.of(2024, 4, 30));
@@ -479,7 +536,7 @@ class CloseWorkOrderActivityTest {
         device.setNextPmDueDate(null);
 
         when(dynamoDBMapper.load(eq(WorkOrder.class), anyString())).thenReturn(workOrder);
-        when(dynamoDBMapper.load(eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class))).thenReturn(device);
 
         Device copyDevice = copyDevice(device);
         copyDevice.setComplianceThroughDate(LocalDate.of(2024, 6, 30));
@@ -520,7 +577,7 @@ class CloseWorkOrderActivityTest {
         device.setNextPmDueDate(LocalDate.of(2023, 1, 31));
 
         when(dynamoDBMapper.load(eq(WorkOrder.class), anyString())).thenReturn(workOrder);
-        when(dynamoDBMapper.load(eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class))).thenReturn(device);
 
         Device copyDevice = copyDevice(device);
         copyDevice.setComplianceThroughDate(LocalDate.of(2024, 2, 29));
@@ -562,7 +619,7 @@ class CloseWorkOrderActivityTest {
         device.setNextPmDueDate(LocalDate.of(2023, 1, 31));
 
         when(dynamoDBMapper.load(eq(WorkOrder.class), anyString())).thenReturn(workOrder);
-        when(dynamoDBMapper.load(eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class))).thenReturn(device);
 
         Device copyDevice = copyDevice(device);
         copyDevice.setComplianceThroughDate(LocalDate.of(2023, 6, 30));
@@ -602,7 +659,7 @@ class CloseWorkOrderActivityTest {
         device.setNextPmDueDate(LocalDate.of(2024, 6, 30));
 
         when(dynamoDBMapper.load(eq(WorkOrder.class), anyString())).thenReturn(workOrder);
-        when(dynamoDBMapper.load(eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class))).thenReturn(device);
 
         Device copyDevice = copyDevice(device);
 
@@ -640,7 +697,7 @@ class CloseWorkOrderActivityTest {
         device.setNextPmDueDate(LocalDate.of(2023, 1, 31));
 
         when(dynamoDBMapper.load(eq(WorkOrder.class), anyString())).thenReturn(workOrder);
-        when(dynamoDBMapper.load(eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class))).thenReturn(device);
 
         Device copyDevice = copyDevice(device);
         copyDevice.setComplianceThroughDate(LocalDate.of(2023, 6, 30));
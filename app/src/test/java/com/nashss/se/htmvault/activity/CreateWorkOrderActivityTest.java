@@ -9,8 +9,10 @@ import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
 import com.nashss.se.htmvault.dynamodb.models.WorkOrder;
 import com.nashss.se.htmvault.exceptions.DeviceNotFoundException;
 import com.nashss.se.htmvault.exceptions.InvalidAttributeValueException;
+import com.nashss.se.htmvault.exceptions.UpdateRetiredDeviceException;
 import com.nashss.se.htmvault.metrics.MetricsConstants;
 import com.nashss.se.htmvault.metrics.MetricsPublisher;
+import com.nashss.se.htmvault.models.ServiceStatus;
 import com.nashss.se.htmvault.models.WorkOrderCompletionStatus;
 import com.nashss.se.htmvault.models.WorkOrderModel;
 import com.nashss.se.htmvault.test.helper.DeviceTestHelper;
@@ -18,6 +20,7 @@ import com.nashss.se.htmvault.test.helper.WorkOrderTestHelper;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 
 import java.time.LocalDate;
@@ -25,12 +28,17 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -150,7 +158,7 @@ class CreateWorkOrderActivityTest {
     }
 
     @Test
-    public void handleRequest_validRequestDescending_returnsListWorkOrdersInResultProperlySorted() {
+    public void handleRequest_validRequestDescendingIncludingWorkOrders_returnsListWorkOrdersInResultProperlySorted() {
         // GIVEN
         // a mock device to return
         ManufacturerModel manufacturerModel = new ManufacturerModel();
@@ -199,10 +207,13 @@ class CreateWorkOrderActivityTest {
                 .withWorkOrderType("ACCEPTANCE_TESTING")
                 .withProblemReported("a valid reported problem")
                 .withSortOrder("DESCENDING")
+                .withIncludeWorkOrders(true)
                 .build();
 
         when(deviceDao.getDevice(anyString())).thenReturn(device);
-        when(workOrderDao.getWorkOrders(anyString())).thenReturn(workOrders);
+        when(deviceDao.addOpenWorkOrder(eq("123"), anyString())).thenReturn(6L);
+        when(workOrderDao.getWorkOrders(anyString(), anyBoolean())).thenAnswer(invocation ->
+                readFromIndex(workOrders, invocation.getArgument(1)));
 
         // WHEN
         // the list of work order IDs in the order we expect to see them after being sorted
@@ -221,9 +232,103 @@ class CreateWorkOrderActivityTest {
         WorkOrderTestHelper.assertWorkOrdersEqualWorkOrderModels(workOrders, workOrderModels);
         // verify the work order models are in the proper sort order
         assertWorkOrderModelsSortedCorrectly(expectedOrderWorkOrders, workOrderModels);
+        assertEquals(workOrderModels.get(0), createWorkOrderResult.getWorkOrder(), "Expected the result to " +
+                "hold the new work order");
+        assertEquals(6L, createWorkOrderResult.getWorkOrdersVersion(), "Expected the result to hold the new " +
+                "version of the device's list of work orders");
+        verify(workOrderDao).getWorkOrders("123", false);
         verify(workOrderDao).saveWorkOrder(any(WorkOrder.class));
         verify(metricsPublisher).addCount(MetricsConstants.CREATEWORKORDER_DEVICENOTFOUND_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.CREATEWORKORDER_INVALIDATTRIBUTEVALUE_COUNT, 0);
+        verify(metricsPublisher).addCount(MetricsConstants.CREATEWORKORDER_FULLLIST_COUNT, 1);
+    }
+
+    @Test
+    public void handleRequest_validRequest_returnsOnlyNewWorkOrderAndWorkOrdersVersion() {
+        // GIVEN
+        ManufacturerModel manufacturerModel = new ManufacturerModel();
+        manufacturerModel.setManufacturer("TestManufacturer");
+        manufacturerModel.setModel("TestModel");
+        manufacturerModel.setRequiredMaintenanceFrequencyInMonths(24);
+        Device device = DeviceTestHelper.generateActiveDevice(1, manufacturerModel,
+                "TestFacility", "TestDepartment");
+        device.setControlNumber("123");
+        device.setSerialNumber("SN321");
+
+        CreateWorkOrderRequest createWorkOrderRequest = CreateWorkOrderRequest.builder()
+                .withControlNumber("123")
+                .withWorkOrderType("REPAIR")
+                .withProblemReported("a valid reported problem")
+                .build();
+
+        when(deviceDao.getDevice(anyString())).thenReturn(device);
+        when(deviceDao.addOpenWorkOrder(eq("123"), anyString())).thenReturn(3L);
+        ArgumentCaptor<WorkOrder> savedWorkOrder = ArgumentCaptor.forClass(WorkOrder.class);
+
+        // WHEN
+        CreateWorkOrderResult createWorkOrderResult = createWorkOrderActivity.handleRequest(createWorkOrderRequest);
+
+        // THEN
+        verify(workOrderDao).saveWorkOrder(savedWorkOrder.capture());
+        assertEquals(savedWorkOrder.getValue().getWorkOrderId(), createWorkOrderResult.getWorkOrder().getWorkOrderId(),
+                "Expected the result to hold the work order saved");
+        assertEquals(3L, createWorkOrderResult.getWorkOrdersVersion(), "Expected the result to hold the new " +
+                "version of the device's list of work orders");
+        assertNull(createWorkOrderResult.getWorkOrders(), "Expected the full list of work orders to be omitted " +
+                "unless requested");
+        verify(workOrderDao, never()).getWorkOrders(anyString(), anyBoolean());
+        verify(metricsPublisher).addCount(MetricsConstants.CREATEWORKORDER_FULLLIST_COUNT, 0);
+    }
+
+    // stands in for the index, which returns the work orders in completion sort key order (or its reverse)
+    @Test
+    public void handleRequest_deviceRetired_throwsUpdateRetiredDeviceExceptionWithoutSaving() {
+        // GIVEN
+        Device device = DeviceTestHelper.generateActiveDevice(1, new ManufacturerModel(), "TestFacility",
+                "TestDepartment");
+        device.setServiceStatus(ServiceStatus.RETIRED);
+        CreateWorkOrderRequest createWorkOrderRequest = CreateWorkOrderRequest.builder()
+                .withControlNumber("123")
+                .withWorkOrderType("REPAIR")
+                .withProblemReported("a valid reported problem")
+                .build();
+        when(deviceDao.getDevice(anyString())).thenReturn(device);
+
+        // WHEN & THEN
+        assertThrows(UpdateRetiredDeviceException.class, () ->
+                createWorkOrderActivity.handleRequest(createWorkOrderRequest),
+                "Expected a work order for a retired device to be refused");
+        verify(workOrderDao, never()).saveWorkOrder(any(WorkOrder.class));
+        verify(metricsPublisher).addCount(MetricsConstants.CREATEWORKORDER_DEVICERETIRED_COUNT, 1);
+    }
+
+    @Test
+    public void handleRequest_deviceRetiredAfterRead_deletesSavedWorkOrderAndRethrows() {
+        // GIVEN
+        Device device = DeviceTestHelper.generateActiveDevice(1, new ManufacturerModel(), "TestFacility",
+                "TestDepartment");
+        CreateWorkOrderRequest createWorkOrderRequest = CreateWorkOrderRequest.builder()
+                .withControlNumber("123")
+                .withWorkOrderType("REPAIR")
+                .withProblemReported("a valid reported problem")
+                .build();
+        when(deviceDao.getDevice(anyString())).thenReturn(device);
+        when(deviceDao.addOpenWorkOrder(eq("123"), anyString())).thenThrow(UpdateRetiredDeviceException.class);
+        ArgumentCaptor<WorkOrder> savedWorkOrder = ArgumentCaptor.forClass(WorkOrder.class);
+
+        // WHEN & THEN
+        assertThrows(UpdateRetiredDeviceException.class, () ->
+                createWorkOrderActivity.handleRequest(createWorkOrderRequest),
+                "Expected a work order for a device retired since it was read to be refused");
+        verify(workOrderDao).saveWorkOrder(savedWorkOrder.capture());
+        verify(workOrderDao).deleteWorkOrder(savedWorkOrder.getValue());
+        verify(metricsPublisher).addCount(MetricsConstants.CREATEWORKORDER_DEVICERETIRED_COUNT, 1);
+    }
+
+    private static List<WorkOrder> readFromIndex(List<WorkOrder> workOrders, boolean ascending) {
+        Comparator<WorkOrder> bySortKey = Comparator.comparing(WorkOrder::getCompletionSortKey);
+        workOrders.sort(ascending ? bySortKey : bySortKey.reversed());
+        return workOrders;
     }
 
     private void assertWorkOrderModelsSortedCorrectly(List<String> expectedSortedWorkOrderIds,
@@ -2,6 +2,7 @@ package com.nashss.se.htmvault.activity;
 
 import com.nashss.se.htmvault.activity.requests.GetDeviceWorkOrdersRequest;
 import com.nashss.se.htmvault.activity.results.GetDeviceWorkOrdersResult;
+import com.nashss.se.htmvault.dynamodb.ResultPage;
 import com.nashss.se.htmvault.dynamodb.WorkOrderDao;
 import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
 import com.nashss.se.htmvault.dynamodb.models.WorkOrder;
@@ -10,7 +11,9 @@ import com.nashss.se.htmvault.metrics.MetricsConstants;
 import com.nashss.se.htmvault.metrics.MetricsPublisher;
 import com.nashss.se.htmvault.models.WorkOrderModel;
 import com.nashss.se.htmvault.test.helper.WorkOrderTestHelper;
+import com.nashss.se.htmvault.utils.PaginationUtils;
 
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -22,13 +25,19 @@ import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
 
@@ -81,7 +90,8 @@ class GetDeviceWorkOrdersActivityTest {
                 workOrders.get(0).getWorkOrderId(), workOrders.get(3).getWorkOrderId(),
                 workOrders.get(2).getWorkOrderId()));
 
-        when(workOrderDao.getWorkOrders(anyString())).thenReturn(workOrders);
+        when(workOrderDao.getWorkOrders(anyString(), anyBoolean(), anyInt(), isNull())).thenAnswer(invocation ->
+                readFromIndex(invocation.getArgument(1)));
 
         // WHEN
         GetDeviceWorkOrdersResult getDeviceWorkOrdersResult =
@@ -94,7 +104,7 @@ class GetDeviceWorkOrdersActivityTest {
         // verify they were sorted as expected
         assertWorkOrderModelsSortedCorrectly(expectedOrderWorkOrders, workOrderModels);
 
-        verify(workOrderDao).getWorkOrders("123");
+        verify(workOrderDao).getWorkOrders("123", false, GetDeviceWorkOrdersActivity.DEFAULT_LIMIT, null);
         verify(metricsPublisher).addCount(MetricsConstants.GETDEVICEWORKORDERS_INVALIDATTRIBUTEVALUE_COUNT, 0);
     }
 
@@ -118,7 +128,8 @@ class GetDeviceWorkOrdersActivityTest {
                 workOrders.get(3).getWorkOrderId(), workOrders.get(0).getWorkOrderId(),
                 workOrders.get(1).getWorkOrderId()));
 
-        when(workOrderDao.getWorkOrders(anyString())).thenReturn(workOrders);
+        when(workOrderDao.getWorkOrders(anyString(), anyBoolean(), anyInt(), isNull())).thenAnswer(invocation ->
+                readFromIndex(invocation.getArgument(1)));
 
         // WHEN
         GetDeviceWorkOrdersResult getDeviceWorkOrdersResult =
@@ -131,7 +142,7 @@ class GetDeviceWorkOrdersActivityTest {
         // verify they were sorted as expected
         assertWorkOrderModelsSortedCorrectly(expectedOrderWorkOrders, workOrderModels);
 
-        verify(workOrderDao).getWorkOrders("123");
+        verify(workOrderDao).getWorkOrders("123", true, GetDeviceWorkOrdersActivity.DEFAULT_LIMIT, null);
         verify(metricsPublisher).addCount(MetricsConstants.GETDEVICEWORKORDERS_INVALIDATTRIBUTEVALUE_COUNT, 0);
     }
 
@@ -153,7 +164,8 @@ class GetDeviceWorkOrdersActivityTest {
                 workOrders.get(0).getWorkOrderId(), workOrders.get(3).getWorkOrderId(),
                 workOrders.get(2).getWorkOrderId()));
 
-        when(workOrderDao.getWorkOrders(anyString())).thenReturn(workOrders);
+        when(workOrderDao.getWorkOrders(anyString(), anyBoolean(), anyInt(), isNull())).thenAnswer(invocation ->
+                readFromIndex(invocation.getArgument(1)));
 
         // WHEN
         GetDeviceWorkOrdersResult getDeviceWorkOrdersResult =
@@ -165,7 +177,7 @@ class GetDeviceWorkOrdersActivityTest {
         WorkOrderTestHelper.assertWorkOrdersEqualWorkOrderModels(workOrders, workOrderModels);
         // verify they were sorted as expected
         assertWorkOrderModelsSortedCorrectly(expectedOrderWorkOrders, workOrderModels);
-        verify(workOrderDao).getWorkOrders("123");
+        verify(workOrderDao).getWorkOrders("123", false, GetDeviceWorkOrdersActivity.DEFAULT_LIMIT, null);
         verify(metricsPublisher).addCount(MetricsConstants.GETDEVICEWORKORDERS_INVALIDATTRIBUTEVALUE_COUNT, 0);
     }
 
@@ -189,7 +201,8 @@ class GetDeviceWorkOrdersActivityTest {
                 workOrders.get(0).getWorkOrderId(), workOrders.get(3).getWorkOrderId(),
                 workOrders.get(2).getWorkOrderId()));
 
-        when(workOrderDao.getWorkOrders(anyString())).thenReturn(workOrders);
+        when(workOrderDao.getWorkOrders(anyString(), anyBoolean(), anyInt(), isNull())).thenAnswer(invocation ->
+                readFromIndex(invocation.getArgument(1)));
 
         // WHEN
         GetDeviceWorkOrdersResult getDeviceWorkOrdersResult =
@@ -199,7 +212,7 @@ class GetDeviceWorkOrdersActivityTest {
         // THEN
         WorkOrderTestHelper.assertWorkOrdersEqualWorkOrderModels(workOrders, workOrderModels);
         assertWorkOrderModelsSortedCorrectly(expectedOrderWorkOrders, workOrderModels);
-        verify(workOrderDao).getWorkOrders("123");
+        verify(workOrderDao).getWorkOrders("123", false, GetDeviceWorkOrdersActivity.DEFAULT_LIMIT, null);
         verify(metricsPublisher).addCount(MetricsConstants.GETDEVICEWORKORDERS_INVALIDATTRIBUTEVALUE_COUNT, 0);
     }
 
@@ -231,7 +244,8 @@ class GetDeviceWorkOrdersActivityTest {
                 workOrders.get(3).getWorkOrderId(), workOrders.get(2).getWorkOrderId(),
                 workOrders.get(0).getWorkOrderId()));
 
-        when(workOrderDao.getWorkOrders(anyString())).thenReturn(workOrders);
+        when(workOrderDao.getWorkOrders(anyString(), anyBoolean(), anyInt(), isNull())).thenAnswer(invocation ->
+                readFromIndex(invocation.getArgument(1)));
 
         // WHEN
         GetDeviceWorkOrdersResult getDeviceWorkOrdersResult =
@@ -241,7 +255,7 @@ class GetDeviceWorkOrdersActivityTest {
         // THEN
         WorkOrderTestHelper.assertWorkOrdersEqualWorkOrderModels(workOrders, workOrderModels);
         assertWorkOrderModelsSortedCorrectly(expectedOrderWorkOrders, workOrderModels);
-        verify(workOrderDao).getWorkOrders("123");
+        verify(workOrderDao).getWorkOrders("123", false, GetDeviceWorkOrdersActivity.DEFAULT_LIMIT, null);
         verify(metricsPublisher).addCount(MetricsConstants.GETDEVICEWORKORDERS_INVALIDATTRIBUTEVALUE_COUNT, 0);
     }
 
@@ -273,7 +287,8 @@ class GetDeviceWorkOrdersActivityTest {
                 workOrders.get(3).getWorkOrderId(), workOrders.get(2).getWorkOrderId(),
                 workOrders.get(0).getWorkOrderId()));
 
-        when(workOrderDao.getWorkOrders(anyString())).thenReturn(workOrders);
+        when(workOrderDao.getWorkOrders(anyString(), anyBoolean(), anyInt(), isNull())).thenAnswer(invocation ->
+                readFromIndex(invocation.getArgument(1)));
 
         // WHEN
         GetDeviceWorkOrdersResult getDeviceWorkOrdersResult =
@@ -283,7 +298,7 @@ class GetDeviceWorkOrdersActivityTest {
         // THEN
         WorkOrderTestHelper.assertWorkOrdersEqualWorkOrderModels(workOrders, workOrderModels);
         assertWorkOrderModelsSortedCorrectly(expectedOrderWorkOrders, workOrderModels);
-        verify(workOrderDao).getWorkOrders("123");
+        verify(workOrderDao).getWorkOrders("123", false, GetDeviceWorkOrdersActivity.DEFAULT_LIMIT, null);
         verify(metricsPublisher).addCount(MetricsConstants.GETDEVICEWORKORDERS_INVALIDATTRIBUTEVALUE_COUNT, 0);
     }
 
@@ -309,7 +324,8 @@ class GetDeviceWorkOrdersActivityTest {
                 .withControlNumber("123")
                 .build();
 
-        when(workOrderDao.getWorkOrders(anyString())).thenReturn(new ArrayList<>());
+        when(workOrderDao.getWorkOrders(anyString(), anyBoolean(), anyInt(), isNull()))
+                .thenReturn(new ResultPage<>(new ArrayList<>(), null));
 
         // WHEN
         GetDeviceWorkOrdersResult getDeviceWorkOrdersResult =
@@ -318,10 +334,59 @@ class GetDeviceWorkOrdersActivityTest {
 
         // THEN
         assertTrue(workOrderModels.isEmpty(), "Expected the list of work order models to be empty");
-        verify(workOrderDao).getWorkOrders("123");
+        verify(workOrderDao).getWorkOrders("123", false, GetDeviceWorkOrdersActivity.DEFAULT_LIMIT, null);
         verify(metricsPublisher).addCount(MetricsConstants.GETDEVICEWORKORDERS_INVALIDATTRIBUTEVALUE_COUNT, 0);
     }
 
+    @Test
+    public void handleRequest_withLimitAndNextToken_returnsPageAndNextToken() {
+        // GIVEN
+        Map<String, AttributeValue> startKey = Map.of("workOrderId", new AttributeValue("WR1"));
+        Map<String, AttributeValue> lastEvaluatedKey = Map.of("workOrderId", new AttributeValue("WR3"));
+        GetDeviceWorkOrdersRequest getDeviceWorkOrdersRequest = GetDeviceWorkOrdersRequest.builder()
+                .withControlNumber("123")
+                .withLimit("2")
+                .withNextToken(PaginationUtils.encodeNextToken(startKey))
+                .build();
+
+        when(workOrderDao.getWorkOrders("123", false, 2, startKey))
+                .thenReturn(new ResultPage<>(workOrders.subList(0, 2), lastEvaluatedKey));
+
+        // WHEN
+        GetDeviceWorkOrdersResult getDeviceWorkOrdersResult =
+                getDeviceWorkOrdersActivity.handleRequest(getDeviceWorkOrdersRequest);
+
+        // THEN
+        WorkOrderTestHelper.assertWorkOrdersEqualWorkOrderModels(workOrders.subList(0, 2),
+                getDeviceWorkOrdersResult.getWorkOrders());
+        assertEquals(lastEvaluatedKey, PaginationUtils.decodeNextToken(getDeviceWorkOrdersResult.getNextToken()),
+                "Expected the next token to encode the key at which the page ended");
+        verify(metricsPublisher).addCount(MetricsConstants.GETDEVICEWORKORDERS_INVALIDATTRIBUTEVALUE_COUNT, 0);
+    }
+
+    @Test
+    public void handleRequest_invalidLimit_throwsInvalidAttributeValueException() {
+        // GIVEN
+        GetDeviceWorkOrdersRequest getDeviceWorkOrdersRequest = GetDeviceWorkOrdersRequest.builder()
+                .withControlNumber("123")
+                .withLimit("many")
+                .build();
+
+        // WHEN & THEN
+        assertThrows(InvalidAttributeValueException.class, () ->
+                getDeviceWorkOrdersActivity.handleRequest(getDeviceWorkOrdersRequest),
+                "Expected an invalid limit in request to result in InvalidAttributeValueException thrown");
+        verify(metricsPublisher).addCount(MetricsConstants.GETDEVICEWORKORDERS_INVALIDATTRIBUTEVALUE_COUNT, 1);
+        verifyNoInteractions(workOrderDao);
+    }
+
+    // stands in for the index, which returns the work orders in completion sort key order (or its reverse)
+    private ResultPage<WorkOrder> readFromIndex(boolean ascending) {
+        Comparator<WorkOrder> bySortKey = Comparator.comparing(WorkOrder::getCompletionSortKey);
+        workOrders.sort(ascending ? bySortKey : bySortKey.reversed());
+        return new ResultPage<>(workOrders, null);
+    }
+
     private List<String> sortWorkOrderIds(List<WorkOrder> generatedWorkOrders) {
         List<String> sortedWorkOrderIds = new ArrayList<>();
         for (WorkOrder workOrder : generatedWorkOrders) {
@@ -3,6 +3,8 @@ package com.nashss.se.htmvault.activity;
 import com.nashss.se.htmvault.activity.requests.GetFacilitiesAndDepartmentsRequest;
 import com.nashss.se.htmvault.activity.results.GetFacilitiesAndDepartmentsResult;
 import com.nashss.se.htmvault.dynamodb.FacilityDepartmentDao;
+import com.nashss.se.htmvault.dynamodb.ManufacturerModelDao;
+import com.nashss.se.htmvault.dynamodb.ReferenceDataCache;
 import com.nashss.se.htmvault.dynamodb.models.FacilityDepartment;
 import com.nashss.se.htmvault.exceptions.FacilityDepartmentNotFoundException;
 import com.nashss.se.htmvault.metrics.MetricsPublisher;
@@ -26,6 +28,8 @@ class GetFacilitiesAndDepartmentsActivityTest {
     @Mock
     private FacilityDepartmentDao facilityDepartmentDao;
     @Mock
+    private ManufacturerModelDao manufacturerModelDao;
+    @Mock
     private MetricsPublisher metricsPublisher;
 
     private GetFacilitiesAndDepartmentsActivity getFacilitiesAndDepartmentsActivity;
@@ -34,7 +38,8 @@ class GetFacilitiesAndDepartmentsActivityTest {
     void setUp() {
         openMocks(this);
         getFacilitiesAndDepartmentsActivity =
-                new GetFacilitiesAndDepartmentsActivity(facilityDepartmentDao, metricsPublisher);
+                new GetFacilitiesAndDepartmentsActivity(new ReferenceDataCache(manufacturerModelDao,
+                        facilityDepartmentDao, metricsPublisher), metricsPublisher);
     }
 
     @Test
@@ -0,0 +1,109 @@
+package com.nashss.se.htmvault.activity;
+
+import com.nashss.se.htmvault.activity.requests.GetFacilityBacklogRequest;
+import com.nashss.se.htmvault.activity.results.GetFacilityBacklogResult;
+import com.nashss.se.htmvault.dynamodb.ResultPage;
+import com.nashss.se.htmvault.dynamodb.WorkOrderDao;
+import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
+import com.nashss.se.htmvault.dynamodb.models.WorkOrder;
+import com.nashss.se.htmvault.exceptions.InvalidAttributeValueException;
+import com.nashss.se.htmvault.metrics.MetricsConstants;
+import com.nashss.se.htmvault.metrics.MetricsPublisher;
+import com.nashss.se.htmvault.test.helper.WorkOrderTestHelper;
+import com.nashss.se.htmvault.utils.PaginationUtils;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class GetFacilityBacklogActivityTest {
+
+    @Mock
+    private WorkOrderDao workOrderDao;
+    @Mock
+    private MetricsPublisher metricsPublisher;
+
+    @InjectMocks
+    private GetFacilityBacklogActivity getFacilityBacklogActivity;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+    }
+
+    @Test
+    public void handleRequest_withFacilityAndDepartment_returnsPageOfOpenWorkOrdersAndNextToken() {
+        // GIVEN
+        ManufacturerModel manufacturerModel = new ManufacturerModel();
+        manufacturerModel.setManufacturer("TestManufacturer");
+        manufacturerModel.setModel("TestModel");
+        manufacturerModel.setRequiredMaintenanceFrequencyInMonths(12);
+        WorkOrder workOrder = WorkOrderTestHelper.generateWorkOrder(1, "123", "SN123", manufacturerModel,
+                "TestFacility", "TestDepartment");
+        Map<String, AttributeValue> lastEvaluatedKey = Map.of("workOrderId", new AttributeValue("WR1"));
+        when(workOrderDao.getOpenWorkOrders("TestFacility", "TestDepartment", 10, null))
+                .thenReturn(new ResultPage<>(List.of(workOrder), lastEvaluatedKey));
+
+        GetFacilityBacklogRequest request = GetFacilityBacklogRequest.builder()
+                .withFacilityName("TestFacility")
+                .withAssignedDepartment("TestDepartment")
+                .withLimit("10")
+                .build();
+
+        // WHEN
+        GetFacilityBacklogResult result = getFacilityBacklogActivity.handleRequest(request);
+
+        // THEN
+        assertEquals(1, result.getWorkOrders().size(), "Expected the work orders of the page read");
+        assertEquals(workOrder.getWorkOrderId(), result.getWorkOrders().get(0).getWorkOrderId());
+        assertEquals(PaginationUtils.encodeNextToken(lastEvaluatedKey), result.getNextToken(),
+                "Expected a token to get the next page");
+        verify(metricsPublisher).addCount(MetricsConstants.GETFACILITYBACKLOG_INVALIDATTRIBUTEVALUE_COUNT, 0);
+    }
+
+    @Test
+    public void handleRequest_blankDepartment_readsWholeFacilityWithDefaultLimit() {
+        // GIVEN
+        when(workOrderDao.getOpenWorkOrders("TestFacility", null, GetFacilityBacklogActivity.DEFAULT_LIMIT, null))
+                .thenReturn(new ResultPage<>(List.of(), null));
+
+        GetFacilityBacklogRequest request = GetFacilityBacklogRequest.builder()
+                .withFacilityName("TestFacility")
+                .withAssignedDepartment(" ")
+                .build();
+
+        // WHEN
+        GetFacilityBacklogResult result = getFacilityBacklogActivity.handleRequest(request);
+
+        // THEN
+        assertEquals(List.of(), result.getWorkOrders(), "Expected no work orders for a facility with no backlog");
+        assertNull(result.getNextToken(), "Expected no token when there are no more pages");
+    }
+
+    @Test
+    public void handleRequest_noFacility_throwsInvalidAttributeValueException() {
+        // GIVEN
+        GetFacilityBacklogRequest request = GetFacilityBacklogRequest.builder()
+                .withAssignedDepartment("TestDepartment")
+                .build();
+
+        // WHEN & THEN
+        assertThrows(InvalidAttributeValueException.class, () -> getFacilityBacklogActivity.handleRequest(request),
+                "Expected a request without a facility to result in an InvalidAttributeValueException");
+        verify(metricsPublisher).addCount(MetricsConstants.GETFACILITYBACKLOG_INVALIDATTRIBUTEVALUE_COUNT, 1);
+        verifyNoInteractions(workOrderDao);
+    }
+}
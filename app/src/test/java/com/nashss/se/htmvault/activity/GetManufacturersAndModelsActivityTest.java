@@ -2,7 +2,9 @@ package com.nashss.se.htmvault.activity;
 
 import com.nashss.se.htmvault.activity.requests.GetManufacturersAndModelsRequest;
 import com.nashss.se.htmvault.activity.results.GetManufacturersAndModelsResult;
+import com.nashss.se.htmvault.dynamodb.FacilityDepartmentDao;
 import com.nashss.se.htmvault.dynamodb.ManufacturerModelDao;
+import com.nashss.se.htmvault.dynamodb.ReferenceDataCache;
 import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
 import com.nashss.se.htmvault.exceptions.ManufacturerModelNotFoundException;
 import com.nashss.se.htmvault.metrics.MetricsPublisher;
@@ -26,6 +28,8 @@ class GetManufacturersAndModelsActivityTest {
     @Mock
     private ManufacturerModelDao manufacturerModelDao;
     @Mock
+    private FacilityDepartmentDao facilityDepartmentDao;
+    @Mock
     private MetricsPublisher metricsPublisher;
 
     private GetManufacturersAndModelsActivity getManufacturersAndModelsActivity;
@@ -34,7 +38,8 @@ class GetManufacturersAndModelsActivityTest {
     void setUp() {
         openMocks(this);
         getManufacturersAndModelsActivity =
-                new GetManufacturersAndModelsActivity(manufacturerModelDao, metricsPublisher);
+                new GetManufacturersAndModelsActivity(new ReferenceDataCache(manufacturerModelDao,
+                        facilityDepartmentDao, metricsPublisher), metricsPublisher);
     }
 
     @Test
@@ -2,7 +2,10 @@ package com.nashss.se.htmvault.activity;
 
 import com.nashss.se.htmvault.activity.requests.ReactivateDeviceRequest;
 import com.nashss.se.htmvault.activity.results.ReactivateDeviceResult;
+import com.nashss.se.htmvault.dynamodb.DeviceCache;
 import com.nashss.se.htmvault.dynamodb.DeviceDao;
+import com.nashss.se.htmvault.dynamodb.DeviceSearchIndexDao;
+import com.nashss.se.htmvault.dynamodb.SegmentedScanner;
 import com.nashss.se.htmvault.dynamodb.models.Device;
 import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
 import com.nashss.se.htmvault.exceptions.DeviceNotFoundException;
@@ -11,7 +14,9 @@ import com.nashss.se.htmvault.metrics.MetricsPublisher;
 import com.nashss.se.htmvault.models.ServiceStatus;
 import com.nashss.se.htmvault.test.helper.DeviceTestHelper;
 
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,6 +25,7 @@ import org.mockito.Mockito;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
@@ -30,6 +36,14 @@ class ReactivateDeviceActivityTest {
 
     @Mock
     private DynamoDBMapper dynamoDBMapper;
+    @Mock
+    private AmazonDynamoDB amazonDynamoDB;
+    @Mock
+    private DeviceSearchIndexDao deviceSearchIndexDao;
+    @Mock
+    private SegmentedScanner segmentedScanner;
+    @Mock
+    private DeviceCache deviceCache;
     private DeviceDao deviceDao;
     @Mock
     private MetricsPublisher metricsPublisher;
@@ -39,7 +53,8 @@ class ReactivateDeviceActivityTest {
     @BeforeEach
     void setUp() {
         openMocks(this);
-        deviceDao = new DeviceDao(dynamoDBMapper, metricsPublisher);
+        deviceDao = new DeviceDao(dynamoDBMapper, amazonDynamoDB, deviceSearchIndexDao, segmentedScanner,
+                deviceCache, metricsPublisher);
         reactivateDeviceActivity = new ReactivateDeviceActivity(deviceDao, metricsPublisher);
     }
 
@@ -52,7 +67,8 @@ class ReactivateDeviceActivityTest {
                 .withCustomerName("a name")
                 .build();
 
-        when(dynamoDBMapper.load(eq(Device.class), Mockito.anyString())).thenReturn(null);
+        when(dynamoDBMapper.load(eq(Device.class), Mockito.anyString(), any(DynamoDBMapperConfig.class)))
+                .thenReturn(null);
 
         // WHEN & THEN
         assertThrows(DeviceNotFoundException.class, () ->
@@ -82,13 +98,13 @@ class ReactivateDeviceActivityTest {
                 .withCustomerId("an ID")
                 .withCustomerName("a name")
                 .build();
-        when(dynamoDBMapper.load(eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class))).thenReturn(device);
 
         // WHEN
         ReactivateDeviceResult result = reactivateDeviceActivity.handleRequest(reactivateDeviceRequest);
 
         // THEN
-        verify(dynamoDBMapper).load(eq(Device.class), anyString());
+        verify(dynamoDBMapper).load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class));
         verify(metricsPublisher).addCount(MetricsConstants.REACTIVATEDEVICE_DEVICENOTFOUND_COUNT, 0);
         assertEquals("IN_SERVICE", result.getDevice().getServiceStatus());
 
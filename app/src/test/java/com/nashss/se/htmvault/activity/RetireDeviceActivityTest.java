@@ -3,30 +3,24 @@ package com.nashss.se.htmvault.activity;
 import com.nashss.se.htmvault.activity.requests.RetireDeviceRequest;
 import com.nashss.se.htmvault.activity.results.RetireDeviceResult;
 import com.nashss.se.htmvault.dynamodb.DeviceDao;
-import com.nashss.se.htmvault.dynamodb.WorkOrderDao;
 import com.nashss.se.htmvault.dynamodb.models.Device;
 import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
-import com.nashss.se.htmvault.dynamodb.models.WorkOrder;
 import com.nashss.se.htmvault.exceptions.DeviceNotFoundException;
 import com.nashss.se.htmvault.exceptions.RetireDeviceWithOpenWorkOrdersException;
 import com.nashss.se.htmvault.metrics.MetricsConstants;
 import com.nashss.se.htmvault.metrics.MetricsPublisher;
 import com.nashss.se.htmvault.models.ServiceStatus;
-import com.nashss.se.htmvault.models.WorkOrderCompletionStatus;
 import com.nashss.se.htmvault.test.helper.DeviceTestHelper;
-import com.nashss.se.htmvault.test.helper.WorkOrderTestHelper;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
@@ -36,8 +30,6 @@ class RetireDeviceActivityTest {
     @Mock
     private DeviceDao deviceDao;
     @Mock
-    private WorkOrderDao workOrderDao;
-    @Mock
     private MetricsPublisher metricsPublisher;
 
     @InjectMocks
@@ -57,7 +49,7 @@ class RetireDeviceActivityTest {
                         .withCustomerName("a name")
                         .build();
 
-        when(deviceDao.getDevice(anyString())).thenThrow(DeviceNotFoundException.class);
+        when(deviceDao.getDeviceForUpdate(anyString())).thenThrow(DeviceNotFoundException.class);
 
         // WHEN & THEN
         assertThrows(DeviceNotFoundException.class, () ->
@@ -83,11 +75,9 @@ class RetireDeviceActivityTest {
                 .withCustomerName("a name")
                 .build();
 
-        WorkOrder workOrder = WorkOrderTestHelper.generateWorkOrder(1, "123",
-                "G321", manufacturerModel, "TestManufacturer", "TestModel");
-        workOrder.setWorkOrderCompletionStatus(WorkOrderCompletionStatus.OPEN);
-        when(deviceDao.getDevice(anyString())).thenReturn(device);
-        when(workOrderDao.getWorkOrders(anyString())).thenReturn(new ArrayList<>(List.of(workOrder)));
+        // the device's open work orders are checked as it is saved
+        when(deviceDao.getDeviceForUpdate(anyString())).thenReturn(device);
+        when(deviceDao.retireDevice(device)).thenThrow(RetireDeviceWithOpenWorkOrdersException.class);
 
         // WHEN & THEN
         assertThrows(RetireDeviceWithOpenWorkOrdersException.class, () ->
@@ -96,6 +86,7 @@ class RetireDeviceActivityTest {
                         "RetireDeviceWithOpenWorkOrdersException to be thrown");
         verify(metricsPublisher).addCount(MetricsConstants.RETIREDEVICE_DEVICENOTFOUND_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.RETIREDEVICE_WORKORDERSOPEN_COUNT, 1);
+        verify(deviceDao, never()).saveDevice(device);
     }
 
     @Test
@@ -118,25 +109,19 @@ class RetireDeviceActivityTest {
                 .withCustomerId("an ID")
                 .withCustomerName("a name")
                 .build();
-        when(deviceDao.getDevice(anyString())).thenReturn(device);
-
-        // a list of all the work orders for the device with none open
-        List<WorkOrder> workOrders = new ArrayList<>();
-        for (int i = 0; i < 3; i++) {
-            WorkOrder workOrder = WorkOrderTestHelper.generateWorkOrder(i, device.getControlNumber(),
-                    "SN1", manufacturerModel, "TestFacility",
-                    "TestDepartment");
-            // our generator randomly sets the completion status, so we need ensure it's set to closed
-            workOrder.setWorkOrderCompletionStatus(WorkOrderCompletionStatus.CLOSED);
-            workOrders.add(workOrder);
-        }
-        when(workOrderDao.getWorkOrders("123")).thenReturn(workOrders);
+        when(deviceDao.getDeviceForUpdate(anyString())).thenReturn(device);
+
+        // the device's work orders have all been closed
+        device.setWorkOrdersVersion(3L);
+        device.setOpenWorkOrderCount(0);
+        expectedDevice.setWorkOrdersVersion(3L);
+        expectedDevice.setOpenWorkOrderCount(0);
 
         // WHEN
         RetireDeviceResult result = retireDeviceActivity.handleRequest(retireDeviceRequest);
 
         // THEN
-        verify(deviceDao).saveDevice(device);
+        verify(deviceDao).retireDevice(device);
         verify(metricsPublisher).addCount(MetricsConstants.RETIREDEVICE_DEVICENOTFOUND_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.RETIREDEVICE_WORKORDERSOPEN_COUNT, 0);
         assertEquals("RETIRED", result.getDevice().getServiceStatus());
@@ -165,16 +150,13 @@ class RetireDeviceActivityTest {
                 .withCustomerId("an ID")
                 .withCustomerName("a name")
                 .build();
-        when(deviceDao.getDevice(anyString())).thenReturn(device);
-
-        // the device has no work orders
-        when(workOrderDao.getWorkOrders("123")).thenReturn(new ArrayList<>());
+        when(deviceDao.getDeviceForUpdate(anyString())).thenReturn(device);
 
         // WHEN
         RetireDeviceResult result = retireDeviceActivity.handleRequest(retireDeviceRequest);
 
         // THEN
-        verify(deviceDao).saveDevice(device);
+        verify(deviceDao).retireDevice(device);
         verify(metricsPublisher).addCount(MetricsConstants.RETIREDEVICE_DEVICENOTFOUND_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.RETIREDEVICE_WORKORDERSOPEN_COUNT, 0);
         assertEquals("RETIRED", result.getDevice().getServiceStatus());
@@ -204,6 +186,8 @@ class RetireDeviceActivityTest {
         deviceCopy.setAddedById(device.getAddedById());
         deviceCopy.setAddedByName(device.getAddedByName());
         deviceCopy.setNotes(device.getNotes());
+        deviceCopy.setWorkOrdersVersion(device.getWorkOrdersVersion());
+        deviceCopy.setOpenWorkOrderCount(device.getOpenWorkOrderCount());
 
         return deviceCopy;
     }
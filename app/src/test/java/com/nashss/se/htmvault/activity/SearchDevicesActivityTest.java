@@ -3,11 +3,19 @@ package com.nashss.se.htmvault.activity;
 import com.nashss.se.htmvault.activity.requests.SearchDevicesRequest;
 import com.nashss.se.htmvault.activity.results.SearchDevicesResult;
 import com.nashss.se.htmvault.dynamodb.DeviceDao;
+import com.nashss.se.htmvault.dynamodb.DeviceSearchIndexDao;
+import com.nashss.se.htmvault.dynamodb.DeviceSearchQuery;
+import com.nashss.se.htmvault.dynamodb.ResultPage;
 import com.nashss.se.htmvault.dynamodb.models.Device;
 import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
+import com.nashss.se.htmvault.exceptions.InvalidAttributeValueException;
+import com.nashss.se.htmvault.metrics.MetricsConstants;
 import com.nashss.se.htmvault.metrics.MetricsPublisher;
 import com.nashss.se.htmvault.models.DeviceModel;
 import com.nashss.se.htmvault.test.helper.DeviceTestHelper;
+import com.nashss.se.htmvault.utils.PaginationUtils;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,8 +24,18 @@ import org.mockito.Mock;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
 
@@ -27,6 +45,8 @@ class SearchDevicesActivityTest {
     @Mock
     private DeviceDao deviceDao;
     @Mock
+    private DeviceSearchIndexDao deviceSearchIndexDao;
+    @Mock
     private MetricsPublisher metricsPublisher;
     @Mock
 
@@ -35,7 +55,7 @@ class SearchDevicesActivityTest {
     @BeforeEach
     void setUp() {
         openMocks(this);
-        searchDevicesActivity = new SearchDevicesActivity(deviceDao, metricsPublisher);
+        searchDevicesActivity = new SearchDevicesActivity(deviceDao, deviceSearchIndexDao, metricsPublisher);
     }
 
     @Test
@@ -51,12 +71,16 @@ class SearchDevicesActivityTest {
                     "TestDepartment"));
         }
 
-        String[] criteria = new String[1];
-        criteria[0] = "TestManufacturer";
         SearchDevicesRequest searchDevicesRequest = SearchDevicesRequest.builder()
                 .withCriteria("TestManufacturer")
                 .build();
-        when(deviceDao.searchDevices(criteria)).thenReturn(devices);
+        List<String> controlNumbers = new ArrayList<>();
+        for (Device device : devices) {
+            controlNumbers.add(device.getControlNumber());
+        }
+        when(deviceSearchIndexDao.getControlNumbers(List.of("TestManufacturer"), SearchDevicesActivity.DEFAULT_LIMIT,
+                null)).thenReturn(new ResultPage<>(controlNumbers, null));
+        when(deviceDao.getDevices(controlNumbers)).thenReturn(devices);
 
         // WHEN
         SearchDevicesResult searchDevicesResult = searchDevicesActivity.handleRequest(searchDevicesRequest);
@@ -64,15 +88,123 @@ class SearchDevicesActivityTest {
 
         // THEN
         DeviceTestHelper.assertDevicesEqualDeviceModels(devices, deviceModelList);
+        assertNull(searchDevicesResult.getNextToken(), "Expected no next token when every match fits in one page");
+        verify(deviceDao, never()).scanDevices(anyInt(), any());
+    }
+
+    @Test
+    public void handleRequest_indexListsDeviceUnderStaleToken_leavesDeviceOut() {
+        // GIVEN
+        ManufacturerModel manufacturerModel = new ManufacturerModel();
+        manufacturerModel.setManufacturer("TestManufacturer");
+        manufacturerModel.setModel("TestModel");
+        manufacturerModel.setRequiredMaintenanceFrequencyInMonths(12);
+        Device matching = DeviceTestHelper.generateActiveDevice(1, manufacturerModel, "TestFacility", "ICU");
+        // moved out of the ICU, but its old posting has not been deleted yet
+        Device moved = DeviceTestHelper.generateActiveDevice(2, manufacturerModel, "TestFacility", "Radiology");
+
+        when(deviceSearchIndexDao.getControlNumbers(eq(List.of("ICU")), anyInt(), isNull())).thenReturn(
+                new ResultPage<>(List.of(matching.getControlNumber(), moved.getControlNumber()), null));
+        when(deviceDao.getDevices(any())).thenReturn(List.of(matching, moved));
+
+        // WHEN
+        SearchDevicesResult result = searchDevicesActivity.handleRequest(SearchDevicesRequest.builder()
+                .withCriteria("ICU")
+                .build());
+
+        // THEN
+        DeviceTestHelper.assertDevicesEqualDeviceModels(List.of(matching), result.getDevices());
+    }
+
+    @Test
+    public void handleRequest_criteriaMatchMoreThanLimit_returnsPagesInControlNumberOrder() {
+        // GIVEN
+        Map<String, AttributeValue> lastEvaluatedKey = Map.of("controlNumber", new AttributeValue().withS("222"));
+        when(deviceSearchIndexDao.getControlNumbers(List.of("ICU"), 2, null))
+                .thenReturn(new ResultPage<>(List.of("111", "222"), lastEvaluatedKey));
+        when(deviceSearchIndexDao.getControlNumbers(List.of("ICU"), 2, lastEvaluatedKey))
+                .thenReturn(new ResultPage<>(List.of("333"), null));
+        when(deviceDao.getDevices(any())).thenReturn(List.of());
+
+        // WHEN
+        SearchDevicesResult firstPage = searchDevicesActivity.handleRequest(SearchDevicesRequest.builder()
+                .withCriteria("ICU")
+                .withLimit("2")
+                .build());
+        SearchDevicesResult secondPage = searchDevicesActivity.handleRequest(SearchDevicesRequest.builder()
+                .withCriteria("ICU")
+                .withLimit("2")
+                .withNextToken(firstPage.getNextToken())
+                .build());
+
+        // THEN
+        verify(deviceDao).getDevices(List.of("111", "222"));
+        verify(deviceDao).getDevices(List.of("333"));
+        assertEquals(Map.of("controlNumber", new AttributeValue().withS("222")),
+                PaginationUtils.decodeNextToken(firstPage.getNextToken()), "Expected the first page's token to " +
+                        "continue after its last control number");
+        assertNull(secondPage.getNextToken(), "Expected no next token on the last page");
+    }
+
+    @Test
+    public void handleRequest_noCriteria_returnsSinglePageOfScanWithNextToken() {
+        // GIVEN
+        Map<String, AttributeValue> lastEvaluatedKey = Map.of("controlNumber", new AttributeValue().withS("222"));
+        when(deviceDao.scanDevices(10, null)).thenReturn(new ResultPage<>(List.of(), lastEvaluatedKey));
+
+        // WHEN
+        SearchDevicesResult result = searchDevicesActivity.handleRequest(SearchDevicesRequest.builder()
+                .withLimit("10")
+                .build());
+
+        // THEN
+        assertEquals(lastEvaluatedKey, PaginationUtils.decodeNextToken(result.getNextToken()), "Expected the " +
+                "next token to encode the scan's last evaluated key");
+        verify(deviceDao, never()).scanAllDevices();
+    }
+
+    @Test
+    public void handleRequest_qualifiedCriteria_usesDaoSearchPlanner() {
+        // GIVEN
+        when(deviceDao.searchDevices(any(DeviceSearchQuery.class), eq(SearchDevicesActivity.DEFAULT_LIMIT),
+                isNull())).thenReturn(new ResultPage<>(List.of(), null));
+        ArgumentCaptor<DeviceSearchQuery> queryCaptor = ArgumentCaptor.forClass(DeviceSearchQuery.class);
+
+        // WHEN
+        searchDevicesActivity.handleRequest(SearchDevicesRequest.builder()
+                .withCriteria("facility:North monitor")
+                .build());
+
+        // THEN
+        verify(deviceDao).searchDevices(queryCaptor.capture(), eq(SearchDevicesActivity.DEFAULT_LIMIT), isNull());
+        assertEquals("North", queryCaptor.getValue().getFacilityName(), "Expected the facility to be parsed");
+        assertEquals(List.of("monitor"), queryCaptor.getValue().getTerms(), "Expected the free-text term to be " +
+                "kept as a residual criterion");
+        verifyNoInteractions(deviceSearchIndexDao);
+    }
+
+    @Test
+    public void handleRequest_invalidLimit_throwsInvalidAttributeValueException() {
+        // GIVEN
+        SearchDevicesRequest request = SearchDevicesRequest.builder()
+                .withCriteria("ICU")
+                .withLimit("0")
+                .build();
+
+        // WHEN & THEN
+        assertThrows(InvalidAttributeValueException.class, () -> searchDevicesActivity.handleRequest(request),
+                "Expected a non-positive limit to be rejected");
+        verify(metricsPublisher).addCount(MetricsConstants.SEARCHDEVICES_INVALIDATTRIBUTEVALUE_COUNT, 1);
+        verifyNoInteractions(deviceSearchIndexDao);
     }
 
     @Test
     public void handleRequest_withNullCriteria_isIdenticalToEmptyCriteria() {
         // GIVEN
         String criteria = null;
-        ArgumentCaptor<String[]> criteriaArray = ArgumentCaptor.forClass(String[].class);
 
-        when(deviceDao.searchDevices(criteriaArray.capture())).thenReturn(List.of());
+        when(deviceDao.scanDevices(SearchDevicesActivity.DEFAULT_LIMIT, null))
+                .thenReturn(new ResultPage<>(List.of(), null));
 
         SearchDevicesRequest request = SearchDevicesRequest.builder()
                 .withCriteria(criteria)
@@ -82,6 +214,8 @@ class SearchDevicesActivityTest {
         SearchDevicesResult result = searchDevicesActivity.handleRequest(request);
 
         // THEN
-        assertEquals(0, criteriaArray.getValue().length, "Criteria Array should be empty");
+        assertEquals(0, result.getDevices().size(), "Expected the (empty) page of all devices");
+        verify(deviceDao).scanDevices(SearchDevicesActivity.DEFAULT_LIMIT, null);
+        verifyNoInteractions(deviceSearchIndexDao);
     }
 }
@@ -2,9 +2,13 @@ package com.nashss.se.htmvault.activity;
 
 import com.nashss.se.htmvault.activity.requests.UpdateDeviceRequest;
 import com.nashss.se.htmvault.activity.results.UpdateDeviceResult;
+import com.nashss.se.htmvault.dynamodb.DeviceCache;
 import com.nashss.se.htmvault.dynamodb.DeviceDao;
+import com.nashss.se.htmvault.dynamodb.DeviceSearchIndexDao;
+import com.nashss.se.htmvault.dynamodb.SegmentedScanner;
 import com.nashss.se.htmvault.dynamodb.FacilityDepartmentDao;
 import com.nashss.se.htmvault.dynamodb.ManufacturerModelDao;
+import com.nashss.se.htmvault.dynamodb.ReferenceDataCache;
 import com.nashss.se.htmvault.dynamodb.models.Device;
 import com.nashss.se.htmvault.dynamodb.models.FacilityDepartment;
 import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
@@ -19,7 +23,10 @@ import com.nashss.se.htmvault.models.DeviceModel;
 import com.nashss.se.htmvault.models.ServiceStatus;
 import com.nashss.se.htmvault.test.helper.DeviceTestHelper;
 
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -48,6 +55,14 @@ class UpdateDeviceActivityTest {
     private MetricsPublisher metricsPublisher;
     @Mock
     private DynamoDBMapper dynamoDBMapper;
+    @Mock
+    private AmazonDynamoDB amazonDynamoDB;
+    @Mock
+    private DeviceSearchIndexDao deviceSearchIndexDao;
+    @Mock
+    private SegmentedScanner segmentedScanner;
+    @Mock
+    private DeviceCache deviceCache;
 
     @InjectMocks
     private UpdateDeviceActivity updateDeviceActivity;
@@ -67,8 +82,10 @@ class UpdateDeviceActivityTest {
     @BeforeEach
     void setUp() {
         openMocks(this);
-        DeviceDao deviceDao = new DeviceDao(dynamoDBMapper, metricsPublisher);
-        updateDeviceActivity = new UpdateDeviceActivity(deviceDao, manufacturerModelDao, facilityDepartmentDao,
+        DeviceDao deviceDao = new DeviceDao(dynamoDBMapper, amazonDynamoDB, deviceSearchIndexDao, segmentedScanner,
+                deviceCache, metricsPublisher);
+        updateDeviceActivity = new UpdateDeviceActivity(deviceDao,
+                new ReferenceDataCache(manufacturerModelDao, facilityDepartmentDao, metricsPublisher),
                 metricsPublisher);
         manufacturerModel.setManufacturer(manufacturer);
         manufacturerModel.setModel(model);
@@ -145,15 +162,16 @@ class UpdateDeviceActivityTest {
         when(manufacturerModelDao.getManufacturerModel(anyString(), anyString())).thenReturn(updatedManufacturerModel);
         when(facilityDepartmentDao.getFacilityDepartment(anyString(), anyString()))
                 .thenReturn(updatedFacilityDepartment);
-        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString(), any(DynamoDBMapperConfig.class)))
+                .thenReturn(device);
 
         // WHEN
         UpdateDeviceResult updateDeviceResult = updateDeviceActivity.handleRequest(updateDeviceRequest);
         DeviceModel deviceModel = updateDeviceResult.getDevice();
 
         // THEN
-        verify(dynamoDBMapper).load(eq(Device.class), anyString());
-        verify(dynamoDBMapper).save(any(Device.class));
+        verify(dynamoDBMapper).load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class));
+        verify(dynamoDBMapper).save(any(Device.class), any(DynamoDBSaveExpression.class));
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICENOTFOUND_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICERETIRED_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_INVALIDATTRIBUTEVALUE_COUNT, 0);
@@ -210,15 +228,16 @@ class UpdateDeviceActivityTest {
         when(manufacturerModelDao.getManufacturerModel(anyString(), anyString())).thenReturn(updatedManufacturerModel);
         when(facilityDepartmentDao.getFacilityDepartment(anyString(), anyString()))
                 .thenReturn(updatedFacilityDepartment);
-        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString(), any(DynamoDBMapperConfig.class)))
+                .thenReturn(device);
 
         // WHEN
         UpdateDeviceResult updateDeviceResult = updateDeviceActivity.handleRequest(updateDeviceRequest);
         DeviceModel deviceModel = updateDeviceResult.getDevice();
 
         // THEN
-        verify(dynamoDBMapper).load(eq(Device.class), anyString());
-        verify(dynamoDBMapper).save(any(Device.class));
+        verify(dynamoDBMapper).load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class));
+        verify(dynamoDBMapper).save(any(Device.class), any(DynamoDBSaveExpression.class));
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICENOTFOUND_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICERETIRED_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_INVALIDATTRIBUTEVALUE_COUNT, 0);
@@ -275,15 +294,16 @@ class UpdateDeviceActivityTest {
         when(manufacturerModelDao.getManufacturerModel(anyString(), anyString())).thenReturn(updatedManufacturerModel);
         when(facilityDepartmentDao.getFacilityDepartment(anyString(), anyString()))
                 .thenReturn(updatedFacilityDepartment);
-        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString(), any(DynamoDBMapperConfig.class)))
+                .thenReturn(device);
 
         // WHEN
         UpdateDeviceResult updateDeviceResult = updateDeviceActivity.handleRequest(updateDeviceRequest);
         DeviceModel deviceModel = updateDeviceResult.getDevice();
 
         // THEN
-        verify(dynamoDBMapper).load(eq(Device.class), anyString());
-        verify(dynamoDBMapper).save(any(Device.class));
+        verify(dynamoDBMapper).load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class));
+        verify(dynamoDBMapper).save(any(Device.class), any(DynamoDBSaveExpression.class));
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICENOTFOUND_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICERETIRED_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_INVALIDATTRIBUTEVALUE_COUNT, 0);
@@ -348,15 +368,16 @@ class UpdateDeviceActivityTest {
         when(manufacturerModelDao.getManufacturerModel(anyString(), anyString())).thenReturn(updatedManufacturerModel);
         when(facilityDepartmentDao.getFacilityDepartment(anyString(), anyString()))
                 .thenReturn(updatedFacilityDepartment);
-        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString(), any(DynamoDBMapperConfig.class)))
+                .thenReturn(device);
 
         // WHEN
         UpdateDeviceResult updateDeviceResult = updateDeviceActivity.handleRequest(updateDeviceRequest);
         DeviceModel deviceModel = updateDeviceResult.getDevice();
 
         // THEN
-        verify(dynamoDBMapper).load(eq(Device.class), anyString());
-        verify(dynamoDBMapper).save(any(Device.class));
+        verify(dynamoDBMapper).load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class));
+        verify(dynamoDBMapper).save(any(Device.class), any(DynamoDBSaveExpression.class));
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICENOTFOUND_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICERETIRED_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_INVALIDATTRIBUTEVALUE_COUNT, 0);
@@ -423,15 +444,16 @@ class UpdateDeviceActivityTest {
         when(manufacturerModelDao.getManufacturerModel(anyString(), anyString())).thenReturn(updatedManufacturerModel);
         when(facilityDepartmentDao.getFacilityDepartment(anyString(), anyString()))
                 .thenReturn(updatedFacilityDepartment);
-        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString(), any(DynamoDBMapperConfig.class)))
+                .thenReturn(device);
 
         // WHEN
         UpdateDeviceResult updateDeviceResult = updateDeviceActivity.handleRequest(updateDeviceRequest);
         DeviceModel deviceModel = updateDeviceResult.getDevice();
 
         // THEN
-        verify(dynamoDBMapper).load(eq(Device.class), anyString());
-        verify(dynamoDBMapper).save(any(Device.class));
+        verify(dynamoDBMapper).load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class));
+        verify(dynamoDBMapper).save(any(Device.class), any(DynamoDBSaveExpression.class));
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICENOTFOUND_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICERETIRED_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_INVALIDATTRIBUTEVALUE_COUNT, 0);
@@ -491,15 +513,16 @@ class UpdateDeviceActivityTest {
         when(manufacturerModelDao.getManufacturerModel(anyString(), anyString())).thenReturn(updatedManufacturerModel);
         when(facilityDepartmentDao.getFacilityDepartment(anyString(), anyString()))
                 .thenReturn(updatedFacilityDepartment);
-        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString(), any(DynamoDBMapperConfig.class)))
+                .thenReturn(device);
 
         // WHEN
         UpdateDeviceResult updateDeviceResult = updateDeviceActivity.handleRequest(updateDeviceRequest);
         DeviceModel deviceModel = updateDeviceResult.getDevice();
 
         // THEN
-        verify(dynamoDBMapper).load(eq(Device.class), anyString());
-        verify(dynamoDBMapper).save(any(Device.class));
+        verify(dynamoDBMapper).load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class));
+        verify(dynamoDBMapper).save(any(Device.class), any(DynamoDBSaveExpression.class));
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICENOTFOUND_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICERETIRED_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_INVALIDATTRIBUTEVALUE_COUNT, 0);
@@ -559,15 +582,16 @@ class UpdateDeviceActivityTest {
         when(manufacturerModelDao.getManufacturerModel(anyString(), anyString())).thenReturn(updatedManufacturerModel);
         when(facilityDepartmentDao.getFacilityDepartment(anyString(), anyString()))
                 .thenReturn(updatedFacilityDepartment);
-        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString(), any(DynamoDBMapperConfig.class)))
+                .thenReturn(device);
 
         // WHEN
         UpdateDeviceResult updateDeviceResult = updateDeviceActivity.handleRequest(updateDeviceRequest);
         DeviceModel deviceModel = updateDeviceResult.getDevice();
 
         // THEN
-        verify(dynamoDBMapper).load(eq(Device.class), anyString());
-        verify(dynamoDBMapper).save(any(Device.class));
+        verify(dynamoDBMapper).load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class));
+        verify(dynamoDBMapper).save(any(Device.class), any(DynamoDBSaveExpression.class));
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICENOTFOUND_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICERETIRED_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_INVALIDATTRIBUTEVALUE_COUNT, 0);
@@ -626,15 +650,16 @@ class UpdateDeviceActivityTest {
         when(manufacturerModelDao.getManufacturerModel(anyString(), anyString())).thenReturn(updatedManufacturerModel);
         when(facilityDepartmentDao.getFacilityDepartment(anyString(), anyString()))
                 .thenReturn(updatedFacilityDepartment);
-        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString(), any(DynamoDBMapperConfig.class)))
+                .thenReturn(device);
 
         // WHEN
         UpdateDeviceResult updateDeviceResult = updateDeviceActivity.handleRequest(updateDeviceRequest);
         DeviceModel deviceModel = updateDeviceResult.getDevice();
 
         // THEN
-        verify(dynamoDBMapper).load(eq(Device.class), anyString());
-        verify(dynamoDBMapper).save(any(Device.class));
+        verify(dynamoDBMapper).load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class));
+        verify(dynamoDBMapper).save(any(Device.class), any(DynamoDBSaveExpression.class));
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICENOTFOUND_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICERETIRED_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_INVALIDATTRIBUTEVALUE_COUNT, 0);
@@ -693,15 +718,16 @@ class UpdateDeviceActivityTest {
         when(manufacturerModelDao.getManufacturerModel(anyString(), anyString())).thenReturn(updatedManufacturerModel);
         when(facilityDepartmentDao.getFacilityDepartment(anyString(), anyString()))
                 .thenReturn(updatedFacilityDepartment);
-        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString(), any(DynamoDBMapperConfig.class)))
+                .thenReturn(device);
 
         // WHEN
         UpdateDeviceResult updateDeviceResult = updateDeviceActivity.handleRequest(updateDeviceRequest);
         DeviceModel deviceModel = updateDeviceResult.getDevice();
 
         // THEN
-        verify(dynamoDBMapper).load(eq(Device.class), anyString());
-        verify(dynamoDBMapper).save(any(Device.class));
+        verify(dynamoDBMapper).load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class));
+        verify(dynamoDBMapper).save(any(Device.class), any(DynamoDBSaveExpression.class));
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICENOTFOUND_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICERETIRED_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_INVALIDATTRIBUTEVALUE_COUNT, 0);
@@ -756,13 +782,14 @@ class UpdateDeviceActivityTest {
                 .withCustomerId(customerId)
                 .withCustomerName(customerName)
                 .build();
-        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString())).thenReturn(null);
+        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString(), any(DynamoDBMapperConfig.class)))
+                .thenReturn(null);
 
         // WHEN & THEN
         assertThrows(DeviceNotFoundException.class, () ->
                 updateDeviceActivity.handleRequest(updateDeviceRequest),
                 "Expected device not found to result in a DeviceNotFoundException thrown");
-        verify(dynamoDBMapper).load(eq(Device.class), anyString());
+        verify(dynamoDBMapper).load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class));
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICENOTFOUND_COUNT, 1);
     }
 
@@ -786,13 +813,14 @@ class UpdateDeviceActivityTest {
                 .withCustomerId(customerId)
                 .withCustomerName(customerName)
                 .build();
-        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString(), any(DynamoDBMapperConfig.class)))
+                .thenReturn(device);
 
         // WHEN & THEN
         assertThrows(UpdateRetiredDeviceException.class, () ->
                         updateDeviceActivity.handleRequest(updateDeviceRequest),
                 "Expected device not found to result in a UpdateRetiredDeviceException thrown");
-        verify(dynamoDBMapper).load(eq(Device.class), anyString());
+        verify(dynamoDBMapper).load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class));
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICENOTFOUND_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICERETIRED_COUNT, 1);
     }
@@ -814,7 +842,8 @@ class UpdateDeviceActivityTest {
                 .withCustomerId(customerId)
                 .withCustomerName(customerName)
                 .build();
-        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString(), any(DynamoDBMapperConfig.class)))
+                .thenReturn(device);
 
         // WHEN & THEN
         assertThrows(InvalidAttributeValueException.class, () ->
@@ -870,7 +899,8 @@ class UpdateDeviceActivityTest {
         when(manufacturerModelDao.getManufacturerModel(anyString(), anyString())).thenReturn(updatedManufacturerModel);
         when(facilityDepartmentDao.getFacilityDepartment(anyString(), anyString()))
                 .thenReturn(updatedFacilityDepartment);
-        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString(), any(DynamoDBMapperConfig.class)))
+                .thenReturn(device);
 
         // WHEN
         UpdateDeviceResult updateDeviceResult = updateDeviceActivity.handleRequest(updateDeviceRequest);
@@ -880,8 +910,8 @@ class UpdateDeviceActivityTest {
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICENOTFOUND_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_DEVICERETIRED_COUNT, 0);
         verify(metricsPublisher).addCount(MetricsConstants.UPDATEDEVICE_INVALIDATTRIBUTEVALUE_COUNT, 0);
-        verify(dynamoDBMapper).load(eq(Device.class), anyString());
-        verify(dynamoDBMapper).save(any(Device.class));
+        verify(dynamoDBMapper).load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class));
+        verify(dynamoDBMapper).save(any(Device.class), any(DynamoDBSaveExpression.class));
         DeviceTestHelper.assertDeviceEqualsDeviceModel(updatedDevice, deviceModel);
     }
 
@@ -903,7 +933,8 @@ class UpdateDeviceActivityTest {
                 .withCustomerName(customerName)
                 .build();
 
-        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString(), any(DynamoDBMapperConfig.class)))
+                .thenReturn(device);
 
 
         // WHEN & THEN
@@ -934,7 +965,8 @@ class UpdateDeviceActivityTest {
                 .withCustomerName(customerName)
                 .build();
 
-        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString(), any(DynamoDBMapperConfig.class)))
+                .thenReturn(device);
 
         // WHEN & THEN
         assertThrows(InvalidAttributeValueException.class, () ->
@@ -964,7 +996,8 @@ class UpdateDeviceActivityTest {
                 .withCustomerName(customerName)
                 .build();
 
-        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString(), any(DynamoDBMapperConfig.class)))
+                .thenReturn(device);
 
         // WHEN & THEN
         assertThrows(InvalidAttributeValueException.class, () ->
@@ -994,7 +1027,8 @@ class UpdateDeviceActivityTest {
                 .withCustomerName(customerName)
                 .build();
 
-        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString(), any(DynamoDBMapperConfig.class)))
+                .thenReturn(device);
         doThrow(ManufacturerModelNotFoundException.class)
                 .when(manufacturerModelDao).getManufacturerModel(anyString(), anyString());
 
@@ -1031,7 +1065,8 @@ class UpdateDeviceActivityTest {
                 .withCustomerName(customerName)
                 .build();
 
-        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString(), any(DynamoDBMapperConfig.class)))
+                .thenReturn(device);
         when(manufacturerModelDao.getManufacturerModel(anyString(), anyString())).thenReturn(updatedManufacturerModel);
         doThrow(FacilityDepartmentNotFoundException.class)
                 .when(facilityDepartmentDao).getFacilityDepartment(anyString(), anyString());
@@ -1070,7 +1105,8 @@ class UpdateDeviceActivityTest {
                 .withCustomerId(customerId)
                 .withCustomerName(customerName)
                 .build();
-        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(Mockito.eq(Device.class), anyString(), any(DynamoDBMapperConfig.class)))
+                .thenReturn(device);
         when(manufacturerModelDao.getManufacturerModel(anyString(), anyString())).thenReturn(updatedManufacturerModel);
         when(facilityDepartmentDao.getFacilityDepartment(anyString(), anyString()))
                 .thenReturn(updatedFacilityDepartment);
@@ -1112,7 +1148,7 @@ class UpdateDeviceActivityTest {
                 .withCustomerName(customerName)
                 .build();
 
-        when(dynamoDBMapper.load(eq(Device.class), anyString())).thenReturn(device);
+        when(dynamoDBMapper.load(eq(Device.class), anyString(), any(DynamoDBMapperConfig.class))).thenReturn(device);
         when(manufacturerModelDao.getManufacturerModel(anyString(), anyString())).thenReturn(updatedManufacturerModel);
         when(facilityDepartmentDao.getFacilityDepartment(anyString(), anyString()))
                 .thenReturn(updatedFacilityDepartment);
@@ -46,4 +46,27 @@ class LocalDateConverterTest {
                 localDateConverter.unconvert(nonIsoDate),
                 "Expected attempted parsing of nonIsoDate to result in DateTimeException thrown");
     }
+
+    @Test
+    void convert_yearBeyondFourDigits_returnsSignedIsoDate() {
+        // GIVEN
+        LocalDate localDate = LocalDate.of(10000, 1, 2);
+
+        // WHEN
+        String serializedDate = localDateConverter.convert(localDate);
+
+        // THEN
+        assertEquals(localDate.toString(), serializedDate);
+    }
+
+    @Test
+    void unconvert_fixedWidthButInvalidDate_throwsDateTimeException() {
+        // GIVEN
+        String invalidDate = "2023-02-30";
+
+        // WHEN & THEN
+        assertThrows(DateTimeException.class, () ->
+                        localDateConverter.unconvert(invalidDate),
+                "Expected parsing of an invalid date to result in DateTimeException thrown");
+    }
 }
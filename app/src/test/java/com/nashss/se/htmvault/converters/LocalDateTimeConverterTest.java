@@ -49,4 +49,43 @@ class LocalDateTimeConverterTest {
                         localDateTimeConverter.unconvert(nonIsoDateTime),
                 "Expected attempted parsing of nonIsoDate to result in DateTimeException thrown");
     }
+
+    @Test
+    void convert_localDateTimeWithNanos_returnsStringWithoutFractionalSeconds() {
+        // GIVEN
+        LocalDateTime localDateTime = LocalDateTime.of(LocalDate.of(2023, 5, 30),
+                LocalTime.of(9, 0, 0, 123456789));
+
+        // WHEN
+        String serializedDateTime = localDateTimeConverter.convert(localDateTime);
+
+        // THEN
+        assertEquals("2023-05-30T09:00:00", serializedDateTime);
+        assertEquals(LocalDateTimeConverter.truncate(localDateTime),
+                localDateTimeConverter.unconvert(serializedDateTime));
+    }
+
+    @Test
+    void unconvert_stringWithFractionalSeconds_returnsExpectedLocalDateTime() {
+        // GIVEN
+        String serializedDateTime = "2023-05-30T12:18:20.5";
+
+        // WHEN
+        LocalDateTime localDateTime = localDateTimeConverter.unconvert(serializedDateTime);
+
+        // THEN
+        assertEquals(LocalDateTime.of(LocalDate.of(2023, 5, 30),
+                LocalTime.of(12, 18, 20, 500000000)), localDateTime);
+    }
+
+    @Test
+    void unconvert_fixedWidthButInvalidTime_throwsDateTimeException() {
+        // GIVEN
+        String invalidDateTime = "2023-05-30T24:18:20";
+
+        // WHEN & THEN
+        assertThrows(DateTimeException.class, () ->
+                        localDateTimeConverter.unconvert(invalidDateTime),
+                "Expected parsing of an invalid time to result in DateTimeException thrown");
+    }
 }
@@ -1,31 +1,80 @@
 package com.nashss.se.htmvault.converters;
 
+import com.nashss.se.htmvault.dynamodb.models.Device;
 import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
 
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperTableModel;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.google.gson.JsonSyntaxException;
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
 
 class ManufacturerModelConverterTest {
-    private final ManufacturerModelConverter manufacturerModelConverter = new ManufacturerModelConverter();
+    private final ManufacturerModelConverter manufacturerModelConverter = new ManufacturerModelConverter(true);
 
     @Test
-    public void convert_manufacturerModelToJson_returnsStringExpected() {
+    public void convert_stringStorage_returnsJsonStringExpected() {
         // GIVEN
-        ManufacturerModel manufacturerModel = new ManufacturerModel();
-        manufacturerModel.setManufacturer("TestManufacturer");
-        manufacturerModel.setModel("TestModel");
-        manufacturerModel.setRequiredMaintenanceFrequencyInMonths(6);
+        ManufacturerModel manufacturerModel = manufacturerModel();
 
         // WHEN
-        String manufacturerModelJson = manufacturerModelConverter.convert(manufacturerModel);
-        String expectedJson = "{\"manufacturer\":\"TestManufacturer\",\"model\":\"TestModel\"," +
-                "\"requiredMaintenanceFrequencyInMonths\":6}";
+        AttributeValue attributeValue = new ManufacturerModelConverter(false).convert(manufacturerModel);
 
         // THEN
-        assertEquals(expectedJson, manufacturerModelJson);
+        assertEquals(new AttributeValue().withS("{\"manufacturer\":\"TestManufacturer\",\"model\":\"TestModel\"," +
+                "\"requiredMaintenanceFrequencyInMonths\":6}"), attributeValue);
+    }
+
+    @Test
+    public void convert_mapStorage_returnsMapExpected() {
+        // GIVEN
+        ManufacturerModel manufacturerModel = manufacturerModel();
+
+        // WHEN
+        AttributeValue attributeValue = manufacturerModelConverter.convert(manufacturerModel);
+
+        // THEN
+        assertEquals(Map.of(
+                "manufacturer", new AttributeValue().withS("TestManufacturer"),
+                "model", new AttributeValue().withS("TestModel"),
+                "requiredMaintenanceFrequencyInMonths", new AttributeValue().withN("6")), attributeValue.getM());
+    }
+
+    @Test
+    public void unconvert_manufacturerModelMap_returnsManufacturerModelExpected() {
+        // GIVEN
+        AttributeValue attributeValue = manufacturerModelConverter.convert(manufacturerModel());
+
+        // WHEN
+        ManufacturerModel manufacturerModel = manufacturerModelConverter.unconvert(attributeValue);
+
+        // THEN
+        assertEquals(manufacturerModel(), manufacturerModel);
+        assertEquals(6, manufacturerModel.getRequiredMaintenanceFrequencyInMonths());
+    }
+
+    @Test
+    public void unconvert_sameStoredFormTwice_returnsCanonicalInstance() {
+        // GIVEN
+        AttributeValue first = manufacturerModelConverter.convert(manufacturerModel());
+        AttributeValue second = new ManufacturerModelConverter(true).convert(manufacturerModel());
+
+        // WHEN
+        ManufacturerModel firstManufacturerModel = manufacturerModelConverter.unconvert(first);
+        ManufacturerModel secondManufacturerModel = new ManufacturerModelConverter(false).unconvert(second);
+
+        // THEN
+        assertSame(firstManufacturerModel, secondManufacturerModel, "Expected every item holding the same " +
+                "manufacturer/model to share one instance");
     }
 
     @Test
@@ -35,7 +84,8 @@ class ManufacturerModelConverterTest {
                 "\"requiredMaintenanceFrequencyInMonths\":6}";
 
         // WHEN
-        ManufacturerModel manufacturerModel = manufacturerModelConverter.unconvert(manufacturerModelJson);
+        ManufacturerModel manufacturerModel =
+                manufacturerModelConverter.unconvert(new AttributeValue().withS(manufacturerModelJson));
 
         // THEN
         assertEquals("TestManufacturer", manufacturerModel.getManufacturer());
@@ -51,8 +101,36 @@ class ManufacturerModelConverterTest {
 
         // WHEN & THEN
         assertThrows(JsonSyntaxException.class, () ->
-                manufacturerModelConverter.unconvert(manufacturerModelJsonMissingManufacturerValue),
+                manufacturerModelConverter.unconvert(
+                        new AttributeValue().withS(manufacturerModelJsonMissingManufacturerValue)),
                 "Expected attempt to deserialize ManufacturerModel without manufacturer to " +
                         "result in JsonSyntaxException thrown");
     }
+
+    @Test
+    public void deviceTableModel_deviceWithManufacturerModel_savesStringByDefaultAndCanonicalKey() {
+        // GIVEN
+        DynamoDBMapperTableModel<Device> tableModel =
+                new DynamoDBMapper(mock(AmazonDynamoDB.class)).getTableModel(Device.class);
+        Device device = new Device();
+        device.setControlNumber("1");
+        device.setManufacturerModel(manufacturerModel());
+
+        // WHEN
+        Map<String, AttributeValue> item = tableModel.convert(device);
+
+        // THEN
+        assertEquals(new AttributeValue().withS("TestManufacturer#TestModel"), item.get("manufacturerModelKey"));
+        assertNotNull(item.get("manufacturerModel").getS(), "Expected the manufacturer/model to be saved as a " +
+                "string unless map storage is set");
+        assertEquals(manufacturerModel(), tableModel.unconvert(item).getManufacturerModel());
+    }
+
+    private static ManufacturerModel manufacturerModel() {
+        ManufacturerModel manufacturerModel = new ManufacturerModel();
+        manufacturerModel.setManufacturer("TestManufacturer");
+        manufacturerModel.setModel("TestModel");
+        manufacturerModel.setRequiredMaintenanceFrequencyInMonths(6);
+        return manufacturerModel;
+    }
 }
@@ -0,0 +1,124 @@
+package com.nashss.se.htmvault.dynamodb;
+
+import com.nashss.se.htmvault.dynamodb.models.Device;
+import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
+import com.nashss.se.htmvault.metrics.MetricsConstants;
+import com.nashss.se.htmvault.metrics.MetricsPublisher;
+
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class DeviceCacheTest {
+
+    @Mock
+    private MetricsPublisher metricsPublisher;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private DeviceCache deviceCache;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        deviceCache = new DeviceCache(metricsPublisher, 30, 2, new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        });
+    }
+
+    @Test
+    public void get_deviceCached_returnsCopyAndCountsHit() {
+        // GIVEN
+        Device device = device("111");
+        deviceCache.put(device);
+
+        // WHEN
+        Device result = deviceCache.get("111");
+
+        // THEN
+        assertEquals(device, result, "Expected the cached device to be returned");
+        assertNotSame(device, result, "Expected a copy, so that changes to it do not alter the cache");
+        assertNotSame(device.getManufacturerModel(), result.getManufacturerModel(), "Expected a deep copy");
+        verify(metricsPublisher).addCount(MetricsConstants.DEVICECACHE_HIT_COUNT, 1);
+        verify(metricsPublisher).addCount(MetricsConstants.DEVICECACHE_MISS_COUNT, 0);
+    }
+
+    @Test
+    public void get_cachedDeviceModifiedByCaller_returnsOriginal() {
+        // GIVEN
+        deviceCache.put(device("111"));
+        deviceCache.get("111").setNotes("changed");
+
+        // WHEN
+        Device result = deviceCache.get("111");
+
+        // THEN
+        assertEquals("notes", result.getNotes(), "Expected changes to a returned device not to alter the cache");
+    }
+
+    @Test
+    public void get_entryExpired_countsMiss() {
+        // GIVEN
+        deviceCache.put(device("111"));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(31));
+
+        // WHEN
+        Device result = deviceCache.get("111");
+
+        // THEN
+        assertNull(result, "Expected an expired device not to be returned");
+        verify(metricsPublisher).addCount(MetricsConstants.DEVICECACHE_MISS_COUNT, 1);
+    }
+
+    @Test
+    public void put_cacheFull_evictsAndCountsEviction() {
+        // GIVEN
+        deviceCache.put(device("111"));
+        deviceCache.put(device("222"));
+
+        // WHEN
+        deviceCache.put(device("333"));
+
+        // THEN
+        verify(metricsPublisher).addCount(MetricsConstants.DEVICECACHE_EVICTION_COUNT, 1);
+    }
+
+    @Test
+    public void invalidate_deviceCached_removesDevice() {
+        // GIVEN
+        deviceCache.put(device("111"));
+
+        // WHEN
+        deviceCache.invalidate("111");
+
+        // THEN
+        assertNull(deviceCache.get("111"), "Expected an invalidated device not to be returned");
+    }
+
+    private static Device device(String controlNumber) {
+        ManufacturerModel manufacturerModel = new ManufacturerModel();
+        manufacturerModel.setManufacturer("Acme");
+        manufacturerModel.setModel("X1");
+        manufacturerModel.setRequiredMaintenanceFrequencyInMonths(12);
+
+        Device device = new Device();
+        device.setControlNumber(controlNumber);
+        device.setManufacturerModel(manufacturerModel);
+        device.setFacilityName("Main Hospital");
+        device.setAssignedDepartment("ICU");
+        device.setNotes("notes");
+        return device;
+    }
+}
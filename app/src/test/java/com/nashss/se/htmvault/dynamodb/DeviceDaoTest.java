@@ -1,18 +1,30 @@
 package com.nashss.se.htmvault.dynamodb;
 
-import com.nashss.se.htmvault.converters.ManufacturerModelConverter;
 import com.nashss.se.htmvault.dynamodb.models.Device;
 import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
 import com.nashss.se.htmvault.exceptions.DeviceNotFoundException;
 import com.nashss.se.htmvault.exceptions.DevicePreviouslyAddedException;
+import com.nashss.se.htmvault.exceptions.RetireDeviceWithOpenWorkOrdersException;
+import com.nashss.se.htmvault.exceptions.UpdateRetiredDeviceException;
 import com.nashss.se.htmvault.metrics.MetricsConstants;
 import com.nashss.se.htmvault.metrics.MetricsPublisher;
+import com.nashss.se.htmvault.models.ServiceStatus;
 import com.nashss.se.htmvault.test.helper.DeviceTestHelper;
 
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
 import com.amazonaws.services.dynamodbv2.datamodeling.PaginatedQueryList;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.ExpectedAttributeValue;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,17 +34,21 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -42,6 +58,14 @@ class DeviceDaoTest {
     @Mock
     private DynamoDBMapper dynamoDBMapper;
     @Mock
+    private AmazonDynamoDB amazonDynamoDB;
+    @Mock
+    private DeviceSearchIndexDao deviceSearchIndexDao;
+    @Mock
+    private SegmentedScanner segmentedScanner;
+    @Mock
+    private DeviceCache deviceCache;
+    @Mock
     private MetricsPublisher metricsPublisher;
     @Mock
     private PaginatedQueryList<Device> queryList;
@@ -55,18 +79,200 @@ class DeviceDaoTest {
     }
 
     @Test
-    public void saveDevice_withDevice_callsMapperWithDevice() {
+    public void addOpenWorkOrder_deviceExists_returnsNewVersionAndInvalidatesCache() {
+        // GIVEN
+        when(amazonDynamoDB.updateItem(any(UpdateItemRequest.class))).thenReturn(new UpdateItemResult()
+                .withAttributes(Map.of("workOrdersVersion", new AttributeValue().withN("4"))));
+        ArgumentCaptor<UpdateItemRequest> captor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+
+        // WHEN
+        long result = deviceDao.addOpenWorkOrder("123", "WR1");
+
+        // THEN
+        assertEquals(4L, result, "Expected the version returned by the update");
+        verify(amazonDynamoDB).updateItem(captor.capture());
+        UpdateItemRequest updateItemRequest = captor.getValue();
+        assertEquals("devices", updateItemRequest.getTableName());
+        assertEquals(Map.of("controlNumber", new AttributeValue().withS("123")), updateItemRequest.getKey());
+        assertEquals("ADD workOrdersVersion :one, openWorkOrderCount :one, openWorkOrderIds :workOrderIds",
+                updateItemRequest.getUpdateExpression(), "Expected the version, count and ids to be updated " +
+                        "atomically");
+        assertEquals(new AttributeValue().withSS("WR1"),
+                updateItemRequest.getExpressionAttributeValues().get(":workOrderIds"));
+        verify(deviceCache).invalidate("123");
+    }
+
+    @Test
+    public void addOpenWorkOrder_deviceNotFound_throwsDeviceNotFoundException() {
+        // GIVEN
+        when(amazonDynamoDB.updateItem(any(UpdateItemRequest.class)))
+                .thenThrow(new ConditionalCheckFailedException("not found"));
+
+        // WHEN & THEN
+        assertThrows(DeviceNotFoundException.class, () -> deviceDao.addOpenWorkOrder("123", "WR1"),
+                "Expected a DeviceNotFoundException when there is no device to update");
+    }
+
+    @Test
+    public void addOpenWorkOrder_deviceRetired_throwsUpdateRetiredDeviceException() {
+        // GIVEN
+        Device retired = new Device();
+        retired.setControlNumber("123");
+        retired.setServiceStatus(ServiceStatus.RETIRED);
+        when(amazonDynamoDB.updateItem(any(UpdateItemRequest.class)))
+                .thenThrow(new ConditionalCheckFailedException("retired"));
+        when(dynamoDBMapper.load(eq(Device.class), eq("123"), any(DynamoDBMapperConfig.class))).thenReturn(retired);
+        ArgumentCaptor<UpdateItemRequest> captor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+
+        // WHEN & THEN
+        assertThrows(UpdateRetiredDeviceException.class, () -> deviceDao.addOpenWorkOrder("123", "WR1"),
+                "Expected an UpdateRetiredDeviceException when the device has been retired");
+        verify(amazonDynamoDB).updateItem(captor.capture());
+        assertEquals("attribute_exists(controlNumber) AND serviceStatus <> :retired",
+                captor.getValue().getConditionExpression());
+        assertEquals(new AttributeValue().withS("RETIRED"),
+                captor.getValue().getExpressionAttributeValues().get(":retired"));
+    }
+
+    @Test
+    public void removeOpenWorkOrder_workOrderOpen_removesConditionallyAndReturnsTrue() {
+        // GIVEN
+        ArgumentCaptor<UpdateItemRequest> captor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+
+        // WHEN
+        boolean result = deviceDao.removeOpenWorkOrder("123", "WR1");
+
+        // THEN
+        assertTrue(result, "Expected the work order to be removed");
+        verify(amazonDynamoDB).updateItem(captor.capture());
+        UpdateItemRequest updateItemRequest = captor.getValue();
+        assertEquals("contains(openWorkOrderIds, :workOrderId)", updateItemRequest.getConditionExpression(),
+                "Expected the count only to be decremented if the work order is among the open work orders");
+        assertTrue(updateItemRequest.getUpdateExpression().endsWith("DELETE openWorkOrderIds :workOrderIds"));
+        verify(deviceCache).invalidate("123");
+    }
+
+    @Test
+    public void removeOpenWorkOrder_workOrderNotOpen_returnsFalse() {
+        // GIVEN
+        when(amazonDynamoDB.updateItem(any(UpdateItemRequest.class)))
+                .thenThrow(new ConditionalCheckFailedException("not open"));
+
+        // WHEN
+        boolean result = deviceDao.removeOpenWorkOrder("123", "WR1");
+
+        // THEN
+        assertFalse(result, "Expected nothing to be removed for a work order that was not open");
+        verify(deviceCache).invalidate("123");
+    }
+
+    @Test
+    public void saveDevice_withDevice_callsMapperWithDeviceConditionedOnWorkOrdersVersion() {
         // GIVEN
         Device device = new Device();
+        device.setControlNumber("123");
+        device.setWorkOrdersVersion(2L);
+        ArgumentCaptor<DynamoDBSaveExpression> captor = ArgumentCaptor.forClass(DynamoDBSaveExpression.class);
 
         // WHEN
         Device result = deviceDao.saveDevice(device);
 
         // THEN
-        verify(dynamoDBMapper).save(device);
+        verify(dynamoDBMapper).save(eq(device), captor.capture());
+        assertEquals(new ExpectedAttributeValue(new AttributeValue().withN("2")),
+                captor.getValue().getExpected().get("workOrdersVersion"), "Expected the save to be conditional on " +
+                        "the work orders version read");
+        verify(deviceCache).invalidate(device.getControlNumber());
+        verify(deviceSearchIndexDao).indexDevice(device);
         assertEquals(device, result);
     }
 
+    @Test
+    public void saveDevice_workOrdersChangedSinceRead_refreshesWorkOrderBookkeepingAndRetries() {
+        // GIVEN
+        Device device = new Device();
+        device.setControlNumber("123");
+        device.setNotes("updated notes");
+        device.setWorkOrdersVersion(2L);
+        device.setOpenWorkOrderCount(1);
+        device.setOpenWorkOrderIds(Set.of("WR1"));
+
+        Device current = new Device();
+        current.setControlNumber("123");
+        current.setWorkOrdersVersion(3L);
+        current.setOpenWorkOrderCount(2);
+        current.setOpenWorkOrderIds(Set.of("WR1", "WR2"));
+
+        Mockito.doThrow(new ConditionalCheckFailedException("version changed")).doNothing()
+                .when(dynamoDBMapper).save(eq(device), any(DynamoDBSaveExpression.class));
+        when(dynamoDBMapper.load(eq(Device.class), eq("123"), any(DynamoDBMapperConfig.class))).thenReturn(current);
+
+        // WHEN
+        deviceDao.saveDevice(device);
+
+        // THEN
+        verify(dynamoDBMapper, Mockito.times(2)).save(eq(device), any(DynamoDBSaveExpression.class));
+        assertEquals(3L, device.getWorkOrdersVersion(), "Expected the current work orders version to be saved");
+        assertEquals(2, device.getOpenWorkOrderCount(), "Expected the current open work order count to be saved");
+        assertEquals(Set.of("WR1", "WR2"), device.getOpenWorkOrderIds());
+        assertEquals("updated notes", device.getNotes(), "Expected the device's changes to be kept");
+    }
+
+    @Test
+    public void retireDevice_deviceHasOpenWorkOrders_throwsRetireDeviceWithOpenWorkOrdersException() {
+        // GIVEN
+        Device device = new Device();
+        device.setControlNumber("123");
+        device.setWorkOrdersVersion(2L);
+        device.setOpenWorkOrderCount(1);
+        device.setOpenWorkOrderIds(Set.of("WR1"));
+
+        // WHEN & THEN
+        assertThrows(RetireDeviceWithOpenWorkOrdersException.class, () -> deviceDao.retireDevice(device),
+                "Expected a device with an open work order not to be retired");
+        verify(dynamoDBMapper, never()).save(any(Device.class), any(DynamoDBSaveExpression.class));
+    }
+
+    @Test
+    public void retireDevice_workOrderOpenedSinceRead_throwsRetireDeviceWithOpenWorkOrdersException() {
+        // GIVEN
+        Device device = new Device();
+        device.setControlNumber("123");
+        device.setWorkOrdersVersion(2L);
+        device.setOpenWorkOrderCount(0);
+
+        Device current = new Device();
+        current.setControlNumber("123");
+        current.setWorkOrdersVersion(3L);
+        current.setOpenWorkOrderCount(1);
+        current.setOpenWorkOrderIds(Set.of("WR1"));
+
+        Mockito.doThrow(new ConditionalCheckFailedException("version changed"))
+                .when(dynamoDBMapper).save(eq(device), any(DynamoDBSaveExpression.class));
+        when(dynamoDBMapper.load(eq(Device.class), eq("123"), any(DynamoDBMapperConfig.class))).thenReturn(current);
+
+        // WHEN & THEN
+        assertThrows(RetireDeviceWithOpenWorkOrdersException.class, () -> deviceDao.retireDevice(device),
+                "Expected the work order opened since the device was read to prevent its retirement");
+        verify(dynamoDBMapper).save(eq(device), any(DynamoDBSaveExpression.class));
+        verify(deviceSearchIndexDao, never()).indexDevice(device);
+    }
+
+    @Test
+    public void getDevice_deviceCached_returnsCachedDeviceWithoutLoading() {
+        // GIVEN
+        String controlNumber = "123";
+        Device cachedDevice = new Device();
+        when(deviceCache.get(controlNumber)).thenReturn(cachedDevice);
+
+        // WHEN
+        Device device = deviceDao.getDevice(controlNumber);
+
+        // THEN
+        assertEquals(cachedDevice, device, "Expected the cached device to be returned");
+        verify(dynamoDBMapper, never()).load(eq(Device.class), anyString());
+    }
+
     @Test
     public void getDevice_deviceWithControlNumberExists_callsMapperWithPartitionKey() {
         // GIVEN
@@ -79,9 +285,31 @@ class DeviceDaoTest {
         // THEN
         assertNotNull(device);
         verify(dynamoDBMapper).load(Device.class, controlNumber);
+        verify(deviceCache).put(device);
         verify(metricsPublisher).addCount(MetricsConstants.GETDEVICE_DEVICENOTFOUND_COUNT, 0);
     }
 
+    @Test
+    public void getDeviceForUpdate_deviceCached_loadsConsistentlyWithoutCache() {
+        // GIVEN
+        String controlNumber = "123";
+        Device loadedDevice = new Device();
+        when(deviceCache.get(controlNumber)).thenReturn(new Device());
+        ArgumentCaptor<DynamoDBMapperConfig> configCaptor = ArgumentCaptor.forClass(DynamoDBMapperConfig.class);
+        when(dynamoDBMapper.load(eq(Device.class), eq(controlNumber), configCaptor.capture()))
+                .thenReturn(loadedDevice);
+
+        // WHEN
+        Device device = deviceDao.getDeviceForUpdate(controlNumber);
+
+        // THEN
+        assertSame(loadedDevice, device, "Expected the device loaded from the table, not the cached copy");
+        assertEquals(DynamoDBMapperConfig.ConsistentReads.CONSISTENT, configCaptor.getValue().getConsistentReads(),
+                "Expected a device read for update to be loaded with a consistent read");
+        verify(deviceCache, never()).get(controlNumber);
+        verify(deviceCache, never()).put(any(Device.class));
+    }
+
     @Test
     public void getDevice_deviceNotFound_throwsDeviceNotFoundException() {
         // GIVEN
@@ -97,6 +325,230 @@ class DeviceDaoTest {
         verify(metricsPublisher).addCount(MetricsConstants.GETDEVICE_DEVICENOTFOUND_COUNT, 1);
     }
 
+    @Test
+    public void getDevices_withControlNumbers_batchLoadsDevicesInControlNumberOrder() {
+        // GIVEN
+        Device first = new Device();
+        first.setControlNumber("111");
+        Device second = new Device();
+        second.setControlNumber("222");
+        when(dynamoDBMapper.batchLoad(any(Iterable.class))).thenReturn(Map.of("devices", List.of(second, first)));
+
+        // WHEN
+        List<Device> result = deviceDao.getDevices(List.of("222", "111", "333"));
+
+        // THEN
+        assertEquals(List.of(first, second), result, "Expected the devices found to be returned, ordered by " +
+                "control number");
+        verify(dynamoDBMapper).batchLoad(any(Iterable.class));
+    }
+
+    @Test
+    public void getDevices_noControlNumbers_returnsEmptyListWithoutLoading() {
+        // WHEN
+        List<Device> result = deviceDao.getDevices(List.of());
+
+        // THEN
+        assertTrue(result.isEmpty(), "Expected no devices for no control numbers");
+        verify(dynamoDBMapper, never()).batchLoad(any(Iterable.class));
+    }
+
+    @Test
+    public void searchDevices_facilityAndDepartment_queriesFacilityDepartmentIndexAndFiltersResiduals() {
+        // GIVEN
+        DeviceSearchQuery query = DeviceSearchQuery.parse("facility:\"Main Hospital\" department:ICU model:X1");
+        Device matching = device("111", "Main Hospital", "ICU", "X1");
+        Device otherModel = device("222", "Main Hospital", "ICU", "X2");
+        QueryResultPage<Device> queryPage = new QueryResultPage<>();
+        queryPage.setResults(List.of(matching, otherModel));
+        Map<String, AttributeValue> lastEvaluatedKey = Map.of("controlNumber", new AttributeValue().withS("222"));
+        queryPage.setLastEvaluatedKey(lastEvaluatedKey);
+        when(dynamoDBMapper.queryPage(eq(Device.class), any(DynamoDBQueryExpression.class))).thenReturn(queryPage);
+        ArgumentCaptor<DynamoDBQueryExpression<Device>> queryCaptor =
+                ArgumentCaptor.forClass(DynamoDBQueryExpression.class);
+
+        // WHEN
+        ResultPage<Device> result = deviceDao.searchDevices(query, 25, null);
+
+        // THEN
+        verify(dynamoDBMapper).queryPage(eq(Device.class), queryCaptor.capture());
+        assertEquals(Device.FACILITY_DEPARTMENT_INDEX, queryCaptor.getValue().getIndexName(), "Expected the " +
+                "facility/department index to be queried");
+        assertEquals(25, queryCaptor.getValue().getLimit(), "Expected the query to be limited to one page");
+        assertEquals(List.of(matching), result.getItems(), "Expected the residual model criterion to be applied");
+        assertEquals(lastEvaluatedKey, result.getLastEvaluatedKey(), "Expected the query's last evaluated key");
+        verify(metricsPublisher).addCount(MetricsConstants.SEARCHDEVICES_SCAN_COUNT, 0);
+        verify(dynamoDBMapper, never()).scanPage(eq(Device.class), any(DynamoDBScanExpression.class));
+    }
+
+    @Test
+    public void searchDevices_facilityAndManufacturer_queriesManufacturerModelIndexByPrefix() {
+        // GIVEN
+        DeviceSearchQuery query = DeviceSearchQuery.parse("facility:North manufacturer:Acme");
+        QueryResultPage<Device> queryPage = new QueryResultPage<>();
+        queryPage.setResults(List.of());
+        when(dynamoDBMapper.queryPage(eq(Device.class), any(DynamoDBQueryExpression.class))).thenReturn(queryPage);
+        ArgumentCaptor<DynamoDBQueryExpression<Device>> queryCaptor =
+                ArgumentCaptor.forClass(DynamoDBQueryExpression.class);
+
+        // WHEN
+        deviceDao.searchDevices(query, 25, null);
+
+        // THEN
+        verify(dynamoDBMapper).queryPage(eq(Device.class), queryCaptor.capture());
+        assertEquals(Device.FACILITY_MANUFACTURER_MODEL_INDEX, queryCaptor.getValue().getIndexName(), "Expected " +
+                "the facility/manufacturer-model index to be queried");
+        String prefix = queryCaptor.getValue().getExpressionAttributeValues().get(":manufacturerModelKey").getS();
+        assertTrue(queryCaptor.getValue().getKeyConditionExpression().contains("begins_with"), "Expected the " +
+                "manufacturer/model key to be matched by prefix");
+        assertTrue(ManufacturerModel.toKey("Acme", "X1").startsWith(prefix), "Expected the key condition to be a " +
+                "prefix of the key of each of the manufacturer's models");
+        assertFalse(ManufacturerModel.toKey("Acme Two", "X1").startsWith(prefix), "Expected the key condition " +
+                "not to be a prefix of the key of another manufacturer's models");
+    }
+
+    @Test
+    public void searchDevices_facilityManufacturerAndModel_queriesManufacturerModelIndexByKey() {
+        // GIVEN
+        DeviceSearchQuery query = DeviceSearchQuery.parse("facility:North manufacturer:Acme model:X1");
+        QueryResultPage<Device> queryPage = new QueryResultPage<>();
+        queryPage.setResults(List.of());
+        when(dynamoDBMapper.queryPage(eq(Device.class), any(DynamoDBQueryExpression.class))).thenReturn(queryPage);
+        ArgumentCaptor<DynamoDBQueryExpression<Device>> queryCaptor =
+                ArgumentCaptor.forClass(DynamoDBQueryExpression.class);
+
+        // WHEN
+        deviceDao.searchDevices(query, 25, null);
+
+        // THEN
+        verify(dynamoDBMapper).queryPage(eq(Device.class), queryCaptor.capture());
+        assertEquals(Device.FACILITY_MANUFACTURER_MODEL_INDEX, queryCaptor.getValue().getIndexName());
+        assertEquals("facilityName = :facilityName and manufacturerModelKey = :manufacturerModelKey",
+                queryCaptor.getValue().getKeyConditionExpression());
+        assertEquals("Acme#X1",
+                queryCaptor.getValue().getExpressionAttributeValues().get(":manufacturerModelKey").getS());
+    }
+
+    @Test
+    public void searchDevices_facilityAndPmDueBefore_queriesPmDueDateIndex() {
+        // GIVEN
+        DeviceSearchQuery query = DeviceSearchQuery.parse("facility:North pmDueBefore:2023-07-01");
+        QueryResultPage<Device> queryPage = new QueryResultPage<>();
+        queryPage.setResults(List.of());
+        when(dynamoDBMapper.queryPage(eq(Device.class), any(DynamoDBQueryExpression.class))).thenReturn(queryPage);
+        ArgumentCaptor<DynamoDBQueryExpression<Device>> queryCaptor =
+                ArgumentCaptor.forClass(DynamoDBQueryExpression.class);
+
+        // WHEN
+        deviceDao.searchDevices(query, 25, null);
+
+        // THEN
+        verify(dynamoDBMapper).queryPage(eq(Device.class), queryCaptor.capture());
+        assertEquals(Device.FACILITY_PM_DUE_DATE_INDEX, queryCaptor.getValue().getIndexName(), "Expected the " +
+                "facility/pm due date index to be queried");
+        assertEquals("2023-07-01", queryCaptor.getValue().getExpressionAttributeValues().get(":pmDueBefore")
+                .getS(), "Expected the date to be compared in its stored form");
+    }
+
+    @Test
+    public void searchDevices_noFacility_fallsBackToScanPage() {
+        // GIVEN
+        DeviceSearchQuery query = DeviceSearchQuery.parse("department:ICU");
+        Device matching = device("111", "Main Hospital", "ICU", "X1");
+        Device otherDepartment = device("222", "Main Hospital", "ER", "X1");
+        ScanResultPage<Device> scanPage = new ScanResultPage<>();
+        scanPage.setResults(List.of(matching, otherDepartment));
+        when(dynamoDBMapper.scanPage(eq(Device.class), any(DynamoDBScanExpression.class))).thenReturn(scanPage);
+
+        // WHEN
+        ResultPage<Device> result = deviceDao.searchDevices(query, 25, null);
+
+        // THEN
+        assertEquals(List.of(matching), result.getItems(), "Expected the scanned devices to be filtered");
+        verify(metricsPublisher).addCount(MetricsConstants.SEARCHDEVICES_SCAN_COUNT, 1);
+        verify(dynamoDBMapper, never()).queryPage(eq(Device.class), any(DynamoDBQueryExpression.class));
+    }
+
+    @Test
+    public void searchDevices_manufacturerAndModelWithoutFacility_queriesKeysOnlyIndexAndBatchLoads() {
+        // GIVEN
+        DeviceSearchQuery query = DeviceSearchQuery.parse("manufacturer:Acme model:X1 department:ICU");
+        Device key = new Device();
+        key.setControlNumber("111");
+        Device otherKey = new Device();
+        otherKey.setControlNumber("222");
+        QueryResultPage<Device> queryPage = new QueryResultPage<>();
+        queryPage.setResults(List.of(key, otherKey));
+        Map<String, AttributeValue> lastEvaluatedKey = Map.of("controlNumber", new AttributeValue().withS("222"));
+        queryPage.setLastEvaluatedKey(lastEvaluatedKey);
+        when(dynamoDBMapper.queryPage(eq(Device.class), any(DynamoDBQueryExpression.class))).thenReturn(queryPage);
+        Device matching = device("111", "Main Hospital", "ICU", "X1");
+        Device otherDepartment = device("222", "Clinic", "ER", "X1");
+        when(dynamoDBMapper.batchLoad(any(Iterable.class)))
+                .thenReturn(Map.of("devices", List.of(otherDepartment, matching)));
+        ArgumentCaptor<DynamoDBQueryExpression<Device>> queryCaptor =
+                ArgumentCaptor.forClass(DynamoDBQueryExpression.class);
+
+        // WHEN
+        ResultPage<Device> result = deviceDao.searchDevices(query, 25, null);
+
+        // THEN
+        verify(dynamoDBMapper).queryPage(eq(Device.class), queryCaptor.capture());
+        DynamoDBQueryExpression<Device> expression = queryCaptor.getValue();
+        assertEquals(Device.MANUFACTURER_MODEL_SERIAL_NUMBER_INDEX, expression.getIndexName());
+        assertEquals("manufacturerModelKey = :manufacturerModelKey", expression.getKeyConditionExpression());
+        assertEquals(new AttributeValue().withS(ManufacturerModel.toKey("Acme", "X1")),
+                expression.getExpressionAttributeValues().get(":manufacturerModelKey"));
+        verify(dynamoDBMapper).batchLoad(any(Iterable.class));
+        assertEquals(List.of(matching), result.getItems(), "Expected the loaded devices to be filtered");
+        assertEquals(lastEvaluatedKey, result.getLastEvaluatedKey(), "Expected the index page's key to be kept");
+        verify(metricsPublisher).addCount(MetricsConstants.SEARCHDEVICES_SCAN_COUNT, 0);
+    }
+
+    @Test
+    public void searchDevices_manufacturerWithoutFacility_scansKeysOnlyIndexByPrefix() {
+        // GIVEN
+        DeviceSearchQuery query = DeviceSearchQuery.parse("manufacturer:Acme");
+        Device key = new Device();
+        key.setControlNumber("111");
+        ScanResultPage<Device> scanPage = new ScanResultPage<>();
+        scanPage.setResults(List.of(key));
+        when(dynamoDBMapper.scanPage(eq(Device.class), any(DynamoDBScanExpression.class))).thenReturn(scanPage);
+        Device matching = device("111", "Main Hospital", "ICU", "X1");
+        when(dynamoDBMapper.batchLoad(any(Iterable.class))).thenReturn(Map.of("devices", List.of(matching)));
+        ArgumentCaptor<DynamoDBScanExpression> scanCaptor = ArgumentCaptor.forClass(DynamoDBScanExpression.class);
+
+        // WHEN
+        ResultPage<Device> result = deviceDao.searchDevices(query, 25, null);
+
+        // THEN
+        verify(dynamoDBMapper).scanPage(eq(Device.class), scanCaptor.capture());
+        assertEquals(Device.MANUFACTURER_MODEL_SERIAL_NUMBER_INDEX, scanCaptor.getValue().getIndexName(),
+                "Expected the keys-only index to be scanned rather than the table");
+        assertEquals("begins_with(manufacturerModelKey, :manufacturerModelKey)",
+                scanCaptor.getValue().getFilterExpression());
+        assertEquals(List.of(matching), result.getItems());
+        verify(metricsPublisher).addCount(MetricsConstants.SEARCHDEVICES_SCAN_COUNT, 0);
+    }
+
+    @Test
+    public void scanAllDevices_runsUnfilteredSegmentedScan() {
+        // GIVEN
+        Device device = new Device();
+        when(segmentedScanner.scan(eq(Device.class), any(DynamoDBScanExpression.class))).thenReturn(List.of(device));
+        ArgumentCaptor<DynamoDBScanExpression> scanExpressionCaptor =
+                ArgumentCaptor.forClass(DynamoDBScanExpression.class);
+
+        // WHEN
+        List<Device> result = deviceDao.scanAllDevices();
+
+        // THEN
+        assertEquals(List.of(device), result, "Expected the devices found by the segmented scan to be returned");
+        verify(segmentedScanner).scan(eq(Device.class), scanExpressionCaptor.capture());
+        assertNull(scanExpressionCaptor.getValue().getFilterExpression(), "Expected every device to be read");
+        verify(dynamoDBMapper, never()).scan(eq(Device.class), any(DynamoDBScanExpression.class));
+    }
+
     @Test
     public void checkDevicePreviouslyAdded_deviceFound_throwsDevicePreviouslyAddedException() {
         // GIVEN
@@ -156,8 +608,8 @@ class DeviceDaoTest {
 
         assertTrue(expressionAttributeValues.contains(new AttributeValue(serialNumber)), "Expected query " +
                 "expression to set serial number to " + serialNumber + "in expression attribute values");
-        assertTrue(expressionAttributeValues.contains(new AttributeValue().withS(new ManufacturerModelConverter()
-                        .convert(manufacturerModel))),
+        assertTrue(expressionAttributeValues.contains(new AttributeValue().withS(
+                        "Monitor Co.#Their First Monitor Model")),
                 "Expected query expression to set manufacturer model to " + manufacturerModel + "in " +
                         "expression attribute values");
 
@@ -169,4 +621,18 @@ class DeviceDaoTest {
         assertFalse(queriedConsistentRead, "Expected query expression to query with consistent reads set " +
                 "false");
     }
+
+    private static Device device(String controlNumber, String facilityName, String assignedDepartment,
+                                 String model) {
+        ManufacturerModel manufacturerModel = new ManufacturerModel();
+        manufacturerModel.setManufacturer("Acme");
+        manufacturerModel.setModel(model);
+
+        Device device = new Device();
+        device.setControlNumber(controlNumber);
+        device.setFacilityName(facilityName);
+        device.setAssignedDepartment(assignedDepartment);
+        device.setManufacturerModel(manufacturerModel);
+        return device;
+    }
 }
@@ -0,0 +1,284 @@
+package com.nashss.se.htmvault.dynamodb;
+
+import com.nashss.se.htmvault.dynamodb.models.Device;
+import com.nashss.se.htmvault.dynamodb.models.DeviceSearchToken;
+import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
+import com.nashss.se.htmvault.exceptions.DeviceSearchIndexException;
+import com.nashss.se.htmvault.metrics.MetricsConstants;
+import com.nashss.se.htmvault.metrics.MetricsPublisher;
+import com.nashss.se.htmvault.models.ServiceStatus;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper.FailedBatch;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.PaginatedQueryList;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputExceededException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class DeviceSearchIndexDaoTest {
+
+    @Mock
+    private DynamoDBMapper dynamoDBMapper;
+    @Mock
+    private MetricsPublisher metricsPublisher;
+
+    @InjectMocks
+    private DeviceSearchIndexDao deviceSearchIndexDao;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+    }
+
+    @Test
+    public void tokenize_withDevice_includesLowerCasedWordsAndPrefixesOfSearchableAttributes() {
+        // GIVEN
+        Device device = device("123456789", "G-321");
+
+        // WHEN
+        Set<String> tokens = DeviceSearchIndexDao.tokenize(device);
+
+        // THEN
+        assertTrue(tokens.contains("123456789"), "Expected the control number to be indexed");
+        assertTrue(tokens.contains("g-321"), "Expected the serial number to be indexed in lower case");
+        assertTrue(tokens.contains("monitor"), "Expected each word of the manufacturer to be indexed");
+        assertTrue(tokens.contains("co."), "Expected each word of the manufacturer to be indexed");
+        assertTrue(tokens.contains("defib"), "Expected prefixes of the model to be indexed");
+        assertTrue(tokens.contains("in_service"), "Expected the service status to be indexed");
+        assertTrue(tokens.contains("2023-06"), "Expected prefixes of the next pm due date to be indexed");
+        assertTrue(tokens.contains("icu"), "Expected the department to be indexed");
+        assertFalse(tokens.contains("de"), "Expected prefixes shorter than the minimum length not to be indexed");
+    }
+
+    @Test
+    public void matches_criteriaAmongTokens_returnsTrueOnlyWhenEveryCriterionMatches() {
+        // GIVEN
+        Device device = device("123456789", "G-321");
+
+        // WHEN
+        boolean matchesAll = DeviceSearchIndexDao.matches(device, List.of(" Defib", "ICU"));
+        boolean matchesOne = DeviceSearchIndexDao.matches(device, List.of("defib", "Radiology"));
+
+        // THEN
+        assertTrue(matchesAll, "Expected a device containing every normalized criterion to match");
+        assertFalse(matchesOne, "Expected a device missing one of the criteria not to match");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getControlNumbers_multipleCriteria_readsLongestCriterionsPostingsAndLooksUpOthers() {
+        // GIVEN
+        ArgumentCaptor<DynamoDBQueryExpression<DeviceSearchToken>> queryCaptor =
+                ArgumentCaptor.forClass(DynamoDBQueryExpression.class);
+        when(dynamoDBMapper.queryPage(eq(DeviceSearchToken.class), queryCaptor.capture()))
+                .thenReturn(page(null, posting("monitor", "111"), posting("monitor", "222"),
+                        posting("monitor", "333")));
+        when(dynamoDBMapper.batchLoad(anyList())).thenReturn(Map.of("device_search_tokens",
+                List.of(posting("icu", "222"), posting("icu", "333"))));
+
+        // WHEN
+        ResultPage<String> result = deviceSearchIndexDao.getControlNumbers(List.of("ICU", "Monitor"), 10, null);
+
+        // THEN
+        assertEquals(List.of("222", "333"), result.getItems(), "Expected only the control numbers matching every " +
+                "criterion");
+        assertNull(result.getLastEvaluatedKey(), "Expected no key once the postings are exhausted");
+        DynamoDBQueryExpression<DeviceSearchToken> query = queryCaptor.getValue();
+        assertEquals("monitor", query.getExpressionAttributeValues().get(":token").getS(), "Expected the " +
+                "postings of the longest criterion to be read");
+        assertEquals(10, query.getLimit(), "Expected the postings to be read a page at a time");
+        ArgumentCaptor<List<Object>> keysCaptor = ArgumentCaptor.forClass(List.class);
+        verify(dynamoDBMapper).batchLoad(keysCaptor.capture());
+        assertEquals(List.of(posting("icu", "111"), posting("icu", "222"), posting("icu", "333")),
+                keysCaptor.getValue(), "Expected the other criterion to be looked up for the page only");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getControlNumbers_withExclusiveStartKey_continuesAfterLastControlNumber() {
+        // GIVEN
+        Map<String, AttributeValue> postingsKey = Map.of("token", new AttributeValue().withS("icu"),
+                "controlNumber", new AttributeValue().withS("222"));
+        ArgumentCaptor<DynamoDBQueryExpression<DeviceSearchToken>> queryCaptor =
+                ArgumentCaptor.forClass(DynamoDBQueryExpression.class);
+        when(dynamoDBMapper.queryPage(eq(DeviceSearchToken.class), queryCaptor.capture()))
+                .thenReturn(page(postingsKey, posting("icu", "111"), posting("icu", "222")),
+                        page(null, posting("icu", "333")));
+
+        // WHEN
+        ResultPage<String> firstPage = deviceSearchIndexDao.getControlNumbers(List.of("icu"), 2, null);
+        ResultPage<String> secondPage = deviceSearchIndexDao.getControlNumbers(List.of("icu"), 2,
+                firstPage.getLastEvaluatedKey());
+
+        // THEN
+        assertEquals(List.of("111", "222"), firstPage.getItems(), "Expected the first page of postings");
+        assertEquals(Map.of("controlNumber", new AttributeValue().withS("222")), firstPage.getLastEvaluatedKey(),
+                "Expected the page to end at its last control number");
+        assertEquals(postingsKey, queryCaptor.getAllValues().get(1).getExclusiveStartKey(), "Expected the next " +
+                "page to be read from after the last control number");
+        assertEquals(List.of("333"), secondPage.getItems(), "Expected the second page of postings");
+        verify(dynamoDBMapper, never()).batchLoad(anyList());
+    }
+
+    @Test
+    public void getControlNumbers_criteriaRarelyTogether_stopsAfterMaxPostingsQueries() {
+        // GIVEN
+        Map<String, AttributeValue> postingsKey = Map.of("token", new AttributeValue().withS("monitor"),
+                "controlNumber", new AttributeValue().withS("111"));
+        when(dynamoDBMapper.queryPage(eq(DeviceSearchToken.class), any(DynamoDBQueryExpression.class)))
+                .thenReturn(page(postingsKey, posting("monitor", "111")));
+        when(dynamoDBMapper.batchLoad(anyList())).thenReturn(Map.of());
+
+        // WHEN
+        ResultPage<String> result = deviceSearchIndexDao.getControlNumbers(List.of("monitor", "icu"), 10, null);
+
+        // THEN
+        assertTrue(result.getItems().isEmpty(), "Expected no matches among the postings read");
+        assertEquals(Map.of("controlNumber", new AttributeValue().withS("111")), result.getLastEvaluatedKey(),
+                "Expected the search to continue from the last posting read");
+        verify(dynamoDBMapper, times(DeviceSearchIndexDao.MAX_POSTINGS_QUERIES))
+                .queryPage(eq(DeviceSearchToken.class), any(DynamoDBQueryExpression.class));
+    }
+
+    @Test
+    public void indexDevice_withPreviousTokens_writesOnlyDifferences() {
+        // GIVEN
+        Device device = device("123456789", "G-321");
+        device.setServiceStatus(ServiceStatus.RETIRED);
+        PaginatedQueryList<DeviceSearchToken> existing = postings(null, "123456789");
+        List<DeviceSearchToken> existingPostings = new ArrayList<>();
+        for (String token : DeviceSearchIndexDao.tokenize(device("123456789", "G-321"))) {
+            existingPostings.add(posting(token, "123456789"));
+        }
+        when(existing.iterator()).thenReturn(existingPostings.iterator());
+        when(dynamoDBMapper.query(eq(DeviceSearchToken.class), any(DynamoDBQueryExpression.class)))
+                .thenReturn(existing);
+        when(dynamoDBMapper.batchWrite(anyList(), anyList())).thenReturn(List.of());
+
+        ArgumentCaptor<List<DeviceSearchToken>> toSave = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<DeviceSearchToken>> toDelete = ArgumentCaptor.forClass(List.class);
+
+        // WHEN
+        deviceSearchIndexDao.indexDevice(device);
+
+        // THEN
+        verify(dynamoDBMapper).batchWrite(toSave.capture(), toDelete.capture());
+        assertTrue(toSave.getValue().contains(posting("retired", "123456789")), "Expected the new status to " +
+                "be indexed");
+        assertTrue(toDelete.getValue().contains(posting("in_service", "123456789")), "Expected the previous " +
+                "status to be removed from the index");
+        assertFalse(toSave.getValue().contains(posting("monitor", "123456789")), "Expected unchanged tokens " +
+                "not to be re-written");
+        verify(metricsPublisher).addCount(MetricsConstants.DEVICESEARCHINDEX_FAILEDBATCH_COUNT, 0);
+    }
+
+    @Test
+    public void indexDevice_batchFails_publishesFailureAndThrowsDeviceSearchIndexException() {
+        // GIVEN
+        Device device = device("123456789", "G-321");
+        PaginatedQueryList<DeviceSearchToken> existing = postings(null, "123456789");
+        when(existing.iterator()).thenReturn(new ArrayList<DeviceSearchToken>().iterator());
+        when(dynamoDBMapper.query(eq(DeviceSearchToken.class), any(DynamoDBQueryExpression.class)))
+                .thenReturn(existing);
+        FailedBatch failedBatch = new FailedBatch();
+        failedBatch.setException(new ProvisionedThroughputExceededException("throttled"));
+        when(dynamoDBMapper.batchWrite(anyList(), anyList())).thenReturn(List.of(failedBatch));
+
+        // WHEN & THEN
+        assertThrows(DeviceSearchIndexException.class, () -> deviceSearchIndexDao.indexDevice(device),
+                "Expected a failure to write the index to be propagated");
+        verify(metricsPublisher).addCount(MetricsConstants.DEVICESEARCHINDEX_FAILEDBATCH_COUNT, 1);
+    }
+
+    @Test
+    public void indexDevice_noChanges_doesNotWrite() {
+        // GIVEN
+        Device device = device("123456789", "G-321");
+        PaginatedQueryList<DeviceSearchToken> existing = postings(null, "123456789");
+        List<DeviceSearchToken> existingPostings = new ArrayList<>();
+        for (String token : DeviceSearchIndexDao.tokenize(device)) {
+            existingPostings.add(posting(token, "123456789"));
+        }
+        when(existing.iterator()).thenReturn(existingPostings.iterator());
+        when(dynamoDBMapper.query(eq(DeviceSearchToken.class), any(DynamoDBQueryExpression.class)))
+                .thenReturn(existing);
+
+        // WHEN
+        deviceSearchIndexDao.indexDevice(device);
+
+        // THEN
+        verify(dynamoDBMapper, never()).batchWrite(anyList(), anyList());
+    }
+
+    private static Device device(String controlNumber, String serialNumber) {
+        ManufacturerModel manufacturerModel = new ManufacturerModel();
+        manufacturerModel.setManufacturer("Monitor Co.");
+        manufacturerModel.setModel("Defibrillator 3000");
+        manufacturerModel.setRequiredMaintenanceFrequencyInMonths(12);
+
+        Device device = new Device();
+        device.setControlNumber(controlNumber);
+        device.setSerialNumber(serialNumber);
+        device.setManufacturerModel(manufacturerModel);
+        device.setServiceStatus(ServiceStatus.IN_SERVICE);
+        device.setFacilityName("Main Hospital");
+        device.setAssignedDepartment("ICU");
+        device.setNextPmDueDate(LocalDate.of(2023, 6, 30));
+        device.setInventoryAddDate(LocalDate.of(2022, 6, 1));
+        return device;
+    }
+
+    private static DeviceSearchToken posting(String token, String controlNumber) {
+        DeviceSearchToken posting = new DeviceSearchToken();
+        posting.setToken(token);
+        posting.setControlNumber(controlNumber);
+        return posting;
+    }
+
+    private static QueryResultPage<DeviceSearchToken> page(Map<String, AttributeValue> lastEvaluatedKey,
+                                                           DeviceSearchToken... postings) {
+        QueryResultPage<DeviceSearchToken> page = new QueryResultPage<>();
+        page.setResults(List.of(postings));
+        page.setLastEvaluatedKey(lastEvaluatedKey);
+        return page;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PaginatedQueryList<DeviceSearchToken> postings(String token, String... controlNumbers) {
+        List<DeviceSearchToken> postings = new ArrayList<>();
+        for (String controlNumber : controlNumbers) {
+            postings.add(posting(token, controlNumber));
+        }
+        PaginatedQueryList<DeviceSearchToken> queryList = mock(PaginatedQueryList.class);
+        when(queryList.iterator()).thenReturn(postings.iterator());
+        return queryList;
+    }
+}
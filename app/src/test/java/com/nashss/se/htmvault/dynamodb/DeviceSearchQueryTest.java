@@ -0,0 +1,71 @@
+package com.nashss.se.htmvault.dynamodb;
+
+import com.nashss.se.htmvault.dynamodb.models.Device;
+import com.nashss.se.htmvault.exceptions.InvalidAttributeValueException;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeviceSearchQueryTest {
+
+    @Test
+    public void parse_qualifiedAndFreeTextCriteria_separatesFieldsFromTerms() {
+        // WHEN
+        DeviceSearchQuery query = DeviceSearchQuery.parse("Facility:\"Main Hospital\" department:ICU " +
+                "pmDueBefore:2023-07-01 defib G-1:2");
+
+        // THEN
+        assertEquals("Main Hospital", query.getFacilityName(), "Expected a quoted value to keep its spaces");
+        assertEquals("ICU", query.getAssignedDepartment(), "Expected the department to be parsed");
+        assertEquals(LocalDate.of(2023, 7, 1), query.getPmDueBefore(), "Expected the date to be parsed");
+        assertNull(query.getModel(), "Expected no model criterion");
+        assertEquals(List.of("defib", "G-1:2"), query.getTerms(), "Expected unqualified criteria to be terms");
+        assertTrue(query.isStructured(), "Expected a query with qualified criteria to be structured");
+    }
+
+    @Test
+    public void parse_onlyFreeText_isNotStructured() {
+        // WHEN
+        DeviceSearchQuery query = DeviceSearchQuery.parse("  monitor   icu ");
+
+        // THEN
+        assertFalse(query.isStructured(), "Expected a free-text query not to be structured");
+        assertEquals(List.of("monitor", "icu"), query.getTerms(), "Expected each word to be a term");
+    }
+
+    @Test
+    public void parse_invalidDate_throwsInvalidAttributeValueException() {
+        assertThrows(InvalidAttributeValueException.class, () -> DeviceSearchQuery.parse("pmDueBefore:July"),
+                "Expected an invalid pmDueBefore date to be rejected");
+    }
+
+    @Test
+    public void parse_missingValue_throwsInvalidAttributeValueException() {
+        assertThrows(InvalidAttributeValueException.class, () -> DeviceSearchQuery.parse("facility:"),
+                "Expected a qualifier without a value to be rejected");
+    }
+
+    @Test
+    public void matches_pmDueBefore_excludesDevicesDueOnOrAfterDateOrNotDue() {
+        // GIVEN
+        DeviceSearchQuery query = DeviceSearchQuery.parse("pmDueBefore:2023-07-01");
+        Device dueBefore = new Device();
+        dueBefore.setNextPmDueDate(LocalDate.of(2023, 6, 30));
+        Device dueOn = new Device();
+        dueOn.setNextPmDueDate(LocalDate.of(2023, 7, 1));
+        Device notDue = new Device();
+
+        // WHEN & THEN
+        assertTrue(query.matches(dueBefore), "Expected a device due before the date to match");
+        assertFalse(query.matches(dueOn), "Expected a device due on the date not to match");
+        assertFalse(query.matches(notDue), "Expected a device without a pm due date not to match");
+    }
+}
@@ -0,0 +1,159 @@
+package com.nashss.se.htmvault.dynamodb;
+
+import com.nashss.se.htmvault.metrics.LatencyHistograms;
+import com.nashss.se.htmvault.metrics.MetricsConstants;
+import com.nashss.se.htmvault.metrics.MetricsPublisher;
+
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class DynamoDbMetricsHandlerTest {
+
+    @Mock
+    private MetricsPublisher metricsPublisher;
+
+    private DynamoDbMetricsHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        handler = new DynamoDbMetricsHandler(metricsPublisher, new LatencyHistograms());
+    }
+
+    @Test
+    public void beforeExecution_readWithoutConsumedCapacity_requestsTotalConsumedCapacity() {
+        // GIVEN
+        ScanRequest scanRequest = new ScanRequest().withTableName("devices");
+
+        // WHEN
+        handler.beforeExecution(scanRequest);
+
+        // THEN
+        assertEquals(ReturnConsumedCapacity.TOTAL.toString(), scanRequest.getReturnConsumedCapacity(),
+                "Expected the scan to return its consumed capacity");
+    }
+
+    @Test
+    public void beforeExecution_consumedCapacityAlreadyRequested_leavesRequestUnchanged() {
+        // GIVEN
+        QueryRequest queryRequest = new QueryRequest()
+                .withTableName("devices")
+                .withReturnConsumedCapacity(ReturnConsumedCapacity.INDEXES);
+
+        // WHEN
+        handler.beforeExecution(queryRequest);
+
+        // THEN
+        assertEquals(ReturnConsumedCapacity.INDEXES.toString(), queryRequest.getReturnConsumedCapacity(),
+                "Expected the caller's choice of consumed capacity detail to be kept");
+    }
+
+    @Test
+    public void afterResponse_queryOfIndex_recordsTimeItemsAndCapacityByTableAndIndex() {
+        // GIVEN
+        QueryRequest queryRequest = new QueryRequest()
+                .withTableName("devices")
+                .withIndexName("FacilityDepartmentIndex");
+        Request<QueryRequest> request = new DefaultRequest<>(queryRequest, "AmazonDynamoDBv2");
+        handler.beforeRequest(request);
+        QueryResult queryResult = new QueryResult()
+                .withCount(3)
+                .withConsumedCapacity(new ConsumedCapacity().withTableName("devices").withCapacityUnits(1.5));
+        Map<String, String> dimensions = Map.of(MetricsConstants.OPERATION_DIMENSION, "Query",
+                MetricsConstants.TABLE_DIMENSION, "devices",
+                MetricsConstants.INDEX_DIMENSION, "FacilityDepartmentIndex");
+
+        // WHEN
+        handler.afterResponse(request, new Response<>(queryResult, null));
+
+        // THEN
+        verify(metricsPublisher).addTime(eq(MetricsConstants.DYNAMODB_TIME), anyDouble(), eq(dimensions));
+        verify(metricsPublisher).addCount(MetricsConstants.DYNAMODB_ITEMS_COUNT, 3, dimensions);
+        verify(metricsPublisher).addCount(MetricsConstants.DYNAMODB_CONSUMEDCAPACITY, 1.5, dimensions);
+    }
+
+    @Test
+    public void afterResponse_repeatedCalls_looksUpHistogramOnce() {
+        // GIVEN
+        LatencyHistograms latencyHistograms = spy(new LatencyHistograms());
+        DynamoDbMetricsHandler handler = new DynamoDbMetricsHandler(metricsPublisher, latencyHistograms);
+        Map<String, String> dimensions = Map.of(MetricsConstants.OPERATION_DIMENSION, "GetItem",
+                MetricsConstants.TABLE_DIMENSION, "devices");
+
+        // WHEN
+        for (int i = 0; i < 3; i++) {
+            Request<GetItemRequest> request = new DefaultRequest<>(new GetItemRequest().withTableName("devices"),
+                    "AmazonDynamoDBv2");
+            handler.beforeRequest(request);
+            handler.afterResponse(request, new Response<>(new GetItemResult(), null));
+        }
+
+        // THEN
+        verify(latencyHistograms, times(1)).histogram(MetricsConstants.DYNAMODB_TIME, dimensions);
+        verify(metricsPublisher, times(3)).addTime(eq(MetricsConstants.DYNAMODB_TIME), anyDouble(),
+                eq(dimensions));
+    }
+
+    @Test
+    public void afterResponse_getItemNotFound_recordsNoItems() {
+        // GIVEN
+        Request<GetItemRequest> request = new DefaultRequest<>(new GetItemRequest().withTableName("devices"),
+                "AmazonDynamoDBv2");
+        handler.beforeRequest(request);
+        Map<String, String> dimensions = Map.of(MetricsConstants.OPERATION_DIMENSION, "GetItem",
+                MetricsConstants.TABLE_DIMENSION, "devices");
+
+        // WHEN
+        handler.afterResponse(request, new Response<>(new GetItemResult(), null));
+
+        // THEN
+        verify(metricsPublisher).addCount(MetricsConstants.DYNAMODB_ITEMS_COUNT, 0, dimensions);
+        verify(metricsPublisher, never()).addCount(eq(MetricsConstants.DYNAMODB_CONSUMEDCAPACITY), anyDouble(),
+                eq(dimensions));
+    }
+
+    @Test
+    public void afterError_failedWrite_recordsTimeAndErrorByExceptionClass() {
+        // GIVEN
+        Request<UpdateItemRequest> request = new DefaultRequest<>(new UpdateItemRequest().withTableName("devices"),
+                "AmazonDynamoDBv2");
+        handler.beforeRequest(request);
+        Map<String, String> dimensions = Map.of(MetricsConstants.OPERATION_DIMENSION, "UpdateItem",
+                MetricsConstants.TABLE_DIMENSION, "devices");
+
+        // WHEN
+        handler.afterError(request, null, new ConditionalCheckFailedException("failed"));
+
+        // THEN
+        verify(metricsPublisher).addTime(eq(MetricsConstants.DYNAMODB_TIME), anyDouble(), eq(dimensions));
+        verify(metricsPublisher).addCount(MetricsConstants.DYNAMODB_ERROR_COUNT, 1, Map.of(
+                MetricsConstants.OPERATION_DIMENSION, "UpdateItem",
+                MetricsConstants.TABLE_DIMENSION, "devices",
+                MetricsConstants.EXCEPTION_CLASS_DIMENSION, "ConditionalCheckFailedException"));
+    }
+}
@@ -0,0 +1,181 @@
+package com.nashss.se.htmvault.dynamodb;
+
+import com.nashss.se.htmvault.dynamodb.models.FacilityDepartment;
+import com.nashss.se.htmvault.dynamodb.models.ManufacturerModel;
+import com.nashss.se.htmvault.exceptions.FacilityDepartmentNotFoundException;
+import com.nashss.se.htmvault.metrics.MetricsPublisher;
+import com.nashss.se.htmvault.models.FacilityDepartments;
+import com.nashss.se.htmvault.models.ManufacturerModels;
+
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class ReferenceDataCacheTest {
+
+    @Mock
+    private ManufacturerModelDao manufacturerModelDao;
+    @Mock
+    private FacilityDepartmentDao facilityDepartmentDao;
+    @Mock
+    private MetricsPublisher metricsPublisher;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private ReferenceDataCache referenceDataCache;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        referenceDataCache = new ReferenceDataCache(manufacturerModelDao, facilityDepartmentDao, metricsPublisher,
+                300, new Ticker() {
+                    @Override
+                    public long read() {
+                        return nanos.get();
+                    }
+                });
+        when(manufacturerModelDao.getManufacturerModels()).thenReturn(List.of(
+                manufacturerModel("Monitor Co.", "Second Model", 12),
+                manufacturerModel("Defibrillator Co.", "Only Model", 6),
+                manufacturerModel("Monitor Co.", "First Model", 12)));
+        when(facilityDepartmentDao.getFacilityDepartments()).thenReturn(List.of(
+                facilityDepartment("Main Hospital", "ICU"),
+                facilityDepartment("Clinic", "Lab"),
+                facilityDepartment("Main Hospital", "ER")));
+    }
+
+    @Test
+    public void getManufacturersAndModels_repeatedRequests_scansOnceAndReturnsSortedGroups() {
+        // WHEN
+        List<ManufacturerModels> first = referenceDataCache.getManufacturersAndModels();
+        List<ManufacturerModels> second = referenceDataCache.getManufacturersAndModels();
+
+        // THEN
+        assertSame(first, second, "Expected the list to be built once per snapshot");
+        verify(manufacturerModelDao, times(1)).getManufacturerModels();
+        assertEquals(List.of(
+                ManufacturerModels.builder()
+                        .withManufacturer("Defibrillator Co.")
+                        .withModels(List.of("Only Model"))
+                        .build(),
+                ManufacturerModels.builder()
+                        .withManufacturer("Monitor Co.")
+                        .withModels(List.of("First Model", "Second Model"))
+                        .build()), first);
+    }
+
+    @Test
+    public void getManufacturersAndModelsVersion_sameContentsReloaded_keepsVersion() {
+        // GIVEN
+        String first = referenceDataCache.getManufacturersAndModelsVersion();
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(301));
+
+        // WHEN
+        String second = referenceDataCache.getManufacturersAndModelsVersion();
+
+        // THEN
+        verify(manufacturerModelDao, times(2)).getManufacturerModels();
+        assertEquals(first, second, "Expected the same contents to have the same version");
+    }
+
+    @Test
+    public void getFacilitiesAndDepartmentsVersion_contentsChanged_changesVersion() {
+        // GIVEN
+        String first = referenceDataCache.getFacilitiesAndDepartmentsVersion();
+        when(facilityDepartmentDao.getFacilityDepartments()).thenReturn(List.of(
+                facilityDepartment("Main Hospital", "ICU")));
+        referenceDataCache.invalidate();
+
+        // WHEN
+        String second = referenceDataCache.getFacilitiesAndDepartmentsVersion();
+
+        // THEN
+        assertNotEquals(first, second, "Expected different contents to have a different version");
+    }
+
+    @Test
+    public void getFacilitiesAndDepartments_snapshotExpired_reloadsTables() {
+        // GIVEN
+        referenceDataCache.getFacilitiesAndDepartments();
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(301));
+
+        // WHEN
+        List<FacilityDepartments> result = referenceDataCache.getFacilitiesAndDepartments();
+
+        // THEN
+        verify(facilityDepartmentDao, times(2)).getFacilityDepartments();
+        assertEquals("Clinic", result.get(0).getFacility());
+        assertEquals(List.of("ER", "ICU"), result.get(1).getDepartments());
+    }
+
+    @Test
+    public void getManufacturerModel_inSnapshot_returnsCopyWithoutLoading() {
+        // WHEN
+        ManufacturerModel first = referenceDataCache.getManufacturerModel("Monitor Co.", "First Model");
+        ManufacturerModel second = referenceDataCache.getManufacturerModel("Monitor Co.", "First Model");
+
+        // THEN
+        assertEquals(manufacturerModel("Monitor Co.", "First Model", 12), first);
+        assertEquals(12, first.getRequiredMaintenanceFrequencyInMonths());
+        assertNotSame(first, second, "Expected each lookup to return its own copy");
+        verify(manufacturerModelDao, never()).getManufacturerModel("Monitor Co.", "First Model");
+    }
+
+    @Test
+    public void getManufacturerModel_addedSinceLoad_loadsItAndReloadsSnapshot() {
+        // GIVEN
+        ManufacturerModel added = manufacturerModel("Pump Co.", "New Model", 24);
+        when(manufacturerModelDao.getManufacturerModel("Pump Co.", "New Model")).thenReturn(added);
+
+        // WHEN
+        ManufacturerModel result = referenceDataCache.getManufacturerModel("Pump Co.", "New Model");
+        referenceDataCache.getManufacturersAndModels();
+
+        // THEN
+        assertEquals(added, result);
+        verify(manufacturerModelDao, times(2)).getManufacturerModels();
+    }
+
+    @Test
+    public void getFacilityDepartment_inNeitherSnapshotNorTable_propagatesException() {
+        // GIVEN
+        when(facilityDepartmentDao.getFacilityDepartment("Clinic", "ICU"))
+                .thenThrow(FacilityDepartmentNotFoundException.class);
+
+        // WHEN & THEN
+        assertThrows(FacilityDepartmentNotFoundException.class, () ->
+                referenceDataCache.getFacilityDepartment("Clinic", "ICU"));
+        referenceDataCache.getFacilitiesAndDepartments();
+        verify(facilityDepartmentDao, times(1)).getFacilityDepartments();
+    }
+
+    private static ManufacturerModel manufacturerModel(String manufacturer, String model, int frequency) {
+        ManufacturerModel manufacturerModel = new ManufacturerModel();
+        manufacturerModel.setManufacturer(manufacturer);
+        manufacturerModel.setModel(model);
+        manufacturerModel.setRequiredMaintenanceFrequencyInMonths(frequency);
+        return manufacturerModel;
+    }
+
+    private static FacilityDepartment facilityDepartment(String facility, String department) {
+        FacilityDepartment facilityDepartment = new FacilityDepartment();
+        facilityDepartment.setFacilityName(facility);
+        facilityDepartment.setAssignedDepartment(department);
+        return facilityDepartment;
+    }
+}
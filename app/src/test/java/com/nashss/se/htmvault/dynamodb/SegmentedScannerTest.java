@@ -0,0 +1,156 @@
+package com.nashss.se.htmvault.dynamodb;
+
+import com.nashss.se.htmvault.dynamodb.models.Device;
+import com.nashss.se.htmvault.metrics.MetricsConstants;
+import com.nashss.se.htmvault.metrics.MetricsPublisher;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableResult;
+import com.amazonaws.services.dynamodbv2.model.ResourceNotFoundException;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class SegmentedScannerTest {
+
+    @Mock
+    private DynamoDBMapper dynamoDBMapper;
+    @Mock
+    private AmazonDynamoDB amazonDynamoDB;
+    @Mock
+    private MetricsPublisher metricsPublisher;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        when(metricsPublisher.onCallingThread(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    public void scan_configuredSegments_scansEachSegmentAndMergesInSegmentOrder() {
+        // GIVEN
+        SegmentedScanner segmentedScanner = new SegmentedScanner(dynamoDBMapper, amazonDynamoDB, metricsPublisher, 2);
+        Device first = device("111");
+        Device second = device("222");
+        Device third = device("333");
+        ScanResultPage<Device> segmentZeroFirstPage = page(List.of(first), Map.of("controlNumber",
+                new AttributeValue().withS("111")));
+        ScanResultPage<Device> segmentZeroSecondPage = page(List.of(second), null);
+        ScanResultPage<Device> segmentOnePage = page(List.of(third), null);
+        when(dynamoDBMapper.scanPage(eq(Device.class), argThat(segment(0)))).thenReturn(segmentZeroFirstPage,
+                segmentZeroSecondPage);
+        when(dynamoDBMapper.scanPage(eq(Device.class), argThat(segment(1)))).thenReturn(segmentOnePage);
+
+        // WHEN
+        List<Device> result = segmentedScanner.scan(Device.class, new DynamoDBScanExpression());
+
+        // THEN
+        assertEquals(List.of(first, second, third), result, "Expected the items of every page of every segment");
+        verify(dynamoDBMapper, times(3)).scanPage(eq(Device.class), any(DynamoDBScanExpression.class));
+        verify(amazonDynamoDB, never()).describeTable(any(String.class));
+        verify(metricsPublisher, times(2)).addTime(eq(MetricsConstants.SEGMENTEDSCAN_SEGMENT_TIME), anyDouble());
+        verify(metricsPublisher).addCount(MetricsConstants.SEGMENTEDSCAN_SEGMENT_CONSUMEDCAPACITY, 1.0);
+        verify(metricsPublisher).addCount(MetricsConstants.SEGMENTEDSCAN_SEGMENT_CONSUMEDCAPACITY, 0.5);
+        verify(metricsPublisher).addCount(MetricsConstants.SEGMENTEDSCAN_SEGMENTS_COUNT, 2);
+    }
+
+    @Test
+    public void scan_segmentFails_throwsSegmentException() {
+        // GIVEN
+        SegmentedScanner segmentedScanner = new SegmentedScanner(dynamoDBMapper, amazonDynamoDB, metricsPublisher, 2);
+        when(dynamoDBMapper.scanPage(eq(Device.class), any(DynamoDBScanExpression.class)))
+                .thenThrow(new ResourceNotFoundException("no table"));
+
+        // WHEN & THEN
+        assertThrows(ResourceNotFoundException.class, () ->
+                segmentedScanner.scan(Device.class, new DynamoDBScanExpression()),
+                "Expected the exception thrown by a segment's scan to be propagated");
+    }
+
+    @Test
+    public void getTotalSegments_notConfigured_choosesFromItemCountAndCachesIt() {
+        // GIVEN
+        SegmentedScanner segmentedScanner = new SegmentedScanner(dynamoDBMapper, amazonDynamoDB, metricsPublisher, 0);
+        when(amazonDynamoDB.describeTable("devices")).thenReturn(new DescribeTableResult()
+                .withTable(new TableDescription().withItemCount(3 * SegmentedScanner.ITEMS_PER_SEGMENT - 1)));
+
+        // WHEN
+        int segments = segmentedScanner.getTotalSegments("devices");
+        segmentedScanner.getTotalSegments("devices");
+
+        // THEN
+        assertEquals(3, segments, "Expected one segment per ITEMS_PER_SEGMENT items");
+        verify(amazonDynamoDB, times(1)).describeTable("devices");
+    }
+
+    @Test
+    public void getTotalSegments_itemCountUnavailable_usesSingleSegment() {
+        // GIVEN
+        SegmentedScanner segmentedScanner = new SegmentedScanner(dynamoDBMapper, amazonDynamoDB, metricsPublisher, 0);
+        when(amazonDynamoDB.describeTable("devices")).thenThrow(new ResourceNotFoundException("no table"));
+
+        // WHEN
+        int segments = segmentedScanner.getTotalSegments("devices");
+
+        // THEN
+        assertEquals(1, segments, "Expected a single segment when the item count cannot be looked up");
+    }
+
+    @Test
+    public void segmentsForItemCount_variousItemCounts_boundedBetweenOneAndMax() {
+        assertEquals(1, SegmentedScanner.segmentsForItemCount(0), "Expected at least one segment");
+        assertEquals(1, SegmentedScanner.segmentsForItemCount(SegmentedScanner.ITEMS_PER_SEGMENT),
+                "Expected a single segment up to ITEMS_PER_SEGMENT items");
+        assertEquals(SegmentedScanner.MAX_SEGMENTS, SegmentedScanner.segmentsForItemCount(Long.MAX_VALUE / 2),
+                "Expected no more than MAX_SEGMENTS segments");
+    }
+
+    @Test
+    public void parseSegments_invalidValues_returnsZero() {
+        assertEquals(0, SegmentedScanner.parseSegments(null), "Expected an absent value to mean adaptive");
+        assertEquals(0, SegmentedScanner.parseSegments("many"), "Expected an invalid value to mean adaptive");
+        assertEquals(0, SegmentedScanner.parseSegments("-4"), "Expected a negative value to mean adaptive");
+        assertEquals(8, SegmentedScanner.parseSegments(" 8 "), "Expected a positive value to be used");
+    }
+
+    private static Device device(String controlNumber) {
+        Device device = new Device();
+        device.setControlNumber(controlNumber);
+        return device;
+    }
+
+    private static ScanResultPage<Device> page(List<Device> devices, Map<String, AttributeValue> lastEvaluatedKey) {
+        ScanResultPage<Device> page = new ScanResultPage<>();
+        page.setResults(new ArrayList<>(devices));
+        page.setLastEvaluatedKey(lastEvaluatedKey);
+        page.setConsumedCapacity(new ConsumedCapacity().withCapacityUnits(0.5));
+        return page;
+    }
+
+    private static org.mockito.ArgumentMatcher<DynamoDBScanExpression> segment(int segment) {
+        return scanExpression -> null != scanExpression && scanExpression.getSegment() == segment;
+    }
+}
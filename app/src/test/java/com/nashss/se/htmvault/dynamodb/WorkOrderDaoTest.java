@@ -11,6 +11,7 @@ import com.nashss.se.htmvault.utils.HTMVaultServiceUtils;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
 import com.amazonaws.services.dynamodbv2.datamodeling.PaginatedQueryList;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -165,9 +166,9 @@ class WorkOrderDaoTest {
         boolean queriedConsistentRead = queryExpression.isConsistentRead();
 
         // verify the expected query expression values
-        assertEquals(WorkOrder.CONTROL_NUMBER_WORK_ORDERS_INDEX, queriedIndexName, "Expected query " +
-                "expression to query with global secondary index name: " + WorkOrder.CONTROL_NUMBER_WORK_ORDERS_INDEX +
-                ", but was: " + queriedIndexName);
+        assertEquals(WorkOrder.CONTROL_NUMBER_COMPLETION_SORT_KEY_INDEX, queriedIndexName, "Expected query " +
+                "expression to query with global secondary index name: " +
+                WorkOrder.CONTROL_NUMBER_COMPLETION_SORT_KEY_INDEX + ", but was: " + queriedIndexName);
 
         assertTrue(expressionAttributeValues.contains(new AttributeValue(controlNumber)), "Expected query " +
                 "expression to set control number to " + controlNumber + "in expression attribute values");
@@ -179,6 +180,98 @@ class WorkOrderDaoTest {
 
         assertFalse(queriedConsistentRead, "Expected query expression to query with consistent reads set " +
                 "false");
+        assertTrue(queryExpression.isScanIndexForward(), "Expected the index to be read in ascending order by " +
+                "default");
+    }
+
+    @Test
+    public void getWorkOrders_descending_readsIndexBackwards() {
+        // GIVEN
+        when(dynamoDBMapper.query(Mockito.eq(WorkOrder.class),
+                any(DynamoDBQueryExpression.class))).thenReturn(workOrders);
+        when(workOrders.toArray()).thenReturn(new WorkOrder[0]);
+        ArgumentCaptor<DynamoDBQueryExpression<WorkOrder>> captor =
+                ArgumentCaptor.forClass(DynamoDBQueryExpression.class);
+
+        // WHEN
+        workOrderDao.getWorkOrders("123", false);
+
+        // THEN
+        verify(dynamoDBMapper).query(Mockito.eq(WorkOrder.class), captor.capture());
+        assertFalse(captor.getValue().isScanIndexForward(), "Expected the index to be read in descending order");
+    }
+
+    @Test
+    public void getWorkOrders_page_readsSinglePageFromStartKey() {
+        // GIVEN
+        WorkOrder workOrder = new WorkOrder();
+        workOrder.setWorkOrderId("WR2");
+        Map<String, AttributeValue> startKey = Map.of("workOrderId", new AttributeValue("WR1"));
+        Map<String, AttributeValue> lastEvaluatedKey = Map.of("workOrderId", new AttributeValue("WR2"));
+
+        QueryResultPage<WorkOrder> queryResultPage = new QueryResultPage<>();
+        queryResultPage.setResults(List.of(workOrder));
+        queryResultPage.setLastEvaluatedKey(lastEvaluatedKey);
+
+        when(dynamoDBMapper.queryPage(Mockito.eq(WorkOrder.class), any(DynamoDBQueryExpression.class)))
+                .thenReturn(queryResultPage);
+        ArgumentCaptor<DynamoDBQueryExpression<WorkOrder>> captor =
+                ArgumentCaptor.forClass(DynamoDBQueryExpression.class);
+
+        // WHEN
+        ResultPage<WorkOrder> result = workOrderDao.getWorkOrders("123", false, 1, startKey);
 
+        // THEN
+        assertEquals(List.of(workOrder), result.getItems(), "Expected the work orders of the page read");
+        assertEquals(lastEvaluatedKey, result.getLastEvaluatedKey(), "Expected the key at which the page ended");
+        verify(dynamoDBMapper).queryPage(Mockito.eq(WorkOrder.class), captor.capture());
+        DynamoDBQueryExpression<WorkOrder> queryExpression = captor.getValue();
+        assertEquals(1, queryExpression.getLimit(), "Expected the page size to be limited");
+        assertEquals(startKey, queryExpression.getExclusiveStartKey(), "Expected the page to start where the " +
+                "previous page ended");
+        assertFalse(queryExpression.isScanIndexForward(), "Expected the index to be read in descending order");
+    }
+
+    @Test
+    public void getOpenWorkOrders_withDepartment_queriesOpenWorkOrdersIndexByDepartmentPrefix() {
+        // GIVEN
+        QueryResultPage<WorkOrder> queryResultPage = new QueryResultPage<>();
+        queryResultPage.setResults(List.of());
+        when(dynamoDBMapper.queryPage(Mockito.eq(WorkOrder.class), any(DynamoDBQueryExpression.class)))
+                .thenReturn(queryResultPage);
+        ArgumentCaptor<DynamoDBQueryExpression<WorkOrder>> captor =
+                ArgumentCaptor.forClass(DynamoDBQueryExpression.class);
+
+        // WHEN
+        ResultPage<WorkOrder> result = workOrderDao.getOpenWorkOrders("Main Hospital", "ICU", 50, null);
+
+        // THEN
+        assertTrue(result.getItems().isEmpty(), "Expected the work orders of the page read");
+        verify(dynamoDBMapper).queryPage(Mockito.eq(WorkOrder.class), captor.capture());
+        DynamoDBQueryExpression<WorkOrder> queryExpression = captor.getValue();
+        assertEquals(WorkOrder.OPEN_WORK_ORDERS_FACILITY_INDEX, queryExpression.getIndexName());
+        assertEquals("openFacilityName = :facilityName and begins_with(openSortKey, :department)",
+                queryExpression.getKeyConditionExpression());
+        assertEquals(new AttributeValue("ICU#"), queryExpression.getExpressionAttributeValues().get(":department"),
+                "Expected the department prefix to end at the key's separator");
+        assertEquals(50, queryExpression.getLimit(), "Expected the page size to be limited");
+    }
+
+    @Test
+    public void getOpenWorkOrders_noDepartment_queriesWholeFacility() {
+        // GIVEN
+        QueryResultPage<WorkOrder> queryResultPage = new QueryResultPage<>();
+        queryResultPage.setResults(List.of());
+        when(dynamoDBMapper.queryPage(Mockito.eq(WorkOrder.class), any(DynamoDBQueryExpression.class)))
+                .thenReturn(queryResultPage);
+        ArgumentCaptor<DynamoDBQueryExpression<WorkOrder>> captor =
+                ArgumentCaptor.forClass(DynamoDBQueryExpression.class);
+
+        // WHEN
+        workOrderDao.getOpenWorkOrders("Main Hospital", null, 50, null);
+
+        // THEN
+        verify(dynamoDBMapper).queryPage(Mockito.eq(WorkOrder.class), captor.capture());
+        assertEquals("openFacilityName = :facilityName", captor.getValue().getKeyConditionExpression());
     }
 }
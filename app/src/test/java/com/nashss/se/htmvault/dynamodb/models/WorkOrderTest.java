@@ -0,0 +1,116 @@
+package com.nashss.se.htmvault.dynamodb.models;
+
+import com.nashss.se.htmvault.models.WorkOrderAwaitStatus;
+import com.nashss.se.htmvault.models.WorkOrderCompletionStatus;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class WorkOrderTest {
+
+    @Test
+    void getCompletionSortKey_completedAndOpenWorkOrders_sortSameAsCompletionDateTimeComparator() {
+        // GIVEN
+        // completed work orders, including one completed on the minute (which ISO formatting would shorten), and
+        // two completed at the same time, along with two open work orders
+        List<WorkOrder> workOrders = new ArrayList<>();
+        workOrders.add(workOrder("WR1", LocalDateTime.of(2023, 6, 12, 17, 10, 5), null));
+        workOrders.add(workOrder("WR2", LocalDateTime.of(2023, 6, 1, 9, 0, 0),
+                LocalDateTime.of(2023, 6, 2, 10, 30, 0)));
+        workOrders.add(workOrder("WR3", LocalDateTime.of(2023, 6, 1, 9, 0, 1),
+                LocalDateTime.of(2023, 6, 2, 10, 30, 5)));
+        workOrders.add(workOrder("WR4", LocalDateTime.of(2023, 5, 1, 9, 0, 0),
+                LocalDateTime.of(2023, 6, 2, 10, 30, 5)));
+        workOrders.add(workOrder("WR5", LocalDateTime.of(2023, 6, 12, 17, 10, 4), null));
+
+        List<WorkOrder> expected = new ArrayList<>(workOrders);
+        expected.sort(new WorkOrderCompletionDateTimeComparator());
+
+        // WHEN
+        workOrders.sort(Comparator.comparing(WorkOrder::getCompletionSortKey));
+
+        // THEN
+        assertEquals(expected, workOrders, "Expected ordering by completion sort key to match the completion " +
+                "date time comparator");
+    }
+
+    @Test
+    void getCompletionSortKey_openWorkOrder_isBuiltFromCreationDateTime() {
+        // GIVEN
+        WorkOrder workOrder = workOrder("WR1", LocalDateTime.of(2023, 6, 12, 17, 10, 0), null);
+
+        // WHEN
+        String result = workOrder.getCompletionSortKey();
+
+        // THEN
+        assertEquals("O#2023-06-12T17:10:00", result, "Expected an open work order's key to be its creation " +
+                "date time, always with seconds");
+    }
+
+    @Test
+    void getCompletionSortKey_noCreationDateTime_returnsNull() {
+        // GIVEN
+        WorkOrder workOrder = new WorkOrder();
+
+        // WHEN & THEN
+        assertNull(workOrder.getCompletionSortKey(), "Expected no sort key without a creation date time");
+    }
+
+    @Test
+    void getOpenFacilityName_openWorkOrder_returnsFacilityAndOpenSortKey() {
+        // GIVEN
+        WorkOrder workOrder = workOrder("WR1", LocalDateTime.of(2023, 6, 12, 17, 10, 0), null);
+        workOrder.setWorkOrderCompletionStatus(WorkOrderCompletionStatus.OPEN);
+        workOrder.setFacilityName("Main Hospital");
+        workOrder.setAssignedDepartment("ICU");
+
+        // WHEN & THEN
+        assertEquals("Main Hospital", workOrder.getOpenFacilityName(), "Expected an open work order to be in " +
+                "the open work orders index");
+        assertEquals("ICU#2023-06-12T17:10:00", workOrder.getOpenSortKey());
+    }
+
+    @Test
+    void getOpenFacilityName_closedWorkOrder_returnsNullKeys() {
+        // GIVEN
+        WorkOrder workOrder = workOrder("WR1", LocalDateTime.of(2023, 6, 12, 17, 10, 0),
+                LocalDateTime.of(2023, 6, 13, 8, 0, 0));
+        workOrder.setWorkOrderCompletionStatus(WorkOrderCompletionStatus.CLOSED);
+        workOrder.setFacilityName("Main Hospital");
+        workOrder.setAssignedDepartment("ICU");
+
+        // WHEN & THEN
+        assertNull(workOrder.getOpenFacilityName(), "Expected a closed work order to leave the open work " +
+                "orders index");
+        assertNull(workOrder.getOpenSortKey(), "Expected a closed work order to leave the open work orders index");
+    }
+
+    @Test
+    void getOpenFacilityName_awaitingWorkOrder_returnsFacility() {
+        // GIVEN
+        WorkOrder workOrder = workOrder("WR1", LocalDateTime.of(2023, 6, 12, 17, 10, 0), null);
+        workOrder.setWorkOrderAwaitStatus(WorkOrderAwaitStatus.AWAITING_PARTS);
+        workOrder.setFacilityName("Main Hospital");
+        workOrder.setAssignedDepartment("ICU");
+
+        // WHEN & THEN
+        assertEquals("Main Hospital", workOrder.getOpenFacilityName(), "Expected a work order awaiting parts to " +
+                "be in the open work orders index");
+    }
+
+    private static WorkOrder workOrder(String workOrderId, LocalDateTime creationDateTime,
+                                       LocalDateTime completionDateTime) {
+        WorkOrder workOrder = new WorkOrder();
+        workOrder.setWorkOrderId(workOrderId);
+        workOrder.setCreationDateTime(creationDateTime);
+        workOrder.setCompletionDateTime(completionDateTime);
+        return workOrder;
+    }
+}
@@ -0,0 +1,24 @@
+package com.nashss.se.htmvault.lambda;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmbeddedHttpServerTest {
+
+    @Test
+    void constructor_portOnly_listensOnLoopbackOnly() throws IOException {
+        // GIVEN
+        EmbeddedHttpServer server = new EmbeddedHttpServer(0, 1);
+
+        try {
+            // WHEN & THEN
+            assertTrue(server.getAddress().getAddress().isLoopbackAddress(), "Expected the server, whose " +
+                    "requests' tokens are not verified, to listen on the loopback address only by default");
+        } finally {
+            server.stop();
+        }
+    }
+}
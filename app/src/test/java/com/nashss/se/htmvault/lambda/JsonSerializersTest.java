@@ -0,0 +1,84 @@
+package com.nashss.se.htmvault.lambda;
+
+import com.nashss.se.htmvault.activity.requests.GetDeviceRequest;
+import com.nashss.se.htmvault.activity.results.GetDeviceResult;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonSerializersTest {
+
+    @Test
+    void readerFor_sameClass_returnsSameReader() {
+        // GIVEN
+        ObjectReader first = JsonSerializers.readerFor(GetDeviceRequest.class);
+
+        // WHEN
+        ObjectReader second = JsonSerializers.readerFor(GetDeviceRequest.class);
+
+        // THEN
+        assertSame(first, second, "Expected the reader built on first use to be reused");
+        assertNotSame(first, JsonSerializers.readerFor(GetDeviceResult.class), "Expected a reader per class");
+    }
+
+    @Test
+    void register_classes_buildsReadersAndWritersReusedAfterwards() {
+        // GIVEN
+        JsonSerializers.register(GetDeviceResult.class);
+        ObjectWriter registered = JsonSerializers.writerFor(GetDeviceResult.class);
+
+        // WHEN
+        ObjectWriter writer = JsonSerializers.writerFor(GetDeviceResult.class);
+
+        // THEN
+        assertSame(registered, writer, "Expected the writer built at registration to be reused");
+    }
+
+    @Test
+    void claimsFromJWT_sameToken_decodesPayloadOnce() throws JsonProcessingException {
+        // GIVEN
+        String jwt = jwt("{\"email\":\"someone@example.com\",\"name\":\"Some One\"}");
+        Map<String, String> first = JsonSerializers.claimsFromJWT(jwt);
+
+        // WHEN
+        Map<String, String> second = JsonSerializers.claimsFromJWT(jwt);
+
+        // THEN
+        assertEquals("someone@example.com", first.get("email"), "Expected the token's claims to be decoded");
+        assertSame(first, second, "Expected the claims of a token already decoded to be served from the cache");
+        assertThrows(UnsupportedOperationException.class, () -> second.put("email", "other@example.com"),
+                "Expected the cached claims to be unmodifiable");
+    }
+
+    @Test
+    void claimsFromJWT_differentTokens_decodesEachTokensClaims() throws JsonProcessingException {
+        // GIVEN
+        String firstJwt = jwt("{\"email\":\"first@example.com\"}");
+        String secondJwt = jwt("{\"email\":\"second@example.com\"}");
+
+        // WHEN
+        Map<String, String> first = JsonSerializers.claimsFromJWT(firstJwt);
+        Map<String, String> second = JsonSerializers.claimsFromJWT(secondJwt);
+
+        // THEN
+        assertEquals("first@example.com", first.get("email"), "Expected the first token's claims");
+        assertEquals("second@example.com", second.get("email"), "Expected the second token's own claims");
+    }
+
+    private static String jwt(String payload) {
+        Base64.Encoder encoder = Base64.getEncoder();
+        return encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "." +
+                encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".signature";
+    }
+}
@@ -0,0 +1,153 @@
+package com.nashss.se.htmvault.lambda;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LambdaResponseTest {
+
+    private static final List<String> PAYLOAD = List.of("Biomedical Devices Inc.", "Biomedical Devices Inc.",
+            "Biomedical Devices Inc.", "Biomedical Devices Inc.", "Biomedical Devices Inc.");
+
+    @Test
+    void compress_acceptsGzipAboveThreshold_returnsBase64GzipBody() throws IOException {
+        // GIVEN
+        LambdaResponse response = LambdaResponse.success(PAYLOAD);
+        String json = response.getBody();
+
+        // WHEN
+        response.compress(LambdaResponse.COMPRESSIBLE_MEDIA_TYPE, "gzip, deflate, br", 16);
+
+        // THEN
+        assertTrue(response.getIsBase64Encoded(), "Expected a compressed body to be base64 encoded");
+        assertEquals("gzip", response.getHeaders().get("Content-Encoding"));
+        assertEquals("Accept, Accept-Encoding", response.getHeaders().get("Vary"));
+        assertEquals("*", response.getHeaders().get("Access-Control-Allow-Origin"),
+                "Expected the CORS headers to be kept");
+        try (InputStream gzip = new GZIPInputStream(
+                new ByteArrayInputStream(Base64.getDecoder().decode(response.getBody())))) {
+            assertEquals(json, new String(gzip.readAllBytes(), StandardCharsets.UTF_8),
+                    "Expected the compressed body to decompress to the original JSON");
+        }
+    }
+
+    @Test
+    void compress_belowThreshold_leavesBodyUncompressed() {
+        // GIVEN
+        LambdaResponse response = LambdaResponse.success(PAYLOAD);
+        String json = response.getBody();
+
+        // WHEN
+        response.compress(LambdaResponse.COMPRESSIBLE_MEDIA_TYPE, "gzip", json.length() + 1);
+
+        // THEN
+        assertEquals(json, response.getBody());
+        assertNull(response.getIsBase64Encoded());
+        assertFalse(response.getHeaders().containsKey("Content-Encoding"));
+        assertEquals("Accept, Accept-Encoding", response.getHeaders().get("Vary"), "Expected a response that " +
+                "could have been compressed to vary by both headers");
+    }
+
+    @Test
+    void compress_noAcceptEncoding_leavesBodyUncompressed() {
+        // GIVEN
+        LambdaResponse response = LambdaResponse.success(PAYLOAD);
+        String json = response.getBody();
+
+        // WHEN
+        response.compress(LambdaResponse.COMPRESSIBLE_MEDIA_TYPE, null, 0);
+
+        // THEN
+        assertEquals(json, response.getBody());
+        assertFalse(response.getHeaders().containsKey("Content-Encoding"));
+        assertEquals("Accept, Accept-Encoding", response.getHeaders().get("Vary"), "Expected an uncompressed " +
+                "response to vary by both headers, as another request's may be compressed");
+    }
+
+    @Test
+    void compress_compressibleMediaTypeNotFirstAccepted_leavesBodyUncompressed() {
+        // GIVEN
+        LambdaResponse response = LambdaResponse.success(PAYLOAD);
+        String json = response.getBody();
+
+        // WHEN
+        response.compress("application/json, " + LambdaResponse.COMPRESSIBLE_MEDIA_TYPE, "gzip", 0);
+
+        // THEN
+        assertEquals(json, response.getBody(), "Expected API Gateway not to decode a body for this Accept header, " +
+                "so the body to be left uncompressed");
+        assertNull(response.getIsBase64Encoded());
+    }
+
+    @Test
+    void acceptsGzip_variousHeaders_honorsQualityValues() {
+        // WHEN & THEN
+        assertTrue(LambdaResponse.acceptsGzip("gzip"));
+        assertTrue(LambdaResponse.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertTrue(LambdaResponse.acceptsGzip("*"));
+        assertFalse(LambdaResponse.acceptsGzip("br, deflate"));
+        assertFalse(LambdaResponse.acceptsGzip("gzip;q=0"));
+        assertFalse(LambdaResponse.acceptsGzip("identity, gzip; q=0.0"));
+        assertFalse(LambdaResponse.acceptsGzip(""));
+    }
+
+    @Test
+    void withEntityTag_successfulResponse_tagsFullResponse() {
+        // GIVEN
+        LambdaResponse response = LambdaResponse.success(PAYLOAD);
+        String json = response.getBody();
+
+        // WHEN
+        LambdaResponse result = response.withEntityTag(LambdaResponse.entityTag("abc"), 60);
+
+        // THEN
+        assertEquals(200, result.getStatusCode());
+        assertEquals(json, result.getBody());
+        assertEquals("W/\"abc\"", result.getHeaders().get("ETag"));
+        assertEquals("private, max-age=60", result.getHeaders().get("Cache-Control"));
+    }
+
+    @Test
+    void withEntityTag_errorResponse_leavesItUntagged() {
+        // WHEN
+        LambdaResponse result = LambdaResponse.error("failed").withEntityTag(LambdaResponse.entityTag("abc"), 60);
+
+        // THEN
+        assertNull(result.getHeaders().get("ETag"), "Expected an error response not to be cached");
+    }
+
+    @Test
+    void notModified_returnsTaggedResponseWithoutBody() {
+        // WHEN
+        LambdaResponse result = LambdaResponse.notModified(LambdaResponse.entityTag("abc"), 60);
+
+        // THEN
+        assertEquals(304, result.getStatusCode());
+        assertEquals("", result.getBody());
+        assertEquals("W/\"abc\"", result.getHeaders().get("ETag"));
+        assertEquals("private, max-age=60", result.getHeaders().get("Cache-Control"));
+        assertEquals("*", result.getHeaders().get("Access-Control-Allow-Origin"),
+                "Expected the CORS headers to be kept");
+    }
+
+    @Test
+    void matchesEntityTag_strongOrWeakForm_comparesWeakly() {
+        // WHEN & THEN
+        assertTrue(LambdaResponse.matchesEntityTag("\"abc\"", "W/\"abc\""));
+        assertTrue(LambdaResponse.matchesEntityTag("W/\"abc\"", "W/\"abc\""));
+        assertTrue(LambdaResponse.matchesEntityTag("*", "W/\"abc\""));
+        assertFalse(LambdaResponse.matchesEntityTag("\"abd\"", "W/\"abc\""));
+        assertFalse(LambdaResponse.matchesEntityTag(null, "W/\"abc\""));
+    }
+}
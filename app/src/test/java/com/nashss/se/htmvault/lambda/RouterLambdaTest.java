@@ -0,0 +1,93 @@
+package com.nashss.se.htmvault.lambda;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RouterLambdaTest {
+
+    @Test
+    public void findRoute_literalAndParameterBothMatchPath_prefersLiteralRoute() {
+        // WHEN
+        RouterLambda.Route route = RouterLambda.findRoute("GET", null, "/devices/search");
+
+        // THEN
+        assertNotNull(route, "Expected a route for the path");
+        assertEquals("/devices/search", route.getResource(), "Expected the literal segment to take precedence " +
+                "over the control number parameter");
+        assertEquals("SearchDevicesLambda", route.getHandlerName());
+    }
+
+    @Test
+    public void findRoute_parameterPath_matchesParameterRoute() {
+        // WHEN
+        RouterLambda.Route route = RouterLambda.findRoute("GET", null, "/devices/123");
+
+        // THEN
+        assertEquals("/devices/{controlNumber}", route.getResource());
+        assertEquals("GetDeviceLambda", route.getHandlerName());
+    }
+
+    @Test
+    public void findRoute_sameResourceOtherMethods_matchesByMethod() {
+        // WHEN & THEN
+        assertEquals("UpdateDeviceLambda", RouterLambda.findRoute("PUT", null, "/devices/123").getHandlerName());
+        assertEquals("RetireDeviceLambda", RouterLambda.findRoute("DELETE", null, "/devices/123").getHandlerName());
+    }
+
+    @Test
+    public void findRoute_withResource_matchesResourceRatherThanPath() {
+        // WHEN
+        RouterLambda.Route route = RouterLambda.findRoute("GET", "/devices/{controlNumber}", "/devices/search");
+
+        // THEN
+        assertEquals("/devices/{controlNumber}", route.getResource(), "Expected API Gateway's resource path to " +
+                "decide the route, whatever the actual path");
+        assertEquals("GetDeviceLambda", route.getHandlerName());
+    }
+
+    @Test
+    public void findRoute_unknownResource_returnsNull() {
+        // WHEN & THEN
+        assertNull(RouterLambda.findRoute("GET", "/unknown", "/devices/search"),
+                "Expected an unknown resource not to fall back to the path");
+    }
+
+    @Test
+    public void findRoute_noMatchingRoute_returnsNull() {
+        // WHEN & THEN
+        assertNull(RouterLambda.findRoute("GET", null, "/devices/123/unknown"), "Expected no route for the path");
+        assertNull(RouterLambda.findRoute("PATCH", null, "/devices/123"), "Expected no route for the method");
+    }
+
+    @Test
+    public void pathParameters_parameterRoute_extractsParametersFromPath() {
+        // GIVEN
+        RouterLambda.Route route = RouterLambda.findRoute("GET", null, "/devices/123/workOrders");
+
+        // WHEN
+        Map<String, String> pathParameters = route.pathParameters("/devices/123/workOrders");
+
+        // THEN
+        assertEquals("/devices/{controlNumber}/workOrders", route.getResource());
+        assertEquals(Map.of("controlNumber", "123"), pathParameters);
+    }
+
+    @Test
+    public void handleRequest_noMatchingRoute_returnsNotFound() {
+        // GIVEN
+        AuthenticatedLambdaRequest<Object> input = new AuthenticatedLambdaRequest<>();
+        input.setHttpMethod("get");
+        input.setPath("/unknown");
+
+        // WHEN
+        LambdaResponse response = new RouterLambda().handleRequest(input, null);
+
+        // THEN
+        assertEquals(404, response.getStatusCode());
+    }
+}
@@ -0,0 +1,153 @@
+package com.nashss.se.htmvault.metrics;
+
+import com.amazonaws.services.cloudwatch.AmazonCloudWatch;
+import com.amazonaws.services.cloudwatch.model.Dimension;
+import com.amazonaws.services.cloudwatch.model.MetricDatum;
+import com.amazonaws.services.cloudwatch.model.PutMetricDataRequest;
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+import com.amazonaws.services.cloudwatch.model.StatisticSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class CloudWatchMetricsPublisherTest {
+
+    @Mock
+    private AmazonCloudWatch cloudWatch;
+
+    private CloudWatchMetricsPublisher metricsPublisher;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        metricsPublisher = new CloudWatchMetricsPublisher(cloudWatch, 0);
+    }
+
+    @Test
+    public void addCount_beforeFlush_doesNotCallCloudWatch() {
+        // WHEN
+        metricsPublisher.addCount("Test.Count", 1);
+
+        // THEN
+        verify(cloudWatch, never()).putMetricData(any(PutMetricDataRequest.class));
+    }
+
+    @Test
+    public void flush_sameMetricAddedRepeatedly_publishesSingleStatisticSet() {
+        // GIVEN
+        metricsPublisher.addTime("Test.Time", 5);
+        metricsPublisher.addTime("Test.Time", 1);
+        metricsPublisher.addTime("Test.Time", 12);
+        metricsPublisher.addCount("Test.Count", 0);
+        ArgumentCaptor<PutMetricDataRequest> captor = ArgumentCaptor.forClass(PutMetricDataRequest.class);
+
+        // WHEN
+        metricsPublisher.flush();
+
+        // THEN
+        verify(cloudWatch).putMetricData(captor.capture());
+        List<MetricDatum> datums = captor.getValue().getMetricData();
+        assertEquals(2, datums.size(), "Expected one datum per metric");
+        MetricDatum time = datums.stream()
+                .filter(datum -> datum.getMetricName().equals("Test.Time"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(StandardUnit.Milliseconds.toString(), time.getUnit());
+        assertEquals(new StatisticSet().withSampleCount(3.0).withSum(18.0).withMinimum(1.0).withMaximum(12.0),
+                time.getStatisticValues(), "Expected the values added to be aggregated");
+        assertEquals(MetricsConstants.NAMESPACE_NAME, captor.getValue().getNamespace());
+    }
+
+    @Test
+    public void flush_sameMetricWithDifferentDimensions_publishesDatumPerDimensionValue() {
+        // GIVEN
+        metricsPublisher.addCount("Test.Count", 1, Map.of(MetricsConstants.ACTIVITY_DIMENSION, "GetDevice"));
+        metricsPublisher.addCount("Test.Count", 1, Map.of(MetricsConstants.ACTIVITY_DIMENSION, "AddDevice"));
+        metricsPublisher.addCount("Test.Count", 0, Map.of(MetricsConstants.ACTIVITY_DIMENSION, "GetDevice"));
+        ArgumentCaptor<PutMetricDataRequest> captor = ArgumentCaptor.forClass(PutMetricDataRequest.class);
+        Dimension service = new Dimension()
+                .withName(MetricsConstants.SERVICE)
+                .withValue(MetricsConstants.SERVICE_NAME);
+        Dimension activity = new Dimension()
+                .withName(MetricsConstants.ACTIVITY_DIMENSION)
+                .withValue("GetDevice");
+
+        // WHEN
+        metricsPublisher.flush();
+
+        // THEN
+        verify(cloudWatch).putMetricData(captor.capture());
+        List<MetricDatum> datums = captor.getValue().getMetricData();
+        assertEquals(2, datums.size(), "Expected one datum per activity");
+        MetricDatum getDevice = datums.stream()
+                .filter(datum -> datum.getDimensions().contains(activity))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(2.0, getDevice.getStatisticValues().getSampleCount(),
+                "Expected the values added for the activity to be aggregated");
+        assertEquals(List.of(service, activity), getDevice.getDimensions(),
+                "Expected the service dimension followed by the given dimensions");
+    }
+
+    @Test
+    public void flush_moreMetricsThanBatchLimit_publishesInBatches() {
+        // GIVEN
+        for (int i = 0; i <= CloudWatchMetricsPublisher.MAX_DATUMS_PER_REQUEST; i++) {
+            metricsPublisher.addCount("Test.Count" + i, 1);
+        }
+
+        // WHEN
+        metricsPublisher.flush();
+
+        // THEN
+        verify(cloudWatch, times(2)).putMetricData(any(PutMetricDataRequest.class));
+    }
+
+    @Test
+    public void flush_afterFlush_publishesNothingFurther() {
+        // GIVEN
+        metricsPublisher.addCount("Test.Count", 1);
+        metricsPublisher.flush();
+
+        // WHEN
+        metricsPublisher.flush();
+
+        // THEN
+        verify(cloudWatch, times(1)).putMetricData(any(PutMetricDataRequest.class));
+    }
+
+    @Test
+    public void flush_cloudWatchFails_doesNotThrow() {
+        // GIVEN
+        metricsPublisher.addCount("Test.Count", 1);
+        when(cloudWatch.putMetricData(any(PutMetricDataRequest.class)))
+                .thenThrow(new IllegalStateException("unavailable"));
+
+        // WHEN & THEN
+        assertDoesNotThrow(() -> metricsPublisher.flush(), "Expected a failure to publish metrics not to fail " +
+                "the caller");
+    }
+
+    @Test
+    public void parseFlushInterval_invalidOrMissing_returnsDefault() {
+        assertEquals(CloudWatchMetricsPublisher.DEFAULT_FLUSH_INTERVAL_MILLIS,
+                CloudWatchMetricsPublisher.parseFlushInterval(null));
+        assertEquals(CloudWatchMetricsPublisher.DEFAULT_FLUSH_INTERVAL_MILLIS,
+                CloudWatchMetricsPublisher.parseFlushInterval("abc"));
+        assertEquals(0, CloudWatchMetricsPublisher.parseFlushInterval("0"));
+        assertEquals(250, CloudWatchMetricsPublisher.parseFlushInterval(" 250 "));
+    }
+}
@@ -0,0 +1,203 @@
+package com.nashss.se.htmvault.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmbeddedMetricFormatPublisherTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void flush_withMetricsAndProperties_writesEmbeddedMetricFormatLine() throws Exception {
+        // GIVEN
+        Path file = tempDir.resolve("metrics.log");
+        EmbeddedMetricFormatPublisher metricsPublisher =
+                new EmbeddedMetricFormatPublisher(EmbeddedMetricFormatPublisher.fileSink(file));
+        metricsPublisher.addProperty(MetricsConstants.CONTROL_NUMBER_PROPERTY, "123");
+        metricsPublisher.addCount("Test.Count", 1);
+        metricsPublisher.addTime("Test.Time", 5);
+        metricsPublisher.addTime("Test.Time", 7);
+
+        // WHEN
+        metricsPublisher.flush();
+
+        // THEN
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(1, lines.size(), "Expected a single document for the metrics flushed");
+        JsonNode document = MAPPER.readTree(lines.get(0));
+        assertEquals("123", document.get("controlNumber").asText(), "Expected the property to be attached");
+        assertEquals(1.0, document.get("Test.Count").asDouble());
+        assertEquals(List.of(5.0, 7.0), List.of(document.get("Test.Time").get(0).asDouble(),
+                document.get("Test.Time").get(1).asDouble()), "Expected every value of the time to be written");
+        assertEquals(MetricsConstants.SERVICE_NAME, document.get(MetricsConstants.SERVICE).asText());
+
+        JsonNode directive = document.get("_aws").get("CloudWatchMetrics").get(0);
+        assertEquals(MetricsConstants.NAMESPACE_NAME, directive.get("Namespace").asText());
+        assertEquals(2, directive.get("Metrics").size(), "Expected each metric to be declared");
+        assertTrue(document.get("_aws").get("Timestamp").isNumber());
+    }
+
+    @Test
+    public void flush_metricsWithDifferentDimensions_writesDocumentPerDimensionValues() throws Exception {
+        // GIVEN
+        List<String> documents = new ArrayList<>();
+        EmbeddedMetricFormatPublisher metricsPublisher = new EmbeddedMetricFormatPublisher(documents::add);
+        metricsPublisher.addCount("Test.Count", 1);
+        metricsPublisher.addCount("Test.Count", 1, Map.of(MetricsConstants.ACTIVITY_DIMENSION, "GetDevice"));
+
+        // WHEN
+        metricsPublisher.flush();
+
+        // THEN
+        assertEquals(2, documents.size(), "Expected a document for each set of dimension values");
+        JsonNode withActivity = null;
+        for (String document : documents) {
+            JsonNode node = MAPPER.readTree(document);
+            if (node.has(MetricsConstants.ACTIVITY_DIMENSION)) {
+                withActivity = node;
+            }
+        }
+        assertNotNull(withActivity, "Expected the dimension value to be written as a field");
+        assertEquals("GetDevice", withActivity.get(MetricsConstants.ACTIVITY_DIMENSION).asText());
+        JsonNode dimensionNames = withActivity.get("_aws").get("CloudWatchMetrics").get(0).get("Dimensions").get(0);
+        assertEquals(List.of(MetricsConstants.SERVICE, MetricsConstants.ACTIVITY_DIMENSION),
+                List.of(dimensionNames.get(0).asText(), dimensionNames.get(1).asText()),
+                "Expected the dimension to be declared along with the service");
+    }
+
+    @Test
+    public void flush_afterFlush_writesNothingFurtherAndDropsProperties() throws Exception {
+        // GIVEN
+        Path file = tempDir.resolve("metrics.log");
+        EmbeddedMetricFormatPublisher metricsPublisher =
+                new EmbeddedMetricFormatPublisher(EmbeddedMetricFormatPublisher.fileSink(file));
+        metricsPublisher.addProperty(MetricsConstants.WORK_ORDER_ID_PROPERTY, "WR1");
+        metricsPublisher.addCount("Test.Count", 1);
+        metricsPublisher.flush();
+
+        // WHEN
+        metricsPublisher.flush();
+        metricsPublisher.addCount("Test.Count", 0);
+        metricsPublisher.flush();
+
+        // THEN
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size(), "Expected nothing written for a flush with no metrics");
+        assertFalse(MAPPER.readTree(lines.get(1)).has("workOrderId"), "Expected properties to apply only to " +
+                "the flush following them");
+    }
+
+    @Test
+    public void flush_propertiesAddedOnAnotherThread_writesOnlyCallingThreadsProperties() throws Exception {
+        // GIVEN
+        List<String> documents = new ArrayList<>();
+        EmbeddedMetricFormatPublisher metricsPublisher = new EmbeddedMetricFormatPublisher(documents::add);
+        metricsPublisher.addProperty(MetricsConstants.CONTROL_NUMBER_PROPERTY, "123");
+        Thread otherInvocation = new Thread(() ->
+                metricsPublisher.addProperty(MetricsConstants.WORK_ORDER_ID_PROPERTY, "WR1"));
+        otherInvocation.start();
+        otherInvocation.join();
+        metricsPublisher.addCount("Test.Count", 1);
+
+        // WHEN
+        metricsPublisher.flush();
+
+        // THEN
+        JsonNode document = MAPPER.readTree(documents.get(0));
+        assertEquals("123", document.get("controlNumber").asText(), "Expected this thread's property to be attached");
+        assertFalse(document.has("workOrderId"), "Expected another thread's property not to be attached");
+    }
+
+    @Test
+    public void flush_metricsAddedOnAnotherThread_writesOnlyCallingThreadsMetrics() throws Exception {
+        // GIVEN
+        List<String> documents = new ArrayList<>();
+        EmbeddedMetricFormatPublisher metricsPublisher = new EmbeddedMetricFormatPublisher(documents::add);
+        metricsPublisher.addCount("This.Count", 1);
+        Thread otherInvocation = new Thread(() -> metricsPublisher.addCount("Other.Count", 1));
+        otherInvocation.start();
+        otherInvocation.join();
+
+        // WHEN
+        metricsPublisher.flush();
+
+        // THEN
+        assertEquals(1, documents.size(), "Expected a single document for this thread's metrics");
+        JsonNode document = MAPPER.readTree(documents.get(0));
+        assertTrue(document.has("This.Count"), "Expected this thread's metric to be written");
+        assertFalse(document.has("Other.Count"), "Expected another thread's metric to be left for its own flush");
+    }
+
+    @Test
+    public void flush_metricsAddedByTaskOnCallingThread_writesThemWithCallingThreadsProperties() throws Exception {
+        // GIVEN
+        List<String> documents = new ArrayList<>();
+        EmbeddedMetricFormatPublisher metricsPublisher = new EmbeddedMetricFormatPublisher(documents::add);
+        metricsPublisher.addProperty(MetricsConstants.CONTROL_NUMBER_PROPERTY, "123");
+        Callable<Void> task = metricsPublisher.onCallingThread(() -> {
+            metricsPublisher.addCount("Task.Count", 1);
+            return null;
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(task).get();
+        } finally {
+            executor.shutdown();
+        }
+
+        // WHEN
+        metricsPublisher.flush();
+
+        // THEN
+        JsonNode document = MAPPER.readTree(documents.get(0));
+        assertTrue(document.has("Task.Count"), "Expected the task's metric to be flushed by the calling thread");
+        assertEquals("123", document.get("controlNumber").asText(), "Expected the calling thread's property to be " +
+                "attached to the task's metric");
+    }
+
+    @Test
+    public void flush_moreMetricsThanDocumentLimit_writesMultipleDocuments() throws Exception {
+        // GIVEN
+        List<String> documents = new ArrayList<>();
+        EmbeddedMetricFormatPublisher metricsPublisher = new EmbeddedMetricFormatPublisher(documents::add);
+        for (int i = 0; i <= EmbeddedMetricFormatPublisher.MAX_METRICS_PER_DOCUMENT; i++) {
+            metricsPublisher.addCount("Test.Count" + i, 1);
+        }
+        for (int i = 0; i <= EmbeddedMetricFormatPublisher.MAX_VALUES_PER_METRIC; i++) {
+            metricsPublisher.addTime("Test.Time", i);
+        }
+
+        // WHEN
+        metricsPublisher.flush();
+
+        // THEN
+        int metricDeclarations = 0;
+        for (String document : documents) {
+            JsonNode metrics = MAPPER.readTree(document).get("_aws").get("CloudWatchMetrics").get(0).get("Metrics");
+            assertTrue(metrics.size() <= EmbeddedMetricFormatPublisher.MAX_METRICS_PER_DOCUMENT);
+            metricDeclarations += metrics.size();
+        }
+        assertEquals(3, documents.size(), "Expected the metrics beyond the document limits in further documents");
+        assertEquals(EmbeddedMetricFormatPublisher.MAX_METRICS_PER_DOCUMENT + 3, metricDeclarations,
+                "Expected the time, with more values than a document holds, to be declared in two documents");
+    }
+}
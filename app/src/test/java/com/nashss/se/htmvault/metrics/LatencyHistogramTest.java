@@ -0,0 +1,97 @@
+package com.nashss.se.htmvault.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    public void bucketIndex_everyBucket_holdsValuesWithinPrecisionOfItsHighestValue() {
+        // GIVEN
+        int previousIndex = -1;
+
+        for (long value = 0; value <= LatencyHistogram.MAX_VALUE_MICROS; value = value * 17 / 16 + 1) {
+            // WHEN
+            int index = LatencyHistogram.bucketIndex(value);
+            long highest = LatencyHistogram.highestValueIn(index);
+
+            // THEN
+            assertTrue(index >= previousIndex, "Expected bucket indexes to increase with the value " + value);
+            assertTrue(index < LatencyHistogram.BUCKET_COUNT, "Expected every value to fit in the buckets");
+            assertTrue(highest >= value, "Expected the bucket of " + value + " not to understate it");
+            assertTrue(highest - value <= value / LatencyHistogram.SUB_BUCKET_COUNT,
+                    "Expected the bucket of " + value + " to be within the histogram's precision of it");
+            previousIndex = index;
+        }
+    }
+
+    @Test
+    public void snapshot_uniformValues_readsPercentilesWithinPrecision() {
+        // GIVEN
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.recordMicros(micros);
+        }
+
+        // WHEN
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        // THEN
+        assertEquals(10_000, snapshot.getCount());
+        assertEquals(5_000.5, snapshot.getMean(), 0.001);
+        assertWithinPrecision(5_000, snapshot.getValueAtPercentile(50));
+        assertWithinPrecision(9_500, snapshot.getValueAtPercentile(95));
+        assertWithinPrecision(9_900, snapshot.getValueAtPercentile(99));
+        assertWithinPrecision(10_000, snapshot.getMax());
+    }
+
+    @Test
+    public void snapshot_sinceEarlierSnapshot_holdsOnlyLaterValues() {
+        // GIVEN
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordMicros(10);
+        LatencyHistogram.Snapshot earlier = histogram.snapshot();
+        histogram.recordNanos(2_000_000);
+
+        // WHEN
+        LatencyHistogram.Snapshot interval = histogram.snapshot().since(earlier);
+
+        // THEN
+        assertEquals(1, interval.getCount(), "Expected only the value recorded after the earlier snapshot");
+        assertWithinPrecision(2_000, interval.getValueAtPercentile(50));
+    }
+
+    @Test
+    public void recordMicros_outOfRange_clampedToRange() {
+        // GIVEN
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // WHEN
+        histogram.recordMicros(-5);
+        histogram.recordMicros(Long.MAX_VALUE);
+
+        // THEN
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(0, snapshot.getValueAtPercentile(50));
+        assertWithinPrecision(LatencyHistogram.MAX_VALUE_MICROS, snapshot.getMax());
+    }
+
+    @Test
+    public void snapshot_noValues_readsZero() {
+        // WHEN
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+
+        // THEN
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtPercentile(99));
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0.0, snapshot.getMean());
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue(actual >= expected && actual - expected <= expected / LatencyHistogram.SUB_BUCKET_COUNT,
+                "Expected " + actual + " to be within the histogram's precision of " + expected);
+    }
+}
@@ -0,0 +1,94 @@
+package com.nashss.se.htmvault.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.doubleThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class LatencyHistogramsTest {
+
+    private static final Map<String, String> DIMENSIONS = Map.of(MetricsConstants.ACTIVITY_DIMENSION, "GetDevice");
+
+    @Mock
+    private MetricsPublisher metricsPublisher;
+
+    private LatencyHistograms latencyHistograms;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        latencyHistograms = new LatencyHistograms(0);
+    }
+
+    @Test
+    public void histogram_sameMetric_returnsSameHistogram() {
+        // WHEN
+        LatencyHistogram first = latencyHistograms.histogram("Test.Time", DIMENSIONS);
+        LatencyHistogram second = latencyHistograms.histogram("Test.Time", Map.of(
+                MetricsConstants.ACTIVITY_DIMENSION, "GetDevice"));
+
+        // THEN
+        assertSame(first, second, "Expected a single histogram per metric name and dimensions");
+    }
+
+    @Test
+    public void summarize_valuesRecorded_publishesPercentilesInMilliseconds() {
+        // GIVEN
+        latencyHistograms.histogram("Test.Time", DIMENSIONS).recordMicros(2_000);
+
+        // WHEN
+        latencyHistograms.summarize(metricsPublisher);
+
+        // THEN
+        verify(metricsPublisher).addTime(eq("Test.Time.p50"), aboutTwoMillis(), eq(DIMENSIONS));
+        verify(metricsPublisher).addTime(eq("Test.Time.p95"), aboutTwoMillis(), eq(DIMENSIONS));
+        verify(metricsPublisher).addTime(eq("Test.Time.p99"), aboutTwoMillis(), eq(DIMENSIONS));
+        verify(metricsPublisher).addTime(eq("Test.Time.max"), aboutTwoMillis(), eq(DIMENSIONS));
+    }
+
+    @Test
+    public void summarize_nothingRecordedSinceLastSummary_publishesNothing() {
+        // GIVEN
+        latencyHistograms.histogram("Test.Time", DIMENSIONS).recordMicros(2_000);
+        latencyHistograms.summarize(metricsPublisher);
+        MetricsPublisher laterPublisher = mock(MetricsPublisher.class);
+
+        // WHEN
+        latencyHistograms.summarize(laterPublisher);
+
+        // THEN
+        verify(laterPublisher, never()).addTime(anyString(), anyDouble(), anyMap());
+    }
+
+    @Test
+    public void snapshot_afterSummary_stillHoldsEveryValue() {
+        // GIVEN
+        latencyHistograms.histogram("Test.Time", DIMENSIONS).recordMicros(2_000);
+        latencyHistograms.summarize(metricsPublisher);
+        latencyHistograms.histogram("Test.Time", DIMENSIONS).recordMicros(3_000);
+
+        // WHEN
+        Map<String, LatencyHistogram.Snapshot> snapshots = latencyHistograms.snapshot();
+
+        // THEN
+        assertEquals(2, snapshots.get("Test.Time{Activity=GetDevice}").getCount(),
+                "Expected the snapshot to include values already summarized");
+    }
+
+    private static double aboutTwoMillis() {
+        return doubleThat(millis -> Math.abs(millis - 2.0) < 0.1);
+    }
+}
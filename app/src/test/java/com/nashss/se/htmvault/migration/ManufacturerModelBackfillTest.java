@@ -0,0 +1,117 @@
+package com.nashss.se.htmvault.migration;
+
+import com.nashss.se.htmvault.dynamodb.models.Device;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class ManufacturerModelBackfillTest {
+
+    private static final String MANUFACTURER_MODEL_JSON = "{\"manufacturer\":\"Monitor Co.\"," +
+            "\"model\":\"Their First Monitor Model\",\"requiredMaintenanceFrequencyInMonths\":12}";
+
+    @Mock
+    private AmazonDynamoDB amazonDynamoDB;
+
+    private DynamoDBMapper dynamoDBMapper;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        dynamoDBMapper = new DynamoDBMapper(amazonDynamoDB);
+        when(amazonDynamoDB.scan(any(ScanRequest.class))).thenReturn(new ScanResult().withItems(
+                Map.of("controlNumber", new AttributeValue().withS("1"),
+                        "manufacturerModel", new AttributeValue().withS(MANUFACTURER_MODEL_JSON)),
+                Map.of("controlNumber", new AttributeValue().withS("2"),
+                        "manufacturerModel", new AttributeValue().withS(MANUFACTURER_MODEL_JSON))));
+    }
+
+    @Test
+    public void backfillKeys_devicesWithoutKey_addsKeyOnlyConditionally() {
+        // GIVEN
+        ManufacturerModelBackfill backfill = new ManufacturerModelBackfill(amazonDynamoDB, dynamoDBMapper, false);
+        ArgumentCaptor<UpdateItemRequest> captor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+
+        // WHEN
+        int rewritten = backfill.backfillKeys();
+
+        // THEN
+        assertEquals(2, rewritten);
+        verify(amazonDynamoDB, times(2)).updateItem(captor.capture());
+        UpdateItemRequest request = captor.getAllValues().get(0);
+        assertEquals("devices", request.getTableName());
+        assertEquals(Map.of("controlNumber", new AttributeValue().withS("1")), request.getKey());
+        assertEquals("SET manufacturerModelKey = :manufacturerModelKey", request.getUpdateExpression(),
+                "Expected the manufacturer/model to be left as stored");
+        assertEquals("manufacturerModel = :stored", request.getConditionExpression());
+        assertEquals(new AttributeValue().withS("Monitor Co.#Their First Monitor Model"),
+                request.getExpressionAttributeValues().get(":manufacturerModelKey"));
+    }
+
+    @Test
+    public void backfillMaps_devicesWithJsonManufacturerModel_rewritesMapConditionally() {
+        // GIVEN
+        ManufacturerModelBackfill backfill = new ManufacturerModelBackfill(amazonDynamoDB, dynamoDBMapper, false);
+        ArgumentCaptor<UpdateItemRequest> captor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+
+        // WHEN
+        int rewritten = backfill.backfillMaps(Device.class);
+
+        // THEN
+        assertEquals(2, rewritten);
+        verify(amazonDynamoDB, times(2)).updateItem(captor.capture());
+        UpdateItemRequest request = captor.getAllValues().get(0);
+        assertEquals("SET manufacturerModel = :manufacturerModel", request.getUpdateExpression());
+        assertEquals(new AttributeValue().withS(MANUFACTURER_MODEL_JSON),
+                request.getExpressionAttributeValues().get(":stored"));
+        assertEquals(new AttributeValue().withS("Monitor Co."),
+                request.getExpressionAttributeValues().get(":manufacturerModel").getM().get("manufacturer"));
+    }
+
+    @Test
+    public void backfill_itemSavedSinceScanned_skipsIt() {
+        // GIVEN
+        ManufacturerModelBackfill backfill = new ManufacturerModelBackfill(amazonDynamoDB, dynamoDBMapper, false);
+        when(amazonDynamoDB.updateItem(any(UpdateItemRequest.class)))
+                .thenThrow(ConditionalCheckFailedException.class)
+                .thenReturn(null);
+
+        // WHEN
+        int rewritten = backfill.backfillMaps(Device.class);
+
+        // THEN
+        assertEquals(1, rewritten, "Expected the item changed since it was scanned to be skipped");
+    }
+
+    @Test
+    public void backfill_dryRun_countsWithoutRewriting() {
+        // GIVEN
+        ManufacturerModelBackfill backfill = new ManufacturerModelBackfill(amazonDynamoDB, dynamoDBMapper, true);
+
+        // WHEN
+        int rewritten = backfill.backfillMaps(Device.class);
+
+        // THEN
+        assertEquals(2, rewritten);
+        verify(amazonDynamoDB, never()).updateItem(any(UpdateItemRequest.class));
+    }
+}
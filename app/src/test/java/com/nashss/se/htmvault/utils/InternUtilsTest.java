@@ -0,0 +1,31 @@
+package com.nashss.se.htmvault.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class InternUtilsTest {
+
+    @Test
+    void intern_equalValues_returnsSameInstance() {
+        // GIVEN
+        String first = new String("Main Hospital");
+        String second = new String("Main Hospital");
+
+        // WHEN
+        String internedFirst = InternUtils.intern(first);
+        String internedSecond = InternUtils.intern(second);
+
+        // THEN
+        assertEquals("Main Hospital", internedSecond);
+        assertSame(internedFirst, internedSecond, "Expected equal values to be interned to one instance");
+    }
+
+    @Test
+    void intern_null_returnsNull() {
+        // WHEN & THEN
+        assertNull(InternUtils.intern(null));
+    }
+}
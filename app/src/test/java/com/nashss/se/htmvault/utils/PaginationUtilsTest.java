@@ -0,0 +1,67 @@
+package com.nashss.se.htmvault.utils;
+
+import com.nashss.se.htmvault.exceptions.InvalidAttributeValueException;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PaginationUtilsTest {
+
+    @Test
+    void parseLimit_nullLimit_returnsDefault() {
+        // WHEN
+        int result = PaginationUtils.parseLimit(null, 50, 200);
+
+        // THEN
+        assertEquals(50, result);
+    }
+
+    @Test
+    void parseLimit_limitAboveMax_returnsMax() {
+        // WHEN
+        int result = PaginationUtils.parseLimit("5000", 50, 200);
+
+        // THEN
+        assertEquals(200, result);
+    }
+
+    @Test
+    void parseLimit_nonNumericLimit_throwsInvalidAttributeValueException() {
+        // WHEN & THEN
+        assertThrows(InvalidAttributeValueException.class, () -> PaginationUtils.parseLimit("ten", 50, 200));
+    }
+
+    @Test
+    void encodeNextToken_thenDecode_returnsOriginalKey() {
+        // GIVEN
+        Map<String, AttributeValue> key = Map.of(
+                "controlNumber", new AttributeValue().withS("123456789"),
+                "sequence", new AttributeValue().withN("42"));
+
+        // WHEN
+        String token = PaginationUtils.encodeNextToken(key);
+
+        // THEN
+        assertEquals(key, PaginationUtils.decodeNextToken(token));
+    }
+
+    @Test
+    void encodeNextToken_noKey_returnsNull() {
+        // WHEN & THEN
+        assertNull(PaginationUtils.encodeNextToken(null));
+        assertNull(PaginationUtils.encodeNextToken(Map.of()));
+    }
+
+    @Test
+    void decodeNextToken_tamperedToken_throwsInvalidAttributeValueException() {
+        // WHEN & THEN
+        assertThrows(InvalidAttributeValueException.class, () -> PaginationUtils.decodeNextToken("not-a-token"));
+    }
+}
@@ -15,7 +15,7 @@ export default class HTMVaultClient extends BindingClass {
     constructor(props = {}) {
         super();
 
-        const methodsToBind = ['clientLoaded', 'getIdentity', 'login', 'logout', 'addDevice', 'getDevice', 'getDeviceWorkOrders', 'retireDevice', 'reactivateDevice', 'updateDevice',
+        const methodsToBind = ['clientLoaded', 'getIdentity', 'login', 'logout', 'addDevice', 'getDevice', 'getDeviceWorkOrders', 'getFacilityBacklog', 'retireDevice', 'reactivateDevice', 'updateDevice',
          'createWorkOrder', 'getWorkOrder', 'updateWorkOrder', 'closeWorkOrder', 'getManufacturersAndModels', 'getFacilitiesAndDepartments'];
         this.bindClassMethods(methodsToBind, this);
 
@@ -23,6 +23,8 @@ export default class HTMVaultClient extends BindingClass {
         this.props = props;
 
         axios.defaults.baseURL = process.env.API_BASE_URL;
+        // asks for compressed responses, which API Gateway sends only for its binary media type (see template.yaml)
+        axios.defaults.headers.common['Accept'] = 'application/vnd.htmvault+json, application/json';
         this.axiosClient = axios;
         this.clientLoaded();
     }
@@ -279,8 +281,9 @@ export default class HTMVaultClient extends BindingClass {
      * @param {*} workOrderType the type of work order (i.e. repair, preventative maintenance, etc.)
      * @param {*} problemReported the problem reported, in the case of a repair, or in the case of a PM type work order for example, a message indicating 'no issue, pm needed'
      * @param {*} problemFound the problem found after diagnosis by the technician (optional at time of creation)
+     * @param {*} order the order in which the device's work orders are sorted on the page
      * @param {*} errorCallback (Optional) A function to execute if the call fails.
-     * @returns the metadata of the device's work orders, if successful in creating the new one (including the new one)
+     * @returns the metadata of the new work order, and the new version of the device's list of work orders, if successful in creating it
      */
     async createWorkOrder(controlNumber, workOrderType, problemReported, problemFound, order, errorCallback) {
         try {
@@ -296,23 +299,57 @@ export default class HTMVaultClient extends BindingClass {
                     Authorization: `Bearer ${token}`
                 }
             });
-            return response.data.workOrders;
+            return response.data;
         } catch (error) {
             this.handleError(error, errorCallback)
         }
     }
 
     /**
-     * Method to obtain a device's work orders
+     * Method to obtain a device's work orders, one page at a time
      * @param {*} controlNumber the unique identifier of the device
      * @param {*} order the order in which to sort the device's work orders
+     * @param {*} nextToken (Optional) The token returned with the previous page of work orders, to get the next page.
      * @param {*} errorCallback (Optional) A function to execute if the call fails.
-     * @returns the metadata of the device's work orders, if successfully obtained
+     * @returns the page of the device's work orders, and the token for the next page (if any), if successfully obtained
      */
-    async getDeviceWorkOrders(controlNumber, order, errorCallback) {
+    async getDeviceWorkOrders(controlNumber, order, nextToken, errorCallback) {
         try {
-            const response = await this.axiosClient.get(`devices/${controlNumber}/workOrders?order=${order}`);
-            return response.data.workOrders;
+            const queryParams = new URLSearchParams();
+            if (order) {
+                queryParams.append('order', order);
+            }
+            if (nextToken) {
+                queryParams.append('nextToken', nextToken);
+            }
+            const response = await this.axiosClient.get(`devices/${controlNumber}/workOrders?${queryParams.toString()}`);
+            return response.data;
+        } catch (error) {
+            this.handleError(error, errorCallback)
+        }
+    }
+
+    /**
+     * Method to obtain a facility's backlog of outstanding work orders, one page at a time
+     * @param {*} facilityName the facility whose backlog to get
+     * @param {*} assignedDepartment (Optional) the department within the facility to limit the backlog to
+     * @param {*} nextToken (Optional) The token returned with the previous page of work orders, to get the next page.
+     * @param {*} errorCallback (Optional) A function to execute if the call fails.
+     * @returns the page of the facility's outstanding work orders, and the token for the next page (if any), if
+     * successfully obtained
+     */
+    async getFacilityBacklog(facilityName, assignedDepartment, nextToken, errorCallback) {
+        try {
+            const queryParams = new URLSearchParams();
+            queryParams.append('facility', facilityName);
+            if (assignedDepartment) {
+                queryParams.append('department', assignedDepartment);
+            }
+            if (nextToken) {
+                queryParams.append('nextToken', nextToken);
+            }
+            const response = await this.axiosClient.get(`backlog?${queryParams.toString()}`);
+            return response.data;
         } catch (error) {
             this.handleError(error, errorCallback)
         }
@@ -354,19 +391,23 @@ export default class HTMVaultClient extends BindingClass {
     }
 
     /**
-     * Searches for a device.
+     * Searches for a device, one page at a time.
      * @param criteria A string containing search criteria to pass to the API.
+     * @param nextToken (Optional) The token returned with the previous page of results, to get the next page.
      * @param errorCallback (Optional) A function to execute if the call fails.
-     * @returns The devices that match the search criteria.
+     * @returns The page of devices that match the search criteria, and the token for the next page (if any).
      */
-    async search(criteria, errorCallback) {
+    async search(criteria, nextToken, errorCallback) {
         try {
             const queryParams = new URLSearchParams({ q: criteria })
+            if (nextToken) {
+                queryParams.append('nextToken', nextToken);
+            }
             const queryString = queryParams.toString();
 
             const response = await this.axiosClient.get(`devices/search?${queryString}`);
 
-            return response.data.devices;
+            return response.data;
         } catch (error) {
             this.handleError(error, errorCallback)
         }
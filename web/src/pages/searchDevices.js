@@ -16,9 +16,11 @@ The "KEY" constants will be reused a few times below.
 
 const SEARCH_CRITERIA_KEY = 'search-criteria';
 const SEARCH_RESULTS_KEY = 'search-results';
+const NEXT_TOKEN_KEY = 'next-token';
 const EMPTY_DATASTORE_STATE = {
     [SEARCH_CRITERIA_KEY]: '',
     [SEARCH_RESULTS_KEY]: [],
+    [NEXT_TOKEN_KEY]: null,
 };
 
 
@@ -29,7 +31,8 @@ class SearchDevices extends BindingClass {
     constructor() {
         super();
 
-        this.bindClassMethods(['mount', 'search', 'displaySearchResults', 'getHTMLForSearchResults'], this);
+        this.bindClassMethods(['mount', 'search', 'loadMore', 'displaySearchResults', 'getHTMLForSearchResults'],
+            this);
 
         // Create a new datastore with an initial "empty" state.
         this.dataStore = new DataStore(EMPTY_DATASTORE_STATE);
@@ -45,6 +48,7 @@ class SearchDevices extends BindingClass {
         // Wire up the form's 'submit' event and the button's 'click' event to the search method.
         document.getElementById('search-devices-form').addEventListener('submit', this.search);
         document.getElementById('search-btn').addEventListener('click', this.search);
+        document.getElementById('load-more-btn').addEventListener('click', this.loadMore);
 
         this.header.addHeaderToPage();
 
@@ -69,17 +73,41 @@ class SearchDevices extends BindingClass {
         }
 
         if (searchCriteria) {
-            const results = await this.client.search(searchCriteria);
+            const page = await this.client.search(searchCriteria);
 
             this.dataStore.setState({
                 [SEARCH_CRITERIA_KEY]: searchCriteria,
-                [SEARCH_RESULTS_KEY]: results,
+                [SEARCH_RESULTS_KEY]: page.devices,
+                [NEXT_TOKEN_KEY]: page.nextToken,
             });
         } else {
             this.dataStore.setState(EMPTY_DATASTORE_STATE);
         }
     }
 
+    /**
+     * Uses the client to get the next page of results for the current search criteria,
+     * then appends them to the results in the datastore.
+     * @param evt The "event" object representing the user-initiated event that triggered this method.
+     */
+    async loadMore(evt) {
+        evt.preventDefault();
+
+        const searchCriteria = this.dataStore.get(SEARCH_CRITERIA_KEY);
+        const nextToken = this.dataStore.get(NEXT_TOKEN_KEY);
+        if (!nextToken) {
+            return;
+        }
+
+        const page = await this.client.search(searchCriteria, nextToken);
+
+        this.dataStore.setState({
+            [SEARCH_CRITERIA_KEY]: searchCriteria,
+            [SEARCH_RESULTS_KEY]: this.dataStore.get(SEARCH_RESULTS_KEY).concat(page.devices),
+            [NEXT_TOKEN_KEY]: page.nextToken,
+        });
+    }
+
     /**
      * Pulls search results from the datastore and displays them on the html page.
      */
@@ -90,6 +118,13 @@ class SearchDevices extends BindingClass {
         const searchResultsContainer = document.getElementById('search-results-container');
         const searchCriteriaDisplay = document.getElementById('search-criteria-display');
         const searchResultsDisplay = document.getElementById('search-results-display');
+        const loadMoreButton = document.getElementById('load-more-btn');
+
+        if (this.dataStore.get(NEXT_TOKEN_KEY)) {
+            loadMoreButton.classList.remove('hidden');
+        } else {
+            loadMoreButton.classList.add('hidden');
+        }
 
         if (searchCriteria === '') {
             searchResultsContainer.classList.add('hidden');
@@ -11,7 +11,7 @@ class ViewDevice extends BindingClass {
         super();
         // bind the class methods to this object instance to keep track of state
         this.bindClassMethods(['clientLoaded', 'submitRetire', 'submitReactivate', 'mount', 'addDeviceToPage',
-         'addWorkOrdersToPage', 'cancelUpdatesDevice', 'createWorkOrder', 'displayUpdateDeviceForm', 'submitDeviceUpdates',
+         'addWorkOrdersToPage', 'loadMoreWorkOrders', 'cancelUpdatesDevice', 'createWorkOrder', 'displayUpdateDeviceForm', 'submitDeviceUpdates',
           'populateManufacturers', 'populateModels', 'populateFacilities', 'populateDepartments'], this);
 
         // the datastore to store page information
@@ -60,12 +60,16 @@ class ViewDevice extends BindingClass {
         // notify user that the device's maintenance records are being loaded
         document.getElementById('work-orders').innerText = "(loading work orders...)";
 
-        // call the client to get the work orders, returning them in the order specified (i.e. descending or ascending)
-        const workOrders = await this.client.getDeviceWorkOrders(deviceId, order);
+        // call the client to get the first page of work orders, returning them in the order specified (i.e. descending or ascending)
+        const workOrdersPage = await this.client.getDeviceWorkOrders(deviceId, order);
 
         // update the datastore with the work orders, which calls the method to add the work orders to
         // the page, due to the change listener in the class constructor
-        this.dataStore.set('workOrders', workOrders);
+        this.dataStore.setState({
+            'workOrdersVersion': device.workOrdersVersion,
+            'workOrdersNextToken': workOrdersPage == null ? null : workOrdersPage.nextToken,
+            'workOrders': workOrdersPage == null ? null : workOrdersPage.workOrders,
+        });
 
         // pull and store a list of manufacturers and their associated models for populating the drop down selection on the update
         // device form
@@ -91,6 +95,7 @@ class ViewDevice extends BindingClass {
         document.getElementById('cancel-updates-device').addEventListener('click', this.cancelUpdatesDevice);
         document.getElementById('manufacturer-drop-down').addEventListener('change', this.populateModels);
         document.getElementById('facility-drop-down').addEventListener('change', this.populateDepartments);
+        document.getElementById('load-more-work-orders').addEventListener('click', this.loadMoreWorkOrders);
 
         this.header.addHeaderToPage();
 
@@ -514,12 +519,45 @@ class ViewDevice extends BindingClass {
         document.getElementById('device-notes').innerText = device.notes;
     }
 
+    /**
+     * Method to run when the load more work orders button is pressed. Gets the next page of the device's work orders, and
+     * appends them to the work orders in the datastore.
+     */
+    async loadMoreWorkOrders(evt) {
+        evt.preventDefault();
+
+        const nextToken = this.dataStore.get('workOrdersNextToken');
+        if (!nextToken) {
+            return;
+        }
+
+        const urlParams = new URLSearchParams(window.location.search);
+        const workOrdersPage = await this.client.getDeviceWorkOrders(urlParams.get('controlNumber'), urlParams.get('order'),
+            nextToken);
+        if (workOrdersPage == null) {
+            return;
+        }
+
+        this.dataStore.setState({
+            'workOrdersNextToken': workOrdersPage.nextToken,
+            'workOrders': this.dataStore.get('workOrders').concat(workOrdersPage.workOrders),
+        });
+    }
+
     /**
      * When the work orders are updated in the datastore, update the list of work orders on the page.
      */
     addWorkOrdersToPage() {
         const workOrders = this.dataStore.get('workOrders')
 
+        // only offer to load more work orders while there is another page of them
+        const loadMoreButton = document.getElementById('load-more-work-orders');
+        if (this.dataStore.get('workOrdersNextToken')) {
+            loadMoreButton.classList.remove('hidden');
+        } else {
+            loadMoreButton.classList.add('hidden');
+        }
+
         // if no work orders, display a message indicating, so the user knows the work order list is not still being retrieved
         if (workOrders == null || workOrders.length == 0) {
             document.getElementById('work-orders').innerHTML = 'No work orders found';
@@ -602,8 +640,8 @@ class ViewDevice extends BindingClass {
         const urlParams = new URLSearchParams(window.location.search);
         const order = urlParams.get('order');
 
-        // the client call to obtain this device's list of work orders
-        const workOrderList = await this.client.createWorkOrder(controlNumber, workOrderType, problemReported, problemFound, order, (error) => {
+        // the client call to create the work order, returning the new work order and the new version of this device's list of work orders
+        const created = await this.client.createWorkOrder(controlNumber, workOrderType, problemReported, problemFound, order, (error) => {
             // if there's an error, set the error element with the error returned and unhide the element
             errorMessageDisplay.innerText = `Error: ${error.message}`;
             errorMessageDisplay.classList.remove('hidden');           
@@ -611,8 +649,28 @@ class ViewDevice extends BindingClass {
 
         // if successful in creating the work order, update the datastore with the updated list of work orders, which will cause the view to update accordingly
         // due to the change listener
-        if (!(workOrderList == null)) {
-            this.dataStore.set('workOrders', workOrderList);
+        if (!(created == null)) {
+            // being open and the most recently created, the new work order belongs at the start of the list (descending) or at its
+            // end (ascending), which is only among the loaded work orders once every page has been loaded
+            const ascending = order == 'ASCENDING';
+            const endLoaded = !ascending || this.dataStore.get('workOrdersNextToken') == null;
+            if (created.workOrdersVersion == this.dataStore.get('workOrdersVersion') + 1 && endLoaded) {
+                // nothing else has been added since the list was loaded, so merge the new work order into it
+                const workOrders = this.dataStore.get('workOrders') || [];
+                this.dataStore.setState({
+                    'workOrdersVersion': created.workOrdersVersion,
+                    'workOrders': ascending ? workOrders.concat([created.workOrder]) : [created.workOrder].concat(workOrders),
+                });
+            } else {
+                // other work orders have been added in the meantime, or the new one belongs on a page not yet loaded, so reload the
+                // first page of the list
+                const workOrdersPage = await this.client.getDeviceWorkOrders(controlNumber, order);
+                this.dataStore.setState({
+                    'workOrdersVersion': created.workOrdersVersion,
+                    'workOrdersNextToken': workOrdersPage == null ? null : workOrdersPage.nextToken,
+                    'workOrders': workOrdersPage == null ? [created.workOrder] : workOrdersPage.workOrders,
+                });
+            }
             // reset the create work order form for the next potential request
             document.getElementById("create-new-work-order-form").reset();
 